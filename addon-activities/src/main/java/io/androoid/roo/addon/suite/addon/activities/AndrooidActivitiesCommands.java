@@ -14,6 +14,8 @@ import org.springframework.roo.shell.CliCommand;
 import org.springframework.roo.shell.CliOption;
 import org.springframework.roo.shell.CommandMarker;
 
+import io.androoid.roo.addon.suite.support.AndrooidBatchOperations;
+
 /**
  * Androoid ActivitiesCommands class. This class provides all necessary commands
  * to generate android activities based on current application entity model.
@@ -34,6 +36,9 @@ public class AndrooidActivitiesCommands implements CommandMarker {
   @Reference
   private AndrooidActivitiesOperations activitiesOperations;
 
+  @Reference
+  private AndrooidBatchOperations batchOperations;
+
   /**
    * Activity layer setup is only available if exists a generated project
    * 
@@ -51,8 +56,13 @@ public class AndrooidActivitiesCommands implements CommandMarker {
       value = "androoid activity setup",
       help = "Generates Android activity layer structure with all necessary components for activity layer.")
   public void setup() {
-    // Install activity layer components
-    activitiesOperations.setup();
+    // Files modified by the command are written once
+    batchOperations.run(new Runnable() {
+      public void run() {
+        // Install activity layer components
+        activitiesOperations.setup();
+      }
+    });
   }
 
   /**
@@ -68,7 +78,12 @@ public class AndrooidActivitiesCommands implements CommandMarker {
       @CliOption(key = "entity", mandatory = true,
           help = "Name of the existing Androoid Entity associated with the new activity") final JavaType entity) {
 
-    // Add new Activity related with an existing entity
-    activitiesOperations.add(entity);
+    // Files modified by the command are written once
+    batchOperations.run(new Runnable() {
+      public void run() {
+        // Add new Activity related with an existing entity
+        activitiesOperations.add(entity);
+      }
+    });
   }
 }
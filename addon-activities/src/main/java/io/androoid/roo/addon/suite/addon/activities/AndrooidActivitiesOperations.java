@@ -37,4 +37,13 @@ public interface AndrooidActivitiesOperations extends Feature {
    */
   void add(JavaType entity);
 
+  /**
+   * Includes the utility classes used by generated activities
+   * (BackgroundExecutor, ListRowViewHolder, GeocodingPipeline and
+   * GeocodingScheduler) if they don't exist yet. Invoked by setup and add
+   * commands, so projects created by previous versions get the utilities new
+   * activities reference.
+   */
+  void addUtilities();
+
 }
@@ -1,8 +1,10 @@
 package io.androoid.roo.addon.suite.addon.activities;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Modifier;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -12,6 +14,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.logging.Logger;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
@@ -59,6 +62,9 @@ import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidListActi
 import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidMainActivity;
 import io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity;
 import io.androoid.roo.addon.suite.addon.manifest.manager.AndrooidManifestOperations;
+import io.androoid.roo.addon.suite.support.AndrooidBatchOperations;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptorService;
 import io.androoid.roo.addon.suite.support.AndrooidUtils;
 
 /**
@@ -71,6 +77,28 @@ import io.androoid.roo.addon.suite.support.AndrooidUtils;
 @Service
 public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOperations {
 
+  /**
+   * Utility classes referenced by generated activities
+   */
+  private static final String[] UTILITIES = {"BackgroundExecutor", "ListRowViewHolder",
+      "GeocodingPipeline"};
+
+  /**
+   * Utility classes installed from the sources of this add-on instead of
+   * templates. They don't depend on Android, so they are tested with the
+   * add-on. Their package is replaced by the utils package of the project.
+   */
+  private static final String[] SOURCE_UTILITIES = {"GeocodingScheduler"};
+  private static final String SOURCE_UTILITIES_PACKAGE =
+      "io.androoid.roo.addon.suite.addon.activities.utils";
+
+  /**
+   * Resource folders installed on src/main/res by activity layer setup
+   */
+  private static final String[] INSTALLABLE_RESOURCE_FOLDERS = {"drawable", "drawable-hdpi",
+      "drawable-mdpi", "drawable-xhdpi", "drawable-xxhdpi", "menu", "mipmap-xhdpi", "values",
+      "values-w820dp"};
+
   /**
    * Get hold of a JDK Logger
    */
@@ -78,11 +106,23 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
 
   private ComponentContext cContext;
 
+  /**
+   * Resources installed by activity layer setup, by path relative to
+   * src/main/res folder
+   */
+  private Map<String, URL> installableResources;
+
   @Reference
   private FileManager fileManager;
   @Reference
   private ProjectOperations projectOperations;
   @Reference
+  private AndrooidBatchOperations batchOperations;
+  @Reference
+  private AndrooidLabelRegistry labelRegistry;
+  @Reference
+  private AndrooidEntityDescriptorService entityDescriptorService;
+  @Reference
   private PathResolver pathResolver;
   @Reference
   private AndrooidUtils operationsUtils;
@@ -97,6 +137,10 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
 
   protected void activate(final ComponentContext componentContext) {
     cContext = componentContext;
+
+    // Indexing installable resources once
+    installableResources =
+        operationsUtils.findResources(componentContext, getClass(), INSTALLABLE_RESOURCE_FOLDERS);
   }
 
   /** {@inheritDoc} */
@@ -114,6 +158,7 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
 
     // Including utilities
     addActionBarCallbackUtility(projectOperations.getFocusedTopLevelPackage());
+    addUtilities();
 
     // Update AndroidManifest.xml with basic configuration
     Map<String, String> attributes = new HashMap<String, String>();
@@ -182,6 +227,83 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
 
   }
 
+  /** {@inheritDoc} */
+  public void addUtilities() {
+    for (String utilityName : UTILITIES) {
+      addUtilityFromTemplate(projectOperations.getFocusedTopLevelPackage(), utilityName);
+    }
+    for (String utilityName : SOURCE_UTILITIES) {
+      addUtilityFromSource(projectOperations.getFocusedTopLevelPackage(), utilityName);
+    }
+  }
+
+  /**
+   * Method that includes an utility class from its template if it doesn't
+   * exist yet. Generated activities use BackgroundExecutor to run database
+   * operations outside the UI thread, ListRowViewHolder to bind list rows and
+   * GeocodingPipeline to locate the addresses of GEO fields.
+   * 
+   * @param projectPackage
+   *            JavaPackage that indicates generated project package
+   * @param utilityName
+   *            simple name of the utility class and its template
+   * 
+   */
+  private void addUtilityFromTemplate(JavaPackage projectPackage, String utilityName) {
+    addUtility(projectPackage, utilityName,
+        String.format("java/%s-template._java", utilityName), "__UTILS_PACKAGE__");
+  }
+
+  /**
+   * Method that includes an utility class from the sources of this add-on if
+   * it doesn't exist yet. GeocodingPipeline uses GeocodingScheduler to
+   * debounce, coalesce and cancel geocoding lookups.
+   * 
+   * @param projectPackage
+   *            JavaPackage that indicates generated project package
+   * @param utilityName
+   *            simple name of the utility class
+   */
+  private void addUtilityFromSource(JavaPackage projectPackage, String utilityName) {
+    addUtility(projectPackage, utilityName, String.format("utils/%s.java", utilityName),
+        SOURCE_UTILITIES_PACKAGE);
+  }
+
+  /**
+   * Includes an utility class on the utils package of the generated project
+   * if it doesn't exist yet
+   * 
+   * @param projectPackage
+   *            JavaPackage that indicates generated project package
+   * @param utilityName
+   *            simple name of the utility class
+   * @param source
+   *            resource with the source of the utility class
+   * @param sourcePackage
+   *            text of the source replaced by the utils package
+   */
+  private void addUtility(JavaPackage projectPackage, String utilityName, String source,
+      String sourcePackage) {
+    String utilsPackage = projectPackage.getFullyQualifiedPackageName().concat(".utils");
+    final JavaType javaType = new JavaType(utilsPackage.concat(".").concat(utilityName));
+    final String physicalPath = pathResolver.getFocusedCanonicalPath(Path.SRC_MAIN_JAVA, javaType);
+    if (fileManager.exists(physicalPath)) {
+      return;
+    }
+    InputStream inputStream = null;
+    try {
+      inputStream = FileUtils.getInputStream(getClass(), source);
+      String input = IOUtils.toString(inputStream);
+      // Replacing .utils package
+      input = input.replace(sourcePackage, utilsPackage);
+      fileManager.createOrUpdateTextFileIfRequired(physicalPath, input, false);
+    } catch (final IOException e) {
+      throw new IllegalStateException("Unable to create '" + physicalPath + "'", e);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+  }
+
   /**
    * Method that generates onCreateActionMode method
    * 
@@ -337,6 +459,10 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
             + "Only Androoid Entity classes could be used to generate new Androoid Activities.",
         entity.getSimpleTypeName()));
 
+    // Projects created before some utilities existed need them to generate
+    // the new activities
+    addUtilities();
+
     // Generate new List activity
     addListActivity(entity);
 
@@ -422,7 +548,7 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
         FileUtils.getInputStream(getClass(), "layout/list_activity.xml");
 
     // Include all necessary labels on strings.xml file
-    addLabel(String.format("title_activity_%s", entityName.toLowerCase()),
+    labelRegistry.addLabel(String.format("title_activity_%s", entityName.toLowerCase()),
         entity.getSimpleTypeName());
 
     final Document listFile = XmlUtils.readXml(templateInputStream);
@@ -506,14 +632,12 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
         "android.support.PARENT_ACTIVITY", listActivityName);
 
     // Include all necessary labels on strings.xml file
-    addLabel(String.format("title_activity_%s_form", entityName.toLowerCase()),
-        entity.getSimpleTypeName());
-    addLabel(String.format("title_activity_%s_form_create", entityName.toLowerCase()),
+    String formTitle = String.format("title_activity_%s_form", entityName.toLowerCase());
+    labelRegistry.addLabel(formTitle, entity.getSimpleTypeName());
+    labelRegistry.addLabel(formTitle.concat("_create"),
         "Add New ".concat(entity.getSimpleTypeName()));
-    addLabel(String.format("title_activity_%s_form_update", entityName.toLowerCase()),
-        "Edit ".concat(entity.getSimpleTypeName()));
-    addLabel(String.format("title_activity_%s_form_show", entityName.toLowerCase()),
-        "Show ".concat(entity.getSimpleTypeName()));
+    labelRegistry.addLabel(formTitle.concat("_update"), "Edit ".concat(entity.getSimpleTypeName()));
+    labelRegistry.addLabel(formTitle.concat("_show"), "Show ".concat(entity.getSimpleTypeName()));
 
     // Include entity_form_activity.xml view file
     final InputStream templateInputStream =
@@ -524,6 +648,7 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
     root.setAttribute("tools:context", formActivityName);
 
     // Including all necessary fields on form view
+    AndrooidEntityDescriptor entityDescriptor = entityDescriptorService.getDescriptor(entity);
     Set<ClassOrInterfaceTypeDetails> allEntities =
         typeLocationService.findClassesOrInterfaceDetailsWithAnnotation(new JavaType(
             AndrooidEntity.class));
@@ -554,14 +679,25 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
             generatedId = generatedIdAttr.getValue();
           }
 
+          // GEO fields are included once, replacing their coordinate fields
+          JavaSymbolName viewFieldName = field.getFieldName();
+          String fieldViewType = getFieldViewTypeOnActivity(field);
+          String geoFieldName = entityDescriptor.getGeoFieldName(field);
+          if (geoFieldName != null) {
+            if (!field.getFieldName().getSymbolName().equals(geoFieldName.concat("Latitude"))) {
+              continue;
+            }
+            viewFieldName = new JavaSymbolName(geoFieldName);
+            fieldViewType = "mapView";
+          }
+
           if (!generatedId) {
-            String fieldViewType = getFieldViewTypeOnActivity(field);
             String fieldViewLabel =
                 entity.getSimpleTypeName().toLowerCase().concat("_")
-                    .concat(field.getFieldName().getSymbolName().toLowerCase());
+                    .concat(viewFieldName.getSymbolName().toLowerCase());
             String fieldViewName =
                 entity.getSimpleTypeName().toLowerCase().concat("_")
-                    .concat(field.getFieldName().getSymbolName().toLowerCase()).concat("_")
+                    .concat(viewFieldName.getSymbolName().toLowerCase()).concat("_")
                     .concat(fieldViewType);
 
             // Creating label
@@ -576,7 +712,7 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
             root.appendChild(labelElement);
 
             // Creating value of label above
-            addLabel(fieldViewLabel, field.getFieldName().getReadableSymbolName());
+            labelRegistry.addLabel(fieldViewLabel, viewFieldName.getReadableSymbolName());
 
             // Creating element depending of its type
             if (fieldViewType.equals("text")) {
@@ -610,29 +746,6 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
     XmlUtils.writeXml(formActivityMutableFile.getOutputStream(), formFile);
   }
 
-  /**
-   * This method will include all necessary labels inside strings.xml file for
-   * the provided entity
-   * 
-   * @param title title of the label to add
-   * @param value the value of the label
-   */
-  private void addLabel(String title, String value) {
-
-    final InputStream templateInputStream = getStringsMutableFile().getInputStream();
-
-    final Document stringsFile = XmlUtils.readXml(templateInputStream);
-    final Element root = stringsFile.getDocumentElement();
-
-    Element stringElement = stringsFile.createElement("string");
-    stringElement.setAttribute("name", title);
-    stringElement.setTextContent(value);
-    root.appendChild(stringElement);
-
-    XmlUtils.writeXml(getStringsMutableFile().getOutputStream(), stringsFile);
-
-  }
-
   /**
    * Method that generates onItemCheckedStateChanged ListActivity method
    * 
@@ -999,74 +1112,10 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
    */
   private void addBasicFiles(JavaPackage applicationPackage) {
 
-    // Installing all drawable resources
-    operationsUtils.updateDirectoryContents("drawable/*.xml", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable"), fileManager, cContext,
-        getClass());
-    operationsUtils.updateDirectoryContents("drawable/*.png", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable"), fileManager, cContext,
-        getClass());
-
-    // Installing all drawable-hdpi resources
-    operationsUtils.updateDirectoryContents("drawable-hdpi/*.xml", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-hdpi"), fileManager,
-        cContext, getClass());
-    operationsUtils.updateDirectoryContents("drawable-hdpi/*.png", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-hdpi"), fileManager,
-        cContext, getClass());
-
-    // Installing all drawable-mdpi resources
-    operationsUtils.updateDirectoryContents("drawable-mdpi/*.xml", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-mdpi"), fileManager,
-        cContext, getClass());
-    operationsUtils.updateDirectoryContents("drawable-mdpi/*.png", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-mdpi"), fileManager,
-        cContext, getClass());
-
-    // Installing all drawable-xhdpi resources
-    operationsUtils.updateDirectoryContents("drawable-xhdpi/*.xml", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-xhdpi"), fileManager,
-        cContext, getClass());
-    operationsUtils.updateDirectoryContents("drawable-xhdpi/*.png", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-xhdpi"), fileManager,
-        cContext, getClass());
-
-    // Installing all drawable-xxhdpi resources
-    operationsUtils.updateDirectoryContents("drawable-xxhdpi/*.xml", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-xxhdpi"), fileManager,
-        cContext, getClass());
-    operationsUtils.updateDirectoryContents("drawable-xxhdpi/*.png", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/drawable-xxhdpi"), fileManager,
-        cContext, getClass());
-
-    // Installing all menu resources
-    operationsUtils.updateDirectoryContents("menu/*.xml",
-        pathResolver.getIdentifier(operationsUtils.getResourcesPath(projectOperations), "/menu"),
-        fileManager, cContext, getClass());
-
-    // Installing all mipmap-xhdpi resources
-    operationsUtils.updateDirectoryContents("mipmap-xhdpi/*.xml", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/mipmap-xhdpi"), fileManager,
-        cContext, getClass());
-    operationsUtils.updateDirectoryContents("mipmap-xhdpi/*.png", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/mipmap-xhdpi"), fileManager,
-        cContext, getClass());
-
-    // Installing all values resources
-    operationsUtils.updateDirectoryContents("values/*.xml",
-        pathResolver.getIdentifier(operationsUtils.getResourcesPath(projectOperations), "/values"),
-        fileManager, cContext, getClass());
-    operationsUtils.updateDirectoryContents("values/*.png",
-        pathResolver.getIdentifier(operationsUtils.getResourcesPath(projectOperations), "/values"),
-        fileManager, cContext, getClass());
-
-    // Installing all values resources
-    operationsUtils.updateDirectoryContents("values-w820dp/*.xml", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/values-w820dp"), fileManager,
-        cContext, getClass());
-    operationsUtils.updateDirectoryContents("values-w820dp/*.png", pathResolver.getIdentifier(
-        operationsUtils.getResourcesPath(projectOperations), "/values-w820dp"), fileManager,
-        cContext, getClass());
+    // Installing all drawable, menu, mipmap and values resources
+    operationsUtils.installResources(installableResources,
+        pathResolver.getIdentifier(operationsUtils.getResourcesPath(projectOperations), ""),
+        fileManager);
 
     // Copying basic strings.xml file with current application name
     InputStream stringsXmlFile =
@@ -1145,9 +1194,14 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
 
   /**
    * Method that uses configuration.xml file to install dependencies and
-   * properties on current pom.xml
+   * properties on current pom.xml. On a batch, dependencies are only
+   * installed once.
    */
   private void installDependencies() {
+    if (!batchOperations.isFirstExecution(getClass().getName().concat(".installDependencies"))) {
+      return;
+    }
+
     final Element configuration = XmlUtils.getConfiguration(getClass());
 
     // Add properties
@@ -1243,9 +1297,7 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
    * @return
    */
   public MutableFile getStringsMutableFile() {
-    String stringsXmlPath =
-        projectOperations.getPathResolver().getIdentifier(
-            LogicalPath.getInstance(Path.SRC_MAIN_RES, ""), "values/strings.xml");
+    String stringsXmlPath = getStringsPath();
     Validate
         .isTrue(fileManager.exists(stringsXmlPath), "src/main/res/values/strings.xml not found");
 
@@ -1260,6 +1312,16 @@ public class AndrooidActivitiesOperationsImpl implements AndrooidActivitiesOpera
     return stringsXmlMutableFile;
   }
 
+  /**
+   * This method obtains strings.xml canonical path
+   * 
+   * @return
+   */
+  private String getStringsPath() {
+    return projectOperations.getPathResolver().getIdentifier(
+        LogicalPath.getInstance(Path.SRC_MAIN_RES, ""), "values/strings.xml");
+  }
+
   /**
    * FEATURE METHODS
    */
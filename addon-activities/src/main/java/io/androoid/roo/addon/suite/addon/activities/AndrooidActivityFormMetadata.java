@@ -45,16 +45,35 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
 
   private static final JavaType ARRAY_ADAPTER_JAVATYPE =
       new JavaType("android.widget.ArrayAdapter");
+  private static final JavaType DATABASE_FIELD = new JavaType(
+      "com.j256.ormlite.field.DatabaseField");
+  private static final JavaType REFERENCED_FIELD = new JavaType(
+      "io.androoid.roo.addon.suite.addon.fields.annotations.AndrooidReferencedField");
+  private static final JavaType GEO_POINT = new JavaType("org.osmdroid.util.GeoPoint");
+  private static final JavaType SWITCH = new JavaType("android.widget.Switch");
+  private static final JavaType MAP_VIEW = new JavaType("org.osmdroid.views.MapView");
+  private static final JavaType OVERLAY_ITEM = new JavaType(
+      "org.osmdroid.views.overlay.OverlayItem");
+  private static final JavaType ITEMIZED_ICON_OVERLAY = new JavaType(
+      "org.osmdroid.views.overlay.ItemizedIconOverlay");
+  private static final JavaType SPINNER = new JavaType("android.widget.Spinner");
+  private static final JavaType EDIT_TEXT = new JavaType("android.widget.EditText");
   private static final String PROVIDES_TYPE_STRING = AndrooidActivityFormMetadata.class.getName();
   private static final String PROVIDES_TYPE = MetadataIdentificationUtils
       .create(PROVIDES_TYPE_STRING);
 
   private final ImportRegistrationResolver importResolver;
   private final JavaType entity;
+  private final JavaType entityIdFieldType;
   private final JavaPackage applicationPackage;
   private final List<FieldMetadata> entityFields;
+  private final List<FormField> formFields;
   private final Map<String, String> fieldNameLayout;
 
+  private final JavaType backgroundExecutorJavaType;
+  private final JavaType geocodingPipelineJavaType;
+  private final int geoSearchDelay;
+
   private boolean hasSpinners;
   private boolean hasGeoFields;
 
@@ -99,23 +118,35 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
    * @param entityIdFieldType
    *            JavaType that contains the type of the identifier field of the
    *            current entity
+   * @param geoSearchDelay
+   *            milliseconds to wait since the last change of a GEO field
+   *            address before locating it
    * 
    */
   public AndrooidActivityFormMetadata(final String identifier, final JavaType aspectName,
       final PhysicalTypeMetadata governorPhysicalTypeMetadata, JavaPackage projectPackage,
       JavaType entity, String entityIdFieldName, JavaType entityIdFieldType,
-      List<FieldMetadata> entityFields) {
+      List<FieldMetadata> entityFields, int geoSearchDelay) {
     super(identifier, aspectName, governorPhysicalTypeMetadata);
     Validate.isTrue(isValid(identifier),
         "Metadata identification string '%s' does not appear to be a valid", identifier);
 
     this.importResolver = builder.getImportRegistrationResolver();
     this.entity = entity;
+    this.entityIdFieldType = entityIdFieldType;
     this.applicationPackage = projectPackage;
     this.entityFields = entityFields;
+    this.formFields = buildFormFields();
     this.fieldNameLayout = new HashMap<String, String>();
     this.hasSpinners = false;
     this.hasGeoFields = false;
+    this.backgroundExecutorJavaType =
+        new JavaType(projectPackage.getFullyQualifiedPackageName().concat(
+            ".utils.BackgroundExecutor"));
+    this.geocodingPipelineJavaType =
+        new JavaType(projectPackage.getFullyQualifiedPackageName().concat(
+            ".utils.GeocodingPipeline"));
+    this.geoSearchDelay = geoSearchDelay;
 
     // Adding fields
     addFormActivityFields();
@@ -129,14 +160,30 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     }
     builder.addMethod(getDisableFormElementsMethod());
     builder.addMethod(getPopulateFormMethod());
+    builder.addMethod(getPopulateFormWithEntityMethod());
     builder.addMethod(getCreateMethod());
     builder.addMethod(getUpdateMethod());
     builder.addMethod(getOnCreateOptionsMenuMethod());
     builder.addMethod(getOnOptionsItemSelectedMethod());
+    builder.addMethod(getOnDestroyMethod());
+    builder.addMethod(getReleaseResourcesMethod());
+
+    // Adding methods that access Database outside the UI thread
+    if (hasSpinners) {
+      builder.addMethod(getPopulateSpinnersAsyncMethod());
+    }
+    builder.addMethod(getPopulateFormAsyncMethod());
+    builder.addMethod(getCreateAsyncMethod());
+    builder.addMethod(getUpdateAsyncMethod());
 
     // If has some GEO field means that should Override ProcessFinish method
     if (hasGeoFields) {
       builder.addMethod(getProcessFinishMethod());
+      for (FormField formField : formFields) {
+        if (formField.isGeo()) {
+          builder.addMethod(getUpdateMarkerMethod(formField));
+        }
+      }
     }
 
     // Create a representation of the desired output ITD
@@ -213,7 +260,6 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
       } else if (fieldName.endsWith("MapView")) {
         fieldType = "MapView";
         isMapView = true;
-        hasGeoFields = true;
       } else if (fieldName.endsWith("Spinner")) {
         fieldType = "Spinner";
         hasSpinners = true;
@@ -268,15 +314,68 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
         // mapController.setCenter(startPoint);
         bodyBuilder.appendFormalLine("mapController.setCenter(startPoint);");
 
+        buildCreateOverlayLines(bodyBuilder, fieldName);
+
         bodyBuilder.appendFormalLine("");
 
         // Adding event on street input
         bodyBuilder.appendFormalLine("// Adding event on street input");
 
-        // final Handler mHandler = new Handler();
-        bodyBuilder.appendFormalLine(String.format("final %s mHandler = new Handler();",
-            new JavaType("android.os.Handler")
-                .getNameIncludingTypeParameters(false, importResolver)));
+        String geocodingPipeline =
+            geocodingPipelineJavaType.getNameIncludingTypeParameters(false, importResolver);
+        if (!hasGeoFields) {
+          // geocodingPipeline = GeocodingPipeline.getInstance(this);
+          bodyBuilder.appendFormalLine(String.format(
+              "geocodingPipeline = %s.getInstance(this);", geocodingPipeline));
+          hasGeoFields = true;
+        }
+
+        // final GeocodingPipeline.Callback fieldGeoCallback = new
+        // GeocodingPipeline.Callback() {
+        String callbackName = textFieldName.concat("GeoCallback");
+        bodyBuilder.appendFormalLine(String.format("final %s.Callback %s = new %s.Callback() {",
+            geocodingPipeline, callbackName, geocodingPipeline));
+        bodyBuilder.indent();
+
+        // public void onResult(GeoPoint point) {
+        bodyBuilder.appendFormalLine(String.format("public void onResult(%s point) {",
+            GEO_POINT.getNameIncludingTypeParameters(false, importResolver)));
+        bodyBuilder.indent();
+
+        // Only the marker of this field is updated
+        bodyBuilder.appendFormalLine("// Only the marker of this field is updated");
+
+        // if(point == null){
+        bodyBuilder.appendFormalLine("if(point == null){");
+        bodyBuilder.indent();
+
+        // fieldText.setBackgroundColor(Color.parseColor("#ff9090"));
+        String color =
+            new JavaType("android.graphics.Color").getNameIncludingTypeParameters(false,
+                importResolver);
+        bodyBuilder.appendFormalLine(String.format(
+            "%s.setBackgroundColor(%s.parseColor(\"#ff9090\"));", textFieldName, color));
+        bodyBuilder.indentRemove();
+
+        // }else{
+        bodyBuilder.appendFormalLine("}else{");
+        bodyBuilder.indent();
+
+        // fieldText.setBackgroundColor(Color.WHITE);
+        bodyBuilder.appendFormalLine(String.format("%s.setBackgroundColor(%s.WHITE);",
+            textFieldName, color));
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
+
+        // updateFieldMarker("", point);
+        bodyBuilder.appendFormalLine(String.format("%s(\"\", point);",
+            getGeoFormField(fieldName).getGeoMarkerMethodName()));
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
+        bodyBuilder.indentRemove();
+
+        // };
+        bodyBuilder.appendFormalLine("};");
 
         // textFieldName.addTextChangedListener(new TextWatcher() {
         bodyBuilder.appendFormalLine(String.format("%s.addTextChangedListener(new %s() {",
@@ -288,13 +387,18 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
         bodyBuilder.appendFormalLine(String.format("public void afterTextChanged(%s s) {",
             new JavaType("android.text.Editable").getNameIncludingTypeParameters(false,
                 importResolver)));
-
-        // mHandler.removeCallbacks(mFilterTask);
         bodyBuilder.indent();
-        bodyBuilder.appendFormalLine("mHandler.removeCallbacks(mFilterTask);");
 
-        // mHandler.postDelayed(mFilterTask, 1000);
-        bodyBuilder.appendFormalLine("mHandler.postDelayed(mFilterTask, 1000);");
+        // Update map with address location. Previous lookup of this field
+        // is cancelled
+        bodyBuilder.appendFormalLine("// Update map with address location. Previous lookup of "
+            + "this field is cancelled");
+
+        // geocodingPipeline.geocode(fieldText, s.toString(), 1000,
+        // fieldGeoCallback);
+        bodyBuilder.appendFormalLine(String.format(
+            "geocodingPipeline.geocode(%s, s.toString(), %s, %s);", textFieldName,
+            geoSearchDelay, callbackName));
 
         bodyBuilder.indentRemove();
         bodyBuilder.appendFormalLine("}");
@@ -315,49 +419,6 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
             .appendFormalLine(String
                 .format("public void onTextChanged(CharSequence s, int start, int before, int count) {"));
         bodyBuilder.appendFormalLine("}");
-        bodyBuilder.appendFormalLine("");
-
-        // Runnable mFilterTask = new Runnable() {
-        bodyBuilder.appendFormalLine("Runnable mFilterTask = new Runnable() {");
-        bodyBuilder.indent();
-        bodyBuilder.appendFormalLine("@Override");
-
-        // public void run() {
-        bodyBuilder.appendFormalLine("public void run() {");
-        bodyBuilder.indent();
-
-        // // Creating AsyncTask to allow address search in async mode
-        bodyBuilder.appendFormalLine("// Creating AsyncTask to allow address search in async mode");
-
-        // addressSearchHelper = new AddressSearchHelper();
-        bodyBuilder.appendFormalLine("addressSearchHelper = new AddressSearchHelper();");
-
-        // addressSearchHelper.delegate = EntityFormActivity.this;
-        bodyBuilder.appendFormalLine(String.format(
-            "addressSearchHelper.delegate = %sFormActivity.this;", entity.getSimpleTypeName()));
-
-        // // Update map with address location
-        bodyBuilder.appendFormalLine("");
-        bodyBuilder.appendFormalLine(" // Update map with address location");
-
-        // String address = entityLocationText.getText().toString();
-        bodyBuilder.appendFormalLine(String.format("String address = %s.getText().toString();",
-            textFieldName));
-
-        // if (address != null) {
-        bodyBuilder.appendFormalLine("if (address != null) {");
-        bodyBuilder.indent();
-
-        // addressSearchHelper.execute(address);
-        bodyBuilder.appendFormalLine("addressSearchHelper.execute(address);");
-        bodyBuilder.indentRemove();
-        bodyBuilder.appendFormalLine("}");
-
-        bodyBuilder.indentRemove();
-        bodyBuilder.appendFormalLine("}");
-
-        bodyBuilder.indentRemove();
-        bodyBuilder.appendFormalLine("};");
 
         bodyBuilder.indentRemove();
 
@@ -373,7 +434,7 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     if (hasSpinners) {
       bodyBuilder.appendFormalLine("");
       bodyBuilder.appendFormalLine("// Populate spinners");
-      bodyBuilder.appendFormalLine("populateSpinners();");
+      bodyBuilder.appendFormalLine("populateSpinnersAsync();");
       bodyBuilder.appendFormalLine("");
     }
 
@@ -398,9 +459,9 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     // // Getting entity by id
     bodyBuilder.appendFormalLine("// Getting entity by id");
 
-    // populateForm(entityId);
-    bodyBuilder.appendFormalLine(String.format("populateForm(%s);", entity.getSimpleTypeName()
-        .toLowerCase().concat("Id")));
+    // populateFormAsync(entityId);
+    bodyBuilder.appendFormalLine(String.format("populateFormAsync(%s);", entity
+        .getSimpleTypeName().toLowerCase().concat("Id")));
 
     // // Disabling elements if is show view
     bodyBuilder.appendFormalLine("// Disabling elements if is show view");
@@ -484,96 +545,77 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.indent();
 
     // Getting all defined fields
-    for (FieldMetadata field : entityFields) {
+    for (FormField formField : formFields) {
+      FieldMetadata field = formField.getField();
+      // Getting fieldName
+      String fieldName = formField.getName();
 
-      // Checking if current field is a valid Database Field
-      AnnotationMetadata databaseFieldAnnotation =
-          field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-      if (databaseFieldAnnotation != null) {
+      // Populating all Spinner fields
+      if (formField.isSpinner()) {
 
-        // Checking if field is a generatedId field
-        AnnotationAttributeValue<Boolean> generatedIdAttr =
-            databaseFieldAnnotation.getAttribute("generatedId");
+        JavaType relatedFieldType = field.getFieldType();
+        String relatedFieldName = relatedFieldType.getSimpleTypeName().toLowerCase();
 
-        boolean generatedId = false;
+        // Populate relatedFieldName spinner
+        bodyBuilder.appendFormalLine(String.format("// Populate %s spinner", relatedFieldName));
 
-        if (generatedIdAttr != null) {
-          generatedId = generatedIdAttr.getValue();
-        }
+        // Dao<RelatedField, ?> relatedFieldDao =
+        // getHelper().getRelatedFieldDao();
+        bodyBuilder.appendFormalLine(String.format(
+            "Dao<%s, ?> %sDao = getHelper().get%sDao();",
+            relatedFieldType.getSimpleTypeName(), relatedFieldName,
+            relatedFieldType.getSimpleTypeName()));
+
+        // List<RelatedFields> results =
+        // relatedFieldDao.queryForAll();
+        bodyBuilder.appendFormalLine(String.format("%s<%s> %sResults = %sDao.queryForAll();",
+            new JavaType("java.util.List")
+                .getNameIncludingTypeParameters(false, importResolver), relatedFieldType
+                .getSimpleTypeName(), relatedFieldName, relatedFieldName));
+
+        // Creating relatedField ArrayList
+        bodyBuilder.appendFormalLine(String
+            .format("// Creating %s ArrayList", relatedFieldName));
+
+        // relatedFieldList = new ArrayList<RelatedField>();
+        bodyBuilder.appendFormalLine(String.format("%sList = new ArrayList<%s>();",
+            relatedFieldName, relatedFieldType.getSimpleTypeName()));
+
+        // for(RelatedFieldType result : results){
+        bodyBuilder.appendFormalLine(String.format("for(%s result : %s){",
+            relatedFieldType.getSimpleTypeName(), relatedFieldName.concat("Results")));
+        bodyBuilder.indent();
+
+        // relatedFieldList.add(result);
+        bodyBuilder.appendFormalLine(String.format("%sList.add(result);", relatedFieldName));
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
 
-        if (!generatedId) {
-          // Getting fieldName
-          String fieldName = getFieldNameOnActivity(field);
-          JavaType fieldType = getFieldTypeOnActivity(field);
-
-          // Populating all Spinner fields
-          if (fieldType.equals(new JavaType("android.widget.Spinner"))) {
-
-            JavaType relatedFieldType = field.getFieldType();
-            String relatedFieldName = relatedFieldType.getSimpleTypeName().toLowerCase();
-
-            // Populate relatedFieldName spinner
-            bodyBuilder.appendFormalLine(String.format("// Populate %s spinner", relatedFieldName));
-
-            // Dao<RelatedField, Integer> relatedFieldDao =
-            // getHelper().getRelatedFieldDao();
-            bodyBuilder.appendFormalLine(String.format(
-                "Dao<%s, Integer> %sDao = getHelper().get%sDao();",
-                relatedFieldType.getSimpleTypeName(), relatedFieldName,
-                relatedFieldType.getSimpleTypeName()));
-
-            // List<RelatedFields> results =
-            // relatedFieldDao.queryForAll();
-            bodyBuilder.appendFormalLine(String.format("%s<%s> %sResults = %sDao.queryForAll();",
-                new JavaType("java.util.List")
-                    .getNameIncludingTypeParameters(false, importResolver), relatedFieldType
-                    .getSimpleTypeName(), relatedFieldName, relatedFieldName));
-
-            // Creating relatedField ArrayList
-            bodyBuilder.appendFormalLine(String
-                .format("// Creating %s ArrayList", relatedFieldName));
-
-            // relatedFieldList = new ArrayList<RelatedField>();
-            bodyBuilder.appendFormalLine(String.format("%sList = new ArrayList<%s>();",
-                relatedFieldName, relatedFieldType.getSimpleTypeName()));
-
-            // for(RelatedFieldType result : results){
-            bodyBuilder.appendFormalLine(String.format("for(%s result : %s){",
-                relatedFieldType.getSimpleTypeName(), relatedFieldName.concat("Results")));
-            bodyBuilder.indent();
-
-            // relatedFieldList.add(result);
-            bodyBuilder.appendFormalLine(String.format("%sList.add(result);", relatedFieldName));
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
-
-            // // Creating array adapter
-            bodyBuilder.appendFormalLine("// Creating array adapter");
-
-            // ArrayAdapter adapter = new ArrayAdapter(this,
-            // android.R.layout.simple_list_item_1,
-            // relatedFieldList);
-            bodyBuilder
-                .appendFormalLine(String
-                    .format(
-                        "%s %sAdapter = new ArrayAdapter(this, android.R.layout.simple_list_item_1, %sList);",
-                        new JavaType("android.widget.ArrayAdapter").getNameIncludingTypeParameters(
-                            false, importResolver), relatedFieldName, relatedFieldName));
-
-            // // Setting adapter on spinner
-            bodyBuilder.appendFormalLine("// Setting adapter on spinner");
-
-            // fieldSpinner.setAdapter(adapter);
-            bodyBuilder.appendFormalLine(String.format("%s.setAdapter(%sAdapter);", fieldName,
-                relatedFieldName));
-
-            bodyBuilder.appendFormalLine("");
-            bodyBuilder.appendFormalLine("");
-
-          }
+        // // Creating array adapter
+        bodyBuilder.appendFormalLine("// Creating array adapter");
+
+        // ArrayAdapter adapter = new ArrayAdapter(this,
+        // android.R.layout.simple_list_item_1,
+        // relatedFieldList);
+        bodyBuilder
+            .appendFormalLine(String
+                .format(
+                    "%s %sAdapter = new ArrayAdapter(this, android.R.layout.simple_list_item_1, %sList);",
+                    new JavaType("android.widget.ArrayAdapter").getNameIncludingTypeParameters(
+                        false, importResolver), relatedFieldName, relatedFieldName));
+
+        // // Setting adapter on spinner
+        bodyBuilder.appendFormalLine("// Setting adapter on spinner");
+
+        // fieldSpinner.setAdapter(adapter);
+        bodyBuilder.appendFormalLine(String.format("%s.setAdapter(%sAdapter);", fieldName,
+            relatedFieldName));
+
+        bodyBuilder.appendFormalLine("");
+        bodyBuilder.appendFormalLine("");
 
-        }
       }
+
     }
 
     // }catch (Exception e){
@@ -631,38 +673,17 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine("// Disabling all form fields");
 
     // Getting all defined fields
-    for (FieldMetadata field : entityFields) {
-
-      // Checking if current field is a valid Database Field
-      AnnotationMetadata databaseFieldAnnotation =
-          field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-      if (databaseFieldAnnotation != null) {
-
-        // Checking if field is a generatedId field
-        AnnotationAttributeValue<Boolean> generatedIdAttr =
-            databaseFieldAnnotation.getAttribute("generatedId");
-
-        boolean generatedId = false;
-
-        if (generatedIdAttr != null) {
-          generatedId = generatedIdAttr.getValue();
-        }
-
-        if (!generatedId) {
-          // Getting fieldName
-          String fieldName = getFieldNameOnActivity(field);
-
-          // Checking MapView elements
-          if (isGeoField(field)) {
-            String auxFieldName =
-                Character.toLowerCase(field.getFieldName().getSymbolName().charAt(0))
-                    + field.getFieldName().getSymbolName().substring(1).concat("EditText");
-            bodyBuilder.appendFormalLine(String.format("%s.setEnabled(false);", auxFieldName));
-          }
-
-          bodyBuilder.appendFormalLine(String.format("%s.setEnabled(false);", fieldName));
-        }
+    for (FormField formField : formFields) {
+      // Getting fieldName
+      String fieldName = formField.getName();
+
+      // Checking MapView elements
+      if (formField.isGeo()) {
+        String auxFieldName = formField.getGeoTextName();
+        bodyBuilder.appendFormalLine(String.format("%s.setEnabled(false);", auxFieldName));
       }
+
+      bodyBuilder.appendFormalLine(String.format("%s.setEnabled(false);", fieldName));
     }
   }
 
@@ -716,214 +737,165 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine("try {");
     bodyBuilder.indent();
 
-    // Dao<Entity, Integer> entityDao = getHelper().getEntityDao();
-    bodyBuilder.appendFormalLine(String.format("%s<%s, Integer> %sDao = getHelper().get%sDao();",
-        new JavaType("com.j256.ormlite.dao.Dao").getNameIncludingTypeParameters(false,
-            importResolver), entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
-        entity.getSimpleTypeName()));
+    // Dao<Entity, Long> entityDao = getHelper().getEntityDao();
+    bodyBuilder.appendFormalLine(String.format("%s %sDao = getHelper().get%sDao();",
+        getEntityDaoJavaType().getNameIncludingTypeParameters(false, importResolver), entity
+            .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
 
-    // entity = entityDao.queryForId(id);
-    bodyBuilder.appendFormalLine(String.format("%s = %sDao.queryForId(id);", entity
-        .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName().toLowerCase()));
+    // populateForm(entityDao.queryForId(id));
+    bodyBuilder.appendFormalLine(String.format("populateForm(%sDao.queryForId(id));", entity
+        .getSimpleTypeName().toLowerCase()));
 
-    // Getting all defined fields
-    for (FieldMetadata field : entityFields) {
+    // }catch (Exception e){
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}catch (Exception e){");
+    bodyBuilder.indent();
 
-      // Checking if current field is a valid Database Field
-      AnnotationMetadata databaseFieldAnnotation =
-          field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-      if (databaseFieldAnnotation != null) {
+    // e.printStackTrace();
+    bodyBuilder.appendFormalLine("e.printStackTrace();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
 
-        // Checking if field is a generatedId field
-        AnnotationAttributeValue<Boolean> generatedIdAttr =
-            databaseFieldAnnotation.getAttribute("generatedId");
+  }
+
+  /**
+   * Method that generates populateForm FormActivity method that receives an
+   * already loaded entity
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getPopulateFormWithEntityMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(entity));
 
-        boolean generatedId = false;
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("item"));
 
-        if (generatedIdAttr != null) {
-          generatedId = generatedIdAttr.getValue();
-        }
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildPopulateFormWithEntityMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName("populateForm"),
+            JavaType.VOID_PRIMITIVE, parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that populate form with provided %s \n\n@param item",
+            entity.getSimpleTypeName()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
 
-        if (!generatedId) {
-          // Getting fieldName
-          String fieldName = getFieldNameOnActivity(field);
-          JavaType fieldType = getFieldTypeOnActivity(field);
-          // Getting accessor method
-          MethodMetadata accessor = getAccessorMethod(field);
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
 
-          // Checking Spinners
-          if (fieldType.equals(new JavaType("android.widget.Spinner"))) {
+  /**
+   * Generates populateForm FormActivity method body that receives an already
+   * loaded entity
+   * 
+   * @param bodyBuilder
+   */
+  private void buildPopulateFormWithEntityMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+    // entity = item;
+    bodyBuilder.appendFormalLine(String.format("%s = item;", entity.getSimpleTypeName()
+        .toLowerCase()));
 
-            JavaType relatedFieldType = field.getFieldType();
-            String relatedFieldName = relatedFieldType.getSimpleTypeName().toLowerCase();
+    // try {
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
 
-            // ArrayAdapter fieldAdapter = (ArrayAdapter)
-            // spinner.getAdapter();
-            bodyBuilder.appendFormalLine(String.format(
-                "ArrayAdapter %sAdapter = (ArrayAdapter) %s.getAdapter();", relatedFieldName,
-                fieldName));
+    // Getting all defined fields
+    for (FormField formField : formFields) {
+      FieldMetadata field = formField.getField();
+      // Getting fieldName
+      String fieldName = formField.getName();
+      // Getting accessor method
+      MethodMetadata accessor = getAccessorMethod(field);
 
-            // int relatedFieldPosition = -1;
-            bodyBuilder.appendFormalLine(String.format("int %sPosition = -1;", relatedFieldName));
+      // Checking Spinners
+      if (formField.isSpinner()) {
 
-            // for(int i = 0; i < adapter.getCount(); i++){
-            bodyBuilder.appendFormalLine(String.format(
-                "for(int i = 0; i < %sAdapter.getCount(); i++){", relatedFieldName));
-            bodyBuilder.indent();
+        JavaType relatedFieldType = field.getFieldType();
+        String relatedFieldName = relatedFieldType.getSimpleTypeName().toLowerCase();
 
-            // RelatedField item = (RelatedField)
-            // adapter.getItem(i);
-            bodyBuilder.appendFormalLine(String.format("%s item = (%s) %sAdapter.getItem(i);",
-                relatedFieldType.getSimpleTypeName(), relatedFieldType.getSimpleTypeName(),
-                relatedFieldName));
+        // ArrayAdapter fieldAdapter = (ArrayAdapter)
+        // spinner.getAdapter();
+        bodyBuilder.appendFormalLine(String.format(
+            "ArrayAdapter %sAdapter = (ArrayAdapter) %s.getAdapter();", relatedFieldName,
+            fieldName));
 
-            // if(item.getId().equals(entity.getField().getId())){
-            bodyBuilder.appendFormalLine(String.format("if(item.getId().equals(%s.%s().getId())){",
-                entity.getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
-            bodyBuilder.indent();
+        // int relatedFieldPosition = -1;
+        bodyBuilder.appendFormalLine(String.format("int %sPosition = -1;", relatedFieldName));
 
-            // relatedFieldPosition = i;
-            bodyBuilder.appendFormalLine(String.format("%sPosition = i;", relatedFieldName));
-            bodyBuilder.appendFormalLine("break;");
+        // for(int i = 0; i < adapter.getCount(); i++){
+        bodyBuilder.appendFormalLine(String.format(
+            "for(int i = 0; i < %sAdapter.getCount(); i++){", relatedFieldName));
+        bodyBuilder.indent();
 
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
+        // RelatedField item = (RelatedField)
+        // adapter.getItem(i);
+        bodyBuilder.appendFormalLine(String.format("%s item = (%s) %sAdapter.getItem(i);",
+            relatedFieldType.getSimpleTypeName(), relatedFieldType.getSimpleTypeName(),
+            relatedFieldName));
 
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
+        // if(item.getId().equals(entity.getField().getId())){
+        bodyBuilder.appendFormalLine(String.format("if(item.getId().equals(%s.%s().getId())){",
+            entity.getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
+        bodyBuilder.indent();
 
-            // field.setSelection(relatedFieldPosition);
-            bodyBuilder.appendFormalLine(String.format("%s.setSelection(%sPosition);", fieldName,
-                relatedFieldName));
+        // relatedFieldPosition = i;
+        bodyBuilder.appendFormalLine(String.format("%sPosition = i;", relatedFieldName));
+        bodyBuilder.appendFormalLine("break;");
 
-          } else if (isGeoField(field)) {
-            // Checking if is a GEO field
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
 
-            // // Populate map elements if exists
-            bodyBuilder.appendFormalLine("// Populate map elements if exists");
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
 
-            // if(accessorResult != null){
-            bodyBuilder.appendFormalLine(String.format("if(%s.%s() != null){", entity
-                .getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
-            bodyBuilder.indent();
-
-            // ArrayList<OverlayItem> items = new
-            // ArrayList<OverlayItem>();
-            bodyBuilder.appendFormalLine(String.format(
-                "%s<%s> items = new ArrayList<OverlayItem>();", new JavaType("java.util.ArrayList")
-                    .getNameIncludingTypeParameters(false, importResolver), new JavaType(
-                    "org.osmdroid.views.overlay.OverlayItem").getNameIncludingTypeParameters(false,
-                    importResolver)));
-
-            // // Adding items
-            bodyBuilder.appendFormalLine("// Adding items");
-
-            // items.add(new OverlayItem(entity.toString(), "",
-            // accessor));
-            bodyBuilder.appendFormalLine(String.format(
-                "items.add(new OverlayItem(%s.toString(), \"\", %s.%s()));", entity
-                    .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName().toLowerCase(),
-                accessor.getMethodName()));
-
-            // /* OnTapListener for the Markers, shows a simple
-            // Toast. */
-            bodyBuilder
-                .appendFormalLine("/* OnTapListener for the Markers, shows a simple Toast. */");
-
-            // ItemizedOverlay<OverlayItem> mMyLocationOverlay = new
-            // ItemizedIconOverlay<OverlayItem>(items,
-            bodyBuilder.appendFormalLine(String.format(
-                "%s<OverlayItem> mMyLocationOverlay = new ItemizedIconOverlay<OverlayItem>(items,",
-                new JavaType("org.osmdroid.views.overlay.ItemizedIconOverlay")
-                    .getNameIncludingTypeParameters(false, importResolver)));
-            bodyBuilder.indent();
-
-            // new
-            // ItemizedIconOverlay.OnItemGestureListener<OverlayItem>()
-            // {
-            bodyBuilder.appendFormalLine(String
-                .format("new ItemizedIconOverlay.OnItemGestureListener<OverlayItem>() {"));
-            bodyBuilder.indent();
-
-            // @Override
-            bodyBuilder.appendFormalLine("@Override");
-
-            // public boolean onItemSingleTapUp(final int index,
-            // final OverlayItem item) {
-            bodyBuilder
-                .appendFormalLine("public boolean onItemSingleTapUp(final int index, final OverlayItem item) {");
-            bodyBuilder.indent();
-
-            // return true; // We 'handled' this event.
-            bodyBuilder.appendFormalLine("return true; // We 'handled' this event.");
-
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
-
-            // @Override
-            bodyBuilder.appendFormalLine("@Override");
-
-            // public boolean onItemLongPress(final int index, final
-            // OverlayItem item) {
-            bodyBuilder
-                .appendFormalLine("public boolean onItemLongPress(final int index, final OverlayItem item) {");
-            bodyBuilder.indent();
-
-            // return false;
-            bodyBuilder.appendFormalLine("return false;");
-
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
-
-            // }, new
-            // DefaultResourceProxyImpl(getApplicationContext()));
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine(String.format("}, new %s(getApplicationContext()));",
-                new JavaType("org.osmdroid.DefaultResourceProxyImpl")
-                    .getNameIncludingTypeParameters(false, importResolver)));
-
-            bodyBuilder.indentRemove();
-
-            // field.getOverlays().add(mMyLocationOverlay);
-            bodyBuilder.appendFormalLine(String.format("%s.getOverlays().add(mMyLocationOverlay);",
-                fieldName));
-
-            // field.invalidate();
-            bodyBuilder.appendFormalLine(String.format("%s.invalidate();", fieldName));
-
-            // // Initial map position
-            bodyBuilder.appendFormalLine("// Initial map position");
-
-            // IMapController mapController = field.getController();
-            bodyBuilder.appendFormalLine(String.format("%s mapController = %s.getController();",
-                new JavaType("org.osmdroid.api.IMapController").getNameIncludingTypeParameters(
-                    false, importResolver), fieldName));
-
-            // mapController.setZoom(15);
-            bodyBuilder.appendFormalLine("mapController.setZoom(15);");
-
-            // mapController.setCenter(accessor);
-            bodyBuilder.appendFormalLine(String.format("mapController.setCenter(%s.%s());", entity
-                .getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
+        // field.setSelection(relatedFieldPosition);
+        bodyBuilder.appendFormalLine(String.format("%s.setSelection(%sPosition);", fieldName,
+            relatedFieldName));
 
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
+      } else if (formField.isGeo()) {
+        // Checking if is a GEO field
 
-          } else if (fieldType.equals(new JavaType("android.widget.Switch"))) {
-            // Check if is a boolean field
+        // // Populate map elements if exists
+        bodyBuilder.appendFormalLine("// Populate map elements if exists");
 
-            // fieldName.setChecked(entity.getField());
-            bodyBuilder.appendFormalLine(String.format("%s.setChecked(%s.%s());", fieldName, entity
-                .getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
+        // if(accessorResult != null){
+        bodyBuilder.appendFormalLine(String.format("if(%s.%s() != null){", entity
+            .getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
+        bodyBuilder.indent();
 
-          } else {
-            // fieldName.setText(entity.getField());
-            bodyBuilder.appendFormalLine(String.format("%s.setText(%s.%s());", fieldName, entity
+        // updateFieldMarker(entity.toString(), entity.getField());
+        bodyBuilder.appendFormalLine(String.format("%s(%s.toString(), %s.%s());",
+            formField.getGeoMarkerMethodName(), entity.getSimpleTypeName().toLowerCase(), entity
                 .getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
-          }
 
-        }
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
+
+      } else if (formField.isSwitch()) {
+        // Check if is a boolean field
+
+        // fieldName.setChecked(entity.getField());
+        bodyBuilder.appendFormalLine(String.format("%s.setChecked(%s.%s());", fieldName, entity
+            .getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
+
+      } else {
+        // fieldName.setText(entity.getField());
+        bodyBuilder.appendFormalLine(String.format("%s.setText(%s.%s());", fieldName, entity
+            .getSimpleTypeName().toLowerCase(), accessor.getMethodName()));
       }
+
     }
 
     // }catch (Exception e){
@@ -982,88 +954,16 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine("try {");
     bodyBuilder.indent();
 
-    // Dao<Entity, Integer> entityDao = getHelper().getEntityDao();
-    bodyBuilder.appendFormalLine(String.format("%s<%s, Integer> %sDao = getHelper().get%sDao();",
-        new JavaType("com.j256.ormlite.dao.Dao").getNameIncludingTypeParameters(false,
-            importResolver), entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
-        entity.getSimpleTypeName()));
+    // Dao<Entity, Long> entityDao = getHelper().getEntityDao();
+    bodyBuilder.appendFormalLine(String.format("%s %sDao = getHelper().get%sDao();",
+        getEntityDaoJavaType().getNameIncludingTypeParameters(false, importResolver), entity
+            .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
 
     // entity = new Entity();
     bodyBuilder.appendFormalLine(String.format("%s = new %s();", entity.getSimpleTypeName()
         .toLowerCase(), entity.getSimpleTypeName()));
 
-    // Getting all defined fields
-    for (FieldMetadata field : entityFields) {
-
-      // Checking if current field is a valid Database Field
-      AnnotationMetadata databaseFieldAnnotation =
-          field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-      if (databaseFieldAnnotation != null) {
-
-        // Checking if field is a generatedId field
-        AnnotationAttributeValue<Boolean> generatedIdAttr =
-            databaseFieldAnnotation.getAttribute("generatedId");
-
-        boolean generatedId = false;
-
-        if (generatedIdAttr != null) {
-          generatedId = generatedIdAttr.getValue();
-        }
-
-        if (!generatedId) {
-          // Getting fieldName
-          String fieldName = getFieldNameOnActivity(field);
-          JavaType fieldType = getFieldTypeOnActivity(field);
-
-          // Getting mutator method
-          MethodMetadataBuilder mutator =
-              getMutatorMethod(field.getFieldName(), field.getFieldType());
-
-          // Checking Spinners
-          if (fieldType.equals(new JavaType("android.widget.Spinner"))) {
-
-            JavaType relatedFieldType = field.getFieldType();
-
-            // entity.setField((RelatedFieldType)
-            // fieldName.getSelectedItem());
-            bodyBuilder.appendFormalLine(String.format("%s.%s((%s) %s.getSelectedItem());", entity
-                .getSimpleTypeName().toLowerCase(), mutator.getMethodName(), relatedFieldType
-                .getSimpleTypeName(), fieldName));
-          } else if (isNumericField(field)) {
-            // entity.setField(fieldName.getText().toString());
-            bodyBuilder.appendFormalLine(String.format(
-                "%s.%s(Integer.parseInt(%s.getText().toString()));", entity.getSimpleTypeName()
-                    .toLowerCase(), mutator.getMethodName(), fieldName));
-          } else if (isGeoField(field)) {
-            // Check if is GEO Field
-
-            // if(field.getOverlays().size() > 0){
-            bodyBuilder.appendFormalLine(String.format("if(%s.getOverlays().size() > 0){",
-                fieldName));
-            bodyBuilder.indent();
-
-            // entity.setField((GeoPoint) field.getMapCenter());
-            bodyBuilder.appendFormalLine(String.format("%s.%s((GeoPoint) %s.getMapCenter());",
-                entity.getSimpleTypeName().toLowerCase(), mutator.getMethodName(), fieldName));
-
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
-
-          } else if (fieldType.equals(new JavaType("android.widget.Switch"))) {
-            // Check if is a boolean field
-
-            // entity.setField((boolean) field.isChecked());
-            bodyBuilder.appendFormalLine(String.format("%s.%s((boolean) %s.isChecked());", entity
-                .getSimpleTypeName().toLowerCase(), mutator.getMethodName(), fieldName));
-          } else {
-            // entity.setField(fieldName.getText().toString());
-            bodyBuilder.appendFormalLine(String.format("%s.%s(%s.getText().toString());", entity
-                .getSimpleTypeName().toLowerCase(), mutator.getMethodName(), fieldName));
-          }
-
-        }
-      }
-    }
+    buildFormToEntityLines(bodyBuilder, entity.getSimpleTypeName().toLowerCase());
 
     // entityDao.create(entity);
     bodyBuilder.appendFormalLine(String.format("%sDao.create(%s);", entity.getSimpleTypeName()
@@ -1125,84 +1025,12 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine("try {");
     bodyBuilder.indent();
 
-    // Dao<Entity, Integer> entityDao = getHelper().getEntityDao();
-    bodyBuilder.appendFormalLine(String.format("%s<%s, Integer> %sDao = getHelper().get%sDao();",
-        new JavaType("com.j256.ormlite.dao.Dao").getNameIncludingTypeParameters(false,
-            importResolver), entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
-        entity.getSimpleTypeName()));
-
-    // Getting all defined fields
-    for (FieldMetadata field : entityFields) {
-
-      // Checking if current field is a valid Database Field
-      AnnotationMetadata databaseFieldAnnotation =
-          field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-      if (databaseFieldAnnotation != null) {
-
-        // Checking if field is a generatedId field
-        AnnotationAttributeValue<Boolean> generatedIdAttr =
-            databaseFieldAnnotation.getAttribute("generatedId");
-
-        boolean generatedId = false;
+    // Dao<Entity, Long> entityDao = getHelper().getEntityDao();
+    bodyBuilder.appendFormalLine(String.format("%s %sDao = getHelper().get%sDao();",
+        getEntityDaoJavaType().getNameIncludingTypeParameters(false, importResolver), entity
+            .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
 
-        if (generatedIdAttr != null) {
-          generatedId = generatedIdAttr.getValue();
-        }
-
-        if (!generatedId) {
-          // Getting fieldName
-          String fieldName = getFieldNameOnActivity(field);
-          JavaType fieldType = getFieldTypeOnActivity(field);
-
-          // Getting mutator method
-          MethodMetadataBuilder mutator =
-              getMutatorMethod(field.getFieldName(), field.getFieldType());
-
-          // Checking Spinners
-          if (fieldType.equals(new JavaType("android.widget.Spinner"))) {
-
-            JavaType relatedFieldType = field.getFieldType();
-
-            // entity.setField((RelatedFieldType)
-            // fieldName.getSelectedItem());
-            bodyBuilder.appendFormalLine(String.format("%s.%s((%s) %s.getSelectedItem());", entity
-                .getSimpleTypeName().toLowerCase(), mutator.getMethodName(), relatedFieldType
-                .getSimpleTypeName(), fieldName));
-          } else if (isNumericField(field)) {
-            // entity.setField(fieldName.getText().toString());
-            bodyBuilder.appendFormalLine(String.format(
-                "%s.%s(Integer.parseInt(%s.getText().toString()));", entity.getSimpleTypeName()
-                    .toLowerCase(), mutator.getMethodName(), fieldName));
-          } else if (isGeoField(field)) {
-            // Check if is GEO Field
-
-            // if(field.getOverlays().size() > 0){
-            bodyBuilder.appendFormalLine(String.format("if(%s.getOverlays().size() > 0){",
-                fieldName));
-            bodyBuilder.indent();
-
-            // entity.setField((GeoPoint) field.getMapCenter());
-            bodyBuilder.appendFormalLine(String.format("%s.%s((GeoPoint) %s.getMapCenter());",
-                entity.getSimpleTypeName().toLowerCase(), mutator.getMethodName(), fieldName));
-
-            bodyBuilder.indentRemove();
-            bodyBuilder.appendFormalLine("}");
-
-          } else if (fieldType.equals(new JavaType("android.widget.Switch"))) {
-            // Check if is a boolean field
-
-            // entity.setField((boolean) field.isChecked());
-            bodyBuilder.appendFormalLine(String.format("%s.%s((boolean) %s.isChecked());", entity
-                .getSimpleTypeName().toLowerCase(), mutator.getMethodName(), fieldName));
-          } else {
-            // entity.setField(fieldName.getText().toString());
-            bodyBuilder.appendFormalLine(String.format("%s.%s(%s.getText().toString());", entity
-                .getSimpleTypeName().toLowerCase(), mutator.getMethodName(), fieldName));
-          }
-
-        }
-      }
-    }
+    buildFormToEntityLines(bodyBuilder, entity.getSimpleTypeName().toLowerCase());
 
     // entityDao.update(entity);
     bodyBuilder.appendFormalLine(String.format("%sDao.update(%s);", entity.getSimpleTypeName()
@@ -1220,6 +1048,72 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
 
   }
 
+  /**
+   * Generates the lines that set form values on an entity instance
+   * 
+   * @param bodyBuilder
+   * @param target
+   *            String with the name of the variable that contains the entity
+   *            instance to update
+   */
+  private void buildFormToEntityLines(InvocableMemberBodyBuilder bodyBuilder, String target) {
+    // Getting all defined fields
+    for (FormField formField : formFields) {
+      FieldMetadata field = formField.getField();
+      // Getting fieldName
+      String fieldName = formField.getName();
+
+      // Getting mutator method
+      MethodMetadataBuilder mutator =
+          getMutatorMethod(field.getFieldName(), field.getFieldType());
+
+      // Checking Spinners
+      if (formField.isSpinner()) {
+
+        JavaType relatedFieldType = field.getFieldType();
+
+        // entity.setField((RelatedFieldType)
+        // fieldName.getSelectedItem());
+        bodyBuilder.appendFormalLine(String.format("%s.%s((%s) %s.getSelectedItem());", target,
+            mutator.getMethodName(), relatedFieldType.getSimpleTypeName(), fieldName));
+      } else if (formField.isNumeric()) {
+        // entity.setField(fieldName.getText().toString());
+        bodyBuilder.appendFormalLine(String.format(
+            "%s.%s(Integer.parseInt(%s.getText().toString()));", target,
+            mutator.getMethodName(), fieldName));
+      } else if (formField.isGeo()) {
+        // Check if is GEO Field
+
+        // if(fieldOverlay.size() > 0){
+        bodyBuilder.appendFormalLine(String.format("if(%s.size() > 0){",
+            formField.getGeoOverlayName()));
+        bodyBuilder.indent();
+
+        // Saving the located point of the marker, not the map center that
+        // changes when the user moves the map
+        // entity.setField((GeoPoint) fieldOverlay.getItem(0).getPoint());
+        bodyBuilder.appendFormalLine(String.format(
+            "%s.%s((GeoPoint) %s.getItem(0).getPoint());", target, mutator.getMethodName(),
+            formField.getGeoOverlayName()));
+
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
+
+      } else if (formField.isSwitch()) {
+        // Check if is a boolean field
+
+        // entity.setField((boolean) field.isChecked());
+        bodyBuilder.appendFormalLine(String.format("%s.%s((boolean) %s.isChecked());", target,
+            mutator.getMethodName(), fieldName));
+      } else {
+        // entity.setField(fieldName.getText().toString());
+        bodyBuilder.appendFormalLine(String.format("%s.%s(%s.getText().toString());", target,
+            mutator.getMethodName(), fieldName));
+      }
+
+    }
+  }
+
   /**
    * Method that generates onCreateOptionsMenu FormActivity method
    * 
@@ -1349,26 +1243,23 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder
         .appendFormalLine(String.format("// Update existing %s", entity.getSimpleTypeName()));
 
-    // update();
-    bodyBuilder.appendFormalLine("update();");
+    // updateAsync();
+    bodyBuilder.appendFormalLine("updateAsync();");
     bodyBuilder.indentRemove();
-    bodyBuilder.appendFormalLine("}else{");
+
+    // }else if(getIntent().getExtras() == null){
+    // If there are extras, entity is still being loaded
+    bodyBuilder.appendFormalLine("}else if(getIntent().getExtras() == null){");
     bodyBuilder.indent();
 
     // // Create newEntity
     bodyBuilder.appendFormalLine(String.format("// Create new %s", entity.getSimpleTypeName()));
 
-    // create();
-    bodyBuilder.appendFormalLine("create();");
+    // createAsync();
+    bodyBuilder.appendFormalLine("createAsync();");
     bodyBuilder.indentRemove();
     bodyBuilder.appendFormalLine("}");
 
-    // Return to list
-    bodyBuilder.appendFormalLine("// Return to list");
-
-    // NavUtils.navigateUpFromSameTask(this);
-    bodyBuilder.appendFormalLine("NavUtils.navigateUpFromSameTask(this);");
-
     // return true;
     bodyBuilder.appendFormalLine("return true;");
     bodyBuilder.indentRemove();
@@ -1392,70 +1283,56 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     boolean hasGeoField = false;
 
     // Adding fields on current form activity
-    for (FieldMetadata field : entityFields) {
-
-      // Checking if current field is a valid Database Field
-      AnnotationMetadata databaseFieldAnnotation =
-          field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-      if (databaseFieldAnnotation != null) {
-
-        // Checking if field is a generatedId field
-        AnnotationAttributeValue<Boolean> generatedIdAttr =
-            databaseFieldAnnotation.getAttribute("generatedId");
-
-        boolean generatedId = false;
-
-        if (generatedIdAttr != null) {
-          generatedId = generatedIdAttr.getValue();
-        }
+    for (FormField formField : formFields) {
+      FieldMetadata field = formField.getField();
+
+      JavaType fieldType = field.getFieldType();
+      String fieldName = formField.getName();
+      JavaType formFieldType = formField.getType();
+      String fieldViewType = formField.getViewType();
+
+      FieldMetadataBuilder entityField =
+          new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(fieldName),
+              formFieldType, null);
+      builder.addField(entityField);
+
+      // Saving fieldNameLayout that will be used on findViewById
+      // method
+      fieldNameLayout.put(
+          fieldName,
+          entity.getSimpleTypeName().toLowerCase().concat("_")
+              .concat(field.getFieldName().getSymbolName().toLowerCase()).concat("_")
+              .concat(fieldViewType));
+
+      // If is a GEO field, is necessary to add an Edit Text
+      // to make some geo search
+      if (formField.isGeo()) {
+        fieldName = formField.getGeoTextName();
+
+        FieldMetadataBuilder geoField =
+            new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(fieldName),
+                new JavaType("android.widget.EditText"), null);
+        builder.addField(geoField);
+
+        // Overlay that shows the marker of the GEO field. It is created once
+        // on onCreate
+        FieldMetadataBuilder overlayField =
+            new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(
+                formField.getGeoOverlayName()), getOverlayType(), null);
+        builder.addField(overlayField);
+        hasGeoField = true;
+      }
 
-        if (!generatedId) {
-
-          JavaType fieldType = field.getFieldType();
-          String fieldName = getFieldNameOnActivity(field);
-          JavaType formFieldType = getFieldTypeOnActivity(field);
-          String fieldViewType = getFieldViewTypeOnActivity(field);
-
-          FieldMetadataBuilder entityField =
-              new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(fieldName),
-                  formFieldType, null);
-          builder.addField(entityField);
-
-          // Saving fieldNameLayout that will be used on findViewById
-          // method
-          fieldNameLayout.put(
-              fieldName,
-              entity.getSimpleTypeName().toLowerCase().concat("_")
-                  .concat(field.getFieldName().getSymbolName().toLowerCase()).concat("_")
-                  .concat(fieldViewType));
-
-          // If is a GEO field, is necessary to add an Edit Text
-          // to make some geo search
-          if (isGeoField(field)) {
-            fieldName =
-                Character.toLowerCase(field.getFieldName().getSymbolName().charAt(0))
-                    + field.getFieldName().getSymbolName().substring(1).concat("EditText");
-
-            FieldMetadataBuilder geoField =
-                new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(fieldName),
-                    new JavaType("android.widget.EditText"), null);
-            builder.addField(geoField);
-            hasGeoField = true;
-          }
-
-          // If is a referenced field, add ArrayList to include
-          // results
-          if (isReferencedField(field)) {
-            fieldName = fieldType.getSimpleTypeName().toLowerCase().concat("List");
-
-            FieldMetadataBuilder relatedField =
-                new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(fieldName),
-                    new JavaType("java.util.ArrayList", 0, DataType.TYPE, null,
-                        Arrays.asList(fieldType)), null);
-            builder.addField(relatedField);
-          }
+      // If is a referenced field, add ArrayList to include
+      // results
+      if (formField.isReferenced()) {
+        fieldName = fieldType.getSimpleTypeName().toLowerCase().concat("List");
 
-        }
+        FieldMetadataBuilder relatedField =
+            new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(fieldName),
+                new JavaType("java.util.ArrayList", 0, DataType.TYPE, null,
+                    Arrays.asList(fieldType)), null);
+        builder.addField(relatedField);
       }
 
     }
@@ -1467,12 +1344,11 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
 
     // Check if exists some geo field
     if (hasGeoField) {
-      FieldMetadataBuilder geoSearchHelper =
+      FieldMetadataBuilder geocodingPipelineField =
           new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(
-              "addressSearchHelper"), new JavaType("io.androoid.geo.search.AddressSearchHelper"),
-              null);
+              "geocodingPipeline"), geocodingPipelineJavaType, null);
 
-      builder.addField(geoSearchHelper);
+      builder.addField(geocodingPipelineField);
     }
 
   }
@@ -1521,149 +1397,795 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
    */
   private void buildProcessFinishMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
     // Adding fields on current form activity
-    for (FieldMetadata field : entityFields) {
-
-      // Checking if current field is a valid Database Field
-      AnnotationMetadata databaseFieldAnnotation =
-          field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-      if (databaseFieldAnnotation != null) {
-
-        // Checking if field is a generatedId field
-        AnnotationAttributeValue<Boolean> generatedIdAttr =
-            databaseFieldAnnotation.getAttribute("generatedId");
-
-        boolean generatedId = false;
-
-        if (generatedIdAttr != null) {
-          generatedId = generatedIdAttr.getValue();
-        }
+    for (FormField formField : formFields) {
+      if (formField.isGeo()) {
+        String textFieldName = formField.getGeoTextName();
 
-        // Check if is GEO field
-        if (!generatedId && isGeoField(field)) {
-          String fieldName = getFieldNameOnActivity(field);
-          String textFieldName = fieldName.replaceFirst("MapView", "EditText");
-
-          // field.getOverlays().clear();
-          bodyBuilder.appendFormalLine(String.format("%s.getOverlays().clear();", fieldName));
+        // if(output == null){
+        bodyBuilder.appendFormalLine("if(output == null){");
+        bodyBuilder.indent();
 
-          // if(output == null){
-          bodyBuilder.appendFormalLine("if(output == null){");
-          bodyBuilder.indent();
+        // fieldText.setBackgroundColor(Color.parseColor("#ff9090"));
+        bodyBuilder.appendFormalLine(String.format(
+            "%s.setBackgroundColor(%s.parseColor(\"#ff9090\"));", textFieldName, new JavaType(
+                "android.graphics.Color").getNameIncludingTypeParameters(false, importResolver)));
 
-          // fieldText.setBackgroundColor(Color.parseColor("#ff9090"));
-          bodyBuilder.appendFormalLine(String.format(
-              "%s.setBackgroundColor(%s.parseColor(\"#ff9090\"));", textFieldName, new JavaType(
-                  "android.graphics.Color").getNameIncludingTypeParameters(false, importResolver)));
+        // updateFieldMarker("", null);
+        bodyBuilder.appendFormalLine(String.format("%s(\"\", null);",
+            formField.getGeoMarkerMethodName()));
 
-          // return;
-          bodyBuilder.appendFormalLine("return;");
-          bodyBuilder.indentRemove();
+        // return;
+        bodyBuilder.appendFormalLine("return;");
+        bodyBuilder.indentRemove();
 
-          // }else{
-          bodyBuilder.appendFormalLine("}else{");
-          bodyBuilder.indent();
+        // }else{
+        bodyBuilder.appendFormalLine("}else{");
+        bodyBuilder.indent();
 
-          // fieldText.setBackgroundColor(Color.WHITE);
-          bodyBuilder.appendFormalLine(String.format("%s.setBackgroundColor(Color.WHITE);",
-              textFieldName));
+        // fieldText.setBackgroundColor(Color.WHITE);
+        bodyBuilder.appendFormalLine(String.format("%s.setBackgroundColor(Color.WHITE);",
+            textFieldName));
 
-          bodyBuilder.indentRemove();
-          bodyBuilder.appendFormalLine("}");
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
 
-          // ArrayList<OverlayItem> items = new
-          // ArrayList<OverlayItem>();
-          bodyBuilder
-              .appendFormalLine(" ArrayList<OverlayItem> items = new ArrayList<OverlayItem>();");
+        // updateFieldMarker("", output);
+        bodyBuilder.appendFormalLine(String.format("%s(\"\", output);",
+            formField.getGeoMarkerMethodName()));
+      }
+    }
+  }
 
-          // // Adding items
-          bodyBuilder.appendFormalLine("// Adding items");
+  /**
+   * Obtains the GEO field shown on the provided map view
+   * 
+   * @param mapViewName
+   *            name of the map view field
+   * @return the GEO FormField
+   */
+  private FormField getGeoFormField(String mapViewName) {
+    FormField geoField = null;
+    for (FormField formField : formFields) {
+      if (formField.isGeo() && formField.getName().equals(mapViewName)) {
+        geoField = formField;
+      }
+    }
+    Validate.notNull(geoField, "ERROR: MapView '%s' is not related with a GEO field.",
+        mapViewName);
+    return geoField;
+  }
+
+  /**
+   * Generates the lines that create the overlay of the provided map view.
+   * Overlay, its gesture listener and its resource proxy are created once,
+   * and only its marker is updated when the location changes.
+   * 
+   * @param bodyBuilder
+   * @param mapViewName
+   *            name of the map view field
+   */
+  private void buildCreateOverlayLines(InvocableMemberBodyBuilder bodyBuilder,
+      String mapViewName) {
+    String overlayName = getGeoFormField(mapViewName).getGeoOverlayName();
+
+    String overlayItem = OVERLAY_ITEM.getNameIncludingTypeParameters(false, importResolver);
+    String itemizedIconOverlay =
+        ITEMIZED_ICON_OVERLAY.getNameIncludingTypeParameters(false, importResolver);
+
+    // Marker overlay is reused on every location change
+    bodyBuilder.appendFormalLine("// Marker overlay is reused on every location change");
+
+    // fieldOverlay = new ItemizedIconOverlay<OverlayItem>(new
+    // ArrayList<OverlayItem>(),
+    bodyBuilder.appendFormalLine(String.format("%s = new %s<%s>(new %s<%s>(),", overlayName,
+        itemizedIconOverlay, overlayItem, new JavaType("java.util.ArrayList")
+            .getNameIncludingTypeParameters(false, importResolver), overlayItem));
+    bodyBuilder.indent();
 
-          // items.add(new OverlayItem("", "", output));
-          bodyBuilder.appendFormalLine("items.add(new OverlayItem(\"\", \"\", output));");
+    // new ItemizedIconOverlay.OnItemGestureListener<OverlayItem>() {
+    bodyBuilder.appendFormalLine(String.format("new %s.OnItemGestureListener<%s>() {",
+        itemizedIconOverlay, overlayItem));
+    bodyBuilder.indent();
 
-          // /* OnTapListener for the Markers, shows a simple
-          // Toast. */
-          bodyBuilder
-              .appendFormalLine("/* OnTapListener for the Markers, shows a simple Toast. */");
+    // @Override
+    bodyBuilder.appendFormalLine("@Override");
 
-          // ItemizedOverlay<OverlayItem> mMyLocationOverlay = new
-          // ItemizedIconOverlay<OverlayItem>(items,
-          bodyBuilder.appendFormalLine(String.format(
-              "%s<OverlayItem> mMyLocationOverlay = new ItemizedIconOverlay<OverlayItem>(items,",
-              new JavaType("org.osmdroid.views.overlay.ItemizedIconOverlay")
-                  .getNameIncludingTypeParameters(false, importResolver)));
-          bodyBuilder.indent();
+    // public boolean onItemSingleTapUp(final int index, final OverlayItem
+    // item) {
+    bodyBuilder.appendFormalLine(String.format(
+        "public boolean onItemSingleTapUp(final int index, final %s item) {", overlayItem));
+    bodyBuilder.indent();
+
+    // return true; // We 'handled' this event.
+    bodyBuilder.appendFormalLine("return true; // We 'handled' this event.");
+
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // @Override
+    bodyBuilder.appendFormalLine("@Override");
+
+    // public boolean onItemLongPress(final int index, final OverlayItem
+    // item) {
+    bodyBuilder.appendFormalLine(String.format(
+        "public boolean onItemLongPress(final int index, final %s item) {", overlayItem));
+    bodyBuilder.indent();
+
+    // return false;
+    bodyBuilder.appendFormalLine("return false;");
+
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // }, new DefaultResourceProxyImpl(getApplicationContext()));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine(String.format("}, new %s(getApplicationContext()));",
+        new JavaType("org.osmdroid.DefaultResourceProxyImpl").getNameIncludingTypeParameters(
+            false, importResolver)));
+    bodyBuilder.indentRemove();
+
+    // field.getOverlays().add(fieldOverlay);
+    bodyBuilder.appendFormalLine(String.format("%s.getOverlays().add(%s);", mapViewName,
+        overlayName));
+  }
+
+  /**
+   * Method that generates the method that updates the marker of the provided
+   * GEO field
+   * 
+   * @param formField
+   *            GEO field
+   * @return
+   */
+  private MethodMetadataBuilder getUpdateMarkerMethod(FormField formField) {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.STRING));
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(GEO_POINT));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("title"));
+    parameterNames.add(new JavaSymbolName("point"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildUpdateMarkerMethodBody(bodyBuilder, formField);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(
+            formField.getGeoMarkerMethodName()), JavaType.VOID_PRIMITIVE, parameterTypes,
+            parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(
+            "Moves the marker of the map to the provided point. Overlay created on onCreate \n"
+                + "is reused, so only its marker is replaced. \n\n"
+                + "@param title title of the marker \n"
+                + "@param point location of the marker. If null, marker is removed \n");
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates the body of the method that updates the marker of the provided
+   * GEO field
+   * 
+   * @param bodyBuilder
+   * @param formField
+   *            GEO field
+   */
+  private void buildUpdateMarkerMethodBody(InvocableMemberBodyBuilder bodyBuilder,
+      FormField formField) {
+    String mapViewName = formField.getName();
+    String overlayName = formField.getGeoOverlayName();
+
+    // if(point == null){
+    bodyBuilder.appendFormalLine("if(point == null){");
+    bodyBuilder.indent();
+
+    // fieldOverlay.removeAllItems();
+    bodyBuilder.appendFormalLine(String.format("%s.removeAllItems();", overlayName));
+    bodyBuilder.indentRemove();
+
+    // }else{
+    bodyBuilder.appendFormalLine("}else{");
+    bodyBuilder.indent();
+
+    // Overlay is populated once, when the new marker is added
+    bodyBuilder.appendFormalLine("// Overlay is populated once, when the new marker is added");
+
+    // fieldOverlay.removeAllItems(false);
+    bodyBuilder.appendFormalLine(String.format("%s.removeAllItems(false);", overlayName));
+
+    // fieldOverlay.addItem(new OverlayItem(title, "", point));
+    bodyBuilder.appendFormalLine(String.format("%s.addItem(new %s(title, \"\", point));",
+        overlayName, OVERLAY_ITEM.getNameIncludingTypeParameters(false, importResolver)));
+
+    // IMapController mapController = field.getController();
+    bodyBuilder.appendFormalLine(String.format("%s mapController = %s.getController();",
+        new JavaType("org.osmdroid.api.IMapController").getNameIncludingTypeParameters(false,
+            importResolver), mapViewName));
+
+    // mapController.setZoom(15);
+    bodyBuilder.appendFormalLine("mapController.setZoom(15);");
+
+    // mapController.setCenter(point);
+    bodyBuilder.appendFormalLine("mapController.setCenter(point);");
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // field.invalidate();
+    bodyBuilder.appendFormalLine(String.format("%s.invalidate();", mapViewName));
+  }
+
+  /**
+   * @return JavaType of the overlays that show the marker of GEO fields
+   */
+  private JavaType getOverlayType() {
+    return new JavaType(ITEMIZED_ICON_OVERLAY.getFullyQualifiedTypeName(), 0, DataType.TYPE,
+        null, Arrays.asList(OVERLAY_ITEM));
+  }
+
+  /**
+   * Method that generates onDestroy FormActivity method. If the governor
+   * already declares onDestroy, it must invoke releaseEntityResources method.
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getOnDestroyMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Check if governor already declares onDestroy method
+    JavaSymbolName methodName = new JavaSymbolName("onDestroy");
+    if (governorHasMethod(methodName)) {
+      return null;
+    }
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // releaseEntityResources();
+    bodyBuilder.appendFormalLine(String.format("release%sResources();",
+        entity.getSimpleTypeName()));
+
+    // super.onDestroy();
+    bodyBuilder.appendFormalLine("super.onDestroy();");
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, methodName, JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.addAnnotation(new AnnotationMetadataBuilder(new JavaType("Override")));
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Method that generates releaseEntityResources FormActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getReleaseResourcesMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // Cancelling pending database operations
+    bodyBuilder.appendFormalLine("// Cancelling pending database operations");
+
+    // BackgroundExecutor.getInstance().cancel(this);
+    bodyBuilder.appendFormalLine(String.format("%s.getInstance().cancel(this);",
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver)));
+
+    // Cancelling pending address lookups
+    for (FormField formField : formFields) {
+      if (formField.isGeo()) {
+        // geocodingPipeline.cancel(fieldText);
+        bodyBuilder.appendFormalLine(String.format("geocodingPipeline.cancel(%s);",
+            formField.getGeoTextName()));
+      }
+    }
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "release%sResources", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that releases the resources used by the %s form: pending database \n"
+                + "operations and address lookups are cancelled. Invoked by the generated \n"
+                + "onDestroy method. Activities that declare their own onDestroy method \n"
+                + "must invoke it before super.onDestroy(). \n", entity.getSimpleTypeName()
+                .toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Method that generates populateSpinnersAsync FormActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getPopulateSpinnersAsyncMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildPopulateSpinnersAsyncMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(
+            "populateSpinnersAsync"), JavaType.VOID_PRIMITIVE, parameterTypes, parameterNames,
+            bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment("This method will populate all form Spinners loading their values \n"
+            + "outside the UI thread \n");
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates populateSpinnersAsync FormActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildPopulateSpinnersAsyncMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    String executorName =
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver);
+
+    // Getting all defined fields
+    for (FormField formField : formFields) {
+      FieldMetadata field = formField.getField();
+      // Getting fieldName
+      String fieldName = formField.getName();
+
+      // Populating all Spinner fields
+      if (formField.isSpinner()) {
+
+        JavaType relatedFieldType = field.getFieldType();
+        String relatedFieldName = relatedFieldType.getSimpleTypeName().toLowerCase();
+        String resultType =
+            new JavaType("java.util.List", 0, DataType.TYPE, null,
+                Arrays.asList(relatedFieldType)).getNameIncludingTypeParameters(false,
+                importResolver);
+
+        // Populate relatedFieldName spinner
+        bodyBuilder.appendFormalLine(String.format("// Populate %s spinner", relatedFieldName));
+
+        // BackgroundExecutor.getInstance().execute(this,
+        bodyBuilder.appendFormalLine(String.format("%s.getInstance().execute(this,",
+            executorName));
+        bodyBuilder.indent();
+
+        // new BackgroundExecutor.Task<List<RelatedField>>() {
+        bodyBuilder.appendFormalLine(String.format("new %s.Task<%s>() {", executorName,
+            resultType));
+        bodyBuilder.indent();
+
+        // @Override
+        // public List<RelatedField> call() throws Exception {
+        bodyBuilder.appendFormalLine("@Override");
+        bodyBuilder.appendFormalLine(String.format("public %s call() throws Exception {",
+            resultType));
+        bodyBuilder.indent();
+
+        // return getHelper().getRelatedFieldDao().queryForAll();
+        bodyBuilder.appendFormalLine(String.format(
+            "return getHelper().get%sDao().queryForAll();",
+            relatedFieldType.getSimpleTypeName()));
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
+        bodyBuilder.indentRemove();
+
+        // }, new BackgroundExecutor.Callback<List<RelatedField>>() {
+        bodyBuilder.appendFormalLine(String.format("}, new %s.Callback<%s>() {", executorName,
+            resultType));
+        bodyBuilder.indent();
+
+        // @Override
+        // public void onSuccess(List<RelatedField> result) {
+        bodyBuilder.appendFormalLine("@Override");
+        bodyBuilder.appendFormalLine(String.format("public void onSuccess(%s result) {",
+            resultType));
+        bodyBuilder.indent();
+
+        // relatedFieldList = new ArrayList<RelatedField>(result);
+        bodyBuilder.appendFormalLine(String.format("%sList = new %s<%s>(result);",
+            relatedFieldName, new JavaType("java.util.ArrayList")
+                .getNameIncludingTypeParameters(false, importResolver), relatedFieldType
+                .getSimpleTypeName()));
+
+        // ArrayAdapter relatedFieldAdapter = new
+        // ArrayAdapter(EntityFormActivity.this,
+        // android.R.layout.simple_list_item_1, relatedFieldList);
+        bodyBuilder.appendFormalLine(String.format("%s %sAdapter = new ArrayAdapter(%s,",
+            ARRAY_ADAPTER_JAVATYPE.getNameIncludingTypeParameters(false, importResolver),
+            relatedFieldName, getActivityReference()));
+        bodyBuilder.appendFormalLine(String.format(
+            "    android.R.layout.simple_list_item_1, %sList);", relatedFieldName));
+
+        // fieldSpinner.setAdapter(relatedFieldAdapter);
+        bodyBuilder.appendFormalLine(String.format("%s.setAdapter(%sAdapter);", fieldName,
+            relatedFieldName));
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("}");
+
+        buildOnErrorCallbackMethod(bodyBuilder);
+        bodyBuilder.indentRemove();
+
+        // });
+        bodyBuilder.appendFormalLine("});");
+        bodyBuilder.indentRemove();
+        bodyBuilder.appendFormalLine("");
+      }
+    }
+  }
 
-          // new
-          // ItemizedIconOverlay.OnItemGestureListener<OverlayItem>()
-          // {
-          bodyBuilder.appendFormalLine(String
-              .format("new ItemizedIconOverlay.OnItemGestureListener<OverlayItem>() {"));
-          bodyBuilder.indent();
+  /**
+   * Method that generates populateFormAsync FormActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getPopulateFormAsyncMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.INT_PRIMITIVE));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("id"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
 
-          // @Override
-          bodyBuilder.appendFormalLine("@Override");
+    buildPopulateFormAsyncMethodBody(bodyBuilder);
 
-          // public boolean onItemSingleTapUp(final int index,
-          // final OverlayItem item) {
-          bodyBuilder
-              .appendFormalLine("public boolean onItemSingleTapUp(final int index, final OverlayItem item) {");
-          bodyBuilder.indent();
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC,
+            new JavaSymbolName("populateFormAsync"), JavaType.VOID_PRIMITIVE, parameterTypes,
+            parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that loads selected %s outside the UI thread and populates form \n"
+                + "with it \n\n@param id", entity.getSimpleTypeName()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
 
-          // return true; // We 'handled' this event.
-          bodyBuilder.appendFormalLine("return true; // We 'handled' this event.");
+  /**
+   * Generates populateFormAsync FormActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildPopulateFormAsyncMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
 
-          bodyBuilder.indentRemove();
-          bodyBuilder.appendFormalLine("}");
+    String executorName =
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver);
+    String entityName = entity.getSimpleTypeName();
 
-          // @Override
-          bodyBuilder.appendFormalLine("@Override");
+    // final int itemId = id;
+    bodyBuilder.appendFormalLine("final int itemId = id;");
 
-          // public boolean onItemLongPress(final int index, final
-          // OverlayItem item) {
-          bodyBuilder
-              .appendFormalLine("public boolean onItemLongPress(final int index, final OverlayItem item) {");
-          bodyBuilder.indent();
+    // BackgroundExecutor.getInstance().execute(this,
+    bodyBuilder.appendFormalLine(String.format("%s.getInstance().execute(this,", executorName));
+    bodyBuilder.indent();
 
-          // return false;
-          bodyBuilder.appendFormalLine("return false;");
+    // new BackgroundExecutor.Task<Entity>() {
+    bodyBuilder.appendFormalLine(String.format("new %s.Task<%s>() {", executorName, entityName));
+    bodyBuilder.indent();
 
-          bodyBuilder.indentRemove();
-          bodyBuilder.appendFormalLine("}");
+    // @Override
+    // public Entity call() throws Exception {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format("public %s call() throws Exception {", entityName));
+    bodyBuilder.indent();
 
-          // }, new
-          // DefaultResourceProxyImpl(getApplicationContext()));
-          bodyBuilder.indentRemove();
-          bodyBuilder.appendFormalLine(String.format("}, new %s(getApplicationContext()));",
-              new JavaType("org.osmdroid.DefaultResourceProxyImpl").getNameIncludingTypeParameters(
-                  false, importResolver)));
+    // return getHelper().getEntityDao().queryForId(itemId);
+    bodyBuilder.appendFormalLine(String.format("return getHelper().get%sDao().queryForId(itemId);",
+        entityName));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
 
-          bodyBuilder.indentRemove();
+    // }, new BackgroundExecutor.Callback<Entity>() {
+    bodyBuilder.appendFormalLine(String.format("}, new %s.Callback<%s>() {", executorName,
+        entityName));
+    bodyBuilder.indent();
 
-          // field.getOverlays().add(mMyLocationOverlay);
-          bodyBuilder.appendFormalLine(String.format("%s.getOverlays().add(mMyLocationOverlay);",
-              fieldName));
+    // @Override
+    // public void onSuccess(Entity result) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format("public void onSuccess(%s result) {", entityName));
+    bodyBuilder.indent();
 
-          // field.invalidate();
-          bodyBuilder.appendFormalLine(String.format("%s.invalidate();", fieldName));
+    // populateForm(result);
+    bodyBuilder.appendFormalLine("populateForm(result);");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
 
-          // // Initial map position
-          bodyBuilder.appendFormalLine("// Initial map position");
+    buildOnErrorCallbackMethod(bodyBuilder);
+    bodyBuilder.indentRemove();
 
-          // IMapController mapController = field.getController();
-          bodyBuilder.appendFormalLine(String.format("%s mapController = %s.getController();",
-              new JavaType("org.osmdroid.api.IMapController").getNameIncludingTypeParameters(false,
-                  importResolver), fieldName));
+    // });
+    bodyBuilder.appendFormalLine("});");
+    bodyBuilder.indentRemove();
+  }
 
-          // mapController.setZoom(15);
-          bodyBuilder.appendFormalLine("mapController.setZoom(15);");
+  /**
+   * Method that generates createAsync FormActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getCreateAsyncMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
 
-          // mapController.setCenter(output);
-          bodyBuilder.appendFormalLine("mapController.setCenter(output);");
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
 
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildSaveAsyncMethodBody(bodyBuilder, true);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName("createAsync"),
+            JavaType.VOID_PRIMITIVE, parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method to create new %s item outside the UI thread. When item is \n"
+                + "saved, returns to list.\n", entity.getSimpleTypeName()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Method that generates updateAsync FormActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getUpdateAsyncMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildSaveAsyncMethodBody(bodyBuilder, false);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName("updateAsync"),
+            JavaType.VOID_PRIMITIVE, parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method to update selected %s item outside the UI thread. When item is \n"
+                + "saved, returns to list.\n", entity.getSimpleTypeName()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates createAsync and updateAsync FormActivity method bodies. Form
+   * values are read on the UI thread and only the Database operation is
+   * executed on background.
+   * 
+   * @param bodyBuilder
+   * @param create
+   *            true to generate createAsync body, false to generate
+   *            updateAsync body
+   */
+  private void buildSaveAsyncMethodBody(InvocableMemberBodyBuilder bodyBuilder, boolean create) {
+
+    String executorName =
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver);
+    String entityName = entity.getSimpleTypeName();
+
+    if (create) {
+      // final Entity item = new Entity();
+      bodyBuilder.appendFormalLine(String.format("final %s item = new %s();", entityName,
+          entityName));
+    } else {
+      // final Entity item = entity;
+      bodyBuilder.appendFormalLine(String.format("final %s item = %s;", entityName,
+          entityName.toLowerCase()));
+    }
+
+    // Getting form values
+    bodyBuilder.appendFormalLine("// Getting form values");
+
+    // try {
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
+
+    buildFormToEntityLines(bodyBuilder, "item");
+
+    // }catch (Exception e){
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}catch (Exception e){");
+    bodyBuilder.indent();
+
+    // e.printStackTrace();
+    bodyBuilder.appendFormalLine("e.printStackTrace();");
+
+    // return;
+    bodyBuilder.appendFormalLine("return;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // BackgroundExecutor.getInstance().execute(this,
+    bodyBuilder.appendFormalLine(String.format("%s.getInstance().execute(this,", executorName));
+    bodyBuilder.indent();
+
+    // new BackgroundExecutor.Task<Integer>() {
+    bodyBuilder.appendFormalLine(String.format("new %s.Task<Integer>() {", executorName));
+    bodyBuilder.indent();
+
+    // @Override
+    // public Integer call() throws Exception {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public Integer call() throws Exception {");
+    bodyBuilder.indent();
+
+    // return getHelper().getEntityDao().create(item);
+    bodyBuilder.appendFormalLine(String.format("return getHelper().get%sDao().%s(item);",
+        entityName, create ? "create" : "update"));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+
+    // }, new BackgroundExecutor.Callback<Integer>() {
+    bodyBuilder.appendFormalLine(String.format("}, new %s.Callback<Integer>() {", executorName));
+    bodyBuilder.indent();
+
+    // @Override
+    // public void onSuccess(Integer result) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public void onSuccess(Integer result) {");
+    bodyBuilder.indent();
+
+    // Return to list
+    bodyBuilder.appendFormalLine("// Return to list");
+
+    // NavUtils.navigateUpFromSameTask(EntityFormActivity.this);
+    bodyBuilder.appendFormalLine(String.format("%s.navigateUpFromSameTask(%s);", new JavaType(
+        "android.support.v4.app.NavUtils").getNameIncludingTypeParameters(false, importResolver),
+        getActivityReference()));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    buildOnErrorCallbackMethod(bodyBuilder);
+    bodyBuilder.indentRemove();
+
+    // });
+    bodyBuilder.appendFormalLine("});");
+    bodyBuilder.indentRemove();
+  }
+
+  /**
+   * Generates onError method of a BackgroundExecutor.Callback anonymous
+   * class
+   * 
+   * @param bodyBuilder
+   */
+  private void buildOnErrorCallbackMethod(InvocableMemberBodyBuilder bodyBuilder) {
+    // @Override
+    // public void onError(Exception e) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public void onError(Exception e) {");
+    bodyBuilder.indent();
+
+    // e.printStackTrace();
+    bodyBuilder.appendFormalLine("e.printStackTrace();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+  }
+
+  /**
+   * Method that returns the expression that references current FormActivity
+   * instance from anonymous classes
+   * 
+   * @return String like EntityFormActivity.this
+   */
+  private String getActivityReference() {
+    return String.format("%sFormActivity.this", entity.getSimpleTypeName());
+  }
+
+  /**
+   * Method that classifies every persisted field of the current entity only
+   * once. Fields without @DatabaseField annotation and generated identifiers
+   * are not included on the form.
+   * 
+   * @return List with a {@link FormField} for every field to show on form
+   */
+  private List<FormField> buildFormFields() {
+    List<FormField> fields = new ArrayList<FormField>();
+    for (FieldMetadata field : entityFields) {
+
+      // Checking if current field is a valid Database Field. GEO fields
+      // are stored on coordinate fields, so they are not Database Fields
+      AnnotationMetadata databaseFieldAnnotation = field.getAnnotation(DATABASE_FIELD);
+      if (databaseFieldAnnotation == null && !isGeoField(field)) {
+        continue;
+      }
+
+      // Checking if field is a generatedId field
+      if (databaseFieldAnnotation != null) {
+        AnnotationAttributeValue<Boolean> generatedIdAttr =
+            databaseFieldAnnotation.getAttribute("generatedId");
+        if (generatedIdAttr != null && generatedIdAttr.getValue()) {
+          continue;
         }
       }
+
+      fields.add(new FormField(field, getFieldNameOnActivity(field),
+          getFieldTypeOnActivity(field), getFieldViewTypeOnActivity(field),
+          isReferencedField(field), isNumericField(field)));
     }
+    return fields;
   }
 
   /**
@@ -1681,13 +2203,13 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     JavaType formFieldType = null;
 
     if (fieldType.equals(JavaType.BOOLEAN_PRIMITIVE) || fieldType.equals(JavaType.BOOLEAN_OBJECT)) {
-      formFieldType = new JavaType("android.widget.Switch");
-    } else if (fieldType.equals(new JavaType("org.osmdroid.util.GeoPoint"))) {
-      formFieldType = new JavaType("org.osmdroid.views.MapView");
+      formFieldType = SWITCH;
+    } else if (fieldType.equals(GEO_POINT)) {
+      formFieldType = MAP_VIEW;
     } else if (isReferencedField(field)) {
-      formFieldType = new JavaType("android.widget.Spinner");
+      formFieldType = SPINNER;
     } else {
-      formFieldType = new JavaType("android.widget.EditText");
+      formFieldType = EDIT_TEXT;
     }
 
     return formFieldType;
@@ -1732,7 +2254,7 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
 
     if (fieldType.equals(JavaType.BOOLEAN_PRIMITIVE) || fieldType.equals(JavaType.BOOLEAN_OBJECT)) {
       fieldViewType = "switch";
-    } else if (fieldType.equals(new JavaType("org.osmdroid.util.GeoPoint"))) {
+    } else if (fieldType.equals(GEO_POINT)) {
       fieldViewType = "mapview";
     } else if (isReferencedField(field)) {
       fieldViewType = "spinner";
@@ -1752,9 +2274,7 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
    * @return true if is annotated with @AndrooidReferencedField
    */
   public boolean isReferencedField(FieldMetadata field) {
-    AnnotationMetadata annotation =
-        field.getAnnotation(new JavaType(
-            "io.androoid.roo.addon.suite.addon.fields.annotations.AndrooidReferencedField"));
+    AnnotationMetadata annotation = field.getAnnotation(REFERENCED_FIELD);
     return annotation != null;
   }
 
@@ -1769,7 +2289,7 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
   public boolean isGeoField(FieldMetadata field) {
     // Getting field type
     JavaType fieldType = field.getFieldType();
-    if (fieldType.equals(new JavaType("org.osmdroid.util.GeoPoint"))) {
+    if (fieldType.equals(GEO_POINT)) {
       return true;
     }
 
@@ -1795,6 +2315,17 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     return false;
   }
 
+  /**
+   * Obtains the type of the DAO returned by DatabaseHelper for the current
+   * entity
+   * 
+   * @return JavaType of Dao parameterized with entity and identifier types
+   */
+  private JavaType getEntityDaoJavaType() {
+    return new JavaType("com.j256.ormlite.dao.Dao", 0, DataType.TYPE, null, Arrays.asList(
+        entity, entityIdFieldType));
+  }
+
   @Override
   public String toString() {
     final ToStringBuilder builder = new ToStringBuilder(this);
@@ -1806,4 +2337,111 @@ public class AndrooidActivityFormMetadata extends AbstractItdTypeDetailsProvidin
     builder.append("itdTypeDetails", itdTypeDetails);
     return builder.toString();
   }
+
+  /**
+   * Classification of an entity field on the generated form activity. It is
+   * calculated once per metadata instance, so the methods that generate the
+   * activity members don't need to inspect field annotations again.
+   */
+  private static final class FormField {
+
+    private final FieldMetadata field;
+    private final String name;
+    private final JavaType type;
+    private final String viewType;
+    private final String geoTextName;
+    private final String geoOverlayName;
+    private final String geoMarkerMethodName;
+    private final boolean referenced;
+    private final boolean numeric;
+
+    private FormField(FieldMetadata field, String name, JavaType type, String viewType,
+        boolean referenced, boolean numeric) {
+      this.field = field;
+      this.name = name;
+      this.type = type;
+      this.viewType = viewType;
+      this.referenced = referenced;
+      this.numeric = numeric;
+      String symbolName = field.getFieldName().getSymbolName();
+      this.geoTextName =
+          Character.toLowerCase(symbolName.charAt(0))
+              + symbolName.substring(1).concat("EditText");
+      this.geoOverlayName =
+          Character.toLowerCase(symbolName.charAt(0))
+              + symbolName.substring(1).concat("Overlay");
+      this.geoMarkerMethodName =
+          "update" + Character.toUpperCase(symbolName.charAt(0))
+              + symbolName.substring(1).concat("Marker");
+    }
+
+    /**
+     * @return entity field
+     */
+    public FieldMetadata getField() {
+      return field;
+    }
+
+    /**
+     * @return field name declared on activity
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return field type declared on activity
+     */
+    public JavaType getType() {
+      return type;
+    }
+
+    /**
+     * @return view type used on layout identifiers
+     */
+    public String getViewType() {
+      return viewType;
+    }
+
+    /**
+     * @return name of the EditText used to search addresses of a GEO field
+     */
+    public String getGeoTextName() {
+      return geoTextName;
+    }
+
+    /**
+     * @return name of the overlay that shows the marker of a GEO field
+     */
+    public String getGeoOverlayName() {
+      return geoOverlayName;
+    }
+
+    /**
+     * @return name of the method that updates the marker of a GEO field
+     */
+    public String getGeoMarkerMethodName() {
+      return geoMarkerMethodName;
+    }
+
+    public boolean isGeo() {
+      return MAP_VIEW.equals(type);
+    }
+
+    public boolean isSpinner() {
+      return SPINNER.equals(type);
+    }
+
+    public boolean isSwitch() {
+      return SWITCH.equals(type);
+    }
+
+    public boolean isReferenced() {
+      return referenced;
+    }
+
+    public boolean isNumeric() {
+      return numeric;
+    }
+  }
 }
@@ -1,6 +1,10 @@
 package io.androoid.roo.addon.suite.addon.activities;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang3.Validate;
@@ -17,16 +21,18 @@ import org.springframework.roo.classpath.details.annotations.AnnotationAttribute
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
 import org.springframework.roo.classpath.itd.AbstractItdMetadataProvider;
 import org.springframework.roo.classpath.itd.ItdTypeDetailsProvidingMetadataItem;
-import org.springframework.roo.classpath.scanner.MemberDetails;
-import org.springframework.roo.classpath.scanner.MemberDetailsScanner;
 import org.springframework.roo.model.JavaPackage;
+import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
 import org.springframework.roo.project.LogicalPath;
 import org.springframework.roo.project.ProjectOperations;
 import org.springframework.roo.support.logging.HandlerUtils;
 
 import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidFormActivity;
+import io.androoid.roo.addon.suite.addon.entities.AndrooidEntityMetadata;
 import io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptorService;
 
 /**
  * Provides {@link AndrooidActivityFormMetadata}.
@@ -50,11 +56,20 @@ public class AndrooidActivityFormMetadataProvider extends AbstractItdMetadataPro
   @Reference
   TypeLocationService typeLocationService;
   @Reference
-  MemberDetailsScanner memberDetailsScanner;
+  AndrooidEntityDescriptorService entityDescriptorService;
+
+  /**
+   * Physical type identifier of the entity related with every generated
+   * activity metadata
+   */
+  private final Map<String, String> activityEntities = new HashMap<String, String>();
 
   protected void activate(final ComponentContext cContext) {
     context = cContext.getBundleContext();
     getMetadataDependencyRegistry().addNotificationListener(this);
+    // Only used to discover new activities. Changes on a type that is not
+    // annotated don't generate any metadata and changes on the related
+    // entity are notified using registerEntityDependencies method
     getMetadataDependencyRegistry().registerDependency(
         PhysicalTypeIdentifier.getMetadataIdentiferType(), getProvidesType());
     addMetadataTrigger(ANDROOID_FORM_ACTIVITY_ANNOTATION);
@@ -67,6 +82,10 @@ public class AndrooidActivityFormMetadataProvider extends AbstractItdMetadataPro
 
   protected void deactivate(final ComponentContext context) {
     getMetadataDependencyRegistry().removeNotificationListener(this);
+    for (Entry<String, String> activityEntity : activityEntities.entrySet()) {
+      deregisterEntityDependencies(activityEntity.getKey(), activityEntity.getValue());
+    }
+    activityEntities.clear();
     getMetadataDependencyRegistry().deregisterDependency(
         PhysicalTypeIdentifier.getMetadataIdentiferType(), getProvidesType());
     removeMetadataTrigger(ANDROOID_FORM_ACTIVITY_ANNOTATION);
@@ -112,38 +131,116 @@ public class AndrooidActivityFormMetadataProvider extends AbstractItdMetadataPro
     Validate.notNull(entity,
         "ERROR: @AndrooidFormctivity needs to specify a valid entity attribute.");
 
-    ClassOrInterfaceTypeDetails entityDetails = typeLocationService.getTypeDetails(entity);
-
-    // Getting @AndrooidEntity annotation and attributes
-    AnnotationMetadata entityAnnotation = entityDetails.getAnnotation(ANDROOID_ENTITY_ANNOTATION);
+    // Getting cached entity descriptor
+    AndrooidEntityDescriptor entityDescriptor = entityDescriptorService.getDescriptor(entity);
 
-    Validate.notNull(entityAnnotation,
+    Validate.notNull(entityDescriptor,
         "ERROR: Only entities annotated with @AndrooidEntity are allowed.");
 
-    AnnotationAttributeValue<String> identifierFieldNameAttr =
-        entityAnnotation.getAttribute("identifierField");
-    AnnotationAttributeValue<Class<?>> identifierFieldTypeAttr =
-        entityAnnotation.getAttribute("identifierType");
+    // Activity ITD only needs to be updated when its entity changes
+    registerEntityDependencies(metadataIdentificationString, entityDescriptor);
+
+    String entityIdFieldName = entityDescriptor.getIdentifierFieldName();
+    JavaType entityIdFieldType = entityDescriptor.getIdentifierFieldType();
+
+    // Getting entity fields. Coordinate fields are replaced by the GEO field
+    // stored on them
+    List<FieldMetadata> entityFields = new ArrayList<FieldMetadata>();
+    for (FieldMetadata field : entityDescriptor.getDatabaseFields()) {
+      String geoFieldName = entityDescriptor.getGeoFieldName(field);
+      if (geoFieldName == null) {
+        entityFields.add(field);
+      } else if (field.getFieldName().getSymbolName().equals(geoFieldName.concat("Latitude"))) {
+        FieldMetadata geoField = entityDescriptor.getField(geoFieldName);
+        if (geoField != null) {
+          entityFields.add(geoField);
+        }
+      }
+    }
 
-    String entityIdFieldName = AndrooidEntity.ID_FIELD_DEFAULT;
-    JavaType entityIdFieldType = JavaType.LONG_OBJECT;
+    // Getting delay of GEO fields address search
+    AnnotationAttributeValue<Integer> geoSearchDelayAttr =
+        annotation.getAttribute("geoSearchDelay");
 
-    if (identifierFieldNameAttr != null) {
-      entityIdFieldName = identifierFieldNameAttr.getValue();
-    }
+    int geoSearchDelay = AndrooidFormActivity.GEO_SEARCH_DELAY_DEFAULT;
 
-    if (identifierFieldTypeAttr != null) {
-      entityIdFieldType = new JavaType(identifierFieldTypeAttr.getValue());
+    if (geoSearchDelayAttr != null) {
+      geoSearchDelay = geoSearchDelayAttr.getValue();
     }
 
-    // Getting entity fields
-    MemberDetails memberDetails =
-        memberDetailsScanner.getMemberDetails(getClass().getName(), entityDetails);
-    List<FieldMetadata> entityFields = memberDetails.getFields();
+    Validate.isTrue(geoSearchDelay >= 0,
+        "ERROR: @AndrooidFormActivity geoSearchDelay attribute must be 0 or a positive value.");
+
+    // Activities that declare their own onDestroy method must release the
+    // resources of the generated activity
+    JavaSymbolName onDestroy = new JavaSymbolName("onDestroy");
+    if (formActivityDetails.getMethod(onDestroy, new ArrayList<JavaType>()) != null) {
+      LOGGER.warning(String.format("%s declares onDestroy method. It must invoke "
+          + "release%sResources() to cancel pending operations of the activity.",
+          formActivity.getSimpleTypeName(), entity.getSimpleTypeName()));
+    }
 
     return new AndrooidActivityFormMetadata(metadataIdentificationString, aspectName,
         governorPhysicalTypeMetadata, projectPackage, entity, entityIdFieldName, entityIdFieldType,
-        entityFields);
+        entityFields, geoSearchDelay);
+  }
+
+  /**
+   * Registers the entity physical type and its @AndrooidEntity metadata as
+   * upstream dependencies of the provided activity metadata. Dependencies
+   * with a previous entity of the same activity are removed.
+   * 
+   * @param metadataIdentificationString
+   *            activity metadata identifier
+   * @param entityDescriptor
+   *            entity related with the activity
+   */
+  private void registerEntityDependencies(String metadataIdentificationString,
+      AndrooidEntityDescriptor entityDescriptor) {
+    String entityPhysicalTypeId = entityDescriptor.getPhysicalTypeIdentifier();
+    String previousEntityPhysicalTypeId =
+        activityEntities.put(metadataIdentificationString, entityPhysicalTypeId);
+
+    if (entityPhysicalTypeId.equals(previousEntityPhysicalTypeId)) {
+      return;
+    }
+
+    if (previousEntityPhysicalTypeId != null) {
+      deregisterEntityDependencies(metadataIdentificationString, previousEntityPhysicalTypeId);
+    }
+
+    getMetadataDependencyRegistry().registerDependency(entityPhysicalTypeId,
+        metadataIdentificationString);
+    getMetadataDependencyRegistry().registerDependency(
+        getEntityMetadataIdentifier(entityPhysicalTypeId), metadataIdentificationString);
+  }
+
+  /**
+   * Removes dependencies registered by
+   * {@link #registerEntityDependencies(String, AndrooidEntityDescriptor)}
+   * 
+   * @param metadataIdentificationString
+   *            activity metadata identifier
+   * @param entityPhysicalTypeId
+   *            physical type identifier of the entity
+   */
+  private void deregisterEntityDependencies(String metadataIdentificationString,
+      String entityPhysicalTypeId) {
+    getMetadataDependencyRegistry().deregisterDependency(entityPhysicalTypeId,
+        metadataIdentificationString);
+    getMetadataDependencyRegistry().deregisterDependency(
+        getEntityMetadataIdentifier(entityPhysicalTypeId), metadataIdentificationString);
+  }
+
+  /**
+   * @param entityPhysicalTypeId
+   *            physical type identifier of an entity
+   * @return identifier of the {@link AndrooidEntityMetadata} of the entity
+   */
+  private String getEntityMetadataIdentifier(String entityPhysicalTypeId) {
+    return AndrooidEntityMetadata.createIdentifier(
+        PhysicalTypeIdentifier.getJavaType(entityPhysicalTypeId),
+        PhysicalTypeIdentifier.getPath(entityPhysicalTypeId));
   }
 
   public String getProvidesType() {
@@ -3,12 +3,17 @@ package io.androoid.roo.addon.suite.addon.activities;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.springframework.roo.classpath.PhysicalTypeIdentifierNamingUtils;
 import org.springframework.roo.classpath.PhysicalTypeMetadata;
+import org.springframework.roo.classpath.details.BeanInfoUtils;
+import org.springframework.roo.classpath.details.FieldMetadata;
 import org.springframework.roo.classpath.details.FieldMetadataBuilder;
 import org.springframework.roo.classpath.details.MethodMetadataBuilder;
 import org.springframework.roo.classpath.details.annotations.AnnotatedJavaType;
@@ -27,6 +32,7 @@ import org.springframework.roo.model.JavaType;
 import org.springframework.roo.project.LogicalPath;
 
 import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidListActivity;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
 
 /**
  * Metadata for {@link AndrooidListActivity} annotation.
@@ -38,6 +44,17 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
 
   private static final JavaType ARRAY_ADAPTER_JAVATYPE =
       new JavaType("android.widget.ArrayAdapter");
+  private static final JavaType BASE_ADAPTER_JAVATYPE = new JavaType("android.widget.BaseAdapter");
+  private static final JavaType CURSOR_ADAPTER_JAVATYPE = new JavaType(
+      "android.widget.CursorAdapter");
+  private static final JavaType CURSOR_JAVATYPE = new JavaType("android.database.Cursor");
+  private static final JavaType DATABASE_RESULTS_JAVATYPE = new JavaType(
+      "com.j256.ormlite.android.AndroidDatabaseResults");
+  /**
+   * Default maximum number of host parameters of a SQLite statement
+   * (SQLITE_MAX_VARIABLE_NUMBER)
+   */
+  private static final int DELETE_BATCH_SIZE = 999;
   private static final String PROVIDES_TYPE_STRING = AndrooidActivityListMetadata.class.getName();
   private static final String PROVIDES_TYPE = MetadataIdentificationUtils
       .create(PROVIDES_TYPE_STRING);
@@ -47,8 +64,18 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
   private final JavaPackage applicationPackage;
   private final JavaType listEntityJavaType;
   private final JavaType arrayListEntityJavaType;
+  private final JavaType listEntityIdJavaType;
+  private final JavaType arrayListEntityIdJavaType;
+  private final JavaType backgroundExecutorJavaType;
   private final String getIdFieldMethod;
+  private final String entityIdFieldName;
   private final JavaType entityIdFieldType;
+  private final int pageSize;
+  private final int cachedPages;
+  private final boolean cursorAdapter;
+  private final Map<String, FieldMetadata> columns;
+  private final JavaType listRowViewHolderJavaType;
+  private final Map<JavaSymbolName, AndrooidEntityDescriptor> lazyReferences;
 
   public static String createIdentifier(final JavaType javaType, final LogicalPath path) {
     return PhysicalTypeIdentifierNamingUtils.createIdentifier(PROVIDES_TYPE_STRING, javaType, path);
@@ -91,11 +118,27 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
    * @param entityIdFieldType
    *            JavaType that contains the type of the identifier field of the
    *            current entity
+   * @param pageSize
+   *            number of rows to load on every page. If 0, all rows will be
+   *            loaded at once
+   * @param cachedPages
+   *            maximum number of pages to keep in memory
+   * @param cursorAdapter
+   *            if true, rows will be bound directly from a database cursor
+   * @param columns
+   *            entity fields to display on every row by column name, in
+   *            display order. If empty, entity toString is displayed
+   * @param lazyReferences
+   *            descriptors of the entities referenced by displayed foreign
+   *            fields without foreignAutoRefresh, by field name. These
+   *            references are loaded in batches after every query
    * 
    */
   public AndrooidActivityListMetadata(final String identifier, final JavaType aspectName,
       final PhysicalTypeMetadata governorPhysicalTypeMetadata, JavaPackage projectPackage,
-      JavaType entity, String entityIdFieldName, JavaType entityIdFieldType) {
+      JavaType entity, String entityIdFieldName, JavaType entityIdFieldType, int pageSize,
+      int cachedPages, boolean cursorAdapter, Map<String, FieldMetadata> columns,
+      Map<JavaSymbolName, AndrooidEntityDescriptor> lazyReferences) {
     super(identifier, aspectName, governorPhysicalTypeMetadata);
     Validate.isTrue(isValid(identifier),
         "Metadata identification string '%s' does not appear to be a valid", identifier);
@@ -107,10 +150,28 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
         new JavaType("java.util.List", 0, DataType.TYPE, null, Arrays.asList(entity));
     this.arrayListEntityJavaType =
         new JavaType("java.util.ArrayList", 0, DataType.TYPE, null, Arrays.asList(entity));
+    this.backgroundExecutorJavaType =
+        new JavaType(projectPackage.getFullyQualifiedPackageName().concat(
+            ".utils.BackgroundExecutor"));
     this.getIdFieldMethod =
         "get".concat(Character.toUpperCase(entityIdFieldName.charAt(0))
             + entityIdFieldName.substring(1));
+    this.entityIdFieldName = entityIdFieldName;
     this.entityIdFieldType = entityIdFieldType;
+    this.listEntityIdJavaType =
+        new JavaType("java.util.List", 0, DataType.TYPE, null, Arrays.asList(entityIdFieldType));
+    this.arrayListEntityIdJavaType =
+        new JavaType("java.util.ArrayList", 0, DataType.TYPE, null,
+            Arrays.asList(entityIdFieldType));
+    this.pageSize = pageSize;
+    this.cachedPages = cachedPages;
+    this.cursorAdapter = cursorAdapter;
+    this.columns = new LinkedHashMap<String, FieldMetadata>(columns);
+    this.listRowViewHolderJavaType =
+        new JavaType(projectPackage.getFullyQualifiedPackageName().concat(
+            ".utils.ListRowViewHolder"));
+    this.lazyReferences =
+        new LinkedHashMap<JavaSymbolName, AndrooidEntityDescriptor>(lazyReferences);
 
     // Adding fields
     addListActivityFields();
@@ -125,10 +186,35 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     builder.addMethod(getOnActionItemClickedMethod());
     builder.addMethod(getOnDestroyActionModeMethod());
     builder.addMethod(getOnItemClickMethod());
+    builder.addMethod(getOnDestroyMethod());
+    builder.addMethod(getReleaseResourcesMethod());
+    builder.addMethod(getShowEntityErrorMethod());
 
     // Add methods to manage entity data
     builder.addMethod(getFillEntityListMethod());
     builder.addMethod(getRemoveEntityMethod());
+    builder.addMethod(getDeleteEntityInBatchesMethod());
+
+    // Add methods to manage entity data outside the UI thread
+    builder.addMethod(getFillEntityListAsyncMethod());
+    builder.addMethod(getRemoveEntityAsyncMethod());
+
+    // Add methods to load references of loaded entities
+    if (hasLazyReferences()) {
+      builder.addMethod(getResolveReferencesMethod());
+    }
+
+    // Add methods to load entity data by pages
+    if (isPaged()) {
+      builder.addMethod(getEntityAtPositionMethod());
+      builder.addMethod(getLoadEntityPageAsyncMethod());
+    }
+
+    // Add methods to load entity data from a cursor
+    if (isCursorBacked()) {
+      builder.addMethod(getQueryEntityCursorMethod());
+      builder.addMethod(getEntityAtPositionMethod());
+    }
 
     // Create a representation of the desired output ITD
     itdTypeDetails = builder.build();
@@ -139,20 +225,43 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
    * Method to add all necessary fields to ListActivity .aj file
    */
   private void addListActivityFields() {
+    JavaType adapterJavaType = hasColumns() ? BASE_ADAPTER_JAVATYPE : ARRAY_ADAPTER_JAVATYPE;
+    if (isPaged()) {
+      adapterJavaType = BASE_ADAPTER_JAVATYPE;
+    } else if (isCursorBacked()) {
+      adapterJavaType = CURSOR_ADAPTER_JAVATYPE;
+    }
+
     FieldMetadataBuilder adapterField =
         new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName("adapter"),
-            ARRAY_ADAPTER_JAVATYPE, null);
+            adapterJavaType, null);
     builder.addField(adapterField);
 
+    // Selected items are tracked by identifier
+    JavaType selectedIdsJavaType =
+        new JavaType("java.util.Set", 0, DataType.TYPE, null, Arrays.asList(entityIdFieldType));
+    JavaType hashSetIdsJavaType =
+        new JavaType("java.util.HashSet", 0, DataType.TYPE, null, Arrays.asList(entityIdFieldType));
     FieldMetadataBuilder selectedEntitiesField =
         new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(
-            "selected".concat(entity.getSimpleTypeName())), listEntityJavaType, null);
+            "selected".concat(entity.getSimpleTypeName())), selectedIdsJavaType, String.format(
+            "new %s()", hashSetIdsJavaType.getNameIncludingTypeParameters(false, importResolver)));
     builder.addField(selectedEntitiesField);
 
-    FieldMetadataBuilder entityListField =
-        new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(entity
-            .getSimpleTypeName().toLowerCase().concat("List")), arrayListEntityJavaType, null);
-    builder.addField(entityListField);
+    if (isPaged()) {
+      addPagedListActivityFields();
+    } else if (isCursorBacked()) {
+      FieldMetadataBuilder entityResultsField =
+          new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(entity
+              .getSimpleTypeName().toLowerCase().concat("Results")), DATABASE_RESULTS_JAVATYPE,
+              null);
+      builder.addField(entityResultsField);
+    } else {
+      FieldMetadataBuilder entityListField =
+          new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(entity
+              .getSimpleTypeName().toLowerCase().concat("List")), arrayListEntityJavaType, null);
+      builder.addField(entityListField);
+    }
 
     FieldMetadataBuilder contextualMenuField =
         new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName("contextualMenu"),
@@ -163,6 +272,66 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
         new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName("actionMode"),
             new JavaType("android.view.ActionMode"), null);
     builder.addField(actionModeField);
+
+    FieldMetadataBuilder deleteBatchSizeField =
+        new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+            new JavaSymbolName("DELETE_BATCH_SIZE"), JavaType.INT_PRIMITIVE,
+            String.valueOf(DELETE_BATCH_SIZE));
+    builder.addField(deleteBatchSizeField);
+
+    if (hasLazyReferences()) {
+      FieldMetadataBuilder referencesBatchSizeField =
+          new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+              new JavaSymbolName("REFERENCES_BATCH_SIZE"), JavaType.INT_PRIMITIVE,
+              String.valueOf(DELETE_BATCH_SIZE));
+      builder.addField(referencesBatchSizeField);
+    }
+  }
+
+  /**
+   * Method to add fields used by the windowed adapter to ListActivity .aj
+   * file. Loaded pages are stored on an access ordered LinkedHashMap, so the
+   * least recently used page is always the first one. Pages that are being
+   * loaded are tracked to request every page only once.
+   */
+  private void addPagedListActivityFields() {
+    FieldMetadataBuilder pageSizeField =
+        new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+            new JavaSymbolName("PAGE_SIZE"), JavaType.INT_PRIMITIVE, String.valueOf(pageSize));
+    builder.addField(pageSizeField);
+
+    FieldMetadataBuilder cachedPagesField =
+        new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+            new JavaSymbolName("CACHED_PAGES"), JavaType.INT_PRIMITIVE,
+            String.valueOf(cachedPages));
+    builder.addField(cachedPagesField);
+
+    JavaType pagesJavaType =
+        new JavaType("java.util.LinkedHashMap", 0, DataType.TYPE, null, Arrays.asList(
+            JavaType.INT_OBJECT, listEntityJavaType));
+    FieldMetadataBuilder pagesField =
+        new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(entity
+            .getSimpleTypeName().toLowerCase().concat("Pages")), pagesJavaType, String.format(
+            "new %s(CACHED_PAGES, 0.75f, true)",
+            pagesJavaType.getNameIncludingTypeParameters(false, importResolver)));
+    builder.addField(pagesField);
+
+    JavaType loadingPagesJavaType =
+        new JavaType("java.util.Set", 0, DataType.TYPE, null, Arrays.asList(JavaType.INT_OBJECT));
+    JavaType hashSetPagesJavaType =
+        new JavaType("java.util.HashSet", 0, DataType.TYPE, null,
+            Arrays.asList(JavaType.INT_OBJECT));
+    FieldMetadataBuilder loadingPagesField =
+        new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(entity
+            .getSimpleTypeName().toLowerCase().concat("LoadingPages")), loadingPagesJavaType,
+            String.format("new %s()",
+                hashSetPagesJavaType.getNameIncludingTypeParameters(false, importResolver)));
+    builder.addField(loadingPagesField);
+
+    FieldMetadataBuilder countField =
+        new FieldMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(entity
+            .getSimpleTypeName().toLowerCase().concat("Count")), JavaType.LONG_PRIMITIVE, null);
+    builder.addField(countField);
   }
 
   /**
@@ -242,21 +411,42 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine(String.format("// Fill %s list with %s from Database", entity
         .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
 
-    // try {
-    bodyBuilder.appendFormalLine("try {");
-    bodyBuilder.indent();
-
-    // fillEntityList();
-    bodyBuilder.appendFormalLine(String.format("fill%sList();", entity.getSimpleTypeName()));
-    bodyBuilder.indentRemove();
+    // fillEntityListAsync();
+    bodyBuilder.appendFormalLine(String.format("fill%sListAsync();", entity.getSimpleTypeName()));
+  }
 
-    // } catch (SQLException e) {
-    bodyBuilder.appendFormalLine(String.format("} catch (%s e) {", new JavaType(
-        "java.sql.SQLException").getNameIncludingTypeParameters(false, importResolver)));
+  /**
+   * Generates the lines that obtain the entity located at
+   * <code>position</code>. Cursor backed adapters return the cursor as item,
+   * so the entity is mapped from the current row. Generated method returns if
+   * the entity is not available, like rows of paged lists that are not loaded
+   * yet.
+   * 
+   * @param bodyBuilder
+   */
+  private void buildItemAtPositionLine(InvocableMemberBodyBuilder bodyBuilder) {
+    if (isCursorBacked()) {
+      // Entity entity = getEntityAtPosition(position);
+      bodyBuilder.appendFormalLine(String.format("%s %s = get%sAtPosition(position);",
+          entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
+          entity.getSimpleTypeName()));
+    } else {
+      // Entity entity = (Entity) getListView().getItemAtPosition(position);
+      bodyBuilder.appendFormalLine(String.format(
+          "%s %s = (%s) getListView().getItemAtPosition(position);", entity.getSimpleTypeName(),
+          entity.getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
+    }
+
+    // if (entity == null) {
+    bodyBuilder.appendFormalLine(String.format("if (%s == null) {", entity.getSimpleTypeName()
+        .toLowerCase()));
     bodyBuilder.indent();
 
-    // e.printStackTrace();
-    bodyBuilder.appendFormalLine("e.printStackTrace();");
+    // Row is not loaded yet
+    bodyBuilder.appendFormalLine("// Row is not loaded yet");
+
+    // return;
+    bodyBuilder.appendFormalLine("return;");
     bodyBuilder.indentRemove();
     bodyBuilder.appendFormalLine("}");
   }
@@ -449,10 +639,7 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     // Getting current item
     bodyBuilder.appendFormalLine("// Getting current item");
 
-    // Entity entity = (Entity) getListView().getItemAtPosition(position);
-    bodyBuilder.appendFormalLine(String.format(
-        "%s %s = (%s) getListView().getItemAtPosition(position);", entity.getSimpleTypeName(),
-        entity.getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
+    buildItemAtPositionLine(bodyBuilder);
 
     // View child = getListView().getChildAt(position);
     bodyBuilder.appendFormalLine(String.format("%s child = getListView().getChildAt(position);",
@@ -461,20 +648,14 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     // Checking if current item was checked before
     bodyBuilder.appendFormalLine("// Checking if current item was checked before");
 
-    // if (selectedEntity.indexOf(entity) != -1) {
-    bodyBuilder.appendFormalLine(String.format("if (selected%s.indexOf(%s) != -1) {",
-        entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase()));
-    bodyBuilder.indent();
-
-    // Removing element from selected Entity
-    bodyBuilder.appendFormalLine(String.format("// Removing element from selected %s",
+    // If it was, removing element from selected Entity
+    bodyBuilder.appendFormalLine(String.format("// If it was, removing element from selected %s",
         entity.getSimpleTypeName()));
 
-    // selectedEntity.remove(selectedEntity.indexOf(entity));
-    bodyBuilder
-        .appendFormalLine(String.format("selected%s.remove(selected%s.indexOf(%s));", entity
-            .getSimpleTypeName(), entity.getSimpleTypeName(), entity.getSimpleTypeName()
-            .toLowerCase()));
+    // if (selectedEntity.remove(entity.getId())) {
+    bodyBuilder.appendFormalLine(String.format("if (selected%s.remove(%s.%s())) {",
+        entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(), getIdFieldMethod));
+    bodyBuilder.indent();
 
     // Removing background
     bodyBuilder.appendFormalLine("// Removing background");
@@ -501,9 +682,9 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine(String.format("// Adding element to selected %s",
         entity.getSimpleTypeName()));
 
-    // selectedEntity.add(entity);
-    bodyBuilder.appendFormalLine(String.format("selected%s.add(%s);", entity.getSimpleTypeName(),
-        entity.getSimpleTypeName().toLowerCase()));
+    // selectedEntity.add(entity.getId());
+    bodyBuilder.appendFormalLine(String.format("selected%s.add(%s.%s());",
+        entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(), getIdFieldMethod));
 
     // Changing background
     bodyBuilder.appendFormalLine("// Changing background");
@@ -787,10 +968,11 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine(String.format("// Show selected %s", entity.getSimpleTypeName()
         .toLowerCase()));
 
-    // bundle.putInt("entityId", selectedEntity.get(0).getEntityIdField());
-    bodyBuilder.appendFormalLine(String.format("bundle.put%s(\"%sId\", selected%s.get(0).%s());",
+    // bundle.putInt("entityId", selectedEntity.iterator().next());
+    bodyBuilder.appendFormalLine(String.format(
+        "bundle.put%s(\"%sId\", selected%s.iterator().next());",
         entityIdFieldType.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
-        entity.getSimpleTypeName(), getIdFieldMethod));
+        entity.getSimpleTypeName()));
 
     // bundle.putString("mode", "show");
     bodyBuilder.appendFormalLine("bundle.putString(\"mode\", \"show\");");
@@ -814,10 +996,11 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine(String.format("// Edit selected %s", entity.getSimpleTypeName()
         .toLowerCase()));
 
-    // bundle.putInt("entityId", selectedEntity.get(0).getIdField());
-    bodyBuilder.appendFormalLine(String.format("bundle.put%s(\"%sId\", selected%s.get(0).%s());",
+    // bundle.putInt("entityId", selectedEntity.iterator().next());
+    bodyBuilder.appendFormalLine(String.format(
+        "bundle.put%s(\"%sId\", selected%s.iterator().next());",
         entityIdFieldType.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
-        entity.getSimpleTypeName(), getIdFieldMethod));
+        entity.getSimpleTypeName()));
 
     // intent.putExtras(bundle);
     bodyBuilder.appendFormalLine("intent.putExtras(bundle);");
@@ -838,23 +1021,8 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine(String.format("// Remove all selected %s", entity
         .getSimpleTypeName().toLowerCase()));
 
-    // try {
-    bodyBuilder.appendFormalLine("try {");
-    bodyBuilder.indent();
-
-    // removeEntity();
-    bodyBuilder.appendFormalLine(String.format("remove%s();", entity.getSimpleTypeName()));
-    bodyBuilder.indentRemove();
-
-    // } catch (SQLException e) {
-    bodyBuilder.appendFormalLine(String.format("} catch (%s e) {", new JavaType(
-        "java.sql.SQLException").getNameIncludingTypeParameters(false, importResolver)));
-    bodyBuilder.indent();
-
-    // e.printStackTrace();
-    bodyBuilder.appendFormalLine("e.printStackTrace();");
-    bodyBuilder.indentRemove();
-    bodyBuilder.appendFormalLine("}");
+    // removeEntityAsync();
+    bodyBuilder.appendFormalLine(String.format("remove%sAsync();", entity.getSimpleTypeName()));
 
     // break;
     bodyBuilder.appendFormalLine("break;");
@@ -919,23 +1087,8 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     // selectedEntity.clear();
     bodyBuilder.appendFormalLine(String.format("selected%s.clear();", entity.getSimpleTypeName()));
 
-    // try {
-    bodyBuilder.appendFormalLine("try {");
-    bodyBuilder.indent();
-
-    // fillEntityList();
-    bodyBuilder.appendFormalLine(String.format("fill%sList();", entity.getSimpleTypeName()));
-    bodyBuilder.indentRemove();
-
-    // } catch (SQLException e) {
-    bodyBuilder.appendFormalLine(String.format("} catch (%s e) {", new JavaType(
-        "java.sql.SQLException").getNameIncludingTypeParameters(false, importResolver)));
-    bodyBuilder.indent();
-
-    // e.printStackTrace();
-    bodyBuilder.appendFormalLine("e.printStackTrace();");
-    bodyBuilder.indentRemove();
-    bodyBuilder.appendFormalLine("}");
+    // fillEntityListAsync();
+    bodyBuilder.appendFormalLine(String.format("fill%sListAsync();", entity.getSimpleTypeName()));
 
   }
 
@@ -1012,10 +1165,7 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.appendFormalLine(String.format("%s bundle = new Bundle();", new JavaType(
         "android.os.Bundle").getNameIncludingTypeParameters(false, importResolver)));
 
-    // Entity entity = (Entity) getListView().getItemAtPosition(position);
-    bodyBuilder.appendFormalLine(String.format(
-        "%s %s = (%s) getListView().getItemAtPosition(position);", entity.getSimpleTypeName(),
-        entity.getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
+    buildItemAtPositionLine(bodyBuilder);
 
     // bundle.putInt("entityId", selectedEntity.get(0).getIdField());
     bodyBuilder.appendFormalLine(String.format("bundle.put%s(\"%sId\", %s.%s());",
@@ -1079,16 +1229,36 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
    */
   private void buildFillEntityListMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
 
-    // Dao<Entity, Integer> entityDao = getHelper().getEntityDao();
-    bodyBuilder.appendFormalLine(String.format("%s<%s, Integer> %sDao = getHelper().get%sDao();",
-        new JavaType("com.j256.ormlite.dao.Dao").getNameIncludingTypeParameters(false,
-            importResolver), entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
-        entity.getSimpleTypeName()));
+    if (isPaged()) {
+      buildFillPagedEntityListMethodBody(bodyBuilder);
+      return;
+    }
+
+    if (isCursorBacked()) {
+      // Cursor cursor = queryEntityCursor();
+      bodyBuilder.appendFormalLine(String.format("%s cursor = query%sCursor();",
+          CURSOR_JAVATYPE.getNameIncludingTypeParameters(false, importResolver),
+          entity.getSimpleTypeName()));
+
+      buildCursorAdapterCreation(bodyBuilder, "this", "cursor");
+      return;
+    }
+
+    // Dao<Entity, Long> entityDao = getHelper().getEntityDao();
+    bodyBuilder.appendFormalLine(String.format("%s %sDao = getHelper().get%sDao();",
+        getEntityDaoJavaType().getNameIncludingTypeParameters(false, importResolver), entity
+            .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
 
     // List<Entity> entity = entityDao.queryForAll();
-    bodyBuilder.appendFormalLine(String.format("List<%s> %s = %sDao.queryForAll();", entity
-        .getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()
-        .toLowerCase()));
+    bodyBuilder.appendFormalLine(String.format("List<%s> %s = %s;", entity.getSimpleTypeName(),
+        entity.getSimpleTypeName().toLowerCase(),
+        getQueryAllExpression(entity.getSimpleTypeName().toLowerCase().concat("Dao"))));
+
+    if (hasLazyReferences()) {
+      // resolveEntityReferences(entity);
+      bodyBuilder.appendFormalLine(String.format("resolve%sReferences(%s);",
+          entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase()));
+    }
 
     // Creating entity ArrayList
     bodyBuilder.appendFormalLine("// Creating entity ArrayList");
@@ -1108,49 +1278,308 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
     bodyBuilder.indentRemove();
     bodyBuilder.appendFormalLine("}");
 
+    buildArrayAdapterCreation(bodyBuilder, "this");
+
+  }
+
+  /**
+   * Generates the lines that create an ArrayAdapter with the loaded entity
+   * list and set it on the ListView
+   * 
+   * @param bodyBuilder
+   * @param contextReference
+   *            String with the expression that references the activity where
+   *            generated lines will be included
+   */
+  private void buildArrayAdapterCreation(InvocableMemberBodyBuilder bodyBuilder,
+      String contextReference) {
+
+    // Only displayed columns are bound
+    if (hasColumns()) {
+      String listField = entity.getSimpleTypeName().toLowerCase().concat("List");
+      buildBaseAdapterCreation(bodyBuilder, "// Creating adapter with displayed columns",
+          String.format("%s.size()", listField), String.format("%s.get(position)", listField));
+      return;
+    }
+
     // Creating array adapter
     bodyBuilder.appendFormalLine("// Creating array adapter");
 
     // adapter=new
     // ArrayAdapter(this,android.R.layout.simple_list_item_1,entityList);
     bodyBuilder.appendFormalLine(String.format(
-        "adapter=new ArrayAdapter(this, android.R.layout.simple_list_item_1, %sList);", entity
-            .getSimpleTypeName().toLowerCase()));
+        "adapter=new ArrayAdapter(%s, android.R.layout.simple_list_item_1, %sList);",
+        contextReference, entity.getSimpleTypeName().toLowerCase()));
 
     // getListView().setAdapter(adapter);
     bodyBuilder.appendFormalLine("getListView().setAdapter(adapter);");
+  }
+
+  /**
+   * Generates fillEntityList ListActivity method body using a windowed adapter.
+   * Only the total number of rows is obtained here; rows are loaded by pages
+   * when the ListView requests them.
+   * 
+   * @param bodyBuilder
+   */
+  private void buildFillPagedEntityListMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    // Dao<Entity, Long> entityDao = getHelper().getEntityDao();
+    bodyBuilder.appendFormalLine(String.format("%s %sDao = getHelper().get%sDao();",
+        getEntityDaoJavaType().getNameIncludingTypeParameters(false, importResolver), entity
+            .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
+
+    // Counting entity rows and discarding loaded pages
+    bodyBuilder.appendFormalLine(String.format(
+        "// Counting %s rows and discarding loaded pages", entity.getSimpleTypeName()
+            .toLowerCase()));
+
+    // entityCount = entityDao.countOf();
+    bodyBuilder.appendFormalLine(String.format("%sCount = %sDao.countOf();", entity
+        .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName().toLowerCase()));
+
+    // entityPages.clear();
+    bodyBuilder.appendFormalLine(String.format("%sPages.clear();", entity.getSimpleTypeName()
+        .toLowerCase()));
+
+    // entityLoadingPages.clear();
+    bodyBuilder.appendFormalLine(String.format("%sLoadingPages.clear();", entity
+        .getSimpleTypeName().toLowerCase()));
+
+    buildPagedAdapterCreation(bodyBuilder);
 
   }
 
   /**
-   * Method that generates removeEntity ListActivity method
+   * Generates the lines that create a windowed adapter and set it on the
+   * ListView
+   * 
+   * @param bodyBuilder
+   */
+  private void buildPagedAdapterCreation(InvocableMemberBodyBuilder bodyBuilder) {
+    buildBaseAdapterCreation(bodyBuilder, "// Creating windowed adapter", String.format(
+        "(int) %sCount", entity.getSimpleTypeName().toLowerCase()), String.format(
+        "get%sAtPosition(position)", entity.getSimpleTypeName()));
+  }
+
+  /**
+   * Generates the lines that create a BaseAdapter and set it on the ListView
+   * 
+   * @param bodyBuilder
+   * @param comment
+   *            comment to include before the adapter creation
+   * @param countExpression
+   *            String with the expression that returns the number of rows
+   * @param itemExpression
+   *            String with the expression that returns the entity located at
+   *            <code>position</code>
+   */
+  private void buildBaseAdapterCreation(InvocableMemberBodyBuilder bodyBuilder, String comment,
+      String countExpression, String itemExpression) {
+
+    bodyBuilder.appendFormalLine(comment);
+
+    // adapter = new BaseAdapter() {
+    bodyBuilder.appendFormalLine(String.format("adapter = new %s() {",
+        BASE_ADAPTER_JAVATYPE.getNameIncludingTypeParameters(false, importResolver)));
+    bodyBuilder.indent();
+
+    // @Override
+    // public int getCount() {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public int getCount() {");
+    bodyBuilder.indent();
+
+    // return (int) entityCount;
+    bodyBuilder.appendFormalLine(String.format("return %s;", countExpression));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // @Override
+    // public Object getItem(int position) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public Object getItem(int position) {");
+    bodyBuilder.indent();
+
+    // return getEntityAtPosition(position);
+    bodyBuilder.appendFormalLine(String.format("return %s;", itemExpression));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // @Override
+    // public long getItemId(int position) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public long getItemId(int position) {");
+    bodyBuilder.indent();
+
+    // return position;
+    bodyBuilder.appendFormalLine("return position;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // @Override
+    // public View getView(int position, View convertView, ViewGroup parent)
+    // {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format(
+        "public %s getView(int position, View convertView, %s parent) {", new JavaType(
+            "android.view.View").getNameIncludingTypeParameters(false, importResolver),
+        new JavaType("android.view.ViewGroup").getNameIncludingTypeParameters(false,
+            importResolver)));
+    bodyBuilder.indent();
+
+    if (hasColumns()) {
+      buildColumnsGetViewBody(bodyBuilder);
+    } else {
+      // TextView view = (TextView) convertView;
+      bodyBuilder.appendFormalLine(String.format("%s view = (TextView) convertView;",
+          new JavaType("android.widget.TextView").getNameIncludingTypeParameters(false,
+              importResolver)));
+
+      // if (view == null) {
+      bodyBuilder.appendFormalLine("if (view == null) {");
+      bodyBuilder.indent();
+
+      // view = (TextView) getLayoutInflater().inflate(
+      // android.R.layout.simple_list_item_1, parent, false);
+      bodyBuilder.appendFormalLine("view = (TextView) getLayoutInflater().inflate(");
+      bodyBuilder.appendFormalLine("    android.R.layout.simple_list_item_1, parent, false);");
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+
+      // Object item = getItem(position);
+      bodyBuilder.appendFormalLine("Object item = getItem(position);");
+
+      // view.setText(item != null ? item.toString() : "...");
+      bodyBuilder.appendFormalLine(String.format(
+          "view.setText(item != null ? item.toString() : \"%s\");", getPlaceholderText()));
+
+      // return view;
+      bodyBuilder.appendFormalLine("return view;");
+    }
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("};");
+
+    // getListView().setAdapter(adapter);
+    bodyBuilder.appendFormalLine("getListView().setAdapter(adapter);");
+  }
+
+  /**
+   * Generates getView method body of a BaseAdapter that only binds the
+   * displayed columns. Rows are created once and recycled using a
+   * ListRowViewHolder.
+   * 
+   * @param bodyBuilder
+   */
+  private void buildColumnsGetViewBody(InvocableMemberBodyBuilder bodyBuilder) {
+    String entityName = entity.getSimpleTypeName();
+    String holderName =
+        listRowViewHolderJavaType.getNameIncludingTypeParameters(false, importResolver);
+
+    // if (convertView == null) {
+    bodyBuilder.appendFormalLine("if (convertView == null) {");
+    bodyBuilder.indent();
+
+    // convertView = ListRowViewHolder.createRow(EntityListActivity.this, 2);
+    bodyBuilder.appendFormalLine(String.format(
+        "convertView = %s.createRow(%sListActivity.this, %s);", holderName, entityName,
+        columns.size()));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // ListRowViewHolder holder = ListRowViewHolder.get(convertView);
+    bodyBuilder.appendFormalLine(String.format("%s holder = %s.get(convertView);", holderName,
+        holderName));
+
+    // Entity item = (Entity) getItem(position);
+    bodyBuilder.appendFormalLine(String.format("%s item = (%s) getItem(position);", entityName,
+        entityName));
+
+    // if (item == null) {
+    bodyBuilder.appendFormalLine("if (item == null) {");
+    bodyBuilder.indent();
+
+    // holder.clear();
+    bodyBuilder.appendFormalLine("holder.clear();");
+
+    if (isPaged()) {
+      // Displaying placeholder until the page of the row is loaded
+      bodyBuilder.appendFormalLine("// Displaying placeholder until the page of the row is loaded");
+
+      // holder.setText(0, "...");
+      bodyBuilder.appendFormalLine(String.format("holder.setText(0, \"%s\");",
+          getPlaceholderText()));
+    }
+    bodyBuilder.indentRemove();
+
+    // } else {
+    bodyBuilder.appendFormalLine("} else {");
+    bodyBuilder.indent();
+
+    // holder.setText(0, item.getField());
+    int column = 0;
+    for (FieldMetadata field : columns.values()) {
+      String accessor =
+          String.format("item.%s()", BeanInfoUtils.getAccessorMethodName(field).getSymbolName());
+      if (!JavaType.STRING.equals(field.getFieldType())) {
+        accessor = String.format("String.valueOf(%s)", accessor);
+      }
+      bodyBuilder.appendFormalLine(String.format("holder.setText(%s, %s);", column, accessor));
+      column++;
+    }
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // return convertView;
+    bodyBuilder.appendFormalLine("return convertView;");
+  }
+
+  /**
+   * Method that generates getEntityAtPosition ListActivity method
    * 
    * @return
    */
-  private MethodMetadataBuilder getRemoveEntityMethod() {
+  private MethodMetadataBuilder getEntityAtPositionMethod() {
     // Define method parameter types
     List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.INT_PRIMITIVE));
 
     // Define method parameter names
     List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("position"));
 
     // Create the method body
     InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
 
-    buildRemoveEntityMethodBody(bodyBuilder);
+    buildEntityAtPositionMethodBody(bodyBuilder);
 
     // Use the MethodMetadataBuilder for easy creation of MethodMetadata
     MethodMetadataBuilder methodBuilder =
         new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
-            "remove%s", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE, parameterTypes,
+            "get%sAtPosition", entity.getSimpleTypeName())), entity, parameterTypes,
             parameterNames, bodyBuilder);
-    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
 
     // Including comments
+    String loadingDescription =
+        "If the page \n"
+            + "that contains it is not loaded yet, it is loaded outside the UI thread and \n"
+            + "null is returned, so a placeholder row is displayed until the page is \n"
+            + "available. \n \n";
+    if (isCursorBacked()) {
+      loadingDescription =
+          "It is mapped \n" + "from the cursor row of the provided position. \n \n";
+    }
     CommentStructure commentStructure = new CommentStructure();
     JavadocComment comment =
-        new JavadocComment(String.format("Method that removes all selected %s \n \n"
-            + "@throws SQLException \n", entity.getSimpleTypeName().toLowerCase()));
+        new JavadocComment(String.format(
+            "Method that returns the %s located at the provided position. %s"
+                + "@param position Adapter position of the %s \n \n"
+                + "@return %s located at the provided position or null if it \n"
+                + "is not available. \n", entity.getSimpleTypeName().toLowerCase(),
+            loadingDescription, entity.getSimpleTypeName().toLowerCase(), entity
+                .getSimpleTypeName()));
     commentStructure.addComment(comment, CommentLocation.BEGINNING);
     methodBuilder.setCommentStructure(commentStructure);
 
@@ -1159,53 +1588,1431 @@ public class AndrooidActivityListMetadata extends AbstractItdTypeDetailsProvidin
   }
 
   /**
-   * Generates removeEntity ListActivity method body
+   * Generates getEntityAtPosition ListActivity method body
    * 
    * @param bodyBuilder
    */
-  private void buildRemoveEntityMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+  private void buildEntityAtPositionMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
 
-    // Removing all selected entity
-    bodyBuilder.appendFormalLine(String.format("// Removing all selected %s", entity
-        .getSimpleTypeName().toLowerCase()));
+    if (isCursorBacked()) {
+      buildCursorEntityAtPositionMethodBody(bodyBuilder);
+      return;
+    }
 
-    // Dao<Entity, Integer> entityDao = getHelper().getEntityDao();
-    bodyBuilder.appendFormalLine(String.format("Dao<%s, Integer> %sDao = getHelper().get%sDao();",
-        entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase(),
-        entity.getSimpleTypeName()));
+    String entityName = entity.getSimpleTypeName();
+    String pagesField = entityName.toLowerCase().concat("Pages");
 
-    // Integer deleted = entityDao.delete(selectedEntity);
-    bodyBuilder.appendFormalLine(String.format("Integer deleted = %sDao.delete(selected%s);",
-        entity.getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName()));
+    // int page = position / PAGE_SIZE;
+    bodyBuilder.appendFormalLine("int page = position / PAGE_SIZE;");
 
-    // Show message with total deleted items
-    bodyBuilder.appendFormalLine("// Show message with total deleted items");
+    // List<Entity> rows = entityPages.get(page);
+    bodyBuilder.appendFormalLine(String.format("%s rows = %s.get(page);",
+        listEntityJavaType.getNameIncludingTypeParameters(false, importResolver), pagesField));
 
-    // String message = String.format("%s %s deleted", deleted, deleted > 1
-    // ? "entity were" : "entity was");
-    bodyBuilder
-        .appendFormalLine("String message = String.format(\"%s %s deleted\", deleted, deleted > 1 ? \""
-            + entity.getSimpleTypeName().toLowerCase()
-            + " were\" : \""
-            + entity.getSimpleTypeName().toLowerCase() + " was\");");
+    // if (rows == null) {
+    bodyBuilder.appendFormalLine("if (rows == null) {");
+    bodyBuilder.indent();
 
-    // Toast toast = Toast.makeText(getApplicationContext(), message,
-    // Toast.LENGTH_SHORT);
-    bodyBuilder
-        .appendFormalLine(String.format(
-            "%s toast = Toast.makeText(getApplicationContext(), message, Toast.LENGTH_SHORT);",
-            new JavaType("android.widget.Toast").getNameIncludingTypeParameters(false,
-                importResolver)));
+    // Loading page outside the UI thread
+    bodyBuilder.appendFormalLine("// Loading page outside the UI thread");
 
-    // toast.show();
-    bodyBuilder.appendFormalLine("toast.show();");
+    // loadEntityPageAsync(page);
+    bodyBuilder.appendFormalLine(String.format("load%sPageAsync(page);", entityName));
 
-    // Close action mode
-    bodyBuilder.appendFormalLine("// Close action mode");
+    // return null;
+    bodyBuilder.appendFormalLine("return null;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
 
-    // actionMode.finish();
-    bodyBuilder.appendFormalLine("actionMode.finish();");
+    // int index = position % PAGE_SIZE;
+    bodyBuilder.appendFormalLine("int index = position % PAGE_SIZE;");
+
+    // return index < rows.size() ? rows.get(index) : null;
+    bodyBuilder.appendFormalLine("return index < rows.size() ? rows.get(index) : null;");
+
+  }
+
+  /**
+   * Method that generates loadEntityPageAsync ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getLoadEntityPageAsyncMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.INT_PRIMITIVE));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("page"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildLoadEntityPageAsyncMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "load%sPageAsync", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that loads a page of %s outside the UI thread. Every page is \n"
+                + "requested only once until it is loaded. When it is available, the least \n"
+                + "recently used page is discarded if necessary and the ListView is \n"
+                + "refreshed to replace the placeholder rows. \n \n"
+                + "@param page index of the page to load \n", entity.getSimpleTypeName()
+                .toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
 
+  /**
+   * Generates loadEntityPageAsync ListActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildLoadEntityPageAsyncMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    String entityName = entity.getSimpleTypeName();
+    String pagesField = entityName.toLowerCase().concat("Pages");
+    String loadingPagesField = entityName.toLowerCase().concat("LoadingPages");
+    String executorName =
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver);
+    String resultType = listEntityJavaType.getNameIncludingTypeParameters(false, importResolver);
+
+    // if (!entityLoadingPages.add(page)) {
+    bodyBuilder.appendFormalLine(String.format("if (!%s.add(page)) {", loadingPagesField));
+    bodyBuilder.indent();
+
+    // Page is already being loaded
+    bodyBuilder.appendFormalLine("// Page is already being loaded");
+
+    // return;
+    bodyBuilder.appendFormalLine("return;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // final int requestedPage = page;
+    bodyBuilder.appendFormalLine("final int requestedPage = page;");
+
+    // final long offset = (long) page * PAGE_SIZE;
+    bodyBuilder.appendFormalLine("final long offset = (long) page * PAGE_SIZE;");
+
+    // BackgroundExecutor.getInstance().execute(this,
+    bodyBuilder.appendFormalLine(String.format("%s.getInstance().execute(this,", executorName));
+    bodyBuilder.indent();
+
+    // new BackgroundExecutor.Task<List<Entity>>() {
+    bodyBuilder.appendFormalLine(String.format("new %s.Task<%s>() {", executorName, resultType));
+    bodyBuilder.indent();
+
+    // @Override
+    // public List<Entity> call() throws Exception {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format("public %s call() throws Exception {", resultType));
+    bodyBuilder.indent();
+
+    // List<Entity> rows = getHelper().getEntityDao().queryBuilder().orderBy("id", true)
+    // .offset(offset).limit((long) PAGE_SIZE).query();
+    bodyBuilder.appendFormalLine(String.format(
+        "%s rows = getHelper().get%sDao().queryBuilder()%s.orderBy(\"%s\", true)", resultType,
+        entityName, getSelectColumnsCall(), entityIdFieldName));
+    bodyBuilder.appendFormalLine("    .offset(offset).limit((long) PAGE_SIZE).query();");
+
+    if (hasLazyReferences()) {
+      // resolveEntityReferences(rows);
+      bodyBuilder.appendFormalLine(String.format("resolve%sReferences(rows);", entityName));
+    }
+
+    // return rows;
+    bodyBuilder.appendFormalLine("return rows;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+
+    // }, new BackgroundExecutor.Callback<List<Entity>>() {
+    bodyBuilder.appendFormalLine(String.format("}, new %s.Callback<%s>() {", executorName,
+        resultType));
+    bodyBuilder.indent();
+
+    // @Override
+    // public void onSuccess(List<Entity> rows) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format("public void onSuccess(%s rows) {", resultType));
+    bodyBuilder.indent();
+
+    // Pages requested before the list was refreshed are discarded
+    bodyBuilder.appendFormalLine("// Pages requested before the list was refreshed are discarded");
+
+    // if (!entityLoadingPages.remove(requestedPage)) {
+    bodyBuilder.appendFormalLine(String.format("if (!%s.remove(requestedPage)) {",
+        loadingPagesField));
+    bodyBuilder.indent();
+
+    // return;
+    bodyBuilder.appendFormalLine("return;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // Discarding least recently used page
+    bodyBuilder.appendFormalLine("// Discarding least recently used page");
+
+    // if (entityPages.size() >= CACHED_PAGES) {
+    bodyBuilder.appendFormalLine(String.format("if (%s.size() >= CACHED_PAGES) {", pagesField));
+    bodyBuilder.indent();
+
+    // entityPages.remove(entityPages.keySet().iterator().next());
+    bodyBuilder.appendFormalLine(String.format("%s.remove(%s.keySet().iterator().next());",
+        pagesField, pagesField));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // entityPages.put(requestedPage, rows);
+    bodyBuilder.appendFormalLine(String.format("%s.put(requestedPage, rows);", pagesField));
+
+    // Replacing placeholder rows
+    bodyBuilder.appendFormalLine("// Replacing placeholder rows");
+
+    // adapter.notifyDataSetChanged();
+    bodyBuilder.appendFormalLine("adapter.notifyDataSetChanged();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    buildOnErrorCallbackMethod(bodyBuilder,
+        String.format("%s.remove(requestedPage);", loadingPagesField));
+    bodyBuilder.indentRemove();
+
+    // });
+    bodyBuilder.appendFormalLine("});");
+    bodyBuilder.indentRemove();
+  }
+
+  /**
+   * Generates getEntityAtPosition ListActivity method body for cursor backed
+   * adapters. Cursor is moved to the provided position and the current row is
+   * mapped to a new entity.
+   * 
+   * @param bodyBuilder
+   */
+  private void buildCursorEntityAtPositionMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    String entityName = entity.getSimpleTypeName();
+
+    // Cursor cursor = adapter != null ? adapter.getCursor() : null;
+    bodyBuilder.appendFormalLine(String.format(
+        "%s cursor = adapter != null ? adapter.getCursor() : null;",
+        CURSOR_JAVATYPE.getNameIncludingTypeParameters(false, importResolver)));
+
+    // if (cursor == null || !cursor.moveToPosition(position)) {
+    bodyBuilder.appendFormalLine("if (cursor == null || !cursor.moveToPosition(position)) {");
+    bodyBuilder.indent();
+
+    // return null;
+    bodyBuilder.appendFormalLine("return null;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    buildMapCursorRow(bodyBuilder, "return");
+  }
+
+  /**
+   * Generates the lines that map the current row of the cursor to an entity
+   * 
+   * @param bodyBuilder
+   * @param assignment
+   *            String with the statement that receives the mapped entity.
+   *            If the row can not be mapped, <code>null</code> is used.
+   */
+  private void buildMapCursorRow(InvocableMemberBodyBuilder bodyBuilder, String assignment) {
+
+    // try {
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
+
+    // return getHelper().getEntityDao().mapSelectStarRow(entityResults);
+    bodyBuilder.appendFormalLine(String.format(
+        "%s getHelper().get%sDao().mapSelectStarRow(%sResults);", assignment,
+        entity.getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase()));
+    bodyBuilder.indentRemove();
+
+    // } catch (SQLException e) {
+    bodyBuilder.appendFormalLine(String.format("} catch (%s e) {", new JavaType(
+        "java.sql.SQLException").getNameIncludingTypeParameters(false, importResolver)));
+    bodyBuilder.indent();
+
+    // e.printStackTrace();
+    bodyBuilder.appendFormalLine("e.printStackTrace();");
+
+    // return null;
+    bodyBuilder.appendFormalLine(String.format("%s null;", assignment));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+  }
+
+  /**
+   * Method that generates queryEntityCursor ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getQueryEntityCursorMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildQueryEntityCursorMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "query%sCursor", entity.getSimpleTypeName())), CURSOR_JAVATYPE, parameterTypes,
+            parameterNames, bodyBuilder);
+    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that returns a cursor over all %s stored on Database. Rows are not \n"
+                + "mapped to %s until they are displayed. Identifier column is also \n"
+                + "available as _id, as required by CursorAdapter. Closing the cursor \n"
+                + "also closes the iterator that provides it. \n \n"
+                + "@return Cursor with all %s rows \n \n" + "@throws SQLException \n", entity
+                .getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName(), entity
+                .getSimpleTypeName().toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates queryEntityCursor ListActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildQueryEntityCursorMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    String entityName = entity.getSimpleTypeName();
+
+    // Dao<Entity, Long> entityDao = getHelper().getEntityDao();
+    bodyBuilder.appendFormalLine(String.format("%s %sDao = getHelper().get%sDao();",
+        getEntityDaoJavaType().getNameIncludingTypeParameters(false, importResolver),
+        entityName.toLowerCase(), entityName));
+
+    // final CloseableIterator<Entity> iterator = entityDao.iterator(entityDao
+    // .queryBuilder().orderBy("id", true).prepare());
+    bodyBuilder.appendFormalLine(String.format(
+        "final %s<%s> iterator = %sDao.iterator(%sDao.queryBuilder()", new JavaType(
+            "com.j256.ormlite.dao.CloseableIterator").getNameIncludingTypeParameters(false,
+            importResolver), entityName, entityName.toLowerCase(), entityName.toLowerCase()));
+    bodyBuilder.appendFormalLine(String.format("    .orderBy(\"%s\", true).prepare());",
+        entityIdFieldName));
+
+    // Cursor rawCursor = ((AndroidDatabaseResults)
+    // iterator.getRawResults()).getRawCursor();
+    bodyBuilder.appendFormalLine(String.format(
+        "%s rawCursor = ((%s) iterator.getRawResults()).getRawCursor();",
+        CURSOR_JAVATYPE.getNameIncludingTypeParameters(false, importResolver),
+        DATABASE_RESULTS_JAVATYPE.getNameIncludingTypeParameters(false, importResolver)));
+
+    // CursorAdapter requires an _id column
+    bodyBuilder.appendFormalLine("// CursorAdapter requires an _id column");
+
+    // return new CursorWrapper(rawCursor) {
+    bodyBuilder.appendFormalLine(String.format("return new %s(rawCursor) {", new JavaType(
+        "android.database.CursorWrapper").getNameIncludingTypeParameters(false, importResolver)));
+    bodyBuilder.indent();
+
+    // @Override
+    // public int getColumnIndex(String columnName) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public int getColumnIndex(String columnName) {");
+    bodyBuilder.indent();
+
+    // return super.getColumnIndex("_id".equals(columnName) ? "id" :
+    // columnName);
+    bodyBuilder.appendFormalLine(String.format(
+        "return super.getColumnIndex(\"_id\".equals(columnName) ? \"%s\" : columnName);",
+        entityIdFieldName));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // @Override
+    // public int getColumnIndexOrThrow(String columnName) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public int getColumnIndexOrThrow(String columnName) {");
+    bodyBuilder.indent();
+
+    // return super.getColumnIndexOrThrow("_id".equals(columnName) ? "id" :
+    // columnName);
+    bodyBuilder.appendFormalLine("return super.getColumnIndexOrThrow(");
+    bodyBuilder.appendFormalLine(String.format(
+        "    \"_id\".equals(columnName) ? \"%s\" : columnName);", entityIdFieldName));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // @Override
+    // public void close() {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public void close() {");
+    bodyBuilder.indent();
+
+    // Closing the iterator closes the cursor and releases its connection
+    bodyBuilder
+        .appendFormalLine("// Closing the iterator closes the cursor and releases its connection");
+
+    // iterator.closeQuietly();
+    bodyBuilder.appendFormalLine("iterator.closeQuietly();");
+
+    // super.close();
+    bodyBuilder.appendFormalLine("super.close();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("};");
+  }
+
+  /**
+   * Generates the lines that bind the provided cursor to the ListView. If a
+   * CursorAdapter already exists, its cursor is replaced and the previous one
+   * is closed. Otherwise, a new CursorAdapter that maps only the displayed
+   * rows is created.
+   * 
+   * @param bodyBuilder
+   * @param contextReference
+   *            String with the expression that references the activity where
+   *            generated lines will be included
+   * @param cursorReference
+   *            String with the name of the variable that contains the cursor
+   */
+  private void buildCursorAdapterCreation(InvocableMemberBodyBuilder bodyBuilder,
+      String contextReference, String cursorReference) {
+
+    String entityName = entity.getSimpleTypeName();
+    String viewName =
+        new JavaType("android.view.View").getNameIncludingTypeParameters(false, importResolver);
+
+    // entityResults = new AndroidDatabaseResults(cursor, null);
+    bodyBuilder.appendFormalLine(String.format("%sResults = new %s(%s, null);", entityName
+        .toLowerCase(), DATABASE_RESULTS_JAVATYPE.getNameIncludingTypeParameters(false,
+        importResolver), cursorReference));
+
+    // if (adapter != null) {
+    bodyBuilder.appendFormalLine("if (adapter != null) {");
+    bodyBuilder.indent();
+
+    // Replacing cursor. Previous one and its iterator will be closed
+    bodyBuilder
+        .appendFormalLine("// Replacing cursor. Previous one and its iterator will be closed");
+
+    // adapter.changeCursor(cursor);
+    bodyBuilder.appendFormalLine(String.format("adapter.changeCursor(%s);", cursorReference));
+
+    // return;
+    bodyBuilder.appendFormalLine("return;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // Creating cursor adapter
+    bodyBuilder.appendFormalLine("// Creating cursor adapter");
+
+    // adapter = new CursorAdapter(this, cursor, 0) {
+    bodyBuilder.appendFormalLine(String.format("adapter = new %s(%s, %s, 0) {",
+        CURSOR_ADAPTER_JAVATYPE.getNameIncludingTypeParameters(false, importResolver),
+        contextReference, cursorReference));
+    bodyBuilder.indent();
+
+    // @Override
+    // public View newView(Context context, Cursor cursor, ViewGroup parent) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format(
+        "public %s newView(%s context, %s cursor, %s parent) {", viewName, new JavaType(
+            "android.content.Context").getNameIncludingTypeParameters(false, importResolver),
+        CURSOR_JAVATYPE.getNameIncludingTypeParameters(false, importResolver), new JavaType(
+            "android.view.ViewGroup").getNameIncludingTypeParameters(false, importResolver)));
+    bodyBuilder.indent();
+
+    if (hasColumns()) {
+      // return ListRowViewHolder.createRow(context, 2);
+      bodyBuilder.appendFormalLine(String.format("return %s.createRow(context, %s);",
+          listRowViewHolderJavaType.getNameIncludingTypeParameters(false, importResolver),
+          columns.size()));
+    } else {
+      // return
+      // getLayoutInflater().inflate(android.R.layout.simple_list_item_1,
+      // parent, false);
+      bodyBuilder.appendFormalLine("return getLayoutInflater().inflate(");
+      bodyBuilder.appendFormalLine("    android.R.layout.simple_list_item_1, parent, false);");
+    }
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // @Override
+    // public void bindView(View view, Context context, Cursor cursor) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format(
+        "public void bindView(%s view, Context context, Cursor cursor) {", viewName));
+    bodyBuilder.indent();
+
+    if (hasColumns()) {
+      // Displayed columns are read from the cursor without mapping the entity
+      bodyBuilder.appendFormalLine("// Displayed columns are read without mapping the entity");
+
+      // ListRowViewHolder holder = ListRowViewHolder.get(view);
+      String holderName =
+          listRowViewHolderJavaType.getNameIncludingTypeParameters(false, importResolver);
+      bodyBuilder.appendFormalLine(String.format("%s holder = %s.get(view);", holderName,
+          holderName));
+
+      // holder.setText(0, cursor.getString(cursor.getColumnIndex("field")));
+      int column = 0;
+      for (String columnName : columns.keySet()) {
+        bodyBuilder.appendFormalLine(String.format(
+            "holder.setText(%s, cursor.getString(cursor.getColumnIndex(\"%s\")));", column,
+            columnName));
+        column++;
+      }
+    } else {
+      // Entity item;
+      bodyBuilder.appendFormalLine(String.format("%s item;", entityName));
+
+      buildMapCursorRow(bodyBuilder, "item =");
+
+      // ((TextView) view).setText(item != null ? item.toString() : "");
+      bodyBuilder.appendFormalLine(String.format(
+          "((%s) view).setText(item != null ? item.toString() : \"\");", new JavaType(
+              "android.widget.TextView").getNameIncludingTypeParameters(false, importResolver)));
+    }
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("};");
+
+    // getListView().setAdapter(adapter);
+    bodyBuilder.appendFormalLine("getListView().setAdapter(adapter);");
+  }
+
+  /**
+   * Method that generates removeEntity ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getRemoveEntityMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildRemoveEntityMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "remove%s", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE, parameterTypes,
+            parameterNames, bodyBuilder);
+    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format("Method that removes all selected %s \n \n"
+            + "@throws SQLException \n", entity.getSimpleTypeName().toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates removeEntity ListActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildRemoveEntityMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    // Removing all selected entity
+    bodyBuilder.appendFormalLine(String.format("// Removing all selected %s", entity
+        .getSimpleTypeName().toLowerCase()));
+
+    // Integer deleted = deleteEntityInBatches(new
+    // ArrayList<Long>(selectedEntity));
+    bodyBuilder.appendFormalLine(String.format(
+        "Integer deleted = delete%sInBatches(new %s(selected%s));", entity.getSimpleTypeName(),
+        arrayListEntityIdJavaType.getNameIncludingTypeParameters(false, importResolver),
+        entity.getSimpleTypeName()));
+
+    buildRemovedMessage(bodyBuilder);
+
+  }
+
+  /**
+   * Method that generates deleteEntityInBatches ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getDeleteEntityInBatchesMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(listEntityIdJavaType));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("entityIds"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildDeleteEntityInBatchesMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "delete%sInBatches", entity.getSimpleTypeName())), JavaType.INT_OBJECT,
+            parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that removes the %s with the provided identifiers using a single \n"
+                + "transaction. \n"
+                + "Rows are deleted by identifier in groups of DELETE_BATCH_SIZE, so \n"
+                + "every statement fits on the SQLite host parameters limit. \n"
+                + "Must not be invoked from the UI thread. \n \n"
+                + "@param entityIds identifiers of the %s to remove \n \n"
+                + "@return number of removed rows \n \n"
+                + "@throws SQLException \n", entity.getSimpleTypeName().toLowerCase(), entity
+                .getSimpleTypeName().toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates deleteEntityInBatches ListActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildDeleteEntityInBatchesMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    String entityName = entity.getSimpleTypeName();
+
+    // final Dao<Entity, Long> entityDao = getHelper().getEntityDao();
+    bodyBuilder.appendFormalLine(String.format("final %s %sDao = getHelper().get%sDao();",
+        getEntityDaoJavaType().getNameIncludingTypeParameters(false, importResolver),
+        entityName.toLowerCase(), entityName));
+
+    // final List<Long> ids = entityIds;
+    bodyBuilder.appendFormalLine(String.format("final %s ids = entityIds;",
+        listEntityIdJavaType.getNameIncludingTypeParameters(false, importResolver)));
+
+    // Integer deleted =
+    // TransactionManager.callInTransaction(entityDao.getConnectionSource(),
+    bodyBuilder.appendFormalLine(String.format("Integer deleted = %s.callInTransaction(%sDao"
+        + ".getConnectionSource(),", new JavaType(
+        "com.j256.ormlite.misc.TransactionManager").getNameIncludingTypeParameters(false,
+        importResolver), entityName.toLowerCase()));
+    bodyBuilder.indent();
+
+    // new Callable<Integer>() {
+    bodyBuilder.appendFormalLine(String.format("new %s<Integer>() {", new JavaType(
+        "java.util.concurrent.Callable").getNameIncludingTypeParameters(false, importResolver)));
+    bodyBuilder.indent();
+
+    // @Override
+    // public Integer call() throws Exception {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public Integer call() throws Exception {");
+    bodyBuilder.indent();
+
+    // int total = 0;
+    bodyBuilder.appendFormalLine("int total = 0;");
+
+    // for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+    bodyBuilder
+        .appendFormalLine("for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {");
+    bodyBuilder.indent();
+
+    // int to = Math.min(from + DELETE_BATCH_SIZE, ids.size());
+    bodyBuilder.appendFormalLine("int to = Math.min(from + DELETE_BATCH_SIZE, ids.size());");
+
+    // DeleteBuilder<Entity, Long> deleteBuilder = entityDao.deleteBuilder();
+    bodyBuilder.appendFormalLine(String.format("%s deleteBuilder = %sDao.deleteBuilder();",
+        new JavaType("com.j256.ormlite.stmt.DeleteBuilder", 0, DataType.TYPE, null, Arrays
+            .asList(entity, entityIdFieldType)).getNameIncludingTypeParameters(false,
+            importResolver), entityName.toLowerCase()));
+
+    // deleteBuilder.where().in("id", ids.subList(from, to));
+    bodyBuilder.appendFormalLine(String.format(
+        "deleteBuilder.where().in(\"%s\", ids.subList(from, to));", entityIdFieldName));
+
+    // total += deleteBuilder.delete();
+    bodyBuilder.appendFormalLine("total += deleteBuilder.delete();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // return total;
+    bodyBuilder.appendFormalLine("return total;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("});");
+    bodyBuilder.indentRemove();
+
+    // Removed rows are not deleted from DAO object cache by DeleteBuilder
+    bodyBuilder
+        .appendFormalLine("// Removed rows are not deleted from DAO object cache by DeleteBuilder");
+
+    // entityDao.clearObjectCache();
+    bodyBuilder.appendFormalLine(String.format("%sDao.clearObjectCache();", entityName
+        .toLowerCase()));
+
+    // return deleted;
+    bodyBuilder.appendFormalLine("return deleted;");
+  }
+
+  /**
+   * Generates the lines that show the number of removed items and close the
+   * action mode. Generated lines expect a <code>deleted</code> variable.
+   * 
+   * @param bodyBuilder
+   */
+  private void buildRemovedMessage(InvocableMemberBodyBuilder bodyBuilder) {
+
+    // Show message with total deleted items
+    bodyBuilder.appendFormalLine("// Show message with total deleted items");
+
+    // String message = String.format("%s %s deleted", deleted, deleted > 1
+    // ? "entity were" : "entity was");
+    bodyBuilder
+        .appendFormalLine("String message = String.format(\"%s %s deleted\", deleted, deleted > 1 ? \""
+            + entity.getSimpleTypeName().toLowerCase()
+            + " were\" : \""
+            + entity.getSimpleTypeName().toLowerCase() + " was\");");
+
+    // Toast toast = Toast.makeText(getApplicationContext(), message,
+    // Toast.LENGTH_SHORT);
+    bodyBuilder
+        .appendFormalLine(String.format(
+            "%s toast = Toast.makeText(getApplicationContext(), message, Toast.LENGTH_SHORT);",
+            new JavaType("android.widget.Toast").getNameIncludingTypeParameters(false,
+                importResolver)));
+
+    // toast.show();
+    bodyBuilder.appendFormalLine("toast.show();");
+
+    // Close action mode
+    bodyBuilder.appendFormalLine("// Close action mode");
+
+    // actionMode.finish();
+    bodyBuilder.appendFormalLine("actionMode.finish();");
+  }
+
+  /**
+   * Method that generates onDestroy ListActivity method. If the governor
+   * already declares onDestroy, it must invoke releaseEntityResources method.
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getOnDestroyMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Check if governor already declares onDestroy method
+    JavaSymbolName methodName = new JavaSymbolName("onDestroy");
+    if (governorHasMethod(methodName)) {
+      return null;
+    }
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // releaseEntityResources();
+    bodyBuilder.appendFormalLine(String.format("release%sResources();",
+        entity.getSimpleTypeName()));
+
+    // super.onDestroy();
+    bodyBuilder.appendFormalLine("super.onDestroy();");
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, methodName, JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.addAnnotation(new AnnotationMetadataBuilder(new JavaType("Override")));
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Method that generates releaseEntityResources ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getReleaseResourcesMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // Cancelling pending database operations
+    bodyBuilder.appendFormalLine("// Cancelling pending database operations");
+
+    // BackgroundExecutor.getInstance().cancel(this);
+    bodyBuilder.appendFormalLine(String.format("%s.getInstance().cancel(this);",
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver)));
+
+    if (isCursorBacked()) {
+      // Closing cursor and its iterator
+      bodyBuilder.appendFormalLine("// Closing cursor and its iterator");
+
+      // if (adapter != null) {
+      bodyBuilder.appendFormalLine("if (adapter != null) {");
+      bodyBuilder.indent();
+
+      // adapter.changeCursor(null);
+      bodyBuilder.appendFormalLine("adapter.changeCursor(null);");
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+    }
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "release%sResources", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that releases the resources used to display %s: pending database \n"
+                + "operations are cancelled%s. Invoked by the generated onDestroy \n"
+                + "method. Activities that declare their own onDestroy method must invoke \n"
+                + "it before super.onDestroy(). \n", entity.getSimpleTypeName().toLowerCase(),
+            isCursorBacked() ? " and the cursor is closed" : ""));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Method that generates fillEntityListAsync ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getFillEntityListAsyncMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildFillEntityListAsyncMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "fill%sListAsync", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that fills %s list with %s getted from Database outside the \n"
+                + "UI thread. ListView is updated on the UI thread when data is available. \n",
+            entity.getSimpleTypeName().toLowerCase(), entity.getSimpleTypeName().toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates fillEntityListAsync ListActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildFillEntityListAsyncMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    String entityName = entity.getSimpleTypeName();
+    String executorName =
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver);
+
+    // Paged lists only need the number of rows. Pages are loaded later
+    String resultType =
+        isPaged() ? "Long" : listEntityJavaType.getNameIncludingTypeParameters(false,
+            importResolver);
+
+    // Cursor backed lists only need the cursor. Rows are mapped when bound
+    if (isCursorBacked()) {
+      resultType = CURSOR_JAVATYPE.getNameIncludingTypeParameters(false, importResolver);
+    }
+
+    // BackgroundExecutor.getInstance().execute(this,
+    bodyBuilder.appendFormalLine(String.format("%s.getInstance().execute(this,", executorName));
+    bodyBuilder.indent();
+
+    // new BackgroundExecutor.Task<List<Entity>>() {
+    bodyBuilder.appendFormalLine(String.format("new %s.Task<%s>() {", executorName, resultType));
+    bodyBuilder.indent();
+
+    // @Override
+    // public List<Entity> call() throws Exception {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format("public %s call() throws Exception {", resultType));
+    bodyBuilder.indent();
+
+    if (isPaged()) {
+      // return getHelper().getEntityDao().countOf();
+      bodyBuilder.appendFormalLine(String.format("return getHelper().get%sDao().countOf();",
+          entityName));
+    } else if (isCursorBacked()) {
+      // Cursor cursor = queryEntityCursor();
+      bodyBuilder.appendFormalLine(String.format("%s cursor = query%sCursor();", resultType,
+          entityName));
+
+      // Executing query outside the UI thread
+      bodyBuilder.appendFormalLine("// Executing query outside the UI thread");
+
+      // cursor.getCount();
+      bodyBuilder.appendFormalLine("cursor.getCount();");
+
+      // return cursor;
+      bodyBuilder.appendFormalLine("return cursor;");
+    } else if (hasLazyReferences()) {
+      // List<Entity> result = getHelper().getEntityDao().queryForAll();
+      bodyBuilder.appendFormalLine(String.format("%s result = %s;", resultType,
+          getQueryAllExpression(String.format("getHelper().get%sDao()", entityName))));
+
+      // resolveEntityReferences(result);
+      bodyBuilder.appendFormalLine(String.format("resolve%sReferences(result);", entityName));
+
+      // return result;
+      bodyBuilder.appendFormalLine("return result;");
+    } else {
+      // return getHelper().getEntityDao().queryForAll();
+      bodyBuilder.appendFormalLine(String.format("return %s;",
+          getQueryAllExpression(String.format("getHelper().get%sDao()", entityName))));
+    }
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+
+    // }, new BackgroundExecutor.Callback<List<Entity>>() {
+    bodyBuilder.appendFormalLine(String.format("}, new %s.Callback<%s>() {", executorName,
+        resultType));
+    bodyBuilder.indent();
+
+    // @Override
+    // public void onSuccess(List<Entity> result) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine(String.format("public void onSuccess(%s result) {", resultType));
+    bodyBuilder.indent();
+
+    if (isPaged()) {
+      // entityCount = result;
+      bodyBuilder.appendFormalLine(String.format("%sCount = result;", entityName.toLowerCase()));
+
+      // entityPages.clear();
+      bodyBuilder.appendFormalLine(String.format("%sPages.clear();", entityName.toLowerCase()));
+
+      // entityLoadingPages.clear();
+      bodyBuilder.appendFormalLine(String.format("%sLoadingPages.clear();",
+          entityName.toLowerCase()));
+
+      buildPagedAdapterCreation(bodyBuilder);
+    } else if (isCursorBacked()) {
+      buildCursorAdapterCreation(bodyBuilder, String.format("%sListActivity.this", entityName),
+          "result");
+    } else {
+      // entityList = new ArrayList<Entity>(result);
+      bodyBuilder.appendFormalLine(String.format("%sList = new %s(result);", entityName
+          .toLowerCase(), arrayListEntityJavaType.getNameIncludingTypeParameters(false,
+          importResolver)));
+
+      buildArrayAdapterCreation(bodyBuilder, String.format("%sListActivity.this", entityName));
+    }
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    buildOnErrorCallbackMethod(bodyBuilder);
+    bodyBuilder.indentRemove();
+
+    // });
+    bodyBuilder.appendFormalLine("});");
+    bodyBuilder.indentRemove();
+  }
+
+  /**
+   * Method that generates removeEntityAsync ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getRemoveEntityAsyncMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildRemoveEntityAsyncMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "remove%sAsync", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that removes all selected %s outside the UI thread. \n", entity
+                .getSimpleTypeName().toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates removeEntityAsync ListActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildRemoveEntityAsyncMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+
+    String entityName = entity.getSimpleTypeName();
+    String executorName =
+        backgroundExecutorJavaType.getNameIncludingTypeParameters(false, importResolver);
+
+    // Copying selection, it could change before the task runs
+    bodyBuilder.appendFormalLine("// Copying selection, it could change before the task runs");
+
+    // final List<Long> toRemove = new ArrayList<Long>(selectedEntity);
+    bodyBuilder.appendFormalLine(String.format("final %s toRemove = new %s(selected%s);",
+        listEntityIdJavaType.getNameIncludingTypeParameters(false, importResolver),
+        arrayListEntityIdJavaType.getNameIncludingTypeParameters(false, importResolver),
+        entityName));
+
+    // BackgroundExecutor.getInstance().execute(this,
+    bodyBuilder.appendFormalLine(String.format("%s.getInstance().execute(this,", executorName));
+    bodyBuilder.indent();
+
+    // new BackgroundExecutor.Task<Integer>() {
+    bodyBuilder.appendFormalLine(String.format("new %s.Task<Integer>() {", executorName));
+    bodyBuilder.indent();
+
+    // @Override
+    // public Integer call() throws Exception {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public Integer call() throws Exception {");
+    bodyBuilder.indent();
+
+    // return deleteEntityInBatches(toRemove);
+    bodyBuilder.appendFormalLine(String.format("return delete%sInBatches(toRemove);", entityName));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+
+    // }, new BackgroundExecutor.Callback<Integer>() {
+    bodyBuilder.appendFormalLine(String.format("}, new %s.Callback<Integer>() {", executorName));
+    bodyBuilder.indent();
+
+    // @Override
+    // public void onSuccess(Integer deleted) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public void onSuccess(Integer deleted) {");
+    bodyBuilder.indent();
+
+    buildRemovedMessage(bodyBuilder);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    buildOnErrorCallbackMethod(bodyBuilder);
+    bodyBuilder.indentRemove();
+
+    // });
+    bodyBuilder.appendFormalLine("});");
+    bodyBuilder.indentRemove();
+  }
+
+  /**
+   * Generates onError method of a BackgroundExecutor.Callback anonymous
+   * class
+   * 
+   * @param bodyBuilder
+   */
+  private void buildOnErrorCallbackMethod(InvocableMemberBodyBuilder bodyBuilder) {
+    buildOnErrorCallbackMethod(bodyBuilder, null);
+  }
+
+  /**
+   * Generates onError method of a BackgroundExecutor.Callback anonymous
+   * class that executes the provided statement before handling the error
+   * 
+   * @param bodyBuilder
+   * @param statement
+   *            String with the statement to execute first. Could be null
+   */
+  private void buildOnErrorCallbackMethod(InvocableMemberBodyBuilder bodyBuilder,
+      String statement) {
+    // @Override
+    // public void onError(Exception e) {
+    bodyBuilder.appendFormalLine("@Override");
+    bodyBuilder.appendFormalLine("public void onError(Exception e) {");
+    bodyBuilder.indent();
+
+    if (statement != null) {
+      bodyBuilder.appendFormalLine(statement);
+    }
+
+    // showEntityError(e);
+    bodyBuilder.appendFormalLine(String.format("show%sError(e);", entity.getSimpleTypeName()));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+  }
+
+  /**
+   * Method that generates showEntityError ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getShowEntityErrorMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(new JavaType("java.lang.Exception")));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("e"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // Log.e("EntityListActivity", "Unable to complete entity operation", e);
+    bodyBuilder.appendFormalLine(String.format(
+        "%s.e(\"%sListActivity\", \"Unable to complete %s operation\", e);", new JavaType(
+            "android.util.Log").getNameIncludingTypeParameters(false, importResolver), entity
+            .getSimpleTypeName(), entity.getSimpleTypeName().toLowerCase()));
+
+    // Toast.makeText(getApplicationContext(), "Unable to complete entity
+    // operation", Toast.LENGTH_LONG).show();
+    bodyBuilder.appendFormalLine(String.format("%s.makeText(getApplicationContext(),",
+        new JavaType("android.widget.Toast").getNameIncludingTypeParameters(false,
+            importResolver)));
+    bodyBuilder.appendFormalLine(String.format(
+        "    \"Unable to complete %s operation\", Toast.LENGTH_LONG).show();", entity
+            .getSimpleTypeName().toLowerCase()));
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "show%sError", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that notifies the user that an operation over %s could not be \n"
+                + "completed. Invoked on the UI thread when a background operation fails. \n \n"
+                + "@param e error that caused the failure \n", entity.getSimpleTypeName()
+                .toLowerCase()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Method that generates resolveEntityReferences ListActivity method
+   * 
+   * @return
+   */
+  private MethodMetadataBuilder getResolveReferencesMethod() {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(listEntityJavaType));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("items"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    buildResolveReferencesMethodBody(bodyBuilder);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(String.format(
+            "resolve%sReferences", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Method that loads the references of the provided %s using one IN query \n"
+                + "for every %s referenced entities instead of one query for every row. \n \n"
+                + "@param items \n" + "@throws SQLException \n", entity.getSimpleTypeName()
+                .toLowerCase(), DELETE_BATCH_SIZE));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Generates resolveEntityReferences ListActivity method body
+   * 
+   * @param bodyBuilder
+   */
+  private void buildResolveReferencesMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
+    String entityName = entity.getSimpleTypeName();
+
+    for (Entry<JavaSymbolName, AndrooidEntityDescriptor> reference : lazyReferences.entrySet()) {
+      String fieldName = reference.getKey().getSymbolName();
+      AndrooidEntityDescriptor referenced = reference.getValue();
+      String referencedName = referenced.getEntity().getSimpleTypeName();
+      String referencedIdName = referenced.getIdentifierFieldName();
+      String referencedIdType =
+          referenced.getIdentifierFieldType().getNameIncludingTypeParameters(false,
+              importResolver);
+      String getReferencedId =
+          "get".concat(Character.toUpperCase(referencedIdName.charAt(0))
+              + referencedIdName.substring(1));
+      String getter =
+          BeanInfoUtils.getAccessorMethodName(reference.getKey(), referenced.getEntity())
+              .getSymbolName();
+      String setter = BeanInfoUtils.getMutatorMethodName(reference.getKey()).getSymbolName();
+
+      // Loading field references
+      bodyBuilder.appendFormalLine(String.format("// Loading %s references", fieldName));
+
+      // Set<Long> fieldIds = new HashSet<Long>();
+      bodyBuilder.appendFormalLine(String.format("%s<%s> %sIds = new %s<%s>();", new JavaType(
+          "java.util.Set").getNameIncludingTypeParameters(false, importResolver),
+          referencedIdType, fieldName, new JavaType("java.util.HashSet")
+              .getNameIncludingTypeParameters(false, importResolver), referencedIdType));
+
+      // for (Entity item : items) {
+      bodyBuilder.appendFormalLine(String.format("for (%s item : items) {", entityName));
+      bodyBuilder.indent();
+
+      // if (item.getField() != null) {
+      bodyBuilder.appendFormalLine(String.format("if (item.%s() != null) {", getter));
+      bodyBuilder.indent();
+
+      // fieldIds.add(item.getField().getId());
+      bodyBuilder.appendFormalLine(String.format("%sIds.add(item.%s().%s());", fieldName, getter,
+          getReferencedId));
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+
+      // Map<Long, Referenced> fieldById = new HashMap<Long, Referenced>();
+      bodyBuilder.appendFormalLine(String.format("%s<%s, %s> %sById = new %s<%s, %s>();",
+          new JavaType("java.util.Map").getNameIncludingTypeParameters(false, importResolver),
+          referencedIdType, referencedName, fieldName, new JavaType("java.util.HashMap")
+              .getNameIncludingTypeParameters(false, importResolver), referencedIdType,
+          referencedName));
+
+      // List<Long> fieldIdList = new ArrayList<Long>(fieldIds);
+      bodyBuilder.appendFormalLine(String.format("List<%s> %sIdList = new ArrayList<%s>(%sIds);",
+          referencedIdType, fieldName, referencedIdType, fieldName));
+
+      // for (int i = 0; i < fieldIdList.size(); i += REFERENCES_BATCH_SIZE) {
+      bodyBuilder.appendFormalLine(String.format(
+          "for (int i = 0; i < %sIdList.size(); i += REFERENCES_BATCH_SIZE) {", fieldName));
+      bodyBuilder.indent();
+
+      // List<Long> batch = fieldIdList.subList(i,
+      // Math.min(i + REFERENCES_BATCH_SIZE, fieldIdList.size()));
+      bodyBuilder.appendFormalLine(String.format("List<%s> batch = %sIdList.subList(i,",
+          referencedIdType, fieldName));
+      bodyBuilder.appendFormalLine(String.format(
+          "    Math.min(i + REFERENCES_BATCH_SIZE, %sIdList.size()));", fieldName));
+
+      // for (Referenced referenced : getHelper().getReferencedDao()
+      // .queryBuilder().where().in("id", batch).query()) {
+      bodyBuilder.appendFormalLine(String.format("for (%s referenced : getHelper().get%sDao()",
+          referencedName, referencedName));
+      bodyBuilder.appendFormalLine(String.format(
+          "    .queryBuilder().where().in(\"%s\", batch).query()) {", referencedIdName));
+      bodyBuilder.indent();
+
+      // fieldById.put(referenced.getId(), referenced);
+      bodyBuilder.appendFormalLine(String.format("%sById.put(referenced.%s(), referenced);",
+          fieldName, getReferencedId));
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+
+      // for (Entity item : items) {
+      bodyBuilder.appendFormalLine(String.format("for (%s item : items) {", entityName));
+      bodyBuilder.indent();
+
+      // Referenced referenced = item.getField() != null
+      // ? fieldById.get(item.getField().getId()) : null;
+      bodyBuilder.appendFormalLine(String.format("%s referenced = item.%s() != null",
+          referencedName, getter));
+      bodyBuilder.appendFormalLine(String.format("    ? %sById.get(item.%s().%s()) : null;",
+          fieldName, getter, getReferencedId));
+
+      // if (referenced != null) {
+      bodyBuilder.appendFormalLine("if (referenced != null) {");
+      bodyBuilder.indent();
+
+      // item.setField(referenced);
+      bodyBuilder.appendFormalLine(String.format("item.%s(referenced);", setter));
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+    }
+  }
+
+  /**
+   * Obtains the expression that loads all entities using the provided DAO.
+   * If columns to display are defined, only these columns are selected.
+   * 
+   * @param daoExpression
+   *            String with the expression that references the entity DAO
+   * @return String with the query expression
+   */
+  private String getQueryAllExpression(String daoExpression) {
+    if (!hasColumns()) {
+      return daoExpression.concat(".queryForAll()");
+    }
+    return String.format("%s.queryBuilder()%s.query()", daoExpression, getSelectColumnsCall());
+  }
+
+  /**
+   * Obtains the selectColumns call to include on a QueryBuilder chain. Entity
+   * identifier is always selected because selection and navigation use it.
+   * 
+   * @return String like .selectColumns("id", "name") or empty String if
+   *         columns to display are not defined
+   */
+  private String getSelectColumnsCall() {
+    if (!hasColumns()) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(".selectColumns(\"");
+    sb.append(entityIdFieldName).append("\"");
+    for (String columnName : columns.keySet()) {
+      if (!columnName.equals(entityIdFieldName)) {
+        sb.append(", \"").append(columnName).append("\"");
+      }
+    }
+    return sb.append(")").toString();
+  }
+
+  /**
+   * Obtains the type of the DAO returned by DatabaseHelper for the current
+   * entity
+   * 
+   * @return JavaType of Dao parameterized with entity and identifier types
+   */
+  private JavaType getEntityDaoJavaType() {
+    return new JavaType("com.j256.ormlite.dao.Dao", 0, DataType.TYPE, null, Arrays.asList(
+        entity, entityIdFieldType));
+  }
+
+  /**
+   * Obtains the text displayed on rows of paged lists until their page is
+   * loaded
+   * 
+   * @return String with the placeholder text
+   */
+  private String getPlaceholderText() {
+    return isPaged() ? "..." : "";
+  }
+
+  /**
+   * Checks if current ListActivity needs to load references that are not
+   * refreshed automatically by ORMLite. Cursor backed lists map every row
+   * when it is displayed, so references are not loaded in batches.
+   * 
+   * @return true if there are lazy references to load
+   */
+  private boolean hasLazyReferences() {
+    return !lazyReferences.isEmpty() && !isCursorBacked();
+  }
+
+  /**
+   * Checks if current ListActivity displays a projection of entity columns
+   * 
+   * @return true if columns to display are defined
+   */
+  private boolean hasColumns() {
+    return !columns.isEmpty();
+  }
+
+  /**
+   * Checks if current ListActivity loads its entities by pages
+   * 
+   * @return true if pageSize is greater than 0
+   */
+  private boolean isPaged() {
+    return pageSize > 0;
+  }
+
+  /**
+   * Checks if current ListActivity binds its rows from a database cursor
+   * 
+   * @return true if cursorAdapter is enabled
+   */
+  private boolean isCursorBacked() {
+    return cursorAdapter;
   }
 
   @Override
@@ -1,5 +1,11 @@
 package io.androoid.roo.addon.suite.addon.activities;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang3.Validate;
@@ -11,18 +17,25 @@ import org.springframework.roo.classpath.PhysicalTypeIdentifier;
 import org.springframework.roo.classpath.PhysicalTypeMetadata;
 import org.springframework.roo.classpath.TypeLocationService;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.annotations.ArrayAttributeValue;
 import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
+import org.springframework.roo.classpath.details.annotations.StringAttributeValue;
 import org.springframework.roo.classpath.itd.AbstractItdMetadataProvider;
 import org.springframework.roo.classpath.itd.ItdTypeDetailsProvidingMetadataItem;
 import org.springframework.roo.model.JavaPackage;
+import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
 import org.springframework.roo.project.LogicalPath;
 import org.springframework.roo.project.ProjectOperations;
 import org.springframework.roo.support.logging.HandlerUtils;
 
 import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidListActivity;
+import io.androoid.roo.addon.suite.addon.entities.AndrooidEntityMetadata;
 import io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptorService;
 
 /**
  * Provides {@link AndrooidActivityListMetadata}.
@@ -46,10 +59,21 @@ public class AndrooidActivityListMetadataProvider extends AbstractItdMetadataPro
 
   @Reference
   TypeLocationService typeLocationService;
+  @Reference
+  AndrooidEntityDescriptorService entityDescriptorService;
+
+  /**
+   * Physical type identifier of the entity related with every generated
+   * activity metadata
+   */
+  private final Map<String, String> activityEntities = new HashMap<String, String>();
 
   protected void activate(final ComponentContext cContext) {
     context = cContext.getBundleContext();
     getMetadataDependencyRegistry().addNotificationListener(this);
+    // Only used to discover new activities. Changes on a type that is not
+    // annotated don't generate any metadata and changes on the related
+    // entity are notified using registerEntityDependencies method
     getMetadataDependencyRegistry().registerDependency(
         PhysicalTypeIdentifier.getMetadataIdentiferType(), getProvidesType());
     addMetadataTrigger(ANDROOID_LIST_ACTIVITY_ANNOTATION);
@@ -62,6 +86,10 @@ public class AndrooidActivityListMetadataProvider extends AbstractItdMetadataPro
 
   protected void deactivate(final ComponentContext context) {
     getMetadataDependencyRegistry().removeNotificationListener(this);
+    for (Entry<String, String> activityEntity : activityEntities.entrySet()) {
+      deregisterEntityDependencies(activityEntity.getKey(), activityEntity.getValue());
+    }
+    activityEntities.clear();
     getMetadataDependencyRegistry().deregisterDependency(
         PhysicalTypeIdentifier.getMetadataIdentiferType(), getProvidesType());
     removeMetadataTrigger(ANDROOID_LIST_ACTIVITY_ANNOTATION);
@@ -107,32 +135,159 @@ public class AndrooidActivityListMetadataProvider extends AbstractItdMetadataPro
     Validate.notNull(entity,
         "ERROR: @AndrooidListActivity needs to specify a valid entity attribute.");
 
-    ClassOrInterfaceTypeDetails entityDetails = typeLocationService.getTypeDetails(entity);
+    // Getting cached entity descriptor
+    AndrooidEntityDescriptor entityDescriptor = entityDescriptorService.getDescriptor(entity);
 
-    // Getting @AndrooidEntity annotation and attributes
-    AnnotationMetadata entityAnnotation = entityDetails.getAnnotation(ANDROOID_ENTITY_ANNOTATION);
-
-    Validate.notNull(entityAnnotation,
+    Validate.notNull(entityDescriptor,
         "ERROR: Only entities annotated with @AndrooidEntity are allowed.");
 
-    AnnotationAttributeValue<String> identifierFieldNameAttr =
-        entityAnnotation.getAttribute("identifierField");
-    AnnotationAttributeValue<Class<?>> identifierFieldTypeAttr =
-        entityAnnotation.getAttribute("identifierType");
+    // Activity ITD only needs to be updated when its entity changes
+    registerEntityDependencies(metadataIdentificationString, entityDescriptor);
+
+    String entityIdFieldName = entityDescriptor.getIdentifierFieldName();
+    JavaType entityIdFieldType = entityDescriptor.getIdentifierFieldType();
+
+    // Getting paging configuration
+    AnnotationAttributeValue<Integer> pageSizeAttr = annotation.getAttribute("pageSize");
+    AnnotationAttributeValue<Integer> cachedPagesAttr = annotation.getAttribute("cachedPages");
+
+    int pageSize = AndrooidListActivity.PAGE_SIZE_DEFAULT;
+    int cachedPages = AndrooidListActivity.CACHED_PAGES_DEFAULT;
+
+    if (pageSizeAttr != null) {
+      pageSize = pageSizeAttr.getValue();
+    }
+
+    if (cachedPagesAttr != null) {
+      cachedPages = cachedPagesAttr.getValue();
+    }
+
+    Validate.isTrue(pageSize >= 0,
+        "ERROR: @AndrooidListActivity pageSize attribute must be 0 or a positive value.");
+    Validate.isTrue(cachedPages > 0,
+        "ERROR: @AndrooidListActivity cachedPages attribute must be a positive value.");
+
+    // Getting cursor adapter configuration
+    AnnotationAttributeValue<Boolean> cursorAdapterAttr = annotation.getAttribute("cursorAdapter");
+
+    boolean cursorAdapter = false;
+
+    if (cursorAdapterAttr != null) {
+      cursorAdapter = cursorAdapterAttr.getValue();
+    }
+
+    Validate.isTrue(!(cursorAdapter && pageSize > 0),
+        "ERROR: @AndrooidListActivity cursorAdapter attribute can not be combined with pageSize.");
 
-    String entityIdFieldName = AndrooidEntity.ID_FIELD_DEFAULT;
-    JavaType entityIdFieldType = JavaType.LONG_OBJECT;
+    // Getting columns to display by column name
+    AnnotationAttributeValue<?> columnsAttr = annotation.getAttribute("columns");
 
-    if (identifierFieldNameAttr != null) {
-      entityIdFieldName = identifierFieldNameAttr.getValue();
+    Map<String, FieldMetadata> columns = new LinkedHashMap<String, FieldMetadata>();
+
+    if (columnsAttr instanceof ArrayAttributeValue) {
+      @SuppressWarnings("unchecked")
+      ArrayAttributeValue<StringAttributeValue> columnsArray =
+          (ArrayAttributeValue<StringAttributeValue>) columnsAttr;
+      for (StringAttributeValue column : columnsArray.getValue()) {
+        FieldMetadata field = entityDescriptor.getDatabaseField(column.getValue());
+        Validate.notNull(field, String.format(
+            "ERROR: @AndrooidListActivity column '%s' is not a database field of %s.",
+            column.getValue(), entity.getSimpleTypeName()));
+        // Cursor backed lists bind the raw column, that only contains the
+        // identifier of the referenced entity
+        Validate.isTrue(!(cursorAdapter && entityDescriptor.isForeign(field)), String.format(
+            "ERROR: @AndrooidListActivity column '%s' is a reference and can not be displayed "
+                + "when cursorAdapter is enabled.", column.getValue()));
+        columns.put(entityDescriptor.getColumnName(field), field);
+      }
     }
 
-    if (identifierFieldTypeAttr != null) {
-      entityIdFieldType = new JavaType(identifierFieldTypeAttr.getValue());
+    // Getting displayed references that ORMLite doesn't refresh automatically
+    Map<JavaSymbolName, AndrooidEntityDescriptor> lazyReferences =
+        new LinkedHashMap<JavaSymbolName, AndrooidEntityDescriptor>();
+
+    Collection<FieldMetadata> displayedFields =
+        columns.isEmpty() ? entityDescriptor.getDatabaseFields() : columns.values();
+    for (FieldMetadata field : displayedFields) {
+      if (entityDescriptor.isLazyReference(field)) {
+        AndrooidEntityDescriptor referencedDescriptor =
+            entityDescriptorService.getDescriptor(field.getFieldType());
+        if (referencedDescriptor != null) {
+          lazyReferences.put(field.getFieldName(), referencedDescriptor);
+        }
+      }
+    }
+
+    // Activities that declare their own onDestroy method must release the
+    // resources of the generated activity
+    JavaSymbolName onDestroy = new JavaSymbolName("onDestroy");
+    if (listActivityDetails.getMethod(onDestroy, new ArrayList<JavaType>()) != null) {
+      LOGGER.warning(String.format("%s declares onDestroy method. It must invoke "
+          + "release%sResources() to cancel pending operations of the activity.",
+          listActivity.getSimpleTypeName(), entity.getSimpleTypeName()));
     }
 
     return new AndrooidActivityListMetadata(metadataIdentificationString, aspectName,
-        governorPhysicalTypeMetadata, projectPackage, entity, entityIdFieldName, entityIdFieldType);
+        governorPhysicalTypeMetadata, projectPackage, entity, entityIdFieldName, entityIdFieldType,
+        pageSize, cachedPages, cursorAdapter, columns, lazyReferences);
+  }
+
+  /**
+   * Registers the entity physical type and its @AndrooidEntity metadata as
+   * upstream dependencies of the provided activity metadata. Dependencies
+   * with a previous entity of the same activity are removed.
+   * 
+   * @param metadataIdentificationString
+   *            activity metadata identifier
+   * @param entityDescriptor
+   *            entity related with the activity
+   */
+  private void registerEntityDependencies(String metadataIdentificationString,
+      AndrooidEntityDescriptor entityDescriptor) {
+    String entityPhysicalTypeId = entityDescriptor.getPhysicalTypeIdentifier();
+    String previousEntityPhysicalTypeId =
+        activityEntities.put(metadataIdentificationString, entityPhysicalTypeId);
+
+    if (entityPhysicalTypeId.equals(previousEntityPhysicalTypeId)) {
+      return;
+    }
+
+    if (previousEntityPhysicalTypeId != null) {
+      deregisterEntityDependencies(metadataIdentificationString, previousEntityPhysicalTypeId);
+    }
+
+    getMetadataDependencyRegistry().registerDependency(entityPhysicalTypeId,
+        metadataIdentificationString);
+    getMetadataDependencyRegistry().registerDependency(
+        getEntityMetadataIdentifier(entityPhysicalTypeId), metadataIdentificationString);
+  }
+
+  /**
+   * Removes dependencies registered by
+   * {@link #registerEntityDependencies(String, AndrooidEntityDescriptor)}
+   * 
+   * @param metadataIdentificationString
+   *            activity metadata identifier
+   * @param entityPhysicalTypeId
+   *            physical type identifier of the entity
+   */
+  private void deregisterEntityDependencies(String metadataIdentificationString,
+      String entityPhysicalTypeId) {
+    getMetadataDependencyRegistry().deregisterDependency(entityPhysicalTypeId,
+        metadataIdentificationString);
+    getMetadataDependencyRegistry().deregisterDependency(
+        getEntityMetadataIdentifier(entityPhysicalTypeId), metadataIdentificationString);
+  }
+
+  /**
+   * @param entityPhysicalTypeId
+   *            physical type identifier of an entity
+   * @return identifier of the {@link AndrooidEntityMetadata} of the entity
+   */
+  private String getEntityMetadataIdentifier(String entityPhysicalTypeId) {
+    return AndrooidEntityMetadata.createIdentifier(
+        PhysicalTypeIdentifier.getJavaType(entityPhysicalTypeId),
+        PhysicalTypeIdentifier.getPath(entityPhysicalTypeId));
   }
 
   public String getProvidesType() {
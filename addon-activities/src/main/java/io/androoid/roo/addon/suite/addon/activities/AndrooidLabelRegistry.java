@@ -0,0 +1,43 @@
+package io.androoid.roo.addon.suite.addon.activities;
+
+/**
+ * Registry of the labels declared on values/strings.xml file. Labels are
+ * indexed by their name attribute, so existing labels are not included again.
+ * New labels are accumulated and strings.xml file is written once when the
+ * current batch is committed. If the batch is discarded, its labels are
+ * discarded too.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public interface AndrooidLabelRegistry {
+
+  /**
+   * Checks if strings.xml file declares or will declare a label with the
+   * provided name
+   *
+   * @param name
+   *            name attribute of the label
+   * @return true if label exists
+   */
+  boolean hasLabel(String name);
+
+  /**
+   * Includes a new label on strings.xml file. If a label with the same name
+   * exists, its value is not modified. Outside of a batch, strings.xml file
+   * is written immediately.
+   *
+   * @param name
+   *            name attribute of the label
+   * @param value
+   *            the value of the label
+   * @return true if label has been included
+   */
+  boolean addLabel(String name, String value);
+
+  /**
+   * Writes pending labels on strings.xml file
+   */
+  void flush();
+
+}
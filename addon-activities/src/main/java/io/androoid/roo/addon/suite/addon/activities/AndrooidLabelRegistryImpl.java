@@ -0,0 +1,194 @@
+package io.androoid.roo.addon.suite.addon.activities;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.springframework.roo.project.LogicalPath;
+import org.springframework.roo.project.Path;
+import org.springframework.roo.project.ProjectOperations;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import io.androoid.roo.addon.suite.support.AndrooidBatchOperations;
+
+/**
+ * Implementation of {@link AndrooidLabelRegistry} interface.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+@Component
+@Service
+public class AndrooidLabelRegistryImpl implements AndrooidLabelRegistry {
+
+  @Reference
+  private ProjectOperations projectOperations;
+  @Reference
+  private AndrooidBatchOperations batchOperations;
+
+  /**
+   * Document used to build the labels index. On a batch, AndrooidBatchOperations
+   * returns the same Document until the batch is committed, so the index is
+   * only built again when a new Document is read. Outside of a batch, the
+   * Document is read again only if strings.xml file changes on disk.
+   */
+  private Document indexedDocument;
+  private String indexedPath;
+  private boolean indexedOutsideBatch = false;
+
+  /**
+   * Last modification time and size of the indexed file. Used to check if
+   * the file was modified outside of this registry
+   */
+  private long lastModified;
+  private long length;
+  private boolean fileStateOutdated = false;
+
+  /**
+   * Labels of strings.xml file, by name
+   */
+  private final Map<String, Element> labels = new HashMap<String, Element>();
+
+  /**
+   * Labels to include on strings.xml file, by name
+   */
+  private final Map<String, String> pendingLabels = new LinkedHashMap<String, String>();
+
+  /** {@inheritDoc} */
+  public boolean hasLabel(String name) {
+    return pendingLabels.containsKey(name) || getLabels().containsKey(name);
+  }
+
+  /** {@inheritDoc} */
+  public boolean addLabel(String name, String value) {
+    if (hasLabel(name)) {
+      return false;
+    }
+
+    pendingLabels.put(name, value);
+
+    // On a batch, strings.xml file is written once
+    batchOperations.runOnCommit("strings.xml", new Runnable() {
+      public void run() {
+        flush();
+      }
+    });
+
+    // Labels of a discarded batch are never written
+    batchOperations.runOnRollback("strings.xml", new Runnable() {
+      public void run() {
+        pendingLabels.clear();
+      }
+    });
+    return true;
+  }
+
+  /** {@inheritDoc} */
+  public void flush() {
+    if (pendingLabels.isEmpty()) {
+      return;
+    }
+
+    final Document stringsFile = getDocument();
+    final Element root = stringsFile.getDocumentElement();
+
+    for (Entry<String, String> label : pendingLabels.entrySet()) {
+      if (existingLabels.containsKey(label.getKey())) {
+        continue;
+      }
+      Element stringElement = stringsFile.createElement("string");
+      stringElement.setAttribute("name", label.getKey());
+      stringElement.setTextContent(label.getValue());
+      root.appendChild(stringElement);
+      labels.put(label.getKey(), stringElement);
+    }
+    pendingLabels.clear();
+
+    batchOperations.writeXml(indexedPath, stringsFile);
+
+    // FileManager could write the file after closing the stream
+    fileStateOutdated = true;
+  }
+
+  /**
+   * Obtains the labels index
+   *
+   * @return Map with labels by name
+   */
+  private Map<String, Element> getLabels() {
+    getDocument();
+    return labels;
+  }
+
+  /**
+   * Obtains strings.xml Document, building the labels index again if the
+   * Document has been read again
+   *
+   * @return the Document used to build the labels index
+   */
+  private Document getDocument() {
+    String path = getStringsPath();
+    boolean outsideBatch = !batchOperations.isActive();
+    if (outsideBatch && indexedOutsideBatch && path.equals(indexedPath) && !isChangedOnDisk()) {
+      return indexedDocument;
+    }
+
+    Document stringsFile = batchOperations.readXml(path);
+    if (stringsFile != indexedDocument) {
+      labels.clear();
+      NodeList stringElements = stringsFile.getDocumentElement().getElementsByTagName("string");
+      for (int i = 0; i < stringElements.getLength(); i++) {
+        Element stringElement = (Element) stringElements.item(i);
+        labels.put(stringElement.getAttribute("name"), stringElement);
+      }
+      indexedDocument = stringsFile;
+      indexedPath = path;
+    }
+    indexedOutsideBatch = outsideBatch;
+    if (outsideBatch) {
+      updateFileState();
+    }
+    return stringsFile;
+  }
+
+  /**
+   * @return true if strings.xml file was modified since it was indexed or
+   *         written by this registry
+   */
+  private boolean isChangedOnDisk() {
+    if (fileStateOutdated) {
+      updateFileState();
+      return false;
+    }
+    File file = new File(indexedPath);
+    return file.lastModified() != lastModified || file.length() != length;
+  }
+
+  /**
+   * Stores current modification time and size of strings.xml file
+   */
+  private void updateFileState() {
+    File file = new File(indexedPath);
+    lastModified = file.lastModified();
+    length = file.length();
+    fileStateOutdated = false;
+  }
+
+  /**
+   * This method obtains strings.xml canonical path
+   *
+   * @return
+   */
+  private String getStringsPath() {
+    return projectOperations.getPathResolver().getIdentifier(
+        LogicalPath.getInstance(Path.SRC_MAIN_RES, ""), "values/strings.xml");
+  }
+
+}
@@ -15,9 +15,18 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.SOURCE)
 public @interface AndrooidFormActivity {
 
+  int GEO_SEARCH_DELAY_DEFAULT = 1000;
+
   /**
    * @return the class of the related entity
    */
   Class<?> entity();
 
+  /**
+   * @return milliseconds to wait since the last change of the address of a
+   *         GEO field before locating it (defaults to
+   *         {@value #GEO_SEARCH_DELAY_DEFAULT})
+   */
+  int geoSearchDelay() default GEO_SEARCH_DELAY_DEFAULT;
+
 }
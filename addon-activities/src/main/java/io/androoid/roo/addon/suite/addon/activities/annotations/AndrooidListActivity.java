@@ -15,9 +15,45 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.SOURCE)
 public @interface AndrooidListActivity {
 
+  int PAGE_SIZE_DEFAULT = 0;
+
+  int CACHED_PAGES_DEFAULT = 3;
+
   /**
    * @return the class of the related entity
    */
   Class<?> entity();
 
+  /**
+   * @return the number of rows to load on every database page (defaults to
+   *         {@value #PAGE_SIZE_DEFAULT}, that loads all rows at once). If
+   *         greater than 0, a windowed adapter that loads pages on scroll will
+   *         be generated.
+   */
+  int pageSize() default PAGE_SIZE_DEFAULT;
+
+  /**
+   * @return the maximum number of pages to keep in memory when
+   *         {@link #pageSize()} is greater than 0 (defaults to
+   *         {@value #CACHED_PAGES_DEFAULT})
+   */
+  int cachedPages() default CACHED_PAGES_DEFAULT;
+
+  /**
+   * @return true if list rows should be bound directly from a database
+   *         cursor using a CursorAdapter (defaults to false). Only the visible
+   *         rows are loaded as entities. Cannot be combined with
+   *         {@link #pageSize()}.
+   */
+  boolean cursorAdapter() default false;
+
+  /**
+   * @return names of the entity fields to display on every list row (defaults
+   *         to none, that displays the entity toString). If provided, only
+   *         these columns and the identifier are loaded from Database and
+   *         rows are bound using a ViewHolder. References can not be
+   *         displayed when {@link #cursorAdapter()} is enabled.
+   */
+  String[] columns() default {};
+
 }
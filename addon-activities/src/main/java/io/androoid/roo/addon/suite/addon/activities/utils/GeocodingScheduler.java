@@ -0,0 +1,275 @@
+package io.androoid.roo.addon.suite.addon.activities.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Debounce, coalescing and cancellation of the lookups of GeocodingPipeline,
+ * the geocoding utility installed on Android projects with GEO fields.
+ *
+ * This class doesn't depend on the Android platform: the UI thread, the
+ * background executor and the loader of the values are provided by
+ * GeocodingPipeline. It is installed on Android projects together with
+ * GeocodingPipeline, replacing its package by the utils package of the
+ * project, so it must stay compatible with Java 6.
+ *
+ * Every lookup is registered with an owner. A new lookup of the same owner
+ * cancels the previous one, so superseded results are never delivered.
+ * Lookups of the same key that are pending at the same time share a single
+ * load, and loaded values are kept on an in-memory LRU cache. All methods must
+ * be invoked from the UI thread, where results are delivered.
+ *
+ * @param <V>
+ *            type of the loaded values
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public final class GeocodingScheduler<V> {
+
+  /**
+   * Runs tasks on the UI thread
+   */
+  public interface MainThread {
+
+    /**
+     * @param task
+     *            task to run on the UI thread
+     * @param delayMillis
+     *            delay before the task runs
+     */
+    void postDelayed(Runnable task, long delayMillis);
+
+    /**
+     * @param task
+     *            posted task that must not run
+     */
+    void removeCallbacks(Runnable task);
+  }
+
+  /**
+   * Loads the value of a key. Invoked on a background thread.
+   */
+  public interface Loader<V> {
+
+    /**
+     * @param key
+     *            key to load
+     * @return the value of the key or null if it was not found
+     * @throws Exception
+     *             if the key could not be loaded. Failures are not cached,
+     *             so the key is loaded again on the next lookup.
+     */
+    V load(String key) throws Exception;
+  }
+
+  /**
+   * Receives the result of a lookup on the UI thread
+   */
+  public interface Callback<V> {
+
+    /**
+     * @param value
+     *            value of the key or null if it was not found
+     */
+    void onResult(V value);
+  }
+
+  private final MainThread mainThread;
+  private final ExecutorService executor;
+  private final Loader<V> loader;
+
+  // Only accessed from the UI thread. Keys that were not found are cached
+  // with a null value
+  private final Map<String, V> memoryCache;
+  private final Map<String, Lookup<V>> pendingLookups;
+  private final Map<Object, Request<V>> requests;
+
+  /**
+   * @param mainThread
+   *            UI thread where lookups start and results are delivered
+   * @param executor
+   *            executor where values are loaded
+   * @param loader
+   *            loader of the values that are not cached
+   * @param memoryCacheSize
+   *            maximum number of values kept on memory
+   */
+  public GeocodingScheduler(MainThread mainThread, ExecutorService executor, Loader<V> loader,
+      int memoryCacheSize) {
+    this.mainThread = mainThread;
+    this.executor = executor;
+    this.loader = loader;
+    memoryCache = new LruMap<V>(memoryCacheSize);
+    pendingLookups = new HashMap<String, Lookup<V>>();
+    requests = new HashMap<Object, Request<V>>();
+  }
+
+  /**
+   * Looks up the provided key once the debounce delay has elapsed without a
+   * new lookup of the same owner. Pending lookup of the owner is cancelled.
+   *
+   * @param owner
+   *            object that owns the lookup. Used to cancel it.
+   * @param key
+   *            key to look up
+   * @param debounceMillis
+   *            delay before the lookup starts
+   * @param callback
+   *            callback to notify on the UI thread
+   */
+  public void lookup(Object owner, String key, long debounceMillis,
+      Callback<? super V> callback) {
+    cancel(owner);
+    final Request<V> request = new Request<V>(owner, key, callback);
+    request.start = new Runnable() {
+      @Override
+      public void run() {
+        start(request);
+      }
+    };
+    requests.put(owner, request);
+    mainThread.postDelayed(request.start, debounceMillis);
+  }
+
+  /**
+   * Cancels the pending lookup of the provided owner. The load is
+   * interrupted if no other owner is waiting for the same key.
+   *
+   * @param owner
+   *            object that owns the lookup to cancel
+   */
+  public void cancel(Object owner) {
+    Request<V> request = requests.remove(owner);
+    if (request == null) {
+      return;
+    }
+    mainThread.removeCallbacks(request.start);
+    Lookup<V> lookup = request.lookup;
+    if (lookup != null) {
+      lookup.requests.remove(request);
+      if (lookup.requests.isEmpty()) {
+        lookup.future.cancel(true);
+        pendingLookups.remove(lookup.key);
+      }
+    }
+  }
+
+  private void start(Request<V> request) {
+    if (memoryCache.containsKey(request.key)) {
+      requests.remove(request.owner);
+      request.callback.onResult(memoryCache.get(request.key));
+      return;
+    }
+
+    // Joining the pending lookup of the same key if exists
+    Lookup<V> lookup = pendingLookups.get(request.key);
+    if (lookup == null) {
+      final Lookup<V> newLookup = new Lookup<V>(request.key);
+      newLookup.future = executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          load(newLookup);
+        }
+      });
+      pendingLookups.put(request.key, newLookup);
+      lookup = newLookup;
+    }
+    lookup.requests.add(request);
+    request.lookup = lookup;
+  }
+
+  private void load(final Lookup<V> lookup) {
+    V value = null;
+    boolean failed = false;
+    try {
+      value = loader.load(lookup.key);
+    } catch (Exception e) {
+      failed = true;
+    }
+    if (Thread.currentThread().isInterrupted()) {
+      return;
+    }
+
+    final V result = value;
+    final boolean cacheable = !failed;
+    mainThread.postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        finish(lookup, result, cacheable);
+      }
+    }, 0);
+  }
+
+  private void finish(Lookup<V> lookup, V result, boolean cacheable) {
+    if (pendingLookups.get(lookup.key) == lookup) {
+      pendingLookups.remove(lookup.key);
+    }
+    if (lookup.future.isCancelled()) {
+      return;
+    }
+    if (cacheable) {
+      memoryCache.put(lookup.key, result);
+    }
+    for (Request<V> request : lookup.requests) {
+      if (requests.get(request.owner) == request) {
+        requests.remove(request.owner);
+      }
+      request.callback.onResult(result);
+    }
+  }
+
+  /**
+   * Lookup of a key registered by an owner
+   */
+  private static final class Request<V> {
+    private final Object owner;
+    private final String key;
+    private final Callback<? super V> callback;
+    private Runnable start;
+    private Lookup<V> lookup;
+
+    private Request(Object owner, String key, Callback<? super V> callback) {
+      this.owner = owner;
+      this.key = key;
+      this.callback = callback;
+    }
+  }
+
+  /**
+   * Load shared by all requests of the same key
+   */
+  private static final class Lookup<V> {
+    private final String key;
+    private final List<Request<V>> requests = new ArrayList<Request<V>>();
+    private Future<?> future;
+
+    private Lookup(String key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * Map that discards the least recently used entry when it is full
+   */
+  private static final class LruMap<V> extends LinkedHashMap<String, V> {
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    private LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+}
@@ -0,0 +1,167 @@
+package io.androoid.roo.addon.suite.addon.activities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Modifier;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.springframework.roo.classpath.PhysicalTypeCategory;
+import org.springframework.roo.classpath.PhysicalTypeIdentifier;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetailsBuilder;
+import org.springframework.roo.classpath.details.DefaultPhysicalTypeMetadata;
+import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.ItdTypeDetails;
+import org.springframework.roo.classpath.details.MethodMetadata;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.model.JavaPackage;
+import org.springframework.roo.model.JavaSymbolName;
+import org.springframework.roo.model.JavaType;
+import org.springframework.roo.project.LogicalPath;
+import org.springframework.roo.project.Path;
+
+import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidListActivity;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+
+/**
+ * Checks the windowed adapter generated for paged list activities and the
+ * cursor generated for cursor backed list activities
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class AndrooidActivityListMetadataTest {
+
+  private static final JavaPackage PROJECT_PACKAGE = new JavaPackage("org.example.app");
+
+  private static final LogicalPath SRC_MAIN_JAVA = LogicalPath.getInstance(Path.SRC_MAIN_JAVA, "");
+
+  private static final JavaType PERSON = new JavaType("org.example.app.domain.Person");
+
+  private static final JavaType PERSON_LIST_ACTIVITY = new JavaType(
+      "org.example.app.activities.PersonListActivity");
+
+  @Test
+  public void pagedListOnlyCountsRowsWhenFilled() {
+    ItdTypeDetails itd = getListActivityItd(20, 3, false);
+
+    String fillAsync = getMethodBody(itd, "fillPersonListAsync");
+    assertTrue(fillAsync, fillAsync.contains("return getHelper().getPersonDao().countOf();"));
+    assertTrue(fillAsync, fillAsync.contains("personPages.clear();"));
+    assertTrue(fillAsync, fillAsync.contains("personLoadingPages.clear();"));
+    assertFalse(fillAsync, fillAsync.contains("queryForAll"));
+  }
+
+  @Test
+  public void pagedListLoadsMissingPagesOutsideTheUiThread() {
+    ItdTypeDetails itd = getListActivityItd(20, 3, false);
+
+    String atPosition = getMethodBody(itd, "getPersonAtPosition");
+    assertTrue(atPosition, atPosition.contains("int page = position / PAGE_SIZE;"));
+    assertTrue(atPosition, atPosition.contains("loadPersonPageAsync(page);"));
+    assertTrue(atPosition, atPosition.contains("int index = position % PAGE_SIZE;"));
+
+    String loadPage = getMethodBody(itd, "loadPersonPageAsync");
+    assertTrue(loadPage, loadPage.contains("if (!personLoadingPages.add(page)) {"));
+    assertTrue(loadPage, loadPage.contains("final long offset = (long) page * PAGE_SIZE;"));
+    assertTrue(loadPage, loadPage.contains(".offset(offset).limit((long) PAGE_SIZE).query();"));
+    assertTrue(loadPage, loadPage.contains("if (!personLoadingPages.remove(requestedPage)) {"));
+  }
+
+  @Test
+  public void pagedListKeepsOnlyCachedPages() {
+    ItdTypeDetails itd = getListActivityItd(20, 3, false);
+
+    assertEquals("20", getField(itd, "PAGE_SIZE").getFieldInitializer());
+    assertEquals("3", getField(itd, "CACHED_PAGES").getFieldInitializer());
+
+    // Access ordered map, so the least recently used page is the first one
+    assertTrue(getField(itd, "personPages").getFieldInitializer().endsWith(
+        "(CACHED_PAGES, 0.75f, true)"));
+
+    String loadPage = getMethodBody(itd, "loadPersonPageAsync");
+    assertTrue(loadPage, loadPage.contains("if (personPages.size() >= CACHED_PAGES) {"));
+    assertTrue(loadPage,
+        loadPage.contains("personPages.remove(personPages.keySet().iterator().next());"));
+    assertTrue(loadPage, loadPage.contains("personPages.put(requestedPage, rows);"));
+  }
+
+  @Test
+  public void unpagedListLoadsAllRows() {
+    ItdTypeDetails itd = getListActivityItd(0, AndrooidListActivity.CACHED_PAGES_DEFAULT, false);
+
+    assertNull(getMethod(itd, "getPersonAtPosition"));
+    assertNull(getMethod(itd, "loadPersonPageAsync"));
+    assertTrue(getMethodBody(itd, "fillPersonListAsync").contains("queryForAll()"));
+  }
+
+  @Test
+  public void cursorListClosesIteratorWithCursor() {
+    ItdTypeDetails itd = getListActivityItd(0, AndrooidListActivity.CACHED_PAGES_DEFAULT, true);
+
+    String queryCursor = getMethodBody(itd, "queryPersonCursor");
+    assertTrue(queryCursor, queryCursor.contains("final CloseableIterator<Person> iterator"));
+    assertTrue(queryCursor, queryCursor.contains("public void close() {"));
+    assertTrue(queryCursor, queryCursor.contains("iterator.closeQuietly();"));
+    assertTrue(queryCursor, queryCursor.contains("super.close();"));
+
+    // Cursor is closed when the activity is destroyed
+    String releaseResources = getMethodBody(itd, "releasePersonResources");
+    assertTrue(releaseResources, releaseResources.contains("adapter.changeCursor(null);"));
+    assertTrue(getMethodBody(itd, "onDestroy").contains("releasePersonResources();"));
+  }
+
+  private ItdTypeDetails getListActivityItd(int pageSize, int cachedPages,
+      boolean cursorAdapter) {
+    String declaredByMetadataId =
+        PhysicalTypeIdentifier.createIdentifier(PERSON_LIST_ACTIVITY, SRC_MAIN_JAVA);
+    AnnotationMetadataBuilder listAnnotation =
+        new AnnotationMetadataBuilder(new JavaType(AndrooidListActivity.class));
+    listAnnotation.addClassAttribute("entity", PERSON);
+    ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(declaredByMetadataId, Modifier.PUBLIC,
+            PERSON_LIST_ACTIVITY, PhysicalTypeCategory.CLASS);
+    cidBuilder.addAnnotation(listAnnotation);
+
+    AndrooidActivityListMetadata metadata =
+        new AndrooidActivityListMetadata(AndrooidActivityListMetadata.createIdentifier(
+            PERSON_LIST_ACTIVITY, SRC_MAIN_JAVA), new JavaType(PERSON_LIST_ACTIVITY
+            .getFullyQualifiedTypeName().concat("_Roo_AndrooidListActivity")),
+            new DefaultPhysicalTypeMetadata(declaredByMetadataId,
+                "/src/main/java/org/example/app/activities/PersonListActivity.java",
+                cidBuilder.build()), PROJECT_PACKAGE, PERSON, "id", JavaType.LONG_OBJECT,
+            pageSize, cachedPages, cursorAdapter, new TreeMap<String, FieldMetadata>(),
+            new TreeMap<JavaSymbolName, AndrooidEntityDescriptor>());
+
+    return metadata.getMemberHoldingTypeDetails();
+  }
+
+  private MethodMetadata getMethod(ItdTypeDetails itd, String methodName) {
+    for (MethodMetadata method : itd.getDeclaredMethods()) {
+      if (method.getMethodName().getSymbolName().equals(methodName)) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  private String getMethodBody(ItdTypeDetails itd, String methodName) {
+    MethodMetadata method = getMethod(itd, methodName);
+    assertNotNull(methodName, method);
+    return method.getBody();
+  }
+
+  private FieldMetadata getField(ItdTypeDetails itd, String fieldName) {
+    for (FieldMetadata field : itd.getDeclaredFields()) {
+      if (field.getFieldName().getSymbolName().equals(fieldName)) {
+        return field;
+      }
+    }
+    throw new AssertionError("Field not found: ".concat(fieldName));
+  }
+
+}
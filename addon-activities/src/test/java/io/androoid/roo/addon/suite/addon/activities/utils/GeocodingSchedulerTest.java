@@ -0,0 +1,405 @@
+package io.androoid.roo.addon.suite.addon.activities.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.androoid.roo.addon.suite.addon.activities.utils.GeocodingScheduler.Callback;
+import io.androoid.roo.addon.suite.addon.activities.utils.GeocodingScheduler.Loader;
+import io.androoid.roo.addon.suite.addon.activities.utils.GeocodingScheduler.MainThread;
+
+/**
+ * Checks the debounce, coalescing and cancellation of the lookups of the
+ * geocoding pipeline installed on Android projects with GEO fields. The test
+ * thread plays the role of the UI thread, using a virtual clock.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class GeocodingSchedulerTest {
+
+  private static final long DEBOUNCE_MILLIS = 300;
+
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private static final int MEMORY_CACHE_SIZE = 10;
+
+  private VirtualMainThread mainThread;
+
+  private ExecutorService executor;
+
+  private TableLoader tableLoader;
+
+  @Before
+  public void setUp() {
+    mainThread = new VirtualMainThread();
+    executor = Executors.newSingleThreadExecutor();
+    tableLoader = new TableLoader().put("valencia", "39.4699,-0.3763").put("madrid",
+        "40.4168,-3.7038");
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void pendingLookupsOfTheSameKeyAreCoalesced() throws Exception {
+    BlockingLoader loader = new BlockingLoader(tableLoader);
+    GeocodingScheduler<String> scheduler = newScheduler(loader);
+    RecordingCallback origin = new RecordingCallback();
+    RecordingCallback destination = new RecordingCallback();
+
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, origin);
+    scheduler.lookup("destination", "valencia", DEBOUNCE_MILLIS, destination);
+    mainThread.advance(DEBOUNCE_MILLIS);
+    assertTrue(loader.awaitStarted());
+    loader.release();
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+
+    assertEquals(1, tableLoader.getLoadCount());
+    assertEquals(1, origin.calls);
+    assertEquals("39.4699,-0.3763", origin.value);
+    assertEquals(1, destination.calls);
+    assertEquals("39.4699,-0.3763", destination.value);
+  }
+
+  @Test
+  public void newLookupOfTheSameOwnerCancelsTheDebouncedOne() throws Exception {
+    GeocodingScheduler<String> scheduler = newScheduler(tableLoader);
+    RecordingCallback valencia = new RecordingCallback();
+    RecordingCallback madrid = new RecordingCallback();
+
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, valencia);
+    mainThread.advance(DEBOUNCE_MILLIS / 2);
+    scheduler.lookup("origin", "madrid", DEBOUNCE_MILLIS, madrid);
+    mainThread.advance(DEBOUNCE_MILLIS / 2);
+    assertEquals(0, tableLoader.getLoadCount());
+    mainThread.advance(DEBOUNCE_MILLIS / 2);
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+
+    assertEquals(1, tableLoader.getLoadCount());
+    assertEquals(0, valencia.calls);
+    assertEquals(1, madrid.calls);
+    assertEquals("40.4168,-3.7038", madrid.value);
+  }
+
+  @Test
+  public void cancelledLookupIsNeverDelivered() throws Exception {
+    BlockingLoader loader = new BlockingLoader(tableLoader);
+    GeocodingScheduler<String> scheduler = newScheduler(loader);
+    RecordingCallback cancelled = new RecordingCallback();
+
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, cancelled);
+    mainThread.advance(DEBOUNCE_MILLIS);
+    assertTrue(loader.awaitStarted());
+    scheduler.cancel("origin");
+    assertTrue(loader.awaitInterrupted());
+
+    // Interrupted load is finished on the UI thread without delivering it
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+    assertEquals(0, cancelled.calls);
+
+    // Cancelled result is not cached, so the key is loaded again
+    RecordingCallback located = new RecordingCallback();
+    loader.release();
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, located);
+    mainThread.advance(DEBOUNCE_MILLIS);
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+
+    assertEquals(0, cancelled.calls);
+    assertEquals(1, located.calls);
+    assertEquals("39.4699,-0.3763", located.value);
+    assertEquals(1, tableLoader.getLoadCount());
+  }
+
+  @Test
+  public void loadedValuesAreCachedOnMemory() throws Exception {
+    GeocodingScheduler<String> scheduler = newScheduler(tableLoader);
+    RecordingCallback located = new RecordingCallback();
+    RecordingCallback notFound = new RecordingCallback();
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, located);
+    scheduler.lookup("destination", "atlantis", DEBOUNCE_MILLIS, notFound);
+    mainThread.advance(DEBOUNCE_MILLIS);
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+    assertEquals(2, tableLoader.getLoadCount());
+    assertEquals(1, notFound.calls);
+    assertNull(notFound.value);
+
+    // Memory cache delivers the results as soon as the debounce delay
+    // elapses, including the keys that were not found
+    RecordingCallback cached = new RecordingCallback();
+    RecordingCallback cachedNotFound = new RecordingCallback();
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, cached);
+    scheduler.lookup("destination", "atlantis", DEBOUNCE_MILLIS, cachedNotFound);
+    mainThread.advance(DEBOUNCE_MILLIS);
+
+    assertEquals(2, tableLoader.getLoadCount());
+    assertEquals(1, cached.calls);
+    assertEquals("39.4699,-0.3763", cached.value);
+    assertEquals(1, cachedNotFound.calls);
+    assertNull(cachedNotFound.value);
+  }
+
+  @Test
+  public void failedLoadsAreNotCached() throws Exception {
+    FailingLoader loader = new FailingLoader(tableLoader);
+    GeocodingScheduler<String> scheduler = newScheduler(loader);
+    RecordingCallback failed = new RecordingCallback();
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, failed);
+    mainThread.advance(DEBOUNCE_MILLIS);
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+
+    assertEquals(1, failed.calls);
+    assertNull(failed.value);
+
+    RecordingCallback located = new RecordingCallback();
+    scheduler.lookup("origin", "valencia", DEBOUNCE_MILLIS, located);
+    mainThread.advance(DEBOUNCE_MILLIS);
+    assertTrue(mainThread.runNext(TIMEOUT_MILLIS));
+
+    assertEquals(1, located.calls);
+    assertEquals("39.4699,-0.3763", located.value);
+  }
+
+  private GeocodingScheduler<String> newScheduler(Loader<String> loader) {
+    return new GeocodingScheduler<String>(mainThread, executor, loader, MEMORY_CACHE_SIZE);
+  }
+
+  /**
+   * Callback that records the results delivered by the scheduler
+   */
+  private static final class RecordingCallback implements Callback<String> {
+
+    private int calls;
+
+    private String value;
+
+    @Override
+    public void onResult(String value) {
+      calls++;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Loader that returns the values of a local table
+   */
+  private static final class TableLoader implements Loader<String> {
+
+    private final Map<String, String> values = new HashMap<String, String>();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private TableLoader put(String key, String value) {
+      values.put(key, value);
+      return this;
+    }
+
+    @Override
+    public String load(String key) throws Exception {
+      loadCount.incrementAndGet();
+      return values.get(key);
+    }
+
+    private int getLoadCount() {
+      return loadCount.get();
+    }
+  }
+
+  /**
+   * Loader that waits until it is released before loading the keys with the
+   * provided loader, so lookups can be coalesced or cancelled while they are
+   * in flight
+   */
+  private static final class BlockingLoader implements Loader<String> {
+
+    private final Loader<String> loader;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private BlockingLoader(Loader<String> loader) {
+      this.loader = loader;
+    }
+
+    @Override
+    public String load(String key) throws Exception {
+      started.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw e;
+      }
+      return loader.load(key);
+    }
+
+    private boolean awaitStarted() throws InterruptedException {
+      return started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean awaitInterrupted() throws InterruptedException {
+      return interrupted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void release() {
+      released.countDown();
+    }
+  }
+
+  /**
+   * Loader that fails the first time, and then loads the keys with the
+   * provided loader
+   */
+  private static final class FailingLoader implements Loader<String> {
+
+    private final Loader<String> loader;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private FailingLoader(Loader<String> loader) {
+      this.loader = loader;
+    }
+
+    @Override
+    public String load(String key) throws Exception {
+      if (calls.getAndIncrement() == 0) {
+        throw new IllegalStateException("Geocoder not available");
+      }
+      return loader.load(key);
+    }
+  }
+
+  /**
+   * UI thread played by the test thread. Tasks are queued using a virtual
+   * clock and run on the test thread.
+   */
+  private static final class VirtualMainThread implements MainThread {
+
+    private final List<Task> tasks = new ArrayList<Task>();
+
+    private long uptimeMillis;
+
+    private long sequence;
+
+    @Override
+    public synchronized void postDelayed(Runnable task, long delayMillis) {
+      tasks.add(new Task(task, uptimeMillis + Math.max(0, delayMillis), sequence++));
+      notifyAll();
+    }
+
+    @Override
+    public synchronized void removeCallbacks(Runnable task) {
+      Iterator<Task> it = tasks.iterator();
+      while (it.hasNext()) {
+        if (it.next().runnable == task) {
+          it.remove();
+        }
+      }
+    }
+
+    /**
+     * Advances the virtual clock, running the tasks that become due. Tasks
+     * posted while advancing, like the ones posted from background threads,
+     * are left to {@link #runNext(long)}.
+     *
+     * @param millis
+     */
+    private void advance(long millis) {
+      long target;
+      long posted;
+      synchronized (this) {
+        target = uptimeMillis + millis;
+        posted = sequence;
+      }
+      Task task;
+      while ((task = nextDue(target, posted)) != null) {
+        task.runnable.run();
+      }
+      synchronized (this) {
+        uptimeMillis = target;
+      }
+    }
+
+    /**
+     * Waits until a task is due, without advancing the virtual clock, and
+     * runs it. Used to receive the tasks posted from background threads.
+     *
+     * @param timeoutMillis
+     * @return false if no task was due before the timeout
+     * @throws InterruptedException
+     */
+    private boolean runNext(long timeoutMillis) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + timeoutMillis;
+      Task task;
+      synchronized (this) {
+        while ((task = nextDue(uptimeMillis, sequence)) == null) {
+          long remaining = deadline - System.currentTimeMillis();
+          if (remaining <= 0) {
+            return false;
+          }
+          wait(remaining);
+        }
+      }
+      task.runnable.run();
+      return true;
+    }
+
+    /**
+     * Removes and returns the first task due at the provided time, among the
+     * ones posted before the provided sequence. Tasks due at the same time
+     * run in the order they were posted.
+     */
+    private synchronized Task nextDue(long time, long postedBefore) {
+      Task next = null;
+      for (Task task : tasks) {
+        if (task.when <= time && task.sequence < postedBefore
+            && (next == null || task.when < next.when
+                || (task.when == next.when && task.sequence < next.sequence))) {
+          next = task;
+        }
+      }
+      if (next != null) {
+        tasks.remove(next);
+        uptimeMillis = Math.max(uptimeMillis, next.when);
+      }
+      return next;
+    }
+  }
+
+  private static final class Task {
+
+    private final Runnable runnable;
+
+    private final long when;
+
+    private final long sequence;
+
+    private Task(Runnable runnable, long when, long sequence) {
+      this.runnable = runnable;
+      this.when = when;
+      this.sequence = sequence;
+    }
+  }
+
+}
@@ -30,6 +30,7 @@ import org.w3c.dom.Element;
 
 import io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity;
 import io.androoid.roo.addon.suite.addon.persistence.AndrooidPersistenceOperations;
+import io.androoid.roo.addon.suite.support.AndrooidBatchOperations;
 
 /**
  * Implementation of {@link AndrooidEntitiesOperations} interface.
@@ -49,6 +50,9 @@ public class AndrooidEntitiesOperationsImpl implements AndrooidEntitiesOperation
   @Reference
   private ProjectOperations projectOperations;
 
+  @Reference
+  private AndrooidBatchOperations batchOperations;
+
   @Reference
   private AndrooidPersistenceOperations persistenceOperations;
 
@@ -120,15 +124,20 @@ public class AndrooidEntitiesOperationsImpl implements AndrooidEntitiesOperation
     persistenceOperations.addDao(entity);
 
     // Updates persistence config file
-    persistenceOperations.updatePersistenceConfigFile();
+    persistenceOperations.updatePersistenceConfigFile(entity);
 
   }
 
   /**
    * Method that uses configuration.xml file to install dependencies and
-   * properties on current pom.xml
+   * properties on current pom.xml. On a batch, dependencies are only
+   * installed once.
    */
   private void installDependencies() {
+    if (!batchOperations.isFirstExecution(getClass().getName().concat(".installDependencies"))) {
+      return;
+    }
+
     final Element configuration = XmlUtils.getConfiguration(getClass());
 
     // Add properties
@@ -34,6 +34,8 @@ import io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity;
  */
 public class AndrooidEntityMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
 
+  private static final JavaType GEO_POINT = new JavaType("org.osmdroid.util.GeoPoint");
+
   private static final String PROVIDES_TYPE_STRING = AndrooidEntityMetadata.class.getName();
   private static final String PROVIDES_TYPE = MetadataIdentificationUtils
       .create(PROVIDES_TYPE_STRING);
@@ -73,10 +75,13 @@ public class AndrooidEntityMetadata extends AbstractItdTypeDetailsProvidingMetad
    *            the name of the ITD to be created (required)
    * @param governorPhysicalTypeMetadata
    *            the governor (required)
+   * @param geoFields
+   *            names of the GEO fields stored on coordinate columns
    */
   public AndrooidEntityMetadata(final String identifier, final JavaType aspectName,
       final PhysicalTypeMetadata governorPhysicalTypeMetadata, String physicalTypeIdentifier,
-      MemberDetails entityMemberDetails, JavaSymbolName identifierFieldName, JavaType identifierType) {
+      MemberDetails entityMemberDetails, JavaSymbolName identifierFieldName,
+      JavaType identifierType, List<JavaSymbolName> geoFields) {
     super(identifier, aspectName, governorPhysicalTypeMetadata);
     Validate.isTrue(isValid(identifier),
         "Metadata identification string '%s' does not appear to be a valid", identifier);
@@ -89,6 +94,16 @@ public class AndrooidEntityMetadata extends AbstractItdTypeDetailsProvidingMetad
     builder.addMethod(getIdentifierAccessor());
     builder.addMethod(getIdentifierMutator());
 
+    // Add GEO fields and accessors that use coordinate columns
+    for (JavaSymbolName geoField : geoFields) {
+      Validate.isTrue(hasCoordinateFields(geoField),
+          "ERROR: GEO field '%s' needs %sLatitude, %sLongitude and %sAltitude fields.", geoField,
+          geoField, geoField, geoField);
+      builder.addField(getGeoField(geoField));
+      builder.addMethod(getGeoFieldAccessor(geoField));
+      builder.addMethod(getGeoFieldMutator(geoField));
+    }
+
     // Create a representation of the desired output ITD
     itdTypeDetails = builder.build();
 
@@ -204,6 +219,148 @@ public class AndrooidEntityMetadata extends AbstractItdTypeDetailsProvidingMetad
         identifierField.getFieldType(), bodyBuilder);
   }
 
+  /**
+   * Method that generates a GEO field. It is not persisted, coordinate
+   * fields are the persisted ones.
+   * 
+   * @param fieldName
+   * @return
+   */
+  private FieldMetadata getGeoField(JavaSymbolName fieldName) {
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.TRANSIENT, fieldName,
+        GEO_POINT, null).build();
+  }
+
+  /**
+   * Method that generates GEO field accessor. GeoPoint is only created when
+   * it is requested for the first time or when coordinate fields have
+   * changed.
+   * 
+   * @param fieldName
+   * @return
+   */
+  private MethodMetadataBuilder getGeoFieldAccessor(JavaSymbolName fieldName) {
+    String geoPoint = fieldName.getSymbolName();
+    String geoPointType = GEO_POINT.getNameIncludingTypeParameters(false,
+        builder.getImportRegistrationResolver());
+
+    final InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // if (this.locationLatitude == null || this.locationLongitude == null) {
+    bodyBuilder.appendFormalLine(String.format(
+        "if (this.%sLatitude == null || this.%sLongitude == null) {", geoPoint, geoPoint));
+    bodyBuilder.indent();
+
+    // return null;
+    bodyBuilder.appendFormalLine("return null;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // int altitude = this.locationAltitude != null ?
+    // this.locationAltitude.intValue() : 0;
+    bodyBuilder.appendFormalLine(String.format(
+        "int altitude = this.%sAltitude != null ? this.%sAltitude.intValue() : 0;", geoPoint,
+        geoPoint));
+
+    // if (this.location == null || this.location.getLatitude() !=
+    // this.locationLatitude
+    // || this.location.getLongitude() != this.locationLongitude
+    // || this.location.getAltitude() != altitude) {
+    bodyBuilder.appendFormalLine(String.format(
+        "if (this.%s == null || this.%s.getLatitude() != this.%sLatitude", geoPoint, geoPoint,
+        geoPoint));
+    bodyBuilder.appendFormalLine(String.format(
+        "    || this.%s.getLongitude() != this.%sLongitude", geoPoint, geoPoint));
+    bodyBuilder.appendFormalLine(String.format("    || this.%s.getAltitude() != altitude) {",
+        geoPoint));
+    bodyBuilder.indent();
+
+    // this.location = new GeoPoint(this.locationLatitude,
+    // this.locationLongitude, altitude);
+    bodyBuilder.appendFormalLine(String.format(
+        "this.%s = new %s(this.%sLatitude, this.%sLongitude, altitude);", geoPoint,
+        geoPointType, geoPoint, geoPoint));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // return this.location;
+    bodyBuilder.appendFormalLine(String.format("return this.%s;", geoPoint));
+
+    return new MethodMetadataBuilder(getId(), Modifier.PUBLIC,
+        BeanInfoUtils.getAccessorMethodName(fieldName, GEO_POINT), GEO_POINT, bodyBuilder);
+  }
+
+  /**
+   * Method that generates GEO field mutator. Provided GeoPoint is stored on
+   * coordinate fields.
+   * 
+   * @param fieldName
+   * @return
+   */
+  private MethodMetadataBuilder getGeoFieldMutator(JavaSymbolName fieldName) {
+    String geoPoint = fieldName.getSymbolName();
+
+    final List<JavaType> parameterTypes = Arrays.asList(GEO_POINT);
+    final List<JavaSymbolName> parameterNames = Arrays.asList(fieldName);
+
+    final InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // this.location = location;
+    bodyBuilder.appendFormalLine(String.format("this.%s = %s;", geoPoint, geoPoint));
+
+    // if (location == null) {
+    bodyBuilder.appendFormalLine(String.format("if (%s == null) {", geoPoint));
+    bodyBuilder.indent();
+
+    // this.locationLatitude = null;
+    // this.locationLongitude = null;
+    // this.locationAltitude = null;
+    bodyBuilder.appendFormalLine(String.format("this.%sLatitude = null;", geoPoint));
+    bodyBuilder.appendFormalLine(String.format("this.%sLongitude = null;", geoPoint));
+    bodyBuilder.appendFormalLine(String.format("this.%sAltitude = null;", geoPoint));
+    bodyBuilder.indentRemove();
+
+    // } else {
+    bodyBuilder.appendFormalLine("} else {");
+    bodyBuilder.indent();
+
+    // this.locationLatitude = location.getLatitude();
+    // this.locationLongitude = location.getLongitude();
+    // this.locationAltitude = Double.valueOf(location.getAltitude());
+    bodyBuilder.appendFormalLine(String.format("this.%sLatitude = %s.getLatitude();", geoPoint,
+        geoPoint));
+    bodyBuilder.appendFormalLine(String.format("this.%sLongitude = %s.getLongitude();",
+        geoPoint, geoPoint));
+    bodyBuilder.appendFormalLine(String.format(
+        "this.%sAltitude = Double.valueOf(%s.getAltitude());", geoPoint, geoPoint));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    return new MethodMetadataBuilder(getId(), Modifier.PUBLIC,
+        BeanInfoUtils.getMutatorMethodName(fieldName), JavaType.VOID_PRIMITIVE,
+        AnnotatedJavaType.convertFromJavaTypes(parameterTypes), parameterNames, bodyBuilder);
+  }
+
+  /**
+   * Checks if the entity declares the coordinate fields of the provided GEO
+   * field
+   * 
+   * @param fieldName
+   * @return true if latitude, longitude and altitude fields exist
+   */
+  private boolean hasCoordinateFields(JavaSymbolName fieldName) {
+    int found = 0;
+    for (FieldMetadata field : entityMemberDetails.getFields()) {
+      String name = field.getFieldName().getSymbolName();
+      if (name.equals(fieldName.getSymbolName().concat("Latitude"))
+          || name.equals(fieldName.getSymbolName().concat("Longitude"))
+          || name.equals(fieldName.getSymbolName().concat("Altitude"))) {
+        found++;
+      }
+    }
+    return found == 3;
+  }
+
   @Override
   public String toString() {
     final ToStringBuilder builder = new ToStringBuilder(this);
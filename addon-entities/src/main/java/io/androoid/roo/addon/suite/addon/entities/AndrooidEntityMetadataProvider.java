@@ -1,6 +1,8 @@
 package io.androoid.roo.addon.suite.addon.entities;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 import org.apache.felix.scr.annotations.Component;
@@ -11,6 +13,8 @@ import org.springframework.roo.classpath.PhysicalTypeMetadata;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
 import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
+import org.springframework.roo.classpath.details.annotations.ArrayAttributeValue;
+import org.springframework.roo.classpath.details.annotations.StringAttributeValue;
 import org.springframework.roo.classpath.itd.AbstractItdMetadataProvider;
 import org.springframework.roo.classpath.itd.ItdTypeDetailsProvidingMetadataItem;
 import org.springframework.roo.classpath.scanner.MemberDetails;
@@ -104,9 +108,22 @@ public class AndrooidEntityMetadataProvider extends AbstractItdMetadataProvider
       identifierTypeValue = new JavaType(identifierType.getValue());
     }
 
+    // Getting GEO fields stored on coordinate columns
+    List<JavaSymbolName> geoFields = new ArrayList<JavaSymbolName>();
+
+    AnnotationAttributeValue<?> geoFieldsAttr = androoidEntityAnnotation.getAttribute("geoFields");
+    if (geoFieldsAttr instanceof ArrayAttributeValue) {
+      @SuppressWarnings("unchecked")
+      ArrayAttributeValue<StringAttributeValue> geoFieldsArray =
+          (ArrayAttributeValue<StringAttributeValue>) geoFieldsAttr;
+      for (StringAttributeValue geoField : geoFieldsArray.getValue()) {
+        geoFields.add(new JavaSymbolName(geoField.getValue()));
+      }
+    }
+
     return new AndrooidEntityMetadata(metadataIdentificationString, aspectName,
         governorPhysicalTypeMetadata, physicalTypeIdentifier, entityMemberDetails,
-        identifierFieldValue, identifierTypeValue);
+        identifierFieldValue, identifierTypeValue, geoFields);
   }
 
   public String getProvidesType() {
@@ -30,4 +30,12 @@ public @interface AndrooidEntity {
    */
   Class<? extends Serializable> identifierType() default Long.class;
 
+  /**
+   * @return the names of the GEO fields of the entity. Every GEO field is
+   *         stored on &lt;name&gt;Latitude, &lt;name&gt;Longitude and
+   *         &lt;name&gt;Altitude columns and its GeoPoint is created from
+   *         them when it is requested
+   */
+  String[] geoFields() default {};
+
 }
@@ -108,6 +108,7 @@ public class AndrooidFieldsCommands implements CommandMarker {
    * @param class
    * @param type
    * @param name
+   * @param autoRefresh
    */
   @CliCommand(value = "androoid field reference",
       help = "Creates new reference to other existing entity on selected entity.")
@@ -117,10 +118,14 @@ public class AndrooidFieldsCommands implements CommandMarker {
       key = "type", mandatory = true, optionContext = UPDATE_PROJECT,
       help = "The entity to reference.") final JavaType entityToReference,
       @CliOption(key = "name", mandatory = true, optionContext = UPDATE_PROJECT,
-          help = "The field name to use.") final JavaSymbolName fieldName) {
+          help = "The field name to use.") final JavaSymbolName fieldName, @CliOption(
+          key = "autoRefresh", mandatory = false, unspecifiedDefaultValue = "false",
+          specifiedDefaultValue = "true",
+          help = "Refreshes the referenced entity every time this entity is loaded.")
+      final boolean autoRefresh) {
 
     // Creating new field
-    fieldOperations.createReferencedField(entity, fieldName, entityToReference);
+    fieldOperations.createReferencedField(entity, fieldName, entityToReference, autoRefresh);
   }
 
   /**
@@ -129,6 +134,7 @@ public class AndrooidFieldsCommands implements CommandMarker {
    * @param class
    * @param type
    * @param name
+   * @param index
    */
   @CliCommand(value = "androoid field geo", help = "Creates new geo field on selected entity.")
   public void createGeoField(
@@ -136,9 +142,13 @@ public class AndrooidFieldsCommands implements CommandMarker {
           optionContext = UPDATE_PROJECT, help = "The name of the entity to receive this field") final JavaType entity,
       @CliOption(key = "type", mandatory = true, help = "The GEO type of the field") AndrooidFieldGeoTypes fieldType,
       @CliOption(key = "name", mandatory = true, optionContext = UPDATE_PROJECT,
-          help = "The field name to use.") final JavaSymbolName fieldName) {
+          help = "The field name to use.") final JavaSymbolName fieldName, @CliOption(
+          key = "index", mandatory = false, unspecifiedDefaultValue = "true",
+          specifiedDefaultValue = "true",
+          help = "Creates database indexes on latitude and longitude columns.")
+      final boolean indexed) {
 
     // Creating new field
-    fieldOperations.createGeoField(entity, fieldName, fieldType);
+    fieldOperations.createGeoField(entity, fieldName, fieldType, indexed);
   }
 }
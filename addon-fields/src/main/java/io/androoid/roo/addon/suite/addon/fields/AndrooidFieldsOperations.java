@@ -33,8 +33,12 @@ public interface AndrooidFieldsOperations {
    * @param The entity where field will be added
    * @param The fieldName to use for this field. 
    * @param The entity to reference. 
+   * @param If true, ORMLite refreshes the referenced entity on every query.
+   *        Otherwise, only its identifier is loaded and generated activities
+   *        load references in batches.
    */
-  void createReferencedField(JavaType entity, JavaSymbolName fieldName, JavaType entityToReference);
+  void createReferencedField(JavaType entity, JavaSymbolName fieldName,
+      JavaType entityToReference, boolean autoRefresh);
 
   /**
    * Creates new Geo Field on entity
@@ -42,8 +46,9 @@ public interface AndrooidFieldsOperations {
    * @param The entity where field will be added
    * @param The fieldName to use for this field. 
    * @param The GEO field type
+   * @param If true, latitude and longitude columns are indexed
    */
   void createGeoField(JavaType entity, JavaSymbolName fieldName,
-      AndrooidFieldGeoTypes entityToReference);
+      AndrooidFieldGeoTypes entityToReference, boolean indexed);
 
 }
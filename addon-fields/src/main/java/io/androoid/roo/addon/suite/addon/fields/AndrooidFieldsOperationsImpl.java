@@ -2,9 +2,7 @@ package io.androoid.roo.addon.suite.addon.fields;
 
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang3.Validate;
@@ -14,11 +12,14 @@ import org.apache.felix.scr.annotations.Service;
 import org.springframework.roo.classpath.TypeLocationService;
 import org.springframework.roo.classpath.TypeManagementService;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetailsBuilder;
 import org.springframework.roo.classpath.details.FieldDetails;
-import org.springframework.roo.classpath.details.FieldMetadata;
 import org.springframework.roo.classpath.details.FieldMetadataBuilder;
+import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.classpath.details.annotations.ArrayAttributeValue;
+import org.springframework.roo.classpath.details.annotations.StringAttributeValue;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
 import org.springframework.roo.model.ReservedWords;
@@ -31,6 +32,9 @@ import org.w3c.dom.Element;
 import io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity;
 import io.androoid.roo.addon.suite.addon.fields.annotations.AndrooidReferencedField;
 import io.androoid.roo.addon.suite.addon.persistence.AndrooidPersistenceOperations;
+import io.androoid.roo.addon.suite.support.AndrooidBatchOperations;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptorService;
 
 /**
  * Implementation of {@link AndrooidFieldsOperations} interface.
@@ -42,6 +46,13 @@ import io.androoid.roo.addon.suite.addon.persistence.AndrooidPersistenceOperatio
 @Service
 public class AndrooidFieldsOperationsImpl implements AndrooidFieldsOperations {
 
+  private static final JavaType ANDROOID_ENTITY = new JavaType(AndrooidEntity.class);
+
+  /**
+   * Suffixes of the fields where every GEO field is stored
+   */
+  private static final String[] GEO_COORDINATES = {"Latitude", "Longitude", "Altitude"};
+
   /**
    * Get hold of a JDK Logger
    */
@@ -50,6 +61,12 @@ public class AndrooidFieldsOperationsImpl implements AndrooidFieldsOperations {
   @Reference
   private ProjectOperations projectOperations;
 
+  @Reference
+  private AndrooidBatchOperations batchOperations;
+
+  @Reference
+  private AndrooidEntityDescriptorService entityDescriptorService;
+
   @Reference
   private TypeLocationService typeLocationService;
 
@@ -72,23 +89,22 @@ public class AndrooidFieldsOperationsImpl implements AndrooidFieldsOperations {
     // Create new field
     typeManagementService.addField(getFieldMetadata(entity, fieldName, fieldType).build());
     // Update persistence config file
-    persistenceOperations.updatePersistenceConfigFile();
+    persistenceOperations.updatePersistenceConfigFile(entity);
   }
 
   /** {@inheritDoc} */
   public void createReferencedField(JavaType entity, JavaSymbolName fieldName,
-      JavaType entityToReference) {
+      JavaType entityToReference, boolean autoRefresh) {
 
     // Install necessary dependencies
     installDependencies();
 
     // Check if fieldType is an entity
-    ClassOrInterfaceTypeDetails details = typeLocationService.getTypeDetails(entityToReference);
-    AnnotationMetadata androoidEntityAnnotation =
-        details.getAnnotation(new JavaType(AndrooidEntity.class));
+    AndrooidEntityDescriptor referencedEntity =
+        entityDescriptorService.getDescriptor(entityToReference);
 
     Validate.notNull(
-        androoidEntityAnnotation,
+        referencedEntity,
         String.format("Referenced type '%s' is not a valid Androoid Entity.",
             entityToReference.getSimpleTypeName()));
 
@@ -99,7 +115,11 @@ public class AndrooidFieldsOperationsImpl implements AndrooidFieldsOperations {
         newField.getDeclaredTypeAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
 
     databaseFieldAnnotation.addBooleanAttribute("foreign", true);
-    databaseFieldAnnotation.addBooleanAttribute("foreignAutoRefresh", true);
+    // Auto refresh executes one extra query for every loaded row, so it is
+    // only included if requested
+    if (autoRefresh) {
+      databaseFieldAnnotation.addBooleanAttribute("foreignAutoRefresh", true);
+    }
     databaseFieldAnnotation.addBooleanAttribute("canBeNull", true);
 
     // Including @AndrooidReferencedField annotation
@@ -110,30 +130,78 @@ public class AndrooidFieldsOperationsImpl implements AndrooidFieldsOperations {
     typeManagementService.addField(newField.build());
 
     // Update persistence config file
-    persistenceOperations.updatePersistenceConfigFile();
+    persistenceOperations.updatePersistenceConfigFile(entity);
   }
 
   /** {@inheritDoc} */
   public void createGeoField(JavaType entity, JavaSymbolName fieldName,
-      AndrooidFieldGeoTypes fieldType) {
+      AndrooidFieldGeoTypes fieldType, boolean indexed) {
 
     // Install necessary dependencies
     installDependencies();
 
-    FieldMetadataBuilder newField =
-        getFieldMetadata(entity, fieldName, new JavaType(fieldType.description));
+    // Check if GEO field exists on current entity
+    AndrooidEntityDescriptor entityDescriptor = entityDescriptorService.getDescriptor(entity);
 
-    // Including params on @DatabaseField annotation
-    AnnotationMetadataBuilder databaseFieldAnnotation =
-        newField.getDeclaredTypeAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
+    Validate.notNull(
+        entityDescriptor,
+        String.format("Entity %s doesn't exists on current Android project.",
+            entity.getFullyQualifiedTypeName()));
 
-    databaseFieldAnnotation.addEnumAttribute("dataType", new JavaType(
-        "com.j256.ormlite.field.DataType"), new JavaSymbolName("SERIALIZABLE"));
+    Validate.isTrue(
+        !entityDescriptor.hasField(fieldName),
+        String.format("Field name %s exists on entity %s", fieldName,
+            entity.getFullyQualifiedTypeName()));
 
-    typeManagementService.addField(newField.build());
+    ClassOrInterfaceTypeDetails entityDetails = typeLocationService.getTypeDetails(entity);
+    ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(entityDetails);
+
+    // GEO fields are stored on coordinate columns instead of a serialized
+    // object, so they could be queried and indexed. GeoPoint is created
+    // by @AndrooidEntity ITD
+    for (String coordinate : GEO_COORDINATES) {
+      JavaSymbolName coordinateName =
+          new JavaSymbolName(fieldName.getSymbolName().concat(coordinate));
+      FieldMetadataBuilder coordinateField =
+          getFieldMetadata(entity, coordinateName, JavaType.DOUBLE_OBJECT);
+
+      if (indexed && !"Altitude".equals(coordinate)) {
+        AnnotationMetadataBuilder databaseFieldAnnotation =
+            coordinateField.getDeclaredTypeAnnotation(new JavaType(
+                "com.j256.ormlite.field.DatabaseField"));
+        databaseFieldAnnotation.addBooleanAttribute("index", true);
+      }
+
+      cidBuilder.addField(coordinateField);
+    }
+
+    // Including GEO field on @AndrooidEntity annotation
+    AnnotationMetadata entityAnnotation = entityDetails.getAnnotation(ANDROOID_ENTITY);
+
+    final List<AnnotationAttributeValue<?>> attributes =
+        new ArrayList<AnnotationAttributeValue<?>>();
+    final List<StringAttributeValue> geoFields = new ArrayList<StringAttributeValue>();
+    for (JavaSymbolName attributeName : entityAnnotation.getAttributeNames()) {
+      if (!"geoFields".equals(attributeName.getSymbolName())) {
+        attributes.add(entityAnnotation.getAttribute(attributeName));
+      }
+    }
+    for (String geoFieldName : entityDescriptor.getGeoFieldNames()) {
+      geoFields.add(new StringAttributeValue(new JavaSymbolName("geoFields"), geoFieldName));
+    }
+    geoFields.add(new StringAttributeValue(new JavaSymbolName("geoFields"), fieldName
+        .getSymbolName()));
+    attributes.add(new ArrayAttributeValue<StringAttributeValue>(new JavaSymbolName("geoFields"),
+        geoFields));
+
+    cidBuilder.removeAnnotation(ANDROOID_ENTITY);
+    cidBuilder.addAnnotation(new AnnotationMetadataBuilder(ANDROOID_ENTITY, attributes));
+
+    typeManagementService.createOrUpdateTypeOnDisk(cidBuilder.build());
 
     // Update persistence config file
-    persistenceOperations.updatePersistenceConfigFile();
+    persistenceOperations.updatePersistenceConfigFile(entity);
   }
 
   /**
@@ -148,43 +216,22 @@ public class AndrooidFieldsOperationsImpl implements AndrooidFieldsOperations {
   public FieldMetadataBuilder getFieldMetadata(JavaType entity, JavaSymbolName fieldName,
       JavaType fieldType) {
 
-    // Check if entity exists
-    Set<ClassOrInterfaceTypeDetails> allEntities =
-        typeLocationService.findClassesOrInterfaceDetailsWithAnnotation(new JavaType(
-            AndrooidEntity.class));
-
-    Validate.notEmpty(allEntities, "Create an entity before to add new fields!");
-
-    Iterator<ClassOrInterfaceTypeDetails> it = allEntities.iterator();
-    boolean entityExists = false;
-    boolean fieldExists = false;
-    while (it.hasNext()) {
-      ClassOrInterfaceTypeDetails projectEntity = it.next();
-      if (projectEntity.getType().equals(entity)) {
-        entityExists = true;
-        // Check if field exists on current entity
-        ClassOrInterfaceTypeDetails entityDetails =
-            typeLocationService.getTypeDetails(projectEntity.getType());
-        FieldMetadata entityField = entityDetails.getDeclaredField(fieldName);
-        if (entityField != null) {
-          fieldExists = true;
-        }
-        break;
-      }
-    }
+    // Check if entity exists. Entity descriptors are indexed by type and
+    // only scanned again when the entity changes
+    AndrooidEntityDescriptor entityDescriptor = entityDescriptorService.getDescriptor(entity);
 
-    Validate.isTrue(
-        entityExists,
+    Validate.notNull(
+        entityDescriptor,
         String.format("Entity %s doesn't exists on current Android project.",
             entity.getFullyQualifiedTypeName()));
 
+    // Check if field exists on current entity
     Validate.isTrue(
-        !fieldExists,
+        !entityDescriptor.hasField(fieldName),
         String.format("Field name %s exists on entity %s", fieldName,
             entity.getFullyQualifiedTypeName()));
 
-    final ClassOrInterfaceTypeDetails cid = typeLocationService.getTypeDetails(entity);
-    final String physicalTypeIdentifier = cid.getDeclaredByMetadataId();
+    final String physicalTypeIdentifier = entityDescriptor.getPhysicalTypeIdentifier();
     FieldDetails fieldDetails = new FieldDetails(physicalTypeIdentifier, fieldType, fieldName);
     // Checking not reserved words on fieldName
     ReservedWords.verifyReservedWordsNotPresent(fieldDetails.getFieldName());
@@ -206,9 +253,14 @@ public class AndrooidFieldsOperationsImpl implements AndrooidFieldsOperations {
 
   /**
    * Method that uses configuration.xml file to install dependencies and
-   * properties on current pom.xml
+   * properties on current pom.xml. On a batch, dependencies are only
+   * installed once.
    */
   private void installDependencies() {
+    if (!batchOperations.isFirstExecution(getClass().getName().concat(".installDependencies"))) {
+      return;
+    }
+
     final Element configuration = XmlUtils.getConfiguration(getClass());
 
     // Add properties
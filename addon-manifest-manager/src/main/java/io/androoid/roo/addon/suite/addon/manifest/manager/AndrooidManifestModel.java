@@ -0,0 +1,66 @@
+package io.androoid.roo.addon.suite.addon.manifest.manager;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Cached model of AndroidManifest.xml file. Holds the parsed document between
+ * operations, so elements obtained from it are stable handles that could be
+ * modified later. Activities are indexed by their android:name attribute.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public interface AndrooidManifestModel {
+
+  /**
+   * Returns the parsed AndroidManifest.xml document. File is only parsed
+   * again if it was modified outside of this model.
+   * 
+   * @return Document
+   */
+  Document getDocument();
+
+  /**
+   * Returns the application element of AndroidManifest.xml document
+   * 
+   * @return Element
+   */
+  Element getApplicationElement();
+
+  /**
+   * Returns the activity element declared with the provided android:name
+   * 
+   * @param name
+   *            android:name of the activity
+   * @return Element or null if activity is not declared
+   */
+  Element getActivity(String name);
+
+  /**
+   * Includes the provided activity element on activities index. Must be
+   * invoked after inserting a new activity on the document.
+   * 
+   * @param activity
+   */
+  void indexActivity(Element activity);
+
+  /**
+   * Marks the document as modified. Outside of a batch, changes are written
+   * immediately. On a batch, changes are written once when the batch is
+   * committed.
+   */
+  void setModified();
+
+  /**
+   * Writes pending changes on AndroidManifest.xml file
+   */
+  void flush();
+
+  /**
+   * Discards cached document, so AndroidManifest.xml file will be parsed
+   * again on next access
+   */
+  void reset();
+
+}
@@ -0,0 +1,205 @@
+package io.androoid.roo.addon.suite.addon.manifest.manager;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.springframework.roo.process.manager.FileManager;
+import org.springframework.roo.process.manager.MutableFile;
+import org.springframework.roo.project.LogicalPath;
+import org.springframework.roo.project.ProjectOperations;
+import org.springframework.roo.support.util.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import io.androoid.roo.addon.suite.support.AndrooidBatchOperations;
+import io.androoid.roo.addon.suite.support.AndrooidUtils;
+
+/**
+ * Implementation of {@link AndrooidManifestModel} interface.
+ * 
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+@Component
+@Service
+public class AndrooidManifestModelImpl implements AndrooidManifestModel {
+
+  private static final String ANDROID_NAME = "android:name";
+
+  @Reference
+  private FileManager fileManager;
+  @Reference
+  private ProjectOperations projectOperations;
+  @Reference
+  private AndrooidUtils operationsUtils;
+  @Reference
+  private AndrooidBatchOperations batchOperations;
+
+  private String manifestPath;
+  private Document document;
+  private Element applicationElement;
+  private boolean modified = false;
+
+  /**
+   * Last modification time and size of the parsed file. Used to check if the
+   * file was modified outside of this model
+   */
+  private long lastModified;
+  private long length;
+  private boolean fileStateOutdated = false;
+
+  /**
+   * Activities of the document, by android:name
+   */
+  private final Map<String, Element> activities = new HashMap<String, Element>();
+
+  /** {@inheritDoc} */
+  public Document getDocument() {
+    String path = getAndroidManifestPath();
+    if (document == null || !path.equals(manifestPath) || (!modified && isChangedOnDisk())) {
+      load(path);
+    }
+    return document;
+  }
+
+  /** {@inheritDoc} */
+  public Element getApplicationElement() {
+    getDocument();
+    Validate.notNull(applicationElement,
+        "Error getting application element from AndroidManifest.xml file");
+    return applicationElement;
+  }
+
+  /** {@inheritDoc} */
+  public Element getActivity(String name) {
+    getDocument();
+    return activities.get(name);
+  }
+
+  /** {@inheritDoc} */
+  public void indexActivity(Element activity) {
+    String name = activity.getAttribute(ANDROID_NAME);
+    if (StringUtils.isNotBlank(name)) {
+      activities.put(name, activity);
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void setModified() {
+    modified = true;
+    batchOperations.runOnCommit("AndroidManifest.xml", new Runnable() {
+      public void run() {
+        flush();
+      }
+    });
+
+    // Changes of a discarded batch are never written
+    batchOperations.runOnRollback("AndroidManifest.xml", new Runnable() {
+      public void run() {
+        reset();
+      }
+    });
+  }
+
+  /** {@inheritDoc} */
+  public void flush() {
+    if (!modified || document == null) {
+      return;
+    }
+
+    final MutableFile mutableFile = fileManager.updateFile(manifestPath);
+    XmlUtils.writeXml(mutableFile.getOutputStream(), document);
+    modified = false;
+
+    // FileManager could write the file after closing the stream
+    fileStateOutdated = true;
+  }
+
+  /** {@inheritDoc} */
+  public void reset() {
+    manifestPath = null;
+    document = null;
+    applicationElement = null;
+    modified = false;
+    activities.clear();
+  }
+
+  /**
+   * Parses AndroidManifest.xml file and indexes its activities
+   * 
+   * @param path
+   *            canonical path of AndroidManifest.xml file
+   */
+  private void load(String path) {
+    reset();
+    Validate.isTrue(fileManager.exists(path), "src/main/AndroidManifest.xml not found");
+
+    InputStream inputStream = null;
+    try {
+      inputStream = fileManager.getInputStream(path);
+      document = XmlUtils.readXml(inputStream);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+    manifestPath = path;
+    updateFileState();
+
+    NodeList applicationElements = document.getElementsByTagName("application");
+    if (applicationElements.getLength() > 0) {
+      // Getting first application element
+      applicationElement = (Element) applicationElements.item(0);
+
+      NodeList allChilds = applicationElement.getChildNodes();
+      for (int i = 0; i < allChilds.getLength(); i++) {
+        Node child = allChilds.item(i);
+        if (child instanceof Element && "activity".equals(child.getNodeName())) {
+          indexActivity((Element) child);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if AndroidManifest.xml file was modified since it was
+   *         parsed or written by this model
+   */
+  private boolean isChangedOnDisk() {
+    if (fileStateOutdated) {
+      updateFileState();
+      return false;
+    }
+    File file = new File(manifestPath);
+    return file.lastModified() != lastModified || file.length() != length;
+  }
+
+  /**
+   * Stores current modification time and size of AndroidManifest.xml file
+   */
+  private void updateFileState() {
+    File file = new File(manifestPath);
+    lastModified = file.lastModified();
+    length = file.length();
+    fileStateOutdated = false;
+  }
+
+  /**
+   * Gets the canonical path of AndroidManifest.xml file
+   * 
+   * @return
+   */
+  private String getAndroidManifestPath() {
+    LogicalPath mainPath = operationsUtils.getMainPath(projectOperations);
+    return projectOperations.getPathResolver().getIdentifier(mainPath, "AndroidManifest.xml");
+  }
+
+}
@@ -22,8 +22,6 @@ import org.springframework.roo.support.util.FileUtils;
 import org.springframework.roo.support.util.XmlUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import io.androoid.roo.addon.suite.support.AndrooidUtils;
 
@@ -50,6 +48,8 @@ public class AndrooidManifestOperationsImpl implements AndrooidManifestOperation
   private PathResolver pathResolver;
   @Reference
   private AndrooidUtils operationsUtils;
+  @Reference
+  private AndrooidManifestModel manifestModel;
 
   /** {@inheritDoc} */
   public void createAndroidManifestFile(JavaPackage applicationPackage) {
@@ -74,6 +74,9 @@ public class AndrooidManifestOperationsImpl implements AndrooidManifestOperation
 
     XmlUtils.writeXml(mutableFile.getOutputStream(), androidManifest);
 
+    // Discarding cached model of a previous AndroidManifest.xml file
+    manifestModel.reset();
+
   }
 
   /** {@inheritDoc} */
@@ -98,196 +101,128 @@ public class AndrooidManifestOperationsImpl implements AndrooidManifestOperation
 
   /** {@inheriDoc} */
   public void addApplicationConfig(Map<String, String> attributes) {
+    // Getting application tag
+    Element applicationElement = manifestModel.getApplicationElement();
 
-    try {
-      MutableFile androidManifestXmlMutableFile =
-          getAndroidManifestMutableFile(projectOperations, fileManager);
-      Document androidManifestXml =
-          XmlUtils.getDocumentBuilder().parse(androidManifestXmlMutableFile.getInputStream());
-      Element root = androidManifestXml.getDocumentElement();
-
-      // Getting application tag
-      Element applicationElement = (Element) root.getElementsByTagName("application").item(0);
-
-      // Including basic configuration
-      for (Entry<String, String> attribute : attributes.entrySet()) {
-        applicationElement.setAttribute(attribute.getKey(), attribute.getValue());
-      }
-
-      XmlUtils.writeXml(androidManifestXmlMutableFile.getOutputStream(), androidManifestXml);
-
-    } catch (Exception e) {
-      e.printStackTrace();
+    // Including basic configuration
+    for (Entry<String, String> attribute : attributes.entrySet()) {
+      applicationElement.setAttribute(attribute.getKey(), attribute.getValue());
     }
 
+    manifestModel.setModified();
   }
 
   /** {@inheritDoc} */
   public void addPermission(String permissionName) {
-    try {
-      MutableFile androidManifestXmlMutableFile =
-          getAndroidManifestMutableFile(projectOperations, fileManager);
-      Document androidManifestXml =
-          XmlUtils.getDocumentBuilder().parse(androidManifestXmlMutableFile.getInputStream());
-      Element root = androidManifestXml.getDocumentElement();
-
-      Map<String, String> permissionAttr = new HashMap<String, String>();
-      permissionAttr.put("android:name", permissionName);
-      operationsUtils.insertXmlElement(androidManifestXml, root, "uses-permission", permissionAttr);
+    Document androidManifestXml = manifestModel.getDocument();
+    Element root = androidManifestXml.getDocumentElement();
 
-      XmlUtils.writeXml(androidManifestXmlMutableFile.getOutputStream(), androidManifestXml);
-
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
+    Map<String, String> permissionAttr = new HashMap<String, String>();
+    permissionAttr.put("android:name", permissionName);
+    operationsUtils.insertXmlElement(androidManifestXml, root, "uses-permission", permissionAttr);
 
+    manifestModel.setModified();
   }
 
   /** {@inheritDoc} */
   public void addPermissions(List<String> permissionsNames) {
-    try {
-      MutableFile androidManifestXmlMutableFile =
-          getAndroidManifestMutableFile(projectOperations, fileManager);
-      Document androidManifestXml =
-          XmlUtils.getDocumentBuilder().parse(androidManifestXmlMutableFile.getInputStream());
-      Element root = androidManifestXml.getDocumentElement();
-
-      for (String permissionName : permissionsNames) {
-        Map<String, String> permissionAttr = new HashMap<String, String>();
-        permissionAttr.put("android:name", permissionName);
-        operationsUtils.insertXmlElement(androidManifestXml, root, "uses-permission",
-            permissionAttr);
-      }
-
-      XmlUtils.writeXml(androidManifestXmlMutableFile.getOutputStream(), androidManifestXml);
+    Document androidManifestXml = manifestModel.getDocument();
+    Element root = androidManifestXml.getDocumentElement();
 
-    } catch (Exception e) {
-      e.printStackTrace();
+    for (String permissionName : permissionsNames) {
+      Map<String, String> permissionAttr = new HashMap<String, String>();
+      permissionAttr.put("android:name", permissionName);
+      operationsUtils.insertXmlElement(androidManifestXml, root, "uses-permission", permissionAttr);
     }
+
+    manifestModel.setModified();
   }
 
   /** {@inheritDoc} */
   public Element addActivity(String name, String label, String configChanges,
       String screenOrientation) {
-    try {
-      MutableFile androidManifestXmlMutableFile =
-          getAndroidManifestMutableFile(projectOperations, fileManager);
-      Document androidManifestXml =
-          XmlUtils.getDocumentBuilder().parse(androidManifestXmlMutableFile.getInputStream());
-
-      NodeList applicationElements = androidManifestXml.getElementsByTagName("application");
-
-      if (applicationElements.getLength() < 0) {
-        throw new RuntimeException(
-            "Error getting application element from AndroidManifest.xml file");
+    Map<String, String> attributes = new HashMap<String, String>();
+    attributes.put("android:name", name);
+    attributes.put("android:label", label);
+    attributes.put("android:configChanges", configChanges);
+    attributes.put("android:screenOrientation", screenOrientation);
+
+    // If activity is already declared, only its attributes are updated
+    Element activity = manifestModel.getActivity(name);
+    if (activity != null) {
+      for (Entry<String, String> attribute : attributes.entrySet()) {
+        activity.setAttribute(attribute.getKey(), attribute.getValue());
       }
-
-      // Getting first application element
-      Element applicationElement = (Element) applicationElements.item(0);
-
-      Map<String, String> attributes = new HashMap<String, String>();
-      attributes.put("android:name", name);
-      attributes.put("android:label", label);
-      attributes.put("android:configChanges", configChanges);
-      attributes.put("android:screenOrientation", screenOrientation);
-      Element activity =
-          operationsUtils.insertXmlElement(androidManifestXml, applicationElement, "activity",
-              attributes);
-
-      XmlUtils.writeXml(androidManifestXmlMutableFile.getOutputStream(), androidManifestXml);
-
-      return activity;
-
-    } catch (Exception e) {
-      e.printStackTrace();
+    } else {
+      activity =
+          operationsUtils.insertXmlElement(manifestModel.getDocument(),
+              manifestModel.getApplicationElement(), "activity", attributes);
+      manifestModel.indexActivity(activity);
     }
 
-    return null;
+    manifestModel.setModified();
 
+    return activity;
   }
 
   /** {@inheritDoc} */
   public void addIntentFilterToActivity(Element activity, String actionName, String categoryName) {
-    try {
-      MutableFile androidManifestXmlMutableFile =
-          getAndroidManifestMutableFile(projectOperations, fileManager);
-      Document androidManifestXml =
-          XmlUtils.getDocumentBuilder().parse(androidManifestXmlMutableFile.getInputStream());
+    Document androidManifestXml = manifestModel.getDocument();
+    Element activityElement = getActivityElement(activity);
 
-      NodeList applicationElements = androidManifestXml.getElementsByTagName("application");
+    Element intentFilter = androidManifestXml.createElement("intent-filter");
 
-      if (applicationElements.getLength() < 0) {
-        throw new RuntimeException(
-            "Error getting application element from AndroidManifest.xml file");
-      }
-
-      // Getting first application element
-      Element applicationElement = (Element) applicationElements.item(0);
-
-      NodeList allChilds = applicationElement.getChildNodes();
-      for (int i = 0; i < allChilds.getLength(); i++) {
-        Node child = allChilds.item(i);
-
-        if (child.isEqualNode(activity)) {
-          Element intentFilter = androidManifestXml.createElement("intent-filter");
+    Element actionElement = androidManifestXml.createElement("action");
+    actionElement.setAttribute("android:name", actionName);
 
-          Element actionElement = androidManifestXml.createElement("action");
-          actionElement.setAttribute("android:name", actionName);
+    Element categoryElement = androidManifestXml.createElement("category");
+    categoryElement.setAttribute("android:name", categoryName);
 
-          Element categoryElement = androidManifestXml.createElement("category");
-          categoryElement.setAttribute("android:name", categoryName);
-
-          intentFilter.appendChild(actionElement);
-          intentFilter.appendChild(categoryElement);
-
-          // Append intent-filter element to current activity
-          child.appendChild(intentFilter);
-        }
-      }
+    intentFilter.appendChild(actionElement);
+    intentFilter.appendChild(categoryElement);
 
-      XmlUtils.writeXml(androidManifestXmlMutableFile.getOutputStream(), androidManifestXml);
+    // Append intent-filter element to current activity
+    activityElement.appendChild(intentFilter);
 
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
+    manifestModel.setModified();
   }
 
   /** {@inheritDoc} */
   public void addMetadataToActivity(Element activity, String name, String value) {
-    try {
-      MutableFile androidManifestXmlMutableFile =
-          getAndroidManifestMutableFile(projectOperations, fileManager);
-      Document androidManifestXml =
-          XmlUtils.getDocumentBuilder().parse(androidManifestXmlMutableFile.getInputStream());
-
-      NodeList applicationElements = androidManifestXml.getElementsByTagName("application");
-
-      if (applicationElements.getLength() < 0) {
-        throw new RuntimeException(
-            "Error getting application element from AndroidManifest.xml file");
-      }
-
-      // Getting first application element
-      Element applicationElement = (Element) applicationElements.item(0);
+    Document androidManifestXml = manifestModel.getDocument();
+    Element activityElement = getActivityElement(activity);
 
-      NodeList allChilds = applicationElement.getChildNodes();
-      for (int i = 0; i < allChilds.getLength(); i++) {
-        Node child = allChilds.item(i);
+    Element metaData = androidManifestXml.createElement("meta-data");
+    metaData.setAttribute("android:name", name);
+    metaData.setAttribute("android:value", value);
 
-        if (child.isEqualNode(activity)) {
-          Element metaData = androidManifestXml.createElement("meta-data");
-          metaData.setAttribute("android:name", name);
-          metaData.setAttribute("android:value", value);
+    // Append meta-data element to current activity
+    activityElement.appendChild(metaData);
 
-          // Append meta-daa element to current activity
-          child.appendChild(metaData);
-        }
-      }
+    manifestModel.setModified();
+  }
 
-      XmlUtils.writeXml(androidManifestXmlMutableFile.getOutputStream(), androidManifestXml);
+  /**
+   * Obtains the activity element of the cached AndroidManifest.xml document
+   * that matches with the provided activity. Elements returned by
+   * {@link #addActivity(String, String, String, String)} are used directly.
+   * Otherwise, activity is located by its android:name attribute.
+   * 
+   * @param activity
+   * @return Element
+   */
+  private Element getActivityElement(Element activity) {
+    Validate.notNull(activity, "ERROR: Activity element is required.");
 
-    } catch (Exception e) {
-      e.printStackTrace();
+    Document androidManifestXml = manifestModel.getDocument();
+    if (activity.getOwnerDocument() == androidManifestXml) {
+      return activity;
     }
+
+    String activityName = activity.getAttribute("android:name");
+    Element activityElement = manifestModel.getActivity(activityName);
+    Validate.notNull(activityElement, "ERROR: Activity '%s' not found on AndroidManifest.xml",
+        activityName);
+    return activityElement;
   }
 }
@@ -3,11 +3,16 @@ package io.androoid.roo.addon.suite.addon.persistence;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.springframework.roo.classpath.PhysicalTypeIdentifierNamingUtils;
 import org.springframework.roo.classpath.PhysicalTypeMetadata;
+import org.springframework.roo.classpath.details.BeanInfoUtils;
 import org.springframework.roo.classpath.details.FieldMetadataBuilder;
 import org.springframework.roo.classpath.details.MethodMetadataBuilder;
 import org.springframework.roo.classpath.details.annotations.AnnotatedJavaType;
@@ -41,6 +46,15 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
 
   private final ImportRegistrationResolver importResolver;
   private final List<JavaType> entitiesToInclude;
+  private final Map<JavaType, JavaType> identifierTypes;
+  private final int cacheSize;
+  private final SchemaSnapshot currentSchema;
+  private final Map<Integer, SchemaSnapshot> previousSchemas;
+  private final Map<JavaType, SpatialIndex> spatialIndexes;
+
+  private static final JavaType SQLITE_DATABASE = new JavaType(
+      "android.database.sqlite.SQLiteDatabase");
+  private static final JavaType GEO_POINT = new JavaType("org.osmdroid.util.GeoPoint");
 
   public static String createIdentifier(final JavaType javaType, final LogicalPath path) {
     return PhysicalTypeIdentifierNamingUtils.createIdentifier(PROVIDES_TYPE_STRING, javaType, path);
@@ -75,17 +89,41 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
    * @param governorPhysicalTypeMetadata
    *            the governor (required)
    * @param projectPackage
+   * @param entitiesToInclude
+   *            entities that should be created as a DAO
+   * @param identifierTypes
+   *            identifier type of the entities, by entity. Entities without
+   *            identifier type use Integer identifiers
+   * @param cacheSize
+   *            maximum number of objects to keep on the object cache of
+   *            every DAO. If 0, DAOs will not use an object cache
+   * @param version
+   *            current database version
+   * @param currentSchema
+   *            schema of current entities, target of the generated
+   *            migrations
+   * @param previousSchemas
+   *            schema snapshots of previous database versions, by version
+   * @param spatialIndexes
+   *            R*Tree indexes of the entities with GEO fields, by entity
    * 
    */
   public AndrooidDatabaseHelperMetadata(final String identifier, final JavaType aspectName,
       final PhysicalTypeMetadata governorPhysicalTypeMetadata, JavaPackage projectPackage,
-      List<JavaType> entitiesToInclude) {
+      List<JavaType> entitiesToInclude, Map<JavaType, JavaType> identifierTypes, int cacheSize,
+      int version, SchemaSnapshot currentSchema, Map<Integer, SchemaSnapshot> previousSchemas,
+      Map<JavaType, SpatialIndex> spatialIndexes) {
     super(identifier, aspectName, governorPhysicalTypeMetadata);
     Validate.isTrue(isValid(identifier),
         "Metadata identification string '%s' does not appear to be a valid", identifier);
 
     this.importResolver = builder.getImportRegistrationResolver();
     this.entitiesToInclude = entitiesToInclude;
+    this.identifierTypes = identifierTypes;
+    this.cacheSize = cacheSize;
+    this.currentSchema = currentSchema;
+    this.previousSchemas = previousSchemas;
+    this.spatialIndexes = spatialIndexes;
 
     // Adding constants
     FieldMetadataBuilder databaseName =
@@ -94,10 +132,26 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
                 .concat(projectPackage.getLastElement()).concat(".db").concat("\""));
     FieldMetadataBuilder databaseVersion =
         new FieldMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.STATIC + Modifier.FINAL,
-            new JavaSymbolName("DATABASE_VERSION"), JavaType.INT_PRIMITIVE, "1");
+            new JavaSymbolName("DATABASE_VERSION"), JavaType.INT_PRIMITIVE,
+            String.valueOf(version));
     builder.addField(databaseName);
     builder.addField(databaseVersion);
 
+    if (cacheSize > 0) {
+      FieldMetadataBuilder daoCacheSize =
+          new FieldMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.STATIC + Modifier.FINAL,
+              new JavaSymbolName("DAO_CACHE_SIZE"), JavaType.INT_PRIMITIVE,
+              String.valueOf(cacheSize));
+      builder.addField(daoCacheSize);
+    }
+
+    if (!spatialIndexes.isEmpty()) {
+      FieldMetadataBuilder searchRadius =
+          new FieldMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.STATIC + Modifier.FINAL,
+              new JavaSymbolName("SPATIAL_SEARCH_RADIUS"), JavaType.DOUBLE_PRIMITIVE, "0.01");
+      builder.addField(searchRadius);
+    }
+
     // Generate DAOs using annotation entities
     for (JavaType entity : entitiesToInclude) {
       builder.addField(getEntityDao(entity));
@@ -106,6 +160,16 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
       // Generating getters
       builder.addMethod(getEntityDaoGetter(entity));
       builder.addMethod(getEntityRuntimeExceptionDaoGetter(entity));
+
+      // Generating spatial queries of entities with GEO fields
+      SpatialIndex spatialIndex = spatialIndexes.get(entity);
+      if (spatialIndex != null) {
+        builder.addMethod(getCreateSpatialIndexMethod(entity, spatialIndex));
+        builder.addMethod(getFindWithinMethod(entity));
+        builder.addMethod(getFindWithinCoordinatesMethod(entity, spatialIndex));
+        builder.addMethod(getFindNearestMethod(entity));
+        builder.addMethod(getSquaredDistanceMethod(entity, spatialIndex));
+      }
     }
 
     // Generate necessary methods
@@ -137,7 +201,7 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     final List<JavaType> parameters = new ArrayList<JavaType>();
 
     parameters.add(entity);
-    parameters.add(JavaType.INT_OBJECT);
+    parameters.add(getIdentifierType(entity));
     JavaType returnType =
         new JavaType("com.j256.ormlite.dao.Dao", 0, DataType.TYPE, null, parameters);
 
@@ -173,6 +237,18 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     // daoName = getDao(EntityX.class);
     bodyBuilder.appendFormalLine(String.format("%s = getDao(%s.class);", daoName,
         entity.getSimpleTypeName()));
+
+    if (cacheSize > 0) {
+      // Objects are stored on an LRU cache. DAO updates it on every
+      // create, update and delete
+      bodyBuilder.appendFormalLine("// Objects are stored on an LRU cache. DAO updates it on every");
+      bodyBuilder.appendFormalLine("// create, update and delete");
+
+      // daoName.setObjectCache(new LruObjectCache(DAO_CACHE_SIZE));
+      bodyBuilder.appendFormalLine(String.format("%s.setObjectCache(new %s(DAO_CACHE_SIZE));",
+          daoName, new JavaType("com.j256.ormlite.dao.LruObjectCache")
+              .getNameIncludingTypeParameters(false, importResolver)));
+    }
     bodyBuilder.indentRemove();
 
     // }
@@ -203,7 +279,7 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     final List<JavaType> parameters = new ArrayList<JavaType>();
 
     parameters.add(entity);
-    parameters.add(JavaType.INT_OBJECT);
+    parameters.add(getIdentifierType(entity));
     JavaType returnType =
         new JavaType("com.j256.ormlite.dao.RuntimeExceptionDao", 0, DataType.TYPE, null, parameters);
 
@@ -258,7 +334,7 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     final List<JavaType> parameters = new ArrayList<JavaType>();
 
     parameters.add(entity);
-    parameters.add(JavaType.INT_OBJECT);
+    parameters.add(getIdentifierType(entity));
 
     JavaSymbolName daoName =
         new JavaSymbolName(Character.toLowerCase(entity.getSimpleTypeName().charAt(0))
@@ -284,7 +360,7 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     final List<JavaType> parameters = new ArrayList<JavaType>();
 
     parameters.add(entity);
-    parameters.add(JavaType.INT_OBJECT);
+    parameters.add(getIdentifierType(entity));
 
     JavaSymbolName daoName =
         new JavaSymbolName("runtimeException".concat(entity.getSimpleTypeName()).concat("Dao"));
@@ -296,6 +372,18 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     return entityDao;
   }
 
+  /**
+   * Obtains the identifier type of the provided entity, used as identifier
+   * parameter of its DAO
+   * 
+   * @param entity
+   * @return JavaType of the entity identifier
+   */
+  private JavaType getIdentifierType(JavaType entity) {
+    JavaType identifierType = identifierTypes.get(entity);
+    return identifierType != null ? identifierType : JavaType.INT_OBJECT;
+  }
+
   /**
    * Gets <code>close</code> method. <br>
    * 
@@ -456,6 +544,8 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
                 builder.getImportRegistrationResolver()), entity.getSimpleTypeName()));
       }
 
+      buildCreateSpatialIndexesLines(bodyBuilder);
+
       // } catch (SQLException e) {
       bodyBuilder.indentRemove();
       bodyBuilder.appendFormalLine(String.format(
@@ -473,9 +563,28 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     }
   }
 
+  /**
+   * Builds the lines that create the spatial index of every entity with GEO
+   * fields
+   * 
+   * @param bodyBuilder
+   */
+  private void buildCreateSpatialIndexesLines(InvocableMemberBodyBuilder bodyBuilder) {
+    for (JavaType entity : spatialIndexes.keySet()) {
+      // createEntityXSpatialIndex(database);
+      bodyBuilder.appendFormalLine(String.format("create%sSpatialIndex(database);",
+          entity.getSimpleTypeName()));
+    }
+  }
+
   /**
    * Builds body method for <code>onUpgrade</code> method. <br>
    * 
+   * Generates a migration from every previous version with a known schema
+   * snapshot to the current one. Installed databases are never dropped: if
+   * the schema of the old version is unknown, or some migration fails, the
+   * upgrade fails and the transaction is rolled back.
+   * 
    * @param bodyBuilder
    */
   private void buildOnUpgradeMethodBody(InvocableMemberBodyBuilder bodyBuilder) {
@@ -483,22 +592,52 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     if (!this.entitiesToInclude.isEmpty()) {
       // Generate method body
 
+      // Migrations are executed on a single transaction
+      bodyBuilder.appendFormalLine("// Migrations are executed on a single transaction");
+
+      // database.beginTransaction();
+      bodyBuilder.appendFormalLine("database.beginTransaction();");
+
       // try {
       bodyBuilder.appendFormalLine("try {");
       bodyBuilder.indent();
 
-      // Generating dynamic tables
-      for (JavaType entity : this.entitiesToInclude) {
+      // switch (oldVersion) {
+      bodyBuilder.appendFormalLine("switch (oldVersion) {");
 
-        // TableUtils.createTable(connectionSource, EntityX.class);
-        bodyBuilder.appendFormalLine(String.format(
-            "%s.dropTable(connectionSource, %s.class, true);", new JavaType(
-                "com.j256.ormlite.table.TableUtils").getNameIncludingTypeParameters(false,
-                builder.getImportRegistrationResolver()), entity.getSimpleTypeName()));
+      for (Map.Entry<Integer, SchemaSnapshot> previousSchema : previousSchemas.entrySet()) {
+
+        // case 1:
+        bodyBuilder.appendFormalLine(String.format("case %s:", previousSchema.getKey()));
+        bodyBuilder.indent();
+
+        buildMigrationLines(bodyBuilder, previousSchema.getValue());
+        buildCreateSpatialIndexesLines(bodyBuilder);
+
+        // break;
+        bodyBuilder.appendFormalLine("break;");
+        bodyBuilder.indentRemove();
       }
 
-      // onCreate(database, connectionSource);
-      bodyBuilder.appendFormalLine("onCreate(database, connectionSource);");
+      // default:
+      bodyBuilder.appendFormalLine("default:");
+      bodyBuilder.indent();
+
+      // Schema of old version is unknown. Stored data must not be dropped
+      bodyBuilder
+          .appendFormalLine("// Schema of old version is unknown. Stored data must not be dropped");
+
+      // throw new IllegalStateException("Unable to upgrade database version "
+      // + oldVersion + ". Its schema is unknown");
+      bodyBuilder.appendFormalLine("throw new IllegalStateException(\"Unable to upgrade "
+          + "database version \" + oldVersion + \". Its schema is unknown\");");
+      bodyBuilder.indentRemove();
+
+      // }
+      bodyBuilder.appendFormalLine("}");
+
+      // database.setTransactionSuccessful();
+      bodyBuilder.appendFormalLine("database.setTransactionSuccessful();");
 
       // } catch (SQLException e) {
       bodyBuilder.indentRemove();
@@ -508,8 +647,20 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
               builder.getImportRegistrationResolver())));
       bodyBuilder.indent();
 
-      // e.printStackTrace();
-      bodyBuilder.appendFormalLine("e.printStackTrace();");
+      // Failed migrations are rolled back, so SQLiteOpenHelper doesn't
+      // store the new version
+      // throw new android.database.SQLException("Unable to upgrade database
+      // version " + oldVersion, e);
+      bodyBuilder.appendFormalLine("throw new android.database.SQLException(\"Unable to "
+          + "upgrade database version \" + oldVersion, e);");
+      bodyBuilder.indentRemove();
+
+      // } finally {
+      bodyBuilder.appendFormalLine("} finally {");
+      bodyBuilder.indent();
+
+      // database.endTransaction();
+      bodyBuilder.appendFormalLine("database.endTransaction();");
       bodyBuilder.indentRemove();
 
       // }
@@ -517,6 +668,171 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
     }
   }
 
+  /**
+   * Builds the lines that migrate the database from the provided schema to
+   * the current one. New columns are included using ALTER TABLE. If some
+   * column has been removed, its definition has changed or it can't be
+   * included using ALTER TABLE, table is created again and the data of the
+   * common columns is copied.
+   * 
+   * Indexes keep their names when a table is renamed, so the indexes of a
+   * table that is created again are dropped first, and ORMLite creates them
+   * again with the table. Otherwise, new and changed indexes are created
+   * after including the new columns.
+   * 
+   * @param bodyBuilder
+   * @param oldSchema
+   *            schema snapshot of the old version
+   */
+  private void buildMigrationLines(InvocableMemberBodyBuilder bodyBuilder,
+      SchemaSnapshot oldSchema) {
+
+    String tableUtils =
+        new JavaType("com.j256.ormlite.table.TableUtils").getNameIncludingTypeParameters(false,
+            importResolver);
+
+    for (Map.Entry<String, SchemaSnapshot.Table> entry : currentSchema.getTables().entrySet()) {
+      String entityName =
+          new JavaType(entry.getKey()).getNameIncludingTypeParameters(false, importResolver);
+      SchemaSnapshot.Table table = entry.getValue();
+      SchemaSnapshot.Table oldTable = oldSchema.getTables().get(entry.getKey());
+
+      if (oldTable == null) {
+        // TableUtils.createTable(connectionSource, EntityX.class);
+        bodyBuilder.appendFormalLine(String.format("%s.createTable(connectionSource, %s.class);",
+            tableUtils, entityName));
+        continue;
+      }
+
+      if (!oldTable.getName().equals(table.getName())) {
+        // database.execSQL("ALTER TABLE `old` RENAME TO `new`");
+        bodyBuilder.appendFormalLine(String.format(
+            "database.execSQL(\"ALTER TABLE `%s` RENAME TO `%s`\");", oldTable.getName(),
+            table.getName()));
+      }
+
+      // Checking if some column has been removed or changed
+      boolean copyTable = false;
+      for (Map.Entry<String, String> oldColumn : oldTable.getColumns().entrySet()) {
+        if (!oldColumn.getValue().equals(table.getColumns().get(oldColumn.getKey()))) {
+          copyTable = true;
+          break;
+        }
+      }
+
+      // Checking if some new column can't be included using ALTER TABLE
+      for (Map.Entry<String, String> column : table.getColumns().entrySet()) {
+        if (!oldTable.getColumns().containsKey(column.getKey())
+            && !isAddableColumn(column.getValue())) {
+          copyTable = true;
+          break;
+        }
+      }
+
+      if (copyTable) {
+        // Snapshots written by previous Androoid versions don't include
+        // indexes, so the current ones are dropped too
+        Set<String> indexNames = new TreeSet<String>(oldTable.getIndexes().keySet());
+        indexNames.addAll(table.getIndexes().keySet());
+        for (String indexName : indexNames) {
+          // database.execSQL("DROP INDEX IF EXISTS `entity_a_idx`");
+          bodyBuilder.appendFormalLine(String.format(
+              "database.execSQL(\"DROP INDEX IF EXISTS `%s`\");", indexName));
+        }
+
+        // database.execSQL("ALTER TABLE `entity` RENAME TO `entity_old`");
+        bodyBuilder.appendFormalLine(String.format(
+            "database.execSQL(\"ALTER TABLE `%s` RENAME TO `%s_old`\");", table.getName(),
+            table.getName()));
+
+        // TableUtils.createTable(connectionSource, EntityX.class);
+        bodyBuilder.appendFormalLine(String.format("%s.createTable(connectionSource, %s.class);",
+            tableUtils, entityName));
+
+        List<String> commonColumns = oldTable.getCommonColumns(table);
+        if (!commonColumns.isEmpty()) {
+          String columns = "`".concat(StringUtils.join(commonColumns, "`, `")).concat("`");
+
+          // database.execSQL("INSERT INTO `entity` (`a`, `b`) SELECT `a`, `b`
+          // FROM `entity_old`");
+          bodyBuilder.appendFormalLine(String.format(
+              "database.execSQL(\"INSERT INTO `%s` (%s) SELECT %s FROM `%s_old`\");",
+              table.getName(), columns, columns, table.getName()));
+        }
+
+        // database.execSQL("DROP TABLE `entity_old`");
+        bodyBuilder.appendFormalLine(String.format("database.execSQL(\"DROP TABLE `%s_old`\");",
+            table.getName()));
+      } else {
+        for (Map.Entry<String, String> column : table.getColumns().entrySet()) {
+          if (!oldTable.getColumns().containsKey(column.getKey())) {
+            // database.execSQL("ALTER TABLE `entity` ADD COLUMN `a` VARCHAR");
+            bodyBuilder.appendFormalLine(String.format(
+                "database.execSQL(\"ALTER TABLE `%s` ADD COLUMN `%s` %s\");", table.getName(),
+                column.getKey(), column.getValue()));
+          }
+        }
+
+        buildIndexMigrationLines(bodyBuilder, table, oldTable);
+      }
+    }
+
+    // Removing tables of deleted entities
+    for (Map.Entry<String, SchemaSnapshot.Table> oldEntry : oldSchema.getTables().entrySet()) {
+      if (!currentSchema.getTables().containsKey(oldEntry.getKey())) {
+        // database.execSQL("DROP TABLE IF EXISTS `entity`");
+        bodyBuilder.appendFormalLine(String.format(
+            "database.execSQL(\"DROP TABLE IF EXISTS `%s`\");", oldEntry.getValue().getName()));
+      }
+    }
+  }
+
+  /**
+   * Builds the lines that drop the removed indexes of the provided table and
+   * create its new and changed indexes
+   * 
+   * @param bodyBuilder
+   * @param table
+   *            table of the current schema
+   * @param oldTable
+   *            table of the old schema
+   */
+  private void buildIndexMigrationLines(InvocableMemberBodyBuilder bodyBuilder,
+      SchemaSnapshot.Table table, SchemaSnapshot.Table oldTable) {
+    for (Map.Entry<String, SchemaSnapshot.Index> oldIndex : oldTable.getIndexes().entrySet()) {
+      if (!oldIndex.getValue().equals(table.getIndexes().get(oldIndex.getKey()))) {
+        // database.execSQL("DROP INDEX IF EXISTS `entity_a_idx`");
+        buildExecSqlLine(bodyBuilder,
+            String.format("DROP INDEX IF EXISTS `%s`", oldIndex.getKey()));
+      }
+    }
+    for (Map.Entry<String, SchemaSnapshot.Index> index : table.getIndexes().entrySet()) {
+      if (!index.getValue().equals(oldTable.getIndexes().get(index.getKey()))) {
+        // database.execSQL("CREATE INDEX IF NOT EXISTS `entity_a_idx` ON
+        // `entity` (`a`)");
+        buildExecSqlLine(bodyBuilder,
+            index.getValue().getCreateStatement(index.getKey(), table.getName()));
+      }
+    }
+  }
+
+  /**
+   * SQLite only adds columns using ALTER TABLE if they are not PRIMARY KEY
+   * nor UNIQUE, and if they have a default value when they are NOT NULL.
+   * 
+   * @param definition
+   *            column definition
+   * @return true if a column with the provided definition can be included
+   *         using ALTER TABLE
+   */
+  private boolean isAddableColumn(String definition) {
+    String upperDefinition = definition.toUpperCase();
+    if (upperDefinition.contains("PRIMARY KEY") || upperDefinition.contains("UNIQUE")) {
+      return false;
+    }
+    return !upperDefinition.contains("NOT NULL") || upperDefinition.contains("DEFAULT");
+  }
+
   /**
    * Builds body method for <code>close</code> method. <br>
    * 
@@ -547,6 +863,552 @@ public class AndrooidDatabaseHelperMetadata extends AbstractItdTypeDetailsProvid
 
   }
 
+  /**
+   * Gets <code>createEntitySpatialIndex</code> method, that creates the R*Tree
+   * virtual table of the provided entity, fills it with the stored entities
+   * and creates the triggers that keep it in sync on every create, update
+   * and delete. <br>
+   * 
+   * @param entity
+   * @param spatialIndex
+   * @return
+   */
+  private MethodMetadataBuilder getCreateSpatialIndexMethod(JavaType entity,
+      SpatialIndex spatialIndex) {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(new AnnotatedJavaType(SQLITE_DATABASE));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("database"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+    buildCreateSpatialIndexMethodBody(bodyBuilder, spatialIndex);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(String.format(
+            "create%sSpatialIndex", entity.getSimpleTypeName())), JavaType.VOID_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Builds body method for <code>createEntitySpatialIndex</code> method. <br>
+   * 
+   * @param bodyBuilder
+   * @param spatialIndex
+   */
+  private void buildCreateSpatialIndexMethodBody(InvocableMemberBodyBuilder bodyBuilder,
+      SpatialIndex spatialIndex) {
+    String table = spatialIndex.getTableName();
+    String rtree = spatialIndex.getIndexTableName();
+    String newPoint =
+        String.format("NEW.`%s`, NEW.`%s`, NEW.`%s`, NEW.`%s`, NEW.`%s`",
+            spatialIndex.getIdentifierColumn(), spatialIndex.getLatitudeColumn(),
+            spatialIndex.getLatitudeColumn(), spatialIndex.getLongitudeColumn(),
+            spatialIndex.getLongitudeColumn());
+    String newPointNotNull =
+        String.format("NEW.`%s` IS NOT NULL AND NEW.`%s` IS NOT NULL",
+            spatialIndex.getLatitudeColumn(), spatialIndex.getLongitudeColumn());
+    String deleteOld =
+        String.format("DELETE FROM `%s` WHERE id = OLD.`%s`;", rtree,
+            spatialIndex.getIdentifierColumn());
+
+    // Spatial index is created again, so it contains every stored entity
+    bodyBuilder.appendFormalLine("// Spatial index is created again, so it contains every "
+        + "stored entity");
+    buildExecSqlLine(bodyBuilder, String.format("DROP TRIGGER IF EXISTS `%s_insert`", rtree));
+    buildExecSqlLine(bodyBuilder, String.format("DROP TRIGGER IF EXISTS `%s_update`", rtree));
+    buildExecSqlLine(bodyBuilder, String.format("DROP TRIGGER IF EXISTS `%s_delete`", rtree));
+    buildExecSqlLine(bodyBuilder, String.format("DROP TABLE IF EXISTS `%s`", rtree));
+    buildExecSqlLine(bodyBuilder, String.format("CREATE VIRTUAL TABLE `%s` USING rtree(id, "
+        + "minLatitude, maxLatitude, minLongitude, maxLongitude)", rtree));
+    buildExecSqlLine(bodyBuilder, String.format(
+        "INSERT INTO `%s` SELECT `%s`, `%s`, `%s`, `%s`, `%s` FROM `%s` "
+            + "WHERE `%s` IS NOT NULL AND `%s` IS NOT NULL", rtree,
+        spatialIndex.getIdentifierColumn(), spatialIndex.getLatitudeColumn(),
+        spatialIndex.getLatitudeColumn(), spatialIndex.getLongitudeColumn(),
+        spatialIndex.getLongitudeColumn(), table, spatialIndex.getLatitudeColumn(),
+        spatialIndex.getLongitudeColumn()));
+
+    // Triggers keep spatial index in sync on every create, update and delete
+    bodyBuilder.appendFormalLine("// Triggers keep spatial index in sync on every create, "
+        + "update and delete");
+    buildExecSqlLine(bodyBuilder, String.format(
+        "CREATE TRIGGER `%s_insert` AFTER INSERT ON `%s` WHEN %s "
+            + "BEGIN INSERT OR REPLACE INTO `%s` VALUES (%s); END", rtree, table,
+        newPointNotNull, rtree, newPoint));
+    buildExecSqlLine(bodyBuilder, String.format(
+        "CREATE TRIGGER `%s_update` AFTER UPDATE ON `%s` BEGIN %s "
+            + "INSERT INTO `%s` SELECT %s WHERE %s; END", rtree, table, deleteOld, rtree,
+        newPoint, newPointNotNull));
+    buildExecSqlLine(bodyBuilder, String.format(
+        "CREATE TRIGGER `%s_delete` AFTER DELETE ON `%s` BEGIN %s END", rtree, table, deleteOld));
+  }
+
+  /**
+   * Appends a line that executes the provided SQL statement on the database
+   * 
+   * @param bodyBuilder
+   * @param sql
+   */
+  private void buildExecSqlLine(InvocableMemberBodyBuilder bodyBuilder, String sql) {
+    // database.execSQL("...");
+    bodyBuilder.appendFormalLine(String.format("database.execSQL(\"%s\");", sql));
+  }
+
+  /**
+   * Gets <code>findEntityWithin</code> method, that obtains the entities
+   * whose GEO field is inside the provided bounding box. <br>
+   * 
+   * @param entity
+   * @return
+   */
+  private MethodMetadataBuilder getFindWithinMethod(JavaType entity) {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(new AnnotatedJavaType(new JavaType("org.osmdroid.util.BoundingBoxE6")));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("boundingBox"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // BoundingBoxE6 coordinates are stored as microdegrees
+    bodyBuilder.appendFormalLine("// BoundingBoxE6 coordinates are stored as microdegrees");
+
+    // return findEntityXWithin(boundingBox.getLatSouthE6() / 1E6, ...);
+    bodyBuilder.appendFormalLine(String.format("return find%sWithin(boundingBox.getLatSouthE6() "
+        + "/ 1E6, boundingBox.getLatNorthE6() / 1E6, boundingBox.getLonWestE6() / 1E6, "
+        + "boundingBox.getLonEastE6() / 1E6);", entity.getSimpleTypeName()));
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "find%sWithin", entity.getSimpleTypeName())), getEntityListType(entity),
+            parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Obtains the %s items located inside the provided bounding box, like the visible \n"
+                + "area of a map. Only the items found on the spatial index are loaded. \n"
+                + "\n" + "@param boundingBox \n" + "@return List with the located items \n"
+                + "@throws SQLException", entity.getSimpleTypeName()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Gets <code>findEntityWithin</code> method that receives the coordinates
+   * of the box. Longitudes out of range and boxes that cross the antimeridian
+   * are supported. <br>
+   * 
+   * @param entity
+   * @param spatialIndex
+   * @return
+   */
+  private MethodMetadataBuilder getFindWithinCoordinatesMethod(JavaType entity,
+      SpatialIndex spatialIndex) {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(new AnnotatedJavaType(JavaType.DOUBLE_PRIMITIVE));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.DOUBLE_PRIMITIVE));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.DOUBLE_PRIMITIVE));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.DOUBLE_PRIMITIVE));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("south"));
+    parameterNames.add(new JavaSymbolName("north"));
+    parameterNames.add(new JavaSymbolName("west"));
+    parameterNames.add(new JavaSymbolName("east"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+    buildFindWithinCoordinatesMethodBody(bodyBuilder, entity, spatialIndex);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(String.format(
+            "find%sWithin", entity.getSimpleTypeName())), getEntityListType(entity),
+            parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Builds body method for <code>findEntityWithin</code> method that receives
+   * the coordinates of the box. <br>
+   * 
+   * @param bodyBuilder
+   * @param entity
+   * @param spatialIndex
+   */
+  private void buildFindWithinCoordinatesMethodBody(InvocableMemberBodyBuilder bodyBuilder,
+      JavaType entity, SpatialIndex spatialIndex) {
+
+    // Boxes wider than the world include every longitude
+    bodyBuilder.appendFormalLine("// Boxes wider than the world include every longitude");
+
+    // if (east - west >= 360) {
+    bodyBuilder.appendFormalLine("if (east - west >= 360) {");
+    bodyBuilder.indent();
+
+    // west = -180;
+    bodyBuilder.appendFormalLine("west = -180;");
+
+    // east = 180;
+    bodyBuilder.appendFormalLine("east = 180;");
+    bodyBuilder.indentRemove();
+
+    // } else {
+    bodyBuilder.appendFormalLine("} else {");
+    bodyBuilder.indent();
+
+    // Longitudes out of range are moved to the other side of the antimeridian
+    bodyBuilder.appendFormalLine("// Longitudes out of range are moved to the other side of "
+        + "the antimeridian");
+
+    // if (west < -180) {
+    bodyBuilder.appendFormalLine("if (west < -180) {");
+    bodyBuilder.indent();
+
+    // west += 360;
+    bodyBuilder.appendFormalLine("west += 360;");
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // if (east > 180) {
+    bodyBuilder.appendFormalLine("if (east > 180) {");
+    bodyBuilder.indent();
+
+    // east -= 360;
+    bodyBuilder.appendFormalLine("east -= 360;");
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // String longitudeCondition;
+    bodyBuilder.appendFormalLine("String longitudeCondition;");
+
+    // if (west <= east) {
+    bodyBuilder.appendFormalLine("if (west <= east) {");
+    bodyBuilder.indent();
+
+    // longitudeCondition = "maxLongitude >= " + west + " AND minLongitude <= "
+    // + east;
+    bodyBuilder.appendFormalLine("longitudeCondition = \"maxLongitude >= \" + west + "
+        + "\" AND minLongitude <= \" + east;");
+    bodyBuilder.indentRemove();
+
+    // } else {
+    bodyBuilder.appendFormalLine("} else {");
+    bodyBuilder.indent();
+
+    // Box crosses the antimeridian
+    bodyBuilder.appendFormalLine("// Box crosses the antimeridian");
+
+    // longitudeCondition = "(maxLongitude >= " + west + " OR minLongitude <= "
+    // + east + ")";
+    bodyBuilder.appendFormalLine("longitudeCondition = \"(maxLongitude >= \" + west + "
+        + "\" OR minLongitude <= \" + east + \")\";");
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // Only the entities found on the spatial index are loaded
+    bodyBuilder.appendFormalLine("// Only the entities found on the spatial index are loaded");
+
+    // return getEntityXDao().queryBuilder().where().raw("`id` IN (SELECT id
+    // FROM `entity_rtree` WHERE ...)").query();
+    bodyBuilder.appendFormalLine(String.format("return get%sDao().queryBuilder().where()"
+        + ".raw(\"`%s` IN (SELECT id FROM `%s` WHERE maxLatitude >= \" + south + \" "
+        + "AND minLatitude <= \" + north + \" AND \" + longitudeCondition + \")\").query();",
+        entity.getSimpleTypeName(), spatialIndex.getIdentifierColumn(),
+        spatialIndex.getIndexTableName()));
+  }
+
+  /**
+   * Gets <code>findEntityNearest</code> method, that obtains the k entities
+   * whose GEO field is nearest to the provided point. <br>
+   * 
+   * @param entity
+   * @return
+   */
+  private MethodMetadataBuilder getFindNearestMethod(JavaType entity) {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(new AnnotatedJavaType(GEO_POINT));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.INT_PRIMITIVE));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("point"));
+    parameterNames.add(new JavaSymbolName("k"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+    buildFindNearestMethodBody(bodyBuilder, entity);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, new JavaSymbolName(String.format(
+            "find%sNearest", entity.getSimpleTypeName())), getEntityListType(entity),
+            parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.addThrowsType(new JavaType("java.sql.SQLException"));
+
+    // Including comments
+    CommentStructure commentStructure = new CommentStructure();
+    JavadocComment comment =
+        new JavadocComment(String.format(
+            "Obtains the k %s items nearest to the provided point, sorted by distance. The \n"
+                + "search box is doubled until it contains k items, so only the items around \n"
+                + "the point are loaded. \n" + "\n" + "@param point \n"
+                + "@param k maximum number of items to obtain \n"
+                + "@return List with the nearest items \n" + "@throws SQLException",
+            entity.getSimpleTypeName()));
+    commentStructure.addComment(comment, CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * Builds body method for <code>findEntityNearest</code> method. <br>
+   * 
+   * @param bodyBuilder
+   * @param entity
+   */
+  private void buildFindNearestMethodBody(InvocableMemberBodyBuilder bodyBuilder,
+      JavaType entity) {
+    String entityName = entity.getSimpleTypeName();
+    String listType = getEntityListType(entity).getNameIncludingTypeParameters(false,
+        importResolver);
+    String searchBox =
+        "latitude - radius, latitude + radius, longitude - radius / longitudeScale, "
+            + "longitude + radius / longitudeScale";
+
+    // if (k <= 0) {
+    bodyBuilder.appendFormalLine("if (k <= 0) {");
+    bodyBuilder.indent();
+
+    // return new ArrayList<EntityX>();
+    bodyBuilder.appendFormalLine(String.format("return new %s<%s>();", new JavaType(
+        "java.util.ArrayList").getNameIncludingTypeParameters(false, importResolver), entityName));
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // final double latitude = point.getLatitude();
+    bodyBuilder.appendFormalLine("final double latitude = point.getLatitude();");
+
+    // final double longitude = point.getLongitude();
+    bodyBuilder.appendFormalLine("final double longitude = point.getLongitude();");
+
+    // Longitude degrees are shorter far from the equator
+    bodyBuilder.appendFormalLine("// Longitude degrees are shorter far from the equator");
+
+    // final double longitudeScale = Math.max(Math.cos(Math.toRadians(latitude)),
+    // 0.01);
+    bodyBuilder.appendFormalLine("final double longitudeScale = "
+        + "Math.max(Math.cos(Math.toRadians(latitude)), 0.01);");
+
+    // Search box is doubled until it contains k items or the whole world
+    bodyBuilder.appendFormalLine("// Search box is doubled until it contains k items or the "
+        + "whole world");
+
+    // double radius = SPATIAL_SEARCH_RADIUS;
+    bodyBuilder.appendFormalLine("double radius = SPATIAL_SEARCH_RADIUS;");
+
+    // List<EntityX> items = findEntityXWithin(...);
+    bodyBuilder.appendFormalLine(String.format("%s items = find%sWithin(%s);", listType,
+        entityName, searchBox));
+
+    // while (items.size() < k && radius < 180) {
+    bodyBuilder.appendFormalLine("while (items.size() < k && radius < 180) {");
+    bodyBuilder.indent();
+
+    // radius *= 2;
+    bodyBuilder.appendFormalLine("radius *= 2;");
+
+    // items = findEntityXWithin(...);
+    bodyBuilder.appendFormalLine(String.format("items = find%sWithin(%s);", entityName,
+        searchBox));
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // if (items.size() >= k) {
+    bodyBuilder.appendFormalLine("if (items.size() >= k) {");
+    bodyBuilder.indent();
+
+    // The k-th nearest item could be on the circle that contains the box
+    bodyBuilder.appendFormalLine("// The k-th nearest item could be on the circle that "
+        + "contains the box");
+
+    // radius *= Math.sqrt(2);
+    bodyBuilder.appendFormalLine("radius *= Math.sqrt(2);");
+
+    // items = findEntityXWithin(...);
+    bodyBuilder.appendFormalLine(String.format("items = find%sWithin(%s);", entityName,
+        searchBox));
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // Collections.sort(items, new Comparator<EntityX>() {
+    bodyBuilder.appendFormalLine(String.format("%s.sort(items, new %s<%s>() {", new JavaType(
+        "java.util.Collections").getNameIncludingTypeParameters(false, importResolver),
+        new JavaType("java.util.Comparator").getNameIncludingTypeParameters(false,
+            importResolver), entityName));
+    bodyBuilder.indent();
+
+    // public int compare(EntityX item1, EntityX item2) {
+    bodyBuilder.appendFormalLine(String.format("public int compare(%s item1, %s item2) {",
+        entityName, entityName));
+    bodyBuilder.indent();
+
+    // return Double.compare(getEntityXSquaredDistance(item1, latitude,
+    // longitude, longitudeScale), getEntityXSquaredDistance(item2, ...));
+    bodyBuilder.appendFormalLine(String.format("return Double.compare(get%sSquaredDistance(item1, "
+        + "latitude, longitude, longitudeScale), get%sSquaredDistance(item2, latitude, "
+        + "longitude, longitudeScale));", entityName, entityName));
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+
+    // });
+    bodyBuilder.appendFormalLine("});");
+
+    // if (items.size() > k) {
+    bodyBuilder.appendFormalLine("if (items.size() > k) {");
+    bodyBuilder.indent();
+
+    // return new ArrayList<EntityX>(items.subList(0, k));
+    bodyBuilder.appendFormalLine(String.format("return new %s<%s>(items.subList(0, k));",
+        new JavaType("java.util.ArrayList").getNameIncludingTypeParameters(false,
+            importResolver), entityName));
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // return items;
+    bodyBuilder.appendFormalLine("return items;");
+  }
+
+  /**
+   * Gets <code>getEntitySquaredDistance</code> method, that calculates the
+   * squared distance in degrees between the GEO field of an entity and a
+   * point. Longitude distance is scaled, so it is comparable with latitude
+   * distance. <br>
+   * 
+   * @param entity
+   * @param spatialIndex
+   * @return
+   */
+  private MethodMetadataBuilder getSquaredDistanceMethod(JavaType entity,
+      SpatialIndex spatialIndex) {
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(new AnnotatedJavaType(entity));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.DOUBLE_PRIMITIVE));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.DOUBLE_PRIMITIVE));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.DOUBLE_PRIMITIVE));
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("item"));
+    parameterNames.add(new JavaSymbolName("latitude"));
+    parameterNames.add(new JavaSymbolName("longitude"));
+    parameterNames.add(new JavaSymbolName("longitudeScale"));
+
+    // Create the method body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // GeoPoint location = item.getLocation();
+    bodyBuilder.appendFormalLine(String.format("%s location = item.%s();",
+        GEO_POINT.getNameIncludingTypeParameters(false, importResolver),
+        BeanInfoUtils.getAccessorMethodName(spatialIndex.getGeoFieldName(), GEO_POINT)));
+
+    // double latitudeDistance = location.getLatitude() - latitude;
+    bodyBuilder.appendFormalLine("double latitudeDistance = location.getLatitude() - latitude;");
+
+    // double longitudeDistance = Math.abs(location.getLongitude() - longitude);
+    bodyBuilder.appendFormalLine("double longitudeDistance = "
+        + "Math.abs(location.getLongitude() - longitude);");
+
+    // Distance through the antimeridian could be shorter
+    bodyBuilder.appendFormalLine("// Distance through the antimeridian could be shorter");
+
+    // if (longitudeDistance > 180) {
+    bodyBuilder.appendFormalLine("if (longitudeDistance > 180) {");
+    bodyBuilder.indent();
+
+    // longitudeDistance = 360 - longitudeDistance;
+    bodyBuilder.appendFormalLine("longitudeDistance = 360 - longitudeDistance;");
+    bodyBuilder.indentRemove();
+
+    // }
+    bodyBuilder.appendFormalLine("}");
+
+    // longitudeDistance *= longitudeScale;
+    bodyBuilder.appendFormalLine("longitudeDistance *= longitudeScale;");
+
+    // return latitudeDistance * latitudeDistance + longitudeDistance *
+    // longitudeDistance;
+    bodyBuilder.appendFormalLine("return latitudeDistance * latitudeDistance "
+        + "+ longitudeDistance * longitudeDistance;");
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, new JavaSymbolName(String.format(
+            "get%sSquaredDistance", entity.getSimpleTypeName())), JavaType.DOUBLE_PRIMITIVE,
+            parameterTypes, parameterNames, bodyBuilder);
+
+    return methodBuilder; // Build and return a MethodMetadata
+    // instance
+  }
+
+  /**
+   * @param entity
+   * @return List type of the provided entity
+   */
+  private JavaType getEntityListType(JavaType entity) {
+    final List<JavaType> parameters = new ArrayList<JavaType>();
+    parameters.add(entity);
+    return new JavaType("java.util.List", 0, DataType.TYPE, null, parameters);
+  }
+
   @Override
   public String toString() {
     final ToStringBuilder builder = new ToStringBuilder(this);
@@ -1,10 +1,18 @@
 package io.androoid.roo.addon.suite.addon.persistence;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.logging.Logger;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
@@ -13,18 +21,25 @@ import org.springframework.roo.classpath.PhysicalTypeIdentifier;
 import org.springframework.roo.classpath.PhysicalTypeMetadata;
 import org.springframework.roo.classpath.TypeLocationService;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.classpath.details.FieldMetadata;
 import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
 import org.springframework.roo.classpath.details.annotations.ClassAttributeValue;
 import org.springframework.roo.classpath.itd.AbstractItdMetadataProvider;
 import org.springframework.roo.classpath.itd.ItdTypeDetailsProvidingMetadataItem;
 import org.springframework.roo.model.JavaPackage;
+import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
+import org.springframework.roo.process.manager.FileManager;
 import org.springframework.roo.project.LogicalPath;
+import org.springframework.roo.project.Path;
+import org.springframework.roo.project.PathResolver;
 import org.springframework.roo.project.ProjectOperations;
 import org.springframework.roo.support.logging.HandlerUtils;
 
 import io.androoid.roo.addon.suite.addon.persistence.annotations.AndrooidDatabaseHelper;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptorService;
 
 /**
  * Provides {@link AndrooidDatabaseHelperMetadata}.
@@ -42,12 +57,29 @@ public class AndrooidDatabaseHelperMetadataProvider extends AbstractItdMetadataP
   public static final JavaType ANDROOID_DATABASE_HELPER =
       new JavaType(AndrooidDatabaseHelper.class);
 
+  private static final String LINE_SEPARATOR = "\n";
+
+  private static final JavaType DATABASE_TABLE = new JavaType(
+      "com.j256.ormlite.table.DatabaseTable");
+
   @Reference
   ProjectOperations projectOperations;
 
   @Reference
   TypeLocationService typeLocationService;
 
+  @Reference
+  FileManager fileManager;
+
+  @Reference
+  PathResolver pathResolver;
+
+  @Reference
+  AndrooidEntityDescriptorService entityDescriptorService;
+
+  @Reference
+  AndrooidPersistenceOperations persistenceOperations;
+
   protected void activate(final ComponentContext cContext) {
     context = cContext.getBundleContext();
     getMetadataDependencyRegistry().addNotificationListener(this);
@@ -113,8 +145,193 @@ public class AndrooidDatabaseHelperMetadataProvider extends AbstractItdMetadataP
       }
     }
 
+    // Getting DAO object cache configuration
+    AnnotationAttributeValue<Integer> cacheSizeAttr = annotation.getAttribute("cacheSize");
+
+    int cacheSize = AndrooidDatabaseHelper.CACHE_SIZE_DEFAULT;
+
+    if (cacheSizeAttr != null) {
+      cacheSize = cacheSizeAttr.getValue();
+    }
+
+    Validate.isTrue(cacheSize >= 0,
+        "ERROR: @AndrooidDatabaseHelper cacheSize attribute must be 0 or a positive value.");
+
+    // Getting database version
+    AnnotationAttributeValue<Integer> versionAttr = annotation.getAttribute("version");
+
+    int version = AndrooidDatabaseHelper.DATABASE_VERSION_DEFAULT;
+
+    if (versionAttr != null) {
+      version = versionAttr.getValue();
+    }
+
+    Validate.isTrue(version > 0,
+        "ERROR: @AndrooidDatabaseHelper version attribute must be a positive value.");
+
+    // Migrations target the schema of current entities
+    SchemaSnapshot currentSchema = persistenceOperations.getSchemaSnapshot();
+    writeSchemaSnapshot(version, currentSchema);
+
+    // Getting schema snapshots of previous versions
+    Map<Integer, SchemaSnapshot> previousSchemas = new TreeMap<Integer, SchemaSnapshot>();
+    for (int previousVersion = 1; previousVersion < version; previousVersion++) {
+      SchemaSnapshot previousSchema = getSchemaSnapshot(previousVersion);
+      if (previousSchema != null) {
+        previousSchemas.put(previousVersion, previousSchema);
+      }
+    }
+
+    // Without previous schemas, tables of installed databases could only be
+    // dropped, losing their data
+    Validate.isTrue(version == 1 || !previousSchemas.isEmpty(), String.format(
+        "ERROR: Unable to generate database migrations to version %s. No schema snapshot of "
+            + "a previous version exists on src/main/schema folder.", version));
+
+    // Getting spatial indexes of entities with GEO fields. DatabaseHelper
+    // needs to be updated when some entity changes its GEO fields
+    Map<JavaType, SpatialIndex> spatialIndexes = new LinkedHashMap<JavaType, SpatialIndex>();
+    Map<JavaType, JavaType> identifierTypes = new HashMap<JavaType, JavaType>();
+    for (JavaType entity : entitiesToInclude) {
+      AndrooidEntityDescriptor entityDescriptor = entityDescriptorService.getDescriptor(entity);
+      if (entityDescriptor == null) {
+        continue;
+      }
+      getMetadataDependencyRegistry().registerDependency(
+          entityDescriptor.getPhysicalTypeIdentifier(), metadataIdentificationString);
+
+      // DAOs use the identifier type of the entity
+      identifierTypes.put(entity, entityDescriptor.getIdentifierFieldType());
+
+      SpatialIndex spatialIndex = getSpatialIndex(entityDescriptor);
+      if (spatialIndex != null) {
+        spatialIndexes.put(entity, spatialIndex);
+      }
+    }
+
     return new AndrooidDatabaseHelperMetadata(metadataIdentificationString, aspectName,
-        governorPhysicalTypeMetadata, projectPackage, entitiesToInclude);
+        governorPhysicalTypeMetadata, projectPackage, entitiesToInclude, identifierTypes,
+        cacheSize, version, currentSchema, previousSchemas, spatialIndexes);
+  }
+
+  /**
+   * Obtains the spatial index of the provided entity. Only the first GEO
+   * field of the entity is indexed, and entity must use an integer
+   * identifier, that is used as R*Tree id.
+   * 
+   * @param entityDescriptor
+   * @return the SpatialIndex or null if entity can't be indexed
+   */
+  private SpatialIndex getSpatialIndex(AndrooidEntityDescriptor entityDescriptor) {
+    if (entityDescriptor.getGeoFieldNames().isEmpty()) {
+      return null;
+    }
+
+    JavaType identifierType = entityDescriptor.getIdentifierFieldType();
+    if (!JavaType.LONG_OBJECT.equals(identifierType)
+        && !JavaType.LONG_PRIMITIVE.equals(identifierType)
+        && !JavaType.INT_OBJECT.equals(identifierType)
+        && !JavaType.INT_PRIMITIVE.equals(identifierType)) {
+      LOGGER.warning(String.format(
+          "GEO fields of '%s' will not be indexed. Spatial index needs an integer identifier.",
+          entityDescriptor.getEntity().getSimpleTypeName()));
+      return null;
+    }
+
+    String geoFieldName = entityDescriptor.getGeoFieldNames().get(0);
+    FieldMetadata latitudeField =
+        entityDescriptor.getDatabaseField(geoFieldName.concat("Latitude"));
+    FieldMetadata longitudeField =
+        entityDescriptor.getDatabaseField(geoFieldName.concat("Longitude"));
+    if (latitudeField == null || longitudeField == null) {
+      return null;
+    }
+
+    String identifierColumn = entityDescriptor.getIdentifierFieldName();
+    FieldMetadata identifierField =
+        entityDescriptor.getDatabaseField(entityDescriptor.getIdentifierFieldName());
+    if (identifierField != null) {
+      identifierColumn = entityDescriptor.getColumnName(identifierField);
+    }
+
+    return new SpatialIndex(getTableName(entityDescriptor.getEntity()), identifierColumn,
+        entityDescriptor.getColumnName(latitudeField),
+        entityDescriptor.getColumnName(longitudeField), new JavaSymbolName(geoFieldName));
+  }
+
+  /**
+   * Obtains the table name of the provided entity. Uses tableName attribute
+   * of @DatabaseTable if present.
+   * 
+   * @param entity
+   * @return the table name
+   */
+  private String getTableName(JavaType entity) {
+    ClassOrInterfaceTypeDetails entityDetails = typeLocationService.getTypeDetails(entity);
+    AnnotationMetadata dbTableAnnotation = entityDetails.getAnnotation(DATABASE_TABLE);
+    if (dbTableAnnotation != null) {
+      AnnotationAttributeValue<String> tableNameAttr =
+          dbTableAnnotation.getAttribute("tableName");
+      if (tableNameAttr != null && !"".equals(tableNameAttr.getValue())) {
+        return tableNameAttr.getValue();
+      }
+    }
+    return entity.getSimpleTypeName().toLowerCase();
+  }
+
+  /**
+   * Writes the schema snapshot of the current database version. While a
+   * version is the current one, its snapshot follows every change of the
+   * entities. Snapshots of previous versions are never written, so they keep
+   * the schema each version was released with. Empty snapshots are never
+   * written, as no table could be created with them.
+   * 
+   * @param version
+   *            current database version
+   * @param currentSchema
+   *            schema of current entities
+   */
+  private void writeSchemaSnapshot(int version, SchemaSnapshot currentSchema) {
+    if (currentSchema.getTables().isEmpty()) {
+      return;
+    }
+
+    final String snapshotPath =
+        pathResolver.getFocusedIdentifier(Path.SRC_MAIN,
+            SchemaSnapshot.getSnapshotFileName(version));
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("#").append(LINE_SEPARATOR);
+    sb.append("# schema of database version ").append(version).append(LINE_SEPARATOR);
+    sb.append("#").append(LINE_SEPARATOR);
+    sb.append(currentSchema.toString());
+
+    fileManager.createOrUpdateTextFileIfRequired(snapshotPath, sb.toString(), false);
+  }
+
+  /**
+   * Reads the schema snapshot of the provided database version
+   * 
+   * @param version
+   * @return the schema snapshot or null if it doesn't exist
+   */
+  private SchemaSnapshot getSchemaSnapshot(int version) {
+    final String snapshotPath =
+        pathResolver.getFocusedIdentifier(Path.SRC_MAIN,
+            SchemaSnapshot.getSnapshotFileName(version));
+    if (!fileManager.exists(snapshotPath)) {
+      return null;
+    }
+
+    InputStream inputStream = null;
+    try {
+      inputStream = fileManager.getInputStream(snapshotPath);
+      return SchemaSnapshot.parse(IOUtils.toString(inputStream));
+    } catch (final IOException e) {
+      throw new IllegalStateException("Unable to read '" + snapshotPath + "'", e);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
   }
 
   public String getProvidesType() {
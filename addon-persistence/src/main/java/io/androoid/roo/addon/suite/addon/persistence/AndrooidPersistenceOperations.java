@@ -44,4 +44,23 @@ public interface AndrooidPersistenceOperations extends Feature {
    */
   void updatePersistenceConfigFile();
 
+  /**
+   * Updates persistence config file including changes of the provided
+   * entity. Config of the rest of entities is reused if it was generated
+   * before.
+   * 
+   * @param entity
+   *            entity that has been created or modified
+   */
+  void updatePersistenceConfigFile(JavaType entity);
+
+  /**
+   * Obtains the schema of the current entities: the table of every entity
+   * and the ORMLite definition of its columns. Used as target of generated
+   * database migrations.
+   * 
+   * @return SchemaSnapshot of the current entities
+   */
+  SchemaSnapshot getSchemaSnapshot();
+
 }
@@ -1,17 +1,18 @@
 package io.androoid.roo.addon.suite.addon.persistence;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,7 +33,7 @@ import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
 import org.springframework.roo.classpath.details.annotations.ArrayAttributeValue;
 import org.springframework.roo.classpath.details.annotations.ClassAttributeValue;
-import org.springframework.roo.classpath.scanner.MemberDetailsScanner;
+import org.springframework.roo.metadata.MetadataService;
 import org.springframework.roo.model.EnumDetails;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
@@ -52,6 +53,9 @@ import org.w3c.dom.Element;
 import io.androoid.roo.addon.suite.addon.persistence.annotations.AndrooidDatabaseConfig;
 import io.androoid.roo.addon.suite.addon.persistence.annotations.AndrooidDatabaseHelper;
 import io.androoid.roo.addon.suite.addon.project.AndrooidProjectOperations;
+import io.androoid.roo.addon.suite.support.AndrooidBatchOperations;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptorService;
 
 /**
  * Implementation of {@link AndrooidPersistenceOperations} interface.
@@ -68,6 +72,80 @@ public class AndrooidPersistenceOperationsImpl implements AndrooidPersistenceOpe
   private static final JavaType ANDROOID_DATABASE_HELPER = new JavaType(
       AndrooidDatabaseHelper.class);
 
+  private static final JavaType DATABASE_FIELD = new JavaType(
+      "com.j256.ormlite.field.DatabaseField");
+
+  private static final JavaType DATABASE_TABLE = new JavaType(
+      "com.j256.ormlite.table.DatabaseTable");
+
+  /**
+   * SQLite types used by ORMLite on Android, by Java type. Enums are stored
+   * as strings too.
+   */
+  private static final Map<String, String> SQL_TYPES = new HashMap<String, String>();
+
+  static {
+    SQL_TYPES.put("boolean", "BOOLEAN");
+    SQL_TYPES.put("java.lang.Boolean", "BOOLEAN");
+    SQL_TYPES.put("byte", "TINYINT");
+    SQL_TYPES.put("java.lang.Byte", "TINYINT");
+    SQL_TYPES.put("short", "SMALLINT");
+    SQL_TYPES.put("java.lang.Short", "SMALLINT");
+    SQL_TYPES.put("int", "INTEGER");
+    SQL_TYPES.put("java.lang.Integer", "INTEGER");
+    SQL_TYPES.put("long", "BIGINT");
+    SQL_TYPES.put("java.lang.Long", "BIGINT");
+    SQL_TYPES.put("float", "FLOAT");
+    SQL_TYPES.put("java.lang.Float", "FLOAT");
+    SQL_TYPES.put("double", "DOUBLE PRECISION");
+    SQL_TYPES.put("java.lang.Double", "DOUBLE PRECISION");
+    SQL_TYPES.put("char", "CHAR");
+    SQL_TYPES.put("java.lang.Character", "CHAR");
+    SQL_TYPES.put("java.lang.String", "VARCHAR");
+    SQL_TYPES.put("java.math.BigDecimal", "VARCHAR");
+    SQL_TYPES.put("java.math.BigInteger", "VARCHAR");
+    SQL_TYPES.put("java.util.UUID", "VARCHAR");
+    // ORMLite stores dates as strings on Android
+    SQL_TYPES.put("java.util.Date", "VARCHAR");
+  }
+
+  /**
+   * SQLite types used by ORMLite, by @DatabaseField dataType. Data types
+   * without entry use the type of the field.
+   */
+  private static final Map<String, String> DATA_TYPE_SQL_TYPES = new HashMap<String, String>();
+
+  static {
+    DATA_TYPE_SQL_TYPES.put("STRING", "VARCHAR");
+    DATA_TYPE_SQL_TYPES.put("LONG_STRING", "TEXT");
+    DATA_TYPE_SQL_TYPES.put("STRING_BYTES", "BLOB");
+    DATA_TYPE_SQL_TYPES.put("BYTE_ARRAY", "BLOB");
+    DATA_TYPE_SQL_TYPES.put("SERIALIZABLE", "BLOB");
+    DATA_TYPE_SQL_TYPES.put("DATE", "VARCHAR");
+    DATA_TYPE_SQL_TYPES.put("DATE_STRING", "VARCHAR");
+    DATA_TYPE_SQL_TYPES.put("DATE_LONG", "BIGINT");
+    DATA_TYPE_SQL_TYPES.put("DATE_INTEGER", "INTEGER");
+    DATA_TYPE_SQL_TYPES.put("ENUM_STRING", "VARCHAR");
+    DATA_TYPE_SQL_TYPES.put("ENUM_TO_STRING", "VARCHAR");
+    DATA_TYPE_SQL_TYPES.put("ENUM_INTEGER", "INTEGER");
+    DATA_TYPE_SQL_TYPES.put("BIG_INTEGER", "VARCHAR");
+    DATA_TYPE_SQL_TYPES.put("BIG_DECIMAL", "VARCHAR");
+    DATA_TYPE_SQL_TYPES.put("BIG_DECIMAL_NUMERIC", "NUMERIC");
+    DATA_TYPE_SQL_TYPES.put("UUID", "VARCHAR");
+  }
+
+  /**
+   * @DatabaseField attributes that are written to ormlite_config.txt using
+   *                the same name and the annotation value. Follows the order
+   *                used by ORMLite DatabaseFieldConfigLoader.
+   */
+  private static final String[] DATABASE_FIELD_CONFIG_ATTRIBUTES = {"defaultValue", "width",
+      "canBeNull", "id", "generatedId", "generatedIdSequence", "foreign", "useGetSet",
+      "throwIfNull", "format", "unique", "uniqueCombo", "index", "indexName", "uniqueIndex",
+      "uniqueIndexName", "foreignAutoRefresh", "maxForeignAutoRefreshLevel",
+      "allowGeneratedIdInsert", "columnDefinition", "foreignAutoCreate", "version",
+      "foreignColumnName", "readOnly"};
+
   /**
    * Get hold of a JDK Logger
    */
@@ -86,7 +164,17 @@ public class AndrooidPersistenceOperationsImpl implements AndrooidPersistenceOpe
   @Reference
   private TypeManagementService typeManagementService;
   @Reference
-  private MemberDetailsScanner memberDetailsScanner;
+  private AndrooidEntityDescriptorService entityDescriptorService;
+  @Reference
+  private MetadataService metadataService;
+  @Reference
+  private AndrooidBatchOperations batchOperations;
+
+  /**
+   * Table configs of ormlite_config.txt file and table schemas of current
+   * database version, by entity fully qualified name
+   */
+  private final Map<String, CachedTable> tables = new TreeMap<String, CachedTable>();
 
   /** {@inheritDoc} */
   public boolean isPersistenceSetupAvailable() {
@@ -132,6 +220,11 @@ public class AndrooidPersistenceOperationsImpl implements AndrooidPersistenceOpe
       // Creating new annotation with old values
       final List<AnnotationAttributeValue<?>> attributes =
           new ArrayList<AnnotationAttributeValue<?>>();
+      for (JavaSymbolName attributeName : androoidDatabaseHelperAnnotation.getAttributeNames()) {
+        if (!"entities".equals(attributeName.getSymbolName())) {
+          attributes.add(androoidDatabaseHelperAnnotation.getAttribute(attributeName));
+        }
+      }
       final List<ClassAttributeValue> desiredEntities = new ArrayList<ClassAttributeValue>();
 
       if (entitiesAttribute != null) {
@@ -267,110 +360,483 @@ public class AndrooidPersistenceOperationsImpl implements AndrooidPersistenceOpe
 
   /** {@inheritDoc} */
   public void updatePersistenceConfigFile() {
-    try {
-      final String ormLiteConfigPath =
-          pathResolver.getFocusedIdentifier(Path.SRC_MAIN_RES, "raw/ormlite_config.txt");
+    // Discarding all cached table configs
+    tables.clear();
+
+    writePersistenceConfigFileOnCommit();
+  }
+
+  /** {@inheritDoc} */
+  public void updatePersistenceConfigFile(JavaType entity) {
+    Validate.notNull(entity, "ERROR: Entity to update on persistence config file is required.");
+
+    // Discarding cached table config and descriptor of the changed entity
+    tables.remove(entity.getFullyQualifiedTypeName());
+    entityDescriptorService.evict(entity);
+
+    writePersistenceConfigFileOnCommit();
+  }
+
+  /**
+   * Writes ormlite_config.txt file. On a batch, file is written once when the
+   * batch is committed, including changes of all updated entities.
+   */
+  private void writePersistenceConfigFileOnCommit() {
+    batchOperations.runOnCommit("ormlite_config.txt", new Runnable() {
+      public void run() {
+        writePersistenceConfigFile();
+      }
+    });
+  }
+
+  /**
+   * Writes ormlite_config.txt file using cached table configs. File is only
+   * written if its content changes.
+   */
+  private void writePersistenceConfigFile() {
+    final String ormLiteConfigPath =
+        pathResolver.getFocusedIdentifier(Path.SRC_MAIN_RES, "raw/ormlite_config.txt");
+
+    // Generating string with content
+    StringBuilder sb = new StringBuilder();
+
+    sb.append("#").append(LINE_SEPARATOR);
+    sb.append("# generated by Androoid").append(LINE_SEPARATOR);
+    sb.append("#").append(LINE_SEPARATOR);
+
+    for (CachedTable table : getCurrentTables().values()) {
+      sb.append(table.tableConfig);
+    }
+
+    fileManager.createOrUpdateTextFileIfRequired(ormLiteConfigPath, sb.toString(), false);
+
+    refreshDatabaseHelpers();
+  }
+
+  /** {@inheritDoc} */
+  public SchemaSnapshot getSchemaSnapshot() {
+    SchemaSnapshot snapshot = new SchemaSnapshot();
+    for (Map.Entry<String, CachedTable> entry : getCurrentTables().entrySet()) {
+      snapshot.addTable(entry.getKey(), entry.getValue().tableSchema);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Obtains the table config and table schema of every current entity. Only
+   * tables that are not cached, or that were generated from an outdated
+   * entity descriptor, are generated again.
+   * 
+   * @return tables by entity fully qualified name
+   */
+  private Map<String, CachedTable> getCurrentTables() {
+    // Getting current entities. Their details are only scanned if needed
+    Set<ClassOrInterfaceTypeDetails> currentEntities =
+        typeLocationService.findClassesOrInterfaceDetailsWithAnnotation(new JavaType(
+            "io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity"));
+
+    Map<String, CachedTable> currentTables = new TreeMap<String, CachedTable>();
+    for (ClassOrInterfaceTypeDetails entity : currentEntities) {
+      String entityName = entity.getName().getFullyQualifiedTypeName();
+
+      // Descriptors are replaced when the entity type or any of its ITDs
+      // change, so a cached table is never used with outdated fields even if
+      // it was not evicted
+      AndrooidEntityDescriptor entityDescriptor = getEntityDescriptor(entity);
+      CachedTable table = tables.get(entityName);
+      if (table == null || table.entityDescriptor != entityDescriptor) {
+        table =
+            new CachedTable(entityDescriptor, getTableConfig(entity, entityDescriptor),
+                getTableSchema(entity, entityDescriptor));
+      }
+      currentTables.put(entityName, table);
+    }
+
+    // Removed entities are discarded from cache
+    tables.clear();
+    tables.putAll(currentTables);
+
+    return tables;
+  }
+
+  /**
+   * Refreshes DatabaseHelper metadata, so its migrations include the current
+   * schema. Schema snapshots are written by DatabaseHelper metadata provider.
+   */
+  private void refreshDatabaseHelpers() {
+    Set<ClassOrInterfaceTypeDetails> databaseHelpers =
+        typeLocationService.findClassesOrInterfaceDetailsWithAnnotation(ANDROOID_DATABASE_HELPER);
+
+    for (ClassOrInterfaceTypeDetails databaseHelper : databaseHelpers) {
+      metadataService.evictAndGet(AndrooidDatabaseHelperMetadata.createIdentifier(
+          databaseHelper.getName(),
+          PhysicalTypeIdentifier.getPath(databaseHelper.getDeclaredByMetadataId())));
+    }
+  }
+
+  /**
+   * Obtains the shared descriptor of the provided entity
+   * 
+   * @param entity
+   * @return the entity descriptor
+   */
+  private AndrooidEntityDescriptor getEntityDescriptor(ClassOrInterfaceTypeDetails entity) {
+    AndrooidEntityDescriptor entityDescriptor =
+        entityDescriptorService.getDescriptor(entity.getName());
+
+    Validate.notNull(entityDescriptor, "ERROR: '%s' is not a valid Androoid Entity.",
+        entity.getName());
+
+    return entityDescriptor;
+  }
+
+  /**
+   * Generates the table schema of the provided entity
+   * 
+   * @param entity
+   * @param entityDescriptor
+   *            descriptor with the entity fields annotated with @DatabaseField
+   * @return the table schema
+   */
+  SchemaSnapshot.Table getTableSchema(ClassOrInterfaceTypeDetails entity,
+      AndrooidEntityDescriptor entityDescriptor) {
+    SchemaSnapshot.Table table = new SchemaSnapshot.Table(getTableName(entity));
+    for (FieldMetadata field : entityDescriptor.getDatabaseFields()) {
+      String columnName = entityDescriptor.getColumnName(field);
+      table.addColumn(columnName, getColumnDefinition(entityDescriptor, field));
+
+      String indexName = getIndexName(table.getName(), field, "index", "indexName");
+      if (indexName != null) {
+        table.addIndex(indexName, false, columnName);
+      }
+      String uniqueIndexName =
+          getIndexName(table.getName(), field, "uniqueIndex", "uniqueIndexName");
+      if (uniqueIndexName != null) {
+        table.addIndex(uniqueIndexName, true, columnName);
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Obtains the name of the index that ORMLite creates for the provided
+   * field. As ORMLite does, an index name attribute enables the index, and
+   * default index name is built with the table name and the columnName
+   * attribute, or the field name if columnName is not present.
+   * 
+   * @param tableName
+   * @param field
+   * @param indexAttributeName
+   *            index or uniqueIndex
+   * @param indexNameAttributeName
+   *            indexName or uniqueIndexName
+   * @return the index name or null if field is not indexed
+   */
+  private String getIndexName(String tableName, FieldMetadata field, String indexAttributeName,
+      String indexNameAttributeName) {
+    AnnotationMetadata dbFieldAnnotation = field.getAnnotation(DATABASE_FIELD);
+
+    AnnotationAttributeValue<String> indexNameAttr =
+        dbFieldAnnotation.getAttribute(indexNameAttributeName);
+    if (indexNameAttr != null && !"".equals(indexNameAttr.getValue())) {
+      return indexNameAttr.getValue();
+    }
+    if (!isBooleanAttributeTrue(dbFieldAnnotation, indexAttributeName)) {
+      return null;
+    }
 
-      File file = new File(ormLiteConfigPath);
+    String columnName = field.getFieldName().getSymbolName();
+    AnnotationAttributeValue<String> columnNameAttr = dbFieldAnnotation.getAttribute("columnName");
+    if (columnNameAttr != null && !"".equals(columnNameAttr.getValue())) {
+      columnName = columnNameAttr.getValue();
+    }
+    return String.format("%s_%s_idx", tableName, columnName);
+  }
 
-      // if file doesnt exists, then create it
-      if (!file.exists()) {
-        file.createNewFile();
+  /**
+   * Obtains the definition of the column where ORMLite stores the provided
+   * field: SQLite type followed by the PRIMARY KEY, NOT NULL, DEFAULT and
+   * UNIQUE constraints of its @DatabaseField annotation. If columnDefinition
+   * attribute is present, it is used as is.
+   * 
+   * @param entityDescriptor
+   * @param field
+   * @return the column definition
+   */
+  private String getColumnDefinition(AndrooidEntityDescriptor entityDescriptor,
+      FieldMetadata field) {
+    AnnotationMetadata dbFieldAnnotation = field.getAnnotation(DATABASE_FIELD);
+
+    AnnotationAttributeValue<String> columnDefinitionAttr =
+        dbFieldAnnotation.getAttribute("columnDefinition");
+    if (columnDefinitionAttr != null && !"".equals(columnDefinitionAttr.getValue())) {
+      return columnDefinitionAttr.getValue();
+    }
+
+    StringBuilder definition = new StringBuilder();
+    if (isBooleanAttributeTrue(dbFieldAnnotation, "generatedId")) {
+      // SQLite only allows to autoincrement INTEGER primary keys
+      definition.append("INTEGER PRIMARY KEY AUTOINCREMENT");
+    } else {
+      String sqlType = getColumnSqlType(entityDescriptor, field);
+      definition.append(sqlType);
+      if (isBooleanAttributeTrue(dbFieldAnnotation, "id")) {
+        definition.append(" PRIMARY KEY");
       }
 
-      // Generating string with content
-      Set<ClassOrInterfaceTypeDetails> currentEntities =
-          typeLocationService.findClassesOrInterfaceDetailsWithAnnotation(new JavaType(
-              "io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity"));
-
-      StringBuilder sb = new StringBuilder();
-
-      sb.append("#").append(LINE_SEPARATOR);
-      sb.append("# generated on ").append(new Date().toString()).append(LINE_SEPARATOR);
-      sb.append("#").append(LINE_SEPARATOR);
-
-      for (ClassOrInterfaceTypeDetails entity : currentEntities) {
-        // # --table-start--
-        sb.append("# --table-start--").append(LINE_SEPARATOR);
-        // dataClass=ENTITY_WITH_PACKAGE
-        sb.append("dataClass=").append(entity.getName().getFullyQualifiedTypeName())
-            .append(LINE_SEPARATOR);
-        // tableName=entity
-        sb.append("tableName=").append(entity.getName().getSimpleTypeName().toLowerCase())
-            .append(LINE_SEPARATOR);
-        // # --table-fields-start--
-        sb.append("# --table-fields-start--").append(LINE_SEPARATOR);
-
-        List<FieldMetadata> entityFields =
-            memberDetailsScanner.getMemberDetails(getClass().getName(), entity).getFields();
-
-        for (FieldMetadata field : entityFields) {
-
-          // Checking if current field is a Database field or not
-          AnnotationMetadata dbFieldAnnotation =
-              field.getAnnotation(new JavaType("com.j256.ormlite.field.DatabaseField"));
-
-          if (dbFieldAnnotation != null) {
-            // # --field-start--
-            sb.append("# --field-start--").append(LINE_SEPARATOR);
-            // fieldName=fieldName
-            sb.append("fieldName=").append(field.getFieldName().toString()).append(LINE_SEPARATOR);
-
-            AnnotationAttributeValue<Boolean> generatedIdAttr =
-                dbFieldAnnotation.getAttribute("generatedId");
-            if (generatedIdAttr != null) {
-              // generatedId=value
-              sb.append("generatedId=").append(generatedIdAttr.getValue()).append(LINE_SEPARATOR);
-            }
-
-            AnnotationAttributeValue<Boolean> foreignAttr =
-                dbFieldAnnotation.getAttribute("foreign");
-            if (foreignAttr != null) {
-              // foreign=value
-              sb.append("foreign=").append(foreignAttr.getValue()).append(LINE_SEPARATOR);
-            }
-
-            AnnotationAttributeValue<Boolean> foreignAutoRefreshAttr =
-                dbFieldAnnotation.getAttribute("foreignAutoRefresh");
-            if (foreignAutoRefreshAttr != null) {
-              // foreignAutoRefresh=value
-              sb.append("foreignAutoRefresh=").append(foreignAutoRefreshAttr.getValue())
-                  .append(LINE_SEPARATOR);
-            }
-
-            AnnotationAttributeValue<EnumDetails> dataPersisterAttr =
-                dbFieldAnnotation.getAttribute("dataType");
-            if (dataPersisterAttr != null) {
-              // dataPersister=value
-              sb.append("dataPersister=")
-                  .append(dataPersisterAttr.getValue().getField().toString())
-                  .append(LINE_SEPARATOR);
-            }
-
-            // # --field-end--
-            sb.append("# --field-end--").append(LINE_SEPARATOR);
-
-          }
+      AnnotationAttributeValue<Boolean> canBeNullAttr =
+          dbFieldAnnotation.getAttribute("canBeNull");
+      if (canBeNullAttr != null && !canBeNullAttr.getValue()) {
+        definition.append(" NOT NULL");
+      }
+
+      AnnotationAttributeValue<String> defaultValueAttr =
+          dbFieldAnnotation.getAttribute("defaultValue");
+      if (defaultValueAttr != null) {
+        definition.append(" DEFAULT ").append(
+            getDefaultValueLiteral(sqlType, defaultValueAttr.getValue()));
+      }
+
+      if (isBooleanAttributeTrue(dbFieldAnnotation, "unique")) {
+        definition.append(" UNIQUE");
+      }
+    }
+    return definition.toString();
+  }
 
+  /**
+   * Obtains the SQLite type used by ORMLite to store the provided field.
+   * Foreign fields use the type of the referenced entity identifier.
+   * 
+   * @param entityDescriptor
+   * @param field
+   * @return the SQL type
+   */
+  private String getColumnSqlType(AndrooidEntityDescriptor entityDescriptor, FieldMetadata field) {
+    JavaType fieldType = field.getFieldType();
+    if (entityDescriptor.isForeign(field)) {
+      AndrooidEntityDescriptor referencedDescriptor =
+          entityDescriptorService.getDescriptor(fieldType);
+      Validate.notNull(referencedDescriptor, String.format(
+          "ERROR: Foreign field '%s' of %s must reference an Androoid Entity.",
+          field.getFieldName(), entityDescriptor.getEntity().getSimpleTypeName()));
+      fieldType = referencedDescriptor.getIdentifierFieldType();
+    } else {
+      AnnotationAttributeValue<EnumDetails> dataTypeAttr =
+          field.getAnnotation(DATABASE_FIELD).getAttribute("dataType");
+      if (dataTypeAttr != null) {
+        String sqlType =
+            DATA_TYPE_SQL_TYPES.get(dataTypeAttr.getValue().getField().getSymbolName());
+        if (sqlType != null) {
+          return sqlType;
         }
+      }
+    }
+
+    String sqlType = SQL_TYPES.get(fieldType.getFullyQualifiedTypeName());
+    if (sqlType == null && fieldType.isPrimitive()) {
+      sqlType = SQL_TYPES.get(fieldType.getSimpleTypeName());
+    }
+    if (sqlType == null && isEnum(fieldType)) {
+      sqlType = "VARCHAR";
+    }
+
+    // Guessing a type would generate migrations that don't match the table
+    // created by ORMLite
+    Validate.notNull(sqlType, String.format(
+        "ERROR: Unable to obtain the column type of field '%s' of %s. Declare its dataType "
+            + "or columnDefinition on @DatabaseField.", field.getFieldName(), entityDescriptor
+            .getEntity().getSimpleTypeName()));
+    return sqlType;
+  }
+
+  /**
+   * Obtains the SQL literal of the provided default value. As ORMLite does,
+   * values of string columns are quoted.
+   * 
+   * @param sqlType
+   *            SQLite type of the column
+   * @param defaultValue
+   *            defaultValue attribute of @DatabaseField
+   * @return String with the SQL literal
+   */
+  private String getDefaultValueLiteral(String sqlType, String defaultValue) {
+    if ("VARCHAR".equals(sqlType) || "TEXT".equals(sqlType) || "CHAR".equals(sqlType)) {
+      return "'".concat(defaultValue.replace("'", "''")).concat("'");
+    }
+    return defaultValue;
+  }
+
+  /**
+   * Checks if the provided type is an enum of the project
+   * 
+   * @param type
+   * @return true if type is an enum
+   */
+  private boolean isEnum(JavaType type) {
+    ClassOrInterfaceTypeDetails typeDetails = typeLocationService.getTypeDetails(type);
+    return typeDetails != null
+        && typeDetails.getPhysicalTypeCategory() == PhysicalTypeCategory.ENUMERATION;
+  }
 
-        // # --table-fields-end--
-        sb.append("# --table-fields-end--").append(LINE_SEPARATOR);
+  /**
+   * Checks if the provided boolean attribute is enabled
+   * 
+   * @param annotation
+   * @param attributeName
+   * @return true if attribute exists and its value is true
+   */
+  private boolean isBooleanAttributeTrue(AnnotationMetadata annotation, String attributeName) {
+    AnnotationAttributeValue<Boolean> attr = annotation.getAttribute(attributeName);
+    return attr != null && attr.getValue();
+  }
+
+  /**
+   * Generates the table config of the provided entity
+   * 
+   * @param entity
+   * @param entityDescriptor
+   *            descriptor with the entity fields annotated with @DatabaseField
+   * @return String with the table config of the entity
+   */
+  String getTableConfig(ClassOrInterfaceTypeDetails entity,
+      AndrooidEntityDescriptor entityDescriptor) {
+    StringBuilder sb = new StringBuilder();
+
+    // # --table-start--
+    sb.append("# --table-start--").append(LINE_SEPARATOR);
+    // dataClass=ENTITY_WITH_PACKAGE
+    sb.append("dataClass=").append(entity.getName().getFullyQualifiedTypeName())
+        .append(LINE_SEPARATOR);
+    // tableName=entity
+    sb.append("tableName=").append(getTableName(entity)).append(LINE_SEPARATOR);
+    // # --table-fields-start--
+    sb.append("# --table-fields-start--").append(LINE_SEPARATOR);
+
+    for (FieldMetadata field : entityDescriptor.getDatabaseFields()) {
+      appendFieldConfig(sb, field, entityDescriptor.getColumnName(field));
+    }
+
+    // # --table-fields-end--
+    sb.append("# --table-fields-end--").append(LINE_SEPARATOR);
 
-        // # --table-end--
-        sb.append("# --table-end--").append(LINE_SEPARATOR);
-        sb.append("#################################").append(LINE_SEPARATOR);
+    // # --table-end--
+    sb.append("# --table-end--").append(LINE_SEPARATOR);
+    sb.append("#################################").append(LINE_SEPARATOR);
+
+    return sb.toString();
+  }
+
+  /**
+   * Obtains the table name of the provided entity. Uses tableName attribute
+   * of @DatabaseTable if present.
+   * 
+   * @param entity
+   * @return the table name
+   */
+  private String getTableName(ClassOrInterfaceTypeDetails entity) {
+    AnnotationMetadata dbTableAnnotation = entity.getAnnotation(DATABASE_TABLE);
+    if (dbTableAnnotation != null) {
+      AnnotationAttributeValue<String> tableNameAttr =
+          dbTableAnnotation.getAttribute("tableName");
+      if (tableNameAttr != null && !"".equals(tableNameAttr.getValue())) {
+        return tableNameAttr.getValue();
       }
+    }
+    return entity.getName().getSimpleTypeName().toLowerCase();
+  }
 
-      FileWriter fw = new FileWriter(file.getAbsoluteFile());
-      BufferedWriter bw = new BufferedWriter(fw);
-      bw.write(sb.toString());
-      bw.close();
+  /**
+   * Appends the complete field config of the provided field. Every
+   * attribute of its @DatabaseField annotation is included, so ORMLite
+   * doesn't need to read the annotation at runtime.
+   * 
+   * @param sb
+   *            StringBuilder where field config will be appended
+   * @param field
+   *            field to include, annotated with @DatabaseField
+   * @param columnName
+   *            column where the field is stored
+   */
+  private void appendFieldConfig(StringBuilder sb, FieldMetadata field, String columnName) {
+    AnnotationMetadata dbFieldAnnotation = field.getAnnotation(DATABASE_FIELD);
+    String fieldName = field.getFieldName().getSymbolName();
+
+    // # --field-start--
+    sb.append("# --field-start--").append(LINE_SEPARATOR);
+    // fieldName=fieldName
+    sb.append("fieldName=").append(fieldName).append(LINE_SEPARATOR);
+
+    // columnName=value
+    sb.append("columnName=").append(columnName).append(LINE_SEPARATOR);
+
+    AnnotationAttributeValue<EnumDetails> dataPersisterAttr =
+        dbFieldAnnotation.getAttribute("dataType");
+    if (dataPersisterAttr != null) {
+      // dataPersister=value
+      sb.append("dataPersister=").append(dataPersisterAttr.getValue().getField().toString())
+          .append(LINE_SEPARATOR);
+    }
 
-    } catch (IOException e) {
-      // TODO Auto-generated catch block
-      e.printStackTrace();
+    AnnotationAttributeValue<String> unknownEnumNameAttr =
+        dbFieldAnnotation.getAttribute("unknownEnumName");
+    if (unknownEnumNameAttr != null && !"".equals(unknownEnumNameAttr.getValue())) {
+      // unknownEnumValue=EnumClass#VALUE
+      sb.append("unknownEnumValue=")
+          .append(field.getFieldType().getFullyQualifiedTypeName()).append("#")
+          .append(unknownEnumNameAttr.getValue()).append(LINE_SEPARATOR);
     }
+
+    AnnotationAttributeValue<JavaType> persisterClassAttr =
+        dbFieldAnnotation.getAttribute("persisterClass");
+    if (persisterClassAttr != null) {
+      // persisterClass=value
+      sb.append("persisterClass=")
+          .append(persisterClassAttr.getValue().getFullyQualifiedTypeName())
+          .append(LINE_SEPARATOR);
+    }
+
+    // maxForeignAutoRefreshLevel is ignored by ORMLite without
+    // foreignAutoRefresh
+    AnnotationAttributeValue<Boolean> foreignAutoRefreshAttr =
+        dbFieldAnnotation.getAttribute("foreignAutoRefresh");
+    boolean foreignAutoRefresh =
+        foreignAutoRefreshAttr != null && foreignAutoRefreshAttr.getValue();
+
+    for (String attributeName : DATABASE_FIELD_CONFIG_ATTRIBUTES) {
+      AnnotationAttributeValue<?> attr = dbFieldAnnotation.getAttribute(attributeName);
+      if (attr == null || isDefaultConfigValue(attributeName, attr.getValue())) {
+        continue;
+      }
+      if ("maxForeignAutoRefreshLevel".equals(attributeName) && !foreignAutoRefresh) {
+        continue;
+      }
+      // attributeName=value
+      sb.append(attributeName).append("=").append(attr.getValue()).append(LINE_SEPARATOR);
+    }
+
+    // # --field-end--
+    sb.append("# --field-end--").append(LINE_SEPARATOR);
+  }
+
+  /**
+   * Checks if the provided @DatabaseField attribute value is the ORMLite
+   * default one. As DatabaseFieldConfigLoader does, default boolean values
+   * are not written, so disabling an attribute like foreignAutoRefresh
+   * removes it from ormlite_config.txt.
+   * 
+   * @param attributeName
+   *            name of the @DatabaseField attribute
+   * @param value
+   *            value of the attribute
+   * @return true if value is the ORMLite default one
+   */
+  private boolean isDefaultConfigValue(String attributeName, Object value) {
+    if (value instanceof Boolean) {
+      // canBeNull is the only boolean attribute enabled by default
+      return value.equals("canBeNull".equals(attributeName));
+    }
+    return false;
   }
 
   /**
@@ -405,4 +871,21 @@ public class AndrooidPersistenceOperationsImpl implements AndrooidPersistenceOpe
     return fileManager.exists(ormLiteConfigPath);
   }
 
+  /**
+   * Table config and table schema generated from the descriptor of an entity
+   */
+  private static class CachedTable {
+
+    private final AndrooidEntityDescriptor entityDescriptor;
+    private final String tableConfig;
+    private final SchemaSnapshot.Table tableSchema;
+
+    private CachedTable(AndrooidEntityDescriptor entityDescriptor, String tableConfig,
+        SchemaSnapshot.Table tableSchema) {
+      this.entityDescriptor = entityDescriptor;
+      this.tableConfig = tableConfig;
+      this.tableSchema = tableSchema;
+    }
+  }
+
 }
@@ -0,0 +1,272 @@
+package io.androoid.roo.addon.suite.addon.persistence;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Database schema of a concrete DATABASE_VERSION. Contains the table name,
+ * the column definitions and the indexes of every entity.
+ *
+ * Snapshots are stored on src/main/schema folder, so generated
+ * <code>onUpgrade</code> method is able to migrate data from previous
+ * versions. The snapshot of the current version is rewritten every time the
+ * entities change, and it is never modified once a newer version exists.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class SchemaSnapshot {
+
+  private static final String LINE_SEPARATOR = "\n";
+
+  private static final String TABLE_START = "# --table-start--";
+  private static final String TABLE_END = "# --table-end--";
+  private static final String DATA_CLASS = "dataClass=";
+  private static final String TABLE_NAME = "tableName=";
+  private static final String COLUMN = "column=";
+  private static final String INDEX = "index=";
+  private static final String UNIQUE_INDEX = "uniqueIndex=";
+  private static final String INDEX_COLUMN_SEPARATOR = ",";
+
+  /**
+   * Tables of the snapshot by entity fully qualified name
+   */
+  private final Map<String, Table> tables = new TreeMap<String, Table>();
+
+  /**
+   * Returns the path of the snapshot file of the provided version, relative
+   * to src/main folder
+   *
+   * @param version
+   *            database version
+   * @return String with the snapshot file path
+   */
+  public static String getSnapshotFileName(int version) {
+    return String.format("schema/schema_v%s.txt", version);
+  }
+
+  /**
+   * Parses the provided snapshot file content
+   *
+   * @param content
+   *            String with a snapshot generated by {@link #toString()}
+   * @return the parsed SchemaSnapshot
+   */
+  public static SchemaSnapshot parse(String content) {
+    Validate.notNull(content, "ERROR: Schema snapshot content is required.");
+
+    SchemaSnapshot snapshot = new SchemaSnapshot();
+    String dataClass = null;
+    Table table = null;
+
+    for (String line : content.split(LINE_SEPARATOR)) {
+      line = line.trim();
+      if (line.equals(TABLE_START)) {
+        dataClass = null;
+        table = null;
+      } else if (line.startsWith(DATA_CLASS)) {
+        dataClass = line.substring(DATA_CLASS.length());
+      } else if (line.startsWith(TABLE_NAME)) {
+        table = new Table(line.substring(TABLE_NAME.length()));
+      } else if (line.startsWith(COLUMN) && table != null) {
+        String[] column = line.substring(COLUMN.length()).split(" ", 2);
+        table.addColumn(column[0], column.length > 1 ? column[1] : "");
+      } else if (line.startsWith(INDEX) && table != null) {
+        parseIndex(table, line.substring(INDEX.length()), false);
+      } else if (line.startsWith(UNIQUE_INDEX) && table != null) {
+        parseIndex(table, line.substring(UNIQUE_INDEX.length()), true);
+      } else if (line.equals(TABLE_END) && dataClass != null && table != null) {
+        snapshot.addTable(dataClass, table);
+      }
+    }
+
+    return snapshot;
+  }
+
+  /**
+   * Includes on the provided table the index of a snapshot line
+   *
+   * @param table
+   * @param index
+   *            index name followed by its comma separated columns
+   * @param unique
+   */
+  private static void parseIndex(Table table, String index, boolean unique) {
+    String[] nameAndColumns = index.split(" ", 2);
+    if (nameAndColumns.length < 2) {
+      return;
+    }
+    for (String column : nameAndColumns[1].split(INDEX_COLUMN_SEPARATOR)) {
+      table.addIndex(nameAndColumns[0], unique, column);
+    }
+  }
+
+  /**
+   * Includes a table on this snapshot
+   *
+   * @param dataClass
+   *            fully qualified name of the entity
+   * @param table
+   */
+  public void addTable(String dataClass, Table table) {
+    tables.put(dataClass, table);
+  }
+
+  /**
+   * @return tables of the snapshot by entity fully qualified name
+   */
+  public Map<String, Table> getTables() {
+    return tables;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, Table> entry : tables.entrySet()) {
+      sb.append(TABLE_START).append(LINE_SEPARATOR);
+      sb.append(DATA_CLASS).append(entry.getKey()).append(LINE_SEPARATOR);
+      sb.append(TABLE_NAME).append(entry.getValue().getName()).append(LINE_SEPARATOR);
+      for (Map.Entry<String, String> column : entry.getValue().getColumns().entrySet()) {
+        sb.append(COLUMN).append(column.getKey()).append(" ").append(column.getValue())
+            .append(LINE_SEPARATOR);
+      }
+      for (Map.Entry<String, Index> index : entry.getValue().getIndexes().entrySet()) {
+        sb.append(index.getValue().isUnique() ? UNIQUE_INDEX : INDEX).append(index.getKey())
+            .append(" ")
+            .append(StringUtils.join(index.getValue().getColumns(), INDEX_COLUMN_SEPARATOR))
+            .append(LINE_SEPARATOR);
+      }
+      sb.append(TABLE_END).append(LINE_SEPARATOR);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Database table of a snapshot
+   */
+  public static class Table {
+
+    private final String name;
+
+    /**
+     * Column definition of every column, by column name
+     */
+    private final Map<String, String> columns = new LinkedHashMap<String, String>();
+
+    /**
+     * Indexes created by ORMLite for the index and uniqueIndex attributes of
+     * the columns, by index name
+     */
+    private final Map<String, Index> indexes = new TreeMap<String, Index>();
+
+    public Table(String name) {
+      this.name = name;
+    }
+
+    public void addColumn(String columnName, String definition) {
+      columns.put(columnName, definition);
+    }
+
+    /**
+     * Includes the provided column on an index of this table. Columns that
+     * share the index name are included on the same index.
+     *
+     * @param indexName
+     * @param unique
+     *            true if it is a UNIQUE index
+     * @param columnName
+     */
+    public void addIndex(String indexName, boolean unique, String columnName) {
+      Index index = indexes.get(indexName);
+      if (index == null) {
+        index = new Index(unique);
+        indexes.put(indexName, index);
+      }
+      index.getColumns().add(columnName);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Map<String, String> getColumns() {
+      return columns;
+    }
+
+    public Map<String, Index> getIndexes() {
+      return indexes;
+    }
+
+    /**
+     * Obtains the columns of this table that are also included on the
+     * provided table
+     *
+     * @param other
+     * @return List with the names of the common columns
+     */
+    public List<String> getCommonColumns(Table other) {
+      List<String> commonColumns = new ArrayList<String>();
+      for (String column : columns.keySet()) {
+        if (other.getColumns().containsKey(column)) {
+          commonColumns.add(column);
+        }
+      }
+      return commonColumns;
+    }
+  }
+
+  /**
+   * Index of a table
+   */
+  public static class Index {
+
+    private final boolean unique;
+
+    private final List<String> columns = new ArrayList<String>();
+
+    public Index(boolean unique) {
+      this.unique = unique;
+    }
+
+    public boolean isUnique() {
+      return unique;
+    }
+
+    public List<String> getColumns() {
+      return columns;
+    }
+
+    /**
+     * Obtains the statement that creates this index if it doesn't exist
+     *
+     * @param indexName
+     * @param tableName
+     * @return String with the CREATE INDEX statement
+     */
+    public String getCreateStatement(String indexName, String tableName) {
+      return String.format("CREATE %sINDEX IF NOT EXISTS `%s` ON `%s` (`%s`)", unique ? "UNIQUE "
+          : "", indexName, tableName, StringUtils.join(columns, "`, `"));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Index)) {
+        return false;
+      }
+      Index other = (Index) obj;
+      return unique == other.unique && columns.equals(other.columns);
+    }
+
+    @Override
+    public int hashCode() {
+      return columns.hashCode() * 31 + (unique ? 1 : 0);
+    }
+  }
+
+}
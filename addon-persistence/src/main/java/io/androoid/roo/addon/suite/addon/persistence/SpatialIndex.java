@@ -0,0 +1,78 @@
+package io.androoid.roo.addon.suite.addon.persistence;
+
+import org.apache.commons.lang3.Validate;
+import org.springframework.roo.model.JavaSymbolName;
+
+/**
+ * SQLite R*Tree index of the GEO field of an entity. Contains the table and
+ * columns where the entity stores its identifier and the coordinates of the
+ * indexed GEO field.
+ *
+ * Index is stored on a virtual table named as the entity table with
+ * {@value #TABLE_SUFFIX} suffix, that is kept in sync by SQLite triggers.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class SpatialIndex {
+
+  public static final String TABLE_SUFFIX = "_rtree";
+
+  private final String tableName;
+  private final String identifierColumn;
+  private final String latitudeColumn;
+  private final String longitudeColumn;
+  private final JavaSymbolName geoFieldName;
+
+  /**
+   * Constructor
+   *
+   * @param tableName
+   *            table of the entity
+   * @param identifierColumn
+   *            column of the entity identifier. Must be an integer column
+   * @param latitudeColumn
+   *            column where latitude of the GEO field is stored
+   * @param longitudeColumn
+   *            column where longitude of the GEO field is stored
+   * @param geoFieldName
+   *            indexed GEO field
+   */
+  public SpatialIndex(String tableName, String identifierColumn, String latitudeColumn,
+      String longitudeColumn, JavaSymbolName geoFieldName) {
+    Validate.notBlank(tableName, "ERROR: Table name is required to create a spatial index.");
+    this.tableName = tableName;
+    this.identifierColumn = identifierColumn;
+    this.latitudeColumn = latitudeColumn;
+    this.longitudeColumn = longitudeColumn;
+    this.geoFieldName = geoFieldName;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * @return name of the R*Tree virtual table
+   */
+  public String getIndexTableName() {
+    return tableName.concat(TABLE_SUFFIX);
+  }
+
+  public String getIdentifierColumn() {
+    return identifierColumn;
+  }
+
+  public String getLatitudeColumn() {
+    return latitudeColumn;
+  }
+
+  public String getLongitudeColumn() {
+    return longitudeColumn;
+  }
+
+  public JavaSymbolName getGeoFieldName() {
+    return geoFieldName;
+  }
+
+}
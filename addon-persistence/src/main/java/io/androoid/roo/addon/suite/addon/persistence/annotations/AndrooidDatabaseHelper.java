@@ -15,10 +15,31 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.SOURCE)
 public @interface AndrooidDatabaseHelper {
 
+  int CACHE_SIZE_DEFAULT = 0;
+
+  int DATABASE_VERSION_DEFAULT = 1;
+
   /**
    * @return an array of classes, with each class being an entity that should
    *         be created as a DAO on DatabaseHelper {@value #ID_FIELD_DEFAULT}; must be provided)
    */
   Class[] entities();
 
+  /**
+   * @return the maximum number of objects of every entity to keep on the
+   *         LRU object cache of its DAO (defaults to
+   *         {@value #CACHE_SIZE_DEFAULT}, that disables the object cache)
+   */
+  int cacheSize() default CACHE_SIZE_DEFAULT;
+
+  /**
+   * @return the current database version (defaults to
+   *         {@value #DATABASE_VERSION_DEFAULT}). Increase it when entities
+   *         change on a released application; generated onUpgrade method
+   *         migrates data using the schema snapshots of previous versions.
+   *         Snapshot of the current version is kept up to date with the
+   *         entities, and it is never modified once the version increases.
+   */
+  int version() default DATABASE_VERSION_DEFAULT;
+
 }
@@ -0,0 +1,286 @@
+package io.androoid.roo.addon.suite.addon.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.springframework.roo.classpath.PhysicalTypeCategory;
+import org.springframework.roo.classpath.PhysicalTypeIdentifier;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetailsBuilder;
+import org.springframework.roo.classpath.details.DefaultPhysicalTypeMetadata;
+import org.springframework.roo.classpath.details.MethodMetadata;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.model.JavaPackage;
+import org.springframework.roo.model.JavaType;
+import org.springframework.roo.project.LogicalPath;
+import org.springframework.roo.project.Path;
+
+import io.androoid.roo.addon.suite.addon.persistence.annotations.AndrooidDatabaseHelper;
+
+/**
+ * Checks the migrations generated on <code>onUpgrade</code> method of
+ * DatabaseHelper for known schema snapshots
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class AndrooidDatabaseHelperMetadataTest {
+
+  private static final JavaPackage PROJECT_PACKAGE = new JavaPackage("org.example.app");
+
+  private static final LogicalPath SRC_MAIN_JAVA = LogicalPath.getInstance(Path.SRC_MAIN_JAVA, "");
+
+  private static final JavaType DATABASE_HELPER = new JavaType(
+      "org.example.app.utils.DatabaseHelper");
+
+  private static final JavaType PERSON = new JavaType("org.example.app.domain.Person");
+
+  private static final JavaType PET = new JavaType("org.example.app.domain.Pet");
+
+  @Test
+  public void newNullableColumnIsAdded() {
+    SchemaSnapshot.Table oldTable = getPersonTable();
+    SchemaSnapshot.Table newTable = getPersonTable();
+    newTable.addColumn("age", "INTEGER");
+
+    String onUpgrade = getOnUpgradeBody(newTable, oldTable);
+
+    assertTrue(onUpgrade,
+        onUpgrade.contains("database.execSQL(\"ALTER TABLE `person` ADD COLUMN `age` INTEGER\");"));
+    assertFalse(onUpgrade, onUpgrade.contains("`person_old`"));
+  }
+
+  @Test
+  public void newNotNullColumnWithDefaultIsAdded() {
+    SchemaSnapshot.Table oldTable = getPersonTable();
+    SchemaSnapshot.Table newTable = getPersonTable();
+    newTable.addColumn("nickname", "VARCHAR NOT NULL DEFAULT 'none'");
+
+    String onUpgrade = getOnUpgradeBody(newTable, oldTable);
+
+    assertTrue(onUpgrade, onUpgrade.contains("database.execSQL(\"ALTER TABLE `person` "
+        + "ADD COLUMN `nickname` VARCHAR NOT NULL DEFAULT 'none'\");"));
+  }
+
+  @Test
+  public void newNotNullColumnWithoutDefaultCopiesTable() {
+    SchemaSnapshot.Table oldTable = getPersonTable();
+    SchemaSnapshot.Table newTable = getPersonTable();
+    newTable.addColumn("email", "VARCHAR NOT NULL UNIQUE");
+
+    String onUpgrade = getOnUpgradeBody(newTable, oldTable);
+
+    assertFalse(onUpgrade, onUpgrade.contains("ADD COLUMN"));
+    assertCopiesPersonTable(onUpgrade, "`id`, `name`");
+  }
+
+  @Test
+  public void changedColumnCopiesCommonColumns() {
+    SchemaSnapshot.Table oldTable = getPersonTable();
+    oldTable.addColumn("age", "VARCHAR");
+    SchemaSnapshot.Table newTable = getPersonTable();
+    newTable.addColumn("age", "INTEGER NOT NULL");
+
+    String onUpgrade = getOnUpgradeBody(newTable, oldTable);
+
+    assertCopiesPersonTable(onUpgrade, "`id`, `name`");
+  }
+
+  @Test
+  public void copiedTableDropsIndexesBeforeCreatingItAgain() {
+    SchemaSnapshot.Table oldTable = getPersonTable();
+    oldTable.addColumn("latitude", "VARCHAR");
+    oldTable.addIndex("person_latitude_idx", false, "latitude");
+    SchemaSnapshot.Table newTable = getPersonTable();
+    newTable.addColumn("latitude", "DOUBLE PRECISION");
+    newTable.addIndex("person_latitude_idx", false, "latitude");
+    newTable.addIndex("person_name_idx", true, "name");
+
+    String onUpgrade = getOnUpgradeBody(newTable, oldTable);
+
+    // ORMLite creates the indexes again with the table
+    assertInOrder(onUpgrade,
+        "database.execSQL(\"DROP INDEX IF EXISTS `person_latitude_idx`\");",
+        "database.execSQL(\"DROP INDEX IF EXISTS `person_name_idx`\");",
+        "database.execSQL(\"ALTER TABLE `person` RENAME TO `person_old`\");",
+        "TableUtils.createTable(connectionSource, Person.class);",
+        "database.execSQL(\"INSERT INTO `person` (`id`, `name`) SELECT `id`, `name` "
+            + "FROM `person_old`\");", "database.execSQL(\"DROP TABLE `person_old`\");");
+    assertFalse(onUpgrade, onUpgrade.contains("CREATE INDEX"));
+  }
+
+  @Test
+  public void addedIndexedColumnCreatesItsIndex() {
+    SchemaSnapshot.Table oldTable = getPersonTable();
+    oldTable.addIndex("person_name_idx", false, "name");
+    oldTable.addIndex("person_removed_idx", false, "name");
+    SchemaSnapshot.Table newTable = getPersonTable();
+    newTable.addIndex("person_name_idx", false, "name");
+    newTable.addColumn("latitude", "DOUBLE PRECISION");
+    newTable.addIndex("person_latitude_idx", false, "latitude");
+    newTable.addColumn("code", "VARCHAR");
+    newTable.addIndex("person_code_idx", true, "code");
+
+    String onUpgrade = getOnUpgradeBody(newTable, oldTable);
+
+    assertInOrder(onUpgrade,
+        "database.execSQL(\"ALTER TABLE `person` ADD COLUMN `latitude` DOUBLE PRECISION\");",
+        "database.execSQL(\"ALTER TABLE `person` ADD COLUMN `code` VARCHAR\");",
+        "database.execSQL(\"DROP INDEX IF EXISTS `person_removed_idx`\");",
+        "database.execSQL(\"CREATE UNIQUE INDEX IF NOT EXISTS `person_code_idx` "
+            + "ON `person` (`code`)\");",
+        "database.execSQL(\"CREATE INDEX IF NOT EXISTS `person_latitude_idx` "
+            + "ON `person` (`latitude`)\");");
+
+    // Unchanged indexes already exist
+    assertFalse(onUpgrade, onUpgrade.contains("`person_name_idx`"));
+    assertFalse(onUpgrade, onUpgrade.contains("`person_old`"));
+  }
+
+  @Test
+  public void newAndRemovedEntitiesCreateAndDropTables() {
+    SchemaSnapshot oldSchema = new SchemaSnapshot();
+    oldSchema.addTable(PERSON.getFullyQualifiedTypeName(), getPersonTable());
+    SchemaSnapshot newSchema = new SchemaSnapshot();
+    SchemaSnapshot.Table petTable = new SchemaSnapshot.Table("pet");
+    petTable.addColumn("id", "INTEGER PRIMARY KEY AUTOINCREMENT");
+    newSchema.addTable(PET.getFullyQualifiedTypeName(), petTable);
+
+    String onUpgrade = getOnUpgradeBody(newSchema, oldSchema, PET);
+
+    assertTrue(onUpgrade,
+        onUpgrade.contains("TableUtils.createTable(connectionSource, Pet.class);"));
+    assertTrue(onUpgrade,
+        onUpgrade.contains("database.execSQL(\"DROP TABLE IF EXISTS `person`\");"));
+  }
+
+  @Test
+  public void unknownVersionIsNeverDropped() {
+    String onUpgrade = getOnUpgradeBody(getPersonTable(), getPersonTable());
+
+    assertTrue(onUpgrade, onUpgrade.contains("case 1:"));
+    assertTrue(onUpgrade, onUpgrade.contains("default:"));
+    assertTrue(onUpgrade, onUpgrade.contains("throw new IllegalStateException("));
+    assertTrue(onUpgrade, onUpgrade.contains("throw new android.database.SQLException("));
+    assertFalse(onUpgrade, onUpgrade.contains("dropTable"));
+    assertFalse(onUpgrade, onUpgrade.contains("printStackTrace"));
+  }
+
+  @Test
+  public void snapshotIsParsedFromItsContent() {
+    SchemaSnapshot snapshot = new SchemaSnapshot();
+    SchemaSnapshot.Table table = getPersonTable();
+    table.addColumn("nickname", "VARCHAR NOT NULL DEFAULT 'John Doe'");
+    table.addIndex("person_fullname_idx", false, "name");
+    table.addIndex("person_fullname_idx", false, "nickname");
+    table.addIndex("person_nickname_idx", true, "nickname");
+    snapshot.addTable(PERSON.getFullyQualifiedTypeName(), table);
+
+    SchemaSnapshot parsed =
+        SchemaSnapshot.parse("#\n# schema of database version 1\n#\n".concat(snapshot.toString()));
+
+    assertEquals(snapshot.toString(), parsed.toString());
+    assertEquals("VARCHAR NOT NULL DEFAULT 'John Doe'",
+        parsed.getTables().get(PERSON.getFullyQualifiedTypeName()).getColumns().get("nickname"));
+    assertEquals(table.getIndexes(), parsed.getTables().get(PERSON.getFullyQualifiedTypeName())
+        .getIndexes());
+  }
+
+  /**
+   * Checks that onUpgrade contains the provided lines in the provided order
+   */
+  private void assertInOrder(String onUpgrade, String... lines) {
+    int position = 0;
+    for (String line : lines) {
+      int linePosition = onUpgrade.indexOf(line, position);
+      assertTrue(String.format("'%s' not found in order on:%n%s", line, onUpgrade),
+          linePosition >= 0);
+      position = linePosition + line.length();
+    }
+  }
+
+  /**
+   * Checks that onUpgrade creates person table again, copying the provided
+   * columns
+   */
+  private void assertCopiesPersonTable(String onUpgrade, String commonColumns) {
+    assertTrue(onUpgrade,
+        onUpgrade.contains("database.execSQL(\"ALTER TABLE `person` RENAME TO `person_old`\");"));
+    assertTrue(onUpgrade,
+        onUpgrade.contains("TableUtils.createTable(connectionSource, Person.class);"));
+    assertTrue(onUpgrade, onUpgrade.contains(String.format(
+        "database.execSQL(\"INSERT INTO `person` (%s) SELECT %s FROM `person_old`\");",
+        commonColumns, commonColumns)));
+    assertTrue(onUpgrade, onUpgrade.contains("database.execSQL(\"DROP TABLE `person_old`\");"));
+  }
+
+  private SchemaSnapshot.Table getPersonTable() {
+    SchemaSnapshot.Table table = new SchemaSnapshot.Table("person");
+    table.addColumn("id", "INTEGER PRIMARY KEY AUTOINCREMENT");
+    table.addColumn("name", "VARCHAR");
+    return table;
+  }
+
+  /**
+   * Generates onUpgrade method from version 1 to version 2 of person table
+   */
+  private String getOnUpgradeBody(SchemaSnapshot.Table newTable, SchemaSnapshot.Table oldTable) {
+    SchemaSnapshot newSchema = new SchemaSnapshot();
+    newSchema.addTable(PERSON.getFullyQualifiedTypeName(), newTable);
+    SchemaSnapshot oldSchema = new SchemaSnapshot();
+    oldSchema.addTable(PERSON.getFullyQualifiedTypeName(), oldTable);
+    return getOnUpgradeBody(newSchema, oldSchema, PERSON);
+  }
+
+  /**
+   * Generates onUpgrade method from version 1 to version 2
+   */
+  private String getOnUpgradeBody(SchemaSnapshot newSchema, SchemaSnapshot oldSchema,
+      JavaType... entities) {
+    List<JavaType> entitiesToInclude = new ArrayList<JavaType>();
+    Map<JavaType, JavaType> identifierTypes = new HashMap<JavaType, JavaType>();
+    for (JavaType entity : entities) {
+      entitiesToInclude.add(entity);
+      identifierTypes.put(entity, JavaType.INT_OBJECT);
+    }
+    Map<Integer, SchemaSnapshot> previousSchemas = new TreeMap<Integer, SchemaSnapshot>();
+    previousSchemas.put(1, oldSchema);
+
+    String declaredByMetadataId =
+        PhysicalTypeIdentifier.createIdentifier(DATABASE_HELPER, SRC_MAIN_JAVA);
+    ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(declaredByMetadataId, Modifier.PUBLIC,
+            DATABASE_HELPER, PhysicalTypeCategory.CLASS);
+    cidBuilder.addAnnotation(new AnnotationMetadataBuilder(new JavaType(
+        AndrooidDatabaseHelper.class)));
+
+    AndrooidDatabaseHelperMetadata metadata =
+        new AndrooidDatabaseHelperMetadata(AndrooidDatabaseHelperMetadata.createIdentifier(
+            DATABASE_HELPER, SRC_MAIN_JAVA), new JavaType(DATABASE_HELPER
+            .getFullyQualifiedTypeName().concat("_Roo_AndrooidDatabaseHelper")),
+            new DefaultPhysicalTypeMetadata(declaredByMetadataId,
+                "/src/main/java/org/example/app/utils/DatabaseHelper.java", cidBuilder.build()),
+            PROJECT_PACKAGE, entitiesToInclude, identifierTypes,
+            AndrooidDatabaseHelper.CACHE_SIZE_DEFAULT, 2, newSchema, previousSchemas,
+            new HashMap<JavaType, SpatialIndex>());
+
+    MethodMetadata onUpgrade = null;
+    for (MethodMetadata method : metadata.getMemberHoldingTypeDetails().getDeclaredMethods()) {
+      if (method.getMethodName().getSymbolName().equals("onUpgrade")) {
+        onUpgrade = method;
+      }
+    }
+    assertNotNull(onUpgrade);
+    return onUpgrade.getBody();
+  }
+
+}
@@ -0,0 +1,225 @@
+package io.androoid.roo.addon.suite.addon.persistence;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.roo.classpath.PhysicalTypeCategory;
+import org.springframework.roo.classpath.PhysicalTypeIdentifier;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetailsBuilder;
+import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.FieldMetadataBuilder;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.model.DataType;
+import org.springframework.roo.model.EnumDetails;
+import org.springframework.roo.model.JavaSymbolName;
+import org.springframework.roo.model.JavaType;
+import org.springframework.roo.project.LogicalPath;
+import org.springframework.roo.project.Path;
+
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+
+/**
+ * Checks the table configs written to ormlite_config.txt and the table
+ * schemas used by database migrations
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class AndrooidPersistenceOperationsImplTest {
+
+  private static final LogicalPath SRC_MAIN_JAVA = LogicalPath.getInstance(Path.SRC_MAIN_JAVA, "");
+
+  private static final JavaType DATABASE_FIELD = new JavaType(
+      "com.j256.ormlite.field.DatabaseField");
+
+  private static final JavaType DATABASE_TABLE = new JavaType(
+      "com.j256.ormlite.table.DatabaseTable");
+
+  private static final JavaType DATA_TYPE = new JavaType("com.j256.ormlite.field.DataType");
+
+  private static final JavaType PERSON = new JavaType("org.example.app.domain.Person");
+
+  private static final JavaType PET = new JavaType("org.example.app.domain.Pet");
+
+  private AndrooidPersistenceOperationsImpl persistenceOperations;
+
+  @Before
+  public void setUp() {
+    persistenceOperations = new AndrooidPersistenceOperationsImpl();
+  }
+
+  @Test
+  public void tableConfigIncludesEveryNonDefaultAttribute() {
+    String declaredBy = PhysicalTypeIdentifier.createIdentifier(PET, SRC_MAIN_JAVA);
+
+    AnnotationMetadataBuilder id = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    id.addBooleanAttribute("generatedId", true);
+
+    AnnotationMetadataBuilder name = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    name.addStringAttribute("defaultValue", "Rex");
+    name.addIntegerAttribute("width", 50);
+    name.addBooleanAttribute("canBeNull", false);
+
+    // maxForeignAutoRefreshLevel is ignored without foreignAutoRefresh
+    AnnotationMetadataBuilder owner = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    owner.addBooleanAttribute("foreign", true);
+    owner.addBooleanAttribute("foreignAutoRefresh", false);
+    owner.addIntegerAttribute("maxForeignAutoRefreshLevel", 2);
+
+    AnnotationMetadataBuilder photo = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    photo.addEnumAttribute("dataType", new EnumDetails(DATA_TYPE, new JavaSymbolName(
+        "BYTE_ARRAY")));
+
+    List<FieldMetadataBuilder> fields = new ArrayList<FieldMetadataBuilder>();
+    fields.add(getField(declaredBy, id, "id", JavaType.LONG_OBJECT));
+    fields.add(getField(declaredBy, name, "name", JavaType.STRING));
+    fields.add(getField(declaredBy, owner, "owner", PERSON));
+    fields.add(getField(declaredBy, photo, "photo", new JavaType("byte", 1, DataType.PRIMITIVE,
+        null, null)));
+    ClassOrInterfaceTypeDetails pet = getEntity(PET, "pets", fields);
+
+    String expected =
+        "# --table-start--\n" + "dataClass=org.example.app.domain.Pet\n" + "tableName=pets\n"
+            + "# --table-fields-start--\n"
+            // id
+            + "# --field-start--\n" + "fieldName=id\n" + "columnName=id\n"
+            + "generatedId=true\n" + "# --field-end--\n"
+            // name
+            + "# --field-start--\n" + "fieldName=name\n" + "columnName=name\n"
+            + "defaultValue=Rex\n" + "width=50\n" + "canBeNull=false\n" + "# --field-end--\n"
+            // owner
+            + "# --field-start--\n" + "fieldName=owner\n" + "columnName=owner_id\n"
+            + "foreign=true\n" + "# --field-end--\n"
+            // photo
+            + "# --field-start--\n" + "fieldName=photo\n" + "columnName=photo\n"
+            + "dataPersister=BYTE_ARRAY\n" + "# --field-end--\n"
+            // end
+            + "# --table-fields-end--\n" + "# --table-end--\n"
+            + "#################################\n";
+
+    assertEquals(expected, persistenceOperations.getTableConfig(pet, getDescriptor(pet)));
+  }
+
+  @Test
+  public void tableSchemaIncludesColumnConstraints() {
+    String declaredBy = PhysicalTypeIdentifier.createIdentifier(PERSON, SRC_MAIN_JAVA);
+
+    AnnotationMetadataBuilder id = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    id.addBooleanAttribute("generatedId", true);
+
+    AnnotationMetadataBuilder name = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    name.addStringAttribute("columnName", "full_name");
+    name.addStringAttribute("defaultValue", "O'Brien");
+    name.addBooleanAttribute("canBeNull", false);
+    name.addBooleanAttribute("unique", true);
+
+    AnnotationMetadataBuilder age = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    age.addStringAttribute("defaultValue", "18");
+
+    AnnotationMetadataBuilder notes = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    notes.addEnumAttribute("dataType", new EnumDetails(DATA_TYPE, new JavaSymbolName(
+        "LONG_STRING")));
+
+    List<FieldMetadataBuilder> fields = new ArrayList<FieldMetadataBuilder>();
+    fields.add(getField(declaredBy, id, "id", JavaType.INT_OBJECT));
+    fields.add(getField(declaredBy, name, "name", JavaType.STRING));
+    fields.add(getField(declaredBy, age, "age", JavaType.INT_PRIMITIVE));
+    fields.add(getField(declaredBy, new AnnotationMetadataBuilder(DATABASE_FIELD), "weight",
+        JavaType.DOUBLE_OBJECT));
+    fields.add(getField(declaredBy, new AnnotationMetadataBuilder(DATABASE_FIELD), "birthday",
+        new JavaType("java.util.Date")));
+    fields.add(getField(declaredBy, notes, "notes", JavaType.STRING));
+    ClassOrInterfaceTypeDetails person = getEntity(PERSON, null, fields);
+
+    SchemaSnapshot.Table table =
+        persistenceOperations.getTableSchema(person, getDescriptor(person));
+
+    assertEquals("person", table.getName());
+    assertEquals(Arrays.asList("id", "full_name", "age", "weight", "birthday", "notes"),
+        new ArrayList<String>(table.getColumns().keySet()));
+    assertEquals("INTEGER PRIMARY KEY AUTOINCREMENT", table.getColumns().get("id"));
+    assertEquals("VARCHAR NOT NULL DEFAULT 'O''Brien' UNIQUE",
+        table.getColumns().get("full_name"));
+    assertEquals("INTEGER DEFAULT 18", table.getColumns().get("age"));
+    assertEquals("DOUBLE PRECISION", table.getColumns().get("weight"));
+    assertEquals("VARCHAR", table.getColumns().get("birthday"));
+    assertEquals("TEXT", table.getColumns().get("notes"));
+  }
+
+  @Test
+  public void tableSchemaIncludesIndexes() {
+    String declaredBy = PhysicalTypeIdentifier.createIdentifier(PET, SRC_MAIN_JAVA);
+
+    AnnotationMetadataBuilder latitude = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    latitude.addBooleanAttribute("index", true);
+
+    // Default index name uses the columnName attribute
+    AnnotationMetadataBuilder code = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    code.addStringAttribute("columnName", "pet_code");
+    code.addBooleanAttribute("uniqueIndex", true);
+
+    // Columns sharing the index name are included on the same index
+    AnnotationMetadataBuilder name = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    name.addStringAttribute("indexName", "pet_names_idx");
+    AnnotationMetadataBuilder nickname = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    nickname.addStringAttribute("indexName", "pet_names_idx");
+
+    List<FieldMetadataBuilder> fields = new ArrayList<FieldMetadataBuilder>();
+    fields.add(getField(declaredBy, new AnnotationMetadataBuilder(DATABASE_FIELD), "id",
+        JavaType.LONG_OBJECT));
+    fields.add(getField(declaredBy, latitude, "latitude", JavaType.DOUBLE_OBJECT));
+    fields.add(getField(declaredBy, code, "code", JavaType.STRING));
+    fields.add(getField(declaredBy, name, "name", JavaType.STRING));
+    fields.add(getField(declaredBy, nickname, "nickname", JavaType.STRING));
+    ClassOrInterfaceTypeDetails pet = getEntity(PET, "pets", fields);
+
+    Map<String, SchemaSnapshot.Index> indexes =
+        persistenceOperations.getTableSchema(pet, getDescriptor(pet)).getIndexes();
+
+    assertEquals(Arrays.asList("pet_names_idx", "pets_latitude_idx", "pets_pet_code_idx"),
+        new ArrayList<String>(indexes.keySet()));
+    assertEquals("CREATE INDEX IF NOT EXISTS `pets_latitude_idx` ON `pets` (`latitude`)",
+        indexes.get("pets_latitude_idx").getCreateStatement("pets_latitude_idx", "pets"));
+    assertEquals("CREATE UNIQUE INDEX IF NOT EXISTS `pets_pet_code_idx` ON `pets` (`pet_code`)",
+        indexes.get("pets_pet_code_idx").getCreateStatement("pets_pet_code_idx", "pets"));
+    assertEquals(Arrays.asList("name", "nickname"), indexes.get("pet_names_idx").getColumns());
+  }
+
+  private FieldMetadataBuilder getField(String declaredBy, AnnotationMetadataBuilder annotation,
+      String fieldName, JavaType fieldType) {
+    return new FieldMetadataBuilder(declaredBy, Modifier.PRIVATE, Arrays.asList(annotation),
+        new JavaSymbolName(fieldName), fieldType);
+  }
+
+  private ClassOrInterfaceTypeDetails getEntity(JavaType entity, String tableName,
+      List<FieldMetadataBuilder> fields) {
+    String declaredBy = PhysicalTypeIdentifier.createIdentifier(entity, SRC_MAIN_JAVA);
+    ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(declaredBy, Modifier.PUBLIC, entity,
+            PhysicalTypeCategory.CLASS);
+    AnnotationMetadataBuilder databaseTable = new AnnotationMetadataBuilder(DATABASE_TABLE);
+    if (tableName != null) {
+      databaseTable.addStringAttribute("tableName", tableName);
+    }
+    cidBuilder.addAnnotation(databaseTable);
+    for (FieldMetadataBuilder field : fields) {
+      cidBuilder.addField(field);
+    }
+    return cidBuilder.build();
+  }
+
+  private AndrooidEntityDescriptor getDescriptor(ClassOrInterfaceTypeDetails entity) {
+    List<FieldMetadata> fields = new ArrayList<FieldMetadata>(entity.getDeclaredFields());
+    return new AndrooidEntityDescriptor(entity.getName(), entity.getDeclaredByMetadataId(), "id",
+        fields.get(0).getFieldType(), fields, fields, new ArrayList<String>());
+  }
+
+}
@@ -0,0 +1,38 @@
+package io.androoid.roo.addon.suite.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Executes Androoid benchmarks reporting throughput (ops/s) and allocation
+ * rate. Accepts the same arguments than JMH command line, so benchmarks could
+ * be filtered using a regular expression.
+ * 
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar [regexp] [JMH options]
+ * </pre>
+ * 
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(commandLineOptions);
+    if (commandLineOptions.getIncludes().isEmpty()) {
+      builder.include(MetadataGenerationBenchmark.class.getSimpleName());
+    }
+
+    // GC profiler reports allocation rate of every benchmark
+    Options options = builder.addProfiler(GCProfiler.class).build();
+
+    new Runner(options).run();
+  }
+
+}
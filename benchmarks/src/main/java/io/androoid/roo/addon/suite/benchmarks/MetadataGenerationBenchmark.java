@@ -0,0 +1,186 @@
+package io.androoid.roo.addon.suite.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.roo.classpath.PhysicalTypeMetadata;
+import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.classpath.scanner.MemberDetails;
+import org.springframework.roo.model.JavaSymbolName;
+import org.springframework.roo.model.JavaType;
+
+import io.androoid.roo.addon.suite.addon.activities.AndrooidActivityFormMetadata;
+import io.androoid.roo.addon.suite.addon.activities.AndrooidActivityListMetadata;
+import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidFormActivity;
+import io.androoid.roo.addon.suite.addon.activities.annotations.AndrooidListActivity;
+import io.androoid.roo.addon.suite.addon.entities.AndrooidEntityMetadata;
+import io.androoid.roo.addon.suite.addon.persistence.AndrooidDatabaseHelperMetadata;
+import io.androoid.roo.addon.suite.addon.persistence.SchemaSnapshot;
+import io.androoid.roo.addon.suite.addon.persistence.SpatialIndex;
+import io.androoid.roo.addon.suite.addon.persistence.annotations.AndrooidDatabaseHelper;
+import io.androoid.roo.addon.suite.support.AndrooidEntityDescriptor;
+
+/**
+ * Measures the construction of the metadata that generates the ITDs of an
+ * entity and its activities, for entities with 5, 50 and 500 fields.
+ * 
+ * Database helper metadata is generated for {@link #HELPER_ENTITIES} entities
+ * with the same number of fields, migrating from a previous version without
+ * their last field.
+ * 
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataGenerationBenchmark {
+
+  private static final int HELPER_ENTITIES = 10;
+
+  @Param({"5", "50", "500"})
+  private int fieldCount;
+
+  private SyntheticModel model;
+
+  // Entity
+  private String entityMetadataId;
+  private JavaType entityAspectName;
+  private PhysicalTypeMetadata entityPhysicalType;
+  private MemberDetails entityMemberDetails;
+
+  // Activities
+  private String formMetadataId;
+  private JavaType formAspectName;
+  private PhysicalTypeMetadata formPhysicalType;
+  private List<FieldMetadata> entityFields;
+  private String listMetadataId;
+  private JavaType listAspectName;
+  private PhysicalTypeMetadata listPhysicalType;
+
+  // Database helper
+  private String helperMetadataId;
+  private JavaType helperAspectName;
+  private PhysicalTypeMetadata helperPhysicalType;
+  private List<JavaType> helperEntities;
+  private Map<JavaType, JavaType> helperIdentifierTypes;
+  private SchemaSnapshot currentSchema;
+  private Map<Integer, SchemaSnapshot> previousSchemas;
+
+  @Setup
+  public void setup() {
+    model = new SyntheticModel("Entity", fieldCount);
+    JavaType entity = model.getEntity();
+
+    // Entity
+    entityMetadataId =
+        AndrooidEntityMetadata.createIdentifier(entity, SyntheticModel.SRC_MAIN_JAVA);
+    entityAspectName = SyntheticModel.getAspectName(entity, "AndrooidEntity");
+    entityPhysicalType = model.getEntityPhysicalTypeMetadata();
+    entityMemberDetails = model.getEntityMemberDetails();
+    entityFields = model.getEntityFields();
+
+    // Form activity
+    JavaType formActivity = getActivityType(entity, "FormActivity");
+    AnnotationMetadataBuilder formAnnotation =
+        new AnnotationMetadataBuilder(new JavaType(AndrooidFormActivity.class));
+    formAnnotation.addClassAttribute("entity", entity);
+    formMetadataId =
+        AndrooidActivityFormMetadata.createIdentifier(formActivity, SyntheticModel.SRC_MAIN_JAVA);
+    formAspectName = SyntheticModel.getAspectName(formActivity, "AndrooidFormActivity");
+    formPhysicalType = SyntheticModel.createGovernor(formActivity, formAnnotation);
+
+    // List activity
+    JavaType listActivity = getActivityType(entity, "ListActivity");
+    AnnotationMetadataBuilder listAnnotation =
+        new AnnotationMetadataBuilder(new JavaType(AndrooidListActivity.class));
+    listAnnotation.addClassAttribute("entity", entity);
+    listMetadataId =
+        AndrooidActivityListMetadata.createIdentifier(listActivity, SyntheticModel.SRC_MAIN_JAVA);
+    listAspectName = SyntheticModel.getAspectName(listActivity, "AndrooidListActivity");
+    listPhysicalType = SyntheticModel.createGovernor(listActivity, listAnnotation);
+
+    // Database helper
+    JavaType databaseHelper =
+        new JavaType(SyntheticModel.PROJECT_PACKAGE.getFullyQualifiedPackageName().concat(
+            ".utils.DatabaseHelper"));
+    helperMetadataId =
+        AndrooidDatabaseHelperMetadata.createIdentifier(databaseHelper,
+            SyntheticModel.SRC_MAIN_JAVA);
+    helperAspectName = SyntheticModel.getAspectName(databaseHelper, "AndrooidDatabaseHelper");
+    helperPhysicalType =
+        SyntheticModel.createGovernor(databaseHelper, new AnnotationMetadataBuilder(
+            new JavaType(AndrooidDatabaseHelper.class)));
+    helperEntities = new ArrayList<JavaType>();
+    helperIdentifierTypes = new HashMap<JavaType, JavaType>();
+    currentSchema = new SchemaSnapshot();
+    SchemaSnapshot previousSchema = new SchemaSnapshot();
+    for (int i = 0; i < HELPER_ENTITIES; i++) {
+      SyntheticModel helperEntity = new SyntheticModel("Entity" + i, fieldCount);
+      String entityName = helperEntity.getEntity().getFullyQualifiedTypeName();
+      helperEntities.add(helperEntity.getEntity());
+      helperIdentifierTypes.put(helperEntity.getEntity(), JavaType.LONG_OBJECT);
+      currentSchema.addTable(entityName, helperEntity.getTable(fieldCount));
+      previousSchema.addTable(entityName, helperEntity.getTable(fieldCount - 1));
+    }
+    previousSchemas = new TreeMap<Integer, SchemaSnapshot>();
+    previousSchemas.put(1, previousSchema);
+  }
+
+  @Benchmark
+  public AndrooidEntityMetadata entityMetadata() {
+    return new AndrooidEntityMetadata(entityMetadataId, entityAspectName, entityPhysicalType,
+        entityPhysicalType.getId(), entityMemberDetails, new JavaSymbolName(
+            SyntheticModel.ID_FIELD), JavaType.LONG_OBJECT, new ArrayList<JavaSymbolName>());
+  }
+
+  @Benchmark
+  public AndrooidActivityFormMetadata formActivityMetadata() {
+    return new AndrooidActivityFormMetadata(formMetadataId, formAspectName, formPhysicalType,
+        SyntheticModel.PROJECT_PACKAGE, model.getEntity(), SyntheticModel.ID_FIELD,
+        JavaType.LONG_OBJECT, entityFields, AndrooidFormActivity.GEO_SEARCH_DELAY_DEFAULT);
+  }
+
+  @Benchmark
+  public AndrooidActivityListMetadata listActivityMetadata() {
+    return new AndrooidActivityListMetadata(listMetadataId, listAspectName, listPhysicalType,
+        SyntheticModel.PROJECT_PACKAGE, model.getEntity(), SyntheticModel.ID_FIELD,
+        JavaType.LONG_OBJECT, AndrooidListActivity.PAGE_SIZE_DEFAULT,
+        AndrooidListActivity.CACHED_PAGES_DEFAULT, false,
+        new TreeMap<String, FieldMetadata>(),
+        new TreeMap<JavaSymbolName, AndrooidEntityDescriptor>());
+  }
+
+  @Benchmark
+  public AndrooidDatabaseHelperMetadata databaseHelperMetadata() {
+    return new AndrooidDatabaseHelperMetadata(helperMetadataId, helperAspectName,
+        helperPhysicalType, SyntheticModel.PROJECT_PACKAGE, helperEntities,
+        helperIdentifierTypes, AndrooidDatabaseHelper.CACHE_SIZE_DEFAULT, 2, currentSchema,
+        previousSchemas, new HashMap<JavaType, SpatialIndex>());
+  }
+
+  private static JavaType getActivityType(JavaType entity, String suffix) {
+    return new JavaType(SyntheticModel.PROJECT_PACKAGE.getFullyQualifiedPackageName()
+        .concat(".activities.").concat(entity.getSimpleTypeName()).concat(suffix));
+  }
+
+}
@@ -0,0 +1,189 @@
+package io.androoid.roo.addon.suite.benchmarks;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.roo.classpath.PhysicalTypeCategory;
+import org.springframework.roo.classpath.PhysicalTypeIdentifier;
+import org.springframework.roo.classpath.PhysicalTypeMetadata;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetailsBuilder;
+import org.springframework.roo.classpath.details.DefaultPhysicalTypeMetadata;
+import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.FieldMetadataBuilder;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.classpath.scanner.MemberDetails;
+import org.springframework.roo.classpath.scanner.MemberDetailsImpl;
+import org.springframework.roo.model.JavaPackage;
+import org.springframework.roo.model.JavaSymbolName;
+import org.springframework.roo.model.JavaType;
+import org.springframework.roo.project.LogicalPath;
+import org.springframework.roo.project.Path;
+
+import io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity;
+import io.androoid.roo.addon.suite.addon.persistence.SchemaSnapshot;
+
+/**
+ * Synthetic Androoid entity used by benchmarks. Builds the Roo type details
+ * that metadata providers obtain from the project, without a running Roo
+ * shell.
+ * 
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class SyntheticModel {
+
+  public static final JavaPackage PROJECT_PACKAGE = new JavaPackage("org.example.app");
+
+  public static final LogicalPath SRC_MAIN_JAVA = LogicalPath.getInstance(Path.SRC_MAIN_JAVA, "");
+
+  public static final String ID_FIELD = "id";
+
+  private static final JavaType DATABASE_FIELD = new JavaType(
+      "com.j256.ormlite.field.DatabaseField");
+
+  private static final JavaType DATABASE_TABLE = new JavaType(
+      "com.j256.ormlite.table.DatabaseTable");
+
+  /**
+   * Field types of the generated fields, used in rotation
+   */
+  private static final JavaType[] FIELD_TYPES = {JavaType.STRING, JavaType.INT_OBJECT,
+      JavaType.BOOLEAN_OBJECT, new JavaType("java.util.Date"), JavaType.DOUBLE_OBJECT};
+
+  private static final String[] SQL_TYPES = {"VARCHAR", "INTEGER", "BOOLEAN", "TIMESTAMP",
+      "DOUBLE"};
+
+  private final JavaType entity;
+  private final ClassOrInterfaceTypeDetails entityDetails;
+  private final int fieldCount;
+
+  /**
+   * Creates a synthetic entity with an identifier field and the provided
+   * number of fields annotated with @DatabaseField
+   * 
+   * @param simpleName
+   *            simple name of the entity
+   * @param fieldCount
+   *            number of fields to generate
+   */
+  public SyntheticModel(String simpleName, int fieldCount) {
+    this.entity =
+        new JavaType(PROJECT_PACKAGE.getFullyQualifiedPackageName().concat(".domain.")
+            .concat(simpleName));
+    this.fieldCount = fieldCount;
+
+    String declaredByMetadataId = PhysicalTypeIdentifier.createIdentifier(entity, SRC_MAIN_JAVA);
+    ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(declaredByMetadataId, Modifier.PUBLIC, entity,
+            PhysicalTypeCategory.CLASS);
+    cidBuilder.addAnnotation(new AnnotationMetadataBuilder(DATABASE_TABLE));
+    cidBuilder.addAnnotation(new AnnotationMetadataBuilder(new JavaType(AndrooidEntity.class)));
+
+    // Identifier field
+    AnnotationMetadataBuilder idAnnotation = new AnnotationMetadataBuilder(DATABASE_FIELD);
+    idAnnotation.addBooleanAttribute("generatedId", true);
+    cidBuilder.addField(new FieldMetadataBuilder(declaredByMetadataId, Modifier.PRIVATE, Arrays
+        .asList(idAnnotation), new JavaSymbolName(ID_FIELD), JavaType.LONG_OBJECT));
+
+    // Synthetic fields
+    for (int i = 0; i < fieldCount; i++) {
+      cidBuilder.addField(new FieldMetadataBuilder(declaredByMetadataId, Modifier.PRIVATE, Arrays
+          .asList(new AnnotationMetadataBuilder(DATABASE_FIELD)), new JavaSymbolName(
+          getFieldName(i)), FIELD_TYPES[i % FIELD_TYPES.length]));
+    }
+
+    this.entityDetails = cidBuilder.build();
+  }
+
+  /**
+   * @return entity type
+   */
+  public JavaType getEntity() {
+    return entity;
+  }
+
+  /**
+   * @return PhysicalTypeMetadata of the entity
+   */
+  public PhysicalTypeMetadata getEntityPhysicalTypeMetadata() {
+    return new DefaultPhysicalTypeMetadata(entityDetails.getDeclaredByMetadataId(),
+        getCanonicalPath(entity), entityDetails);
+  }
+
+  /**
+   * @return MemberDetails of the entity
+   */
+  public MemberDetails getEntityMemberDetails() {
+    return new MemberDetailsImpl(Arrays.asList(entityDetails));
+  }
+
+  /**
+   * @return fields of the entity, including identifier field
+   */
+  public List<FieldMetadata> getEntityFields() {
+    return new ArrayList<FieldMetadata>(entityDetails.getDeclaredFields());
+  }
+
+  /**
+   * Builds the table of this entity on a schema snapshot
+   * 
+   * @param columns
+   *            number of synthetic fields to include as columns
+   * @return SchemaSnapshot.Table
+   */
+  public SchemaSnapshot.Table getTable(int columns) {
+    SchemaSnapshot.Table table = new SchemaSnapshot.Table(entity.getSimpleTypeName().toLowerCase());
+    table.addColumn(ID_FIELD, "BIGINT");
+    for (int i = 0; i < Math.min(columns, fieldCount); i++) {
+      table.addColumn(getFieldName(i), SQL_TYPES[i % SQL_TYPES.length]);
+    }
+    return table;
+  }
+
+  /**
+   * Creates the PhysicalTypeMetadata of a governor type, like activities or
+   * database helper, annotated with the provided annotation
+   * 
+   * @param type
+   *            governor type
+   * @param annotation
+   *            annotation that triggers the metadata generation
+   * @return PhysicalTypeMetadata
+   */
+  public static PhysicalTypeMetadata createGovernor(JavaType type,
+      AnnotationMetadataBuilder annotation) {
+    String declaredByMetadataId = PhysicalTypeIdentifier.createIdentifier(type, SRC_MAIN_JAVA);
+    ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(declaredByMetadataId, Modifier.PUBLIC, type,
+            PhysicalTypeCategory.CLASS);
+    cidBuilder.addAnnotation(annotation);
+    ClassOrInterfaceTypeDetails governorDetails = cidBuilder.build();
+    return new DefaultPhysicalTypeMetadata(declaredByMetadataId, getCanonicalPath(type),
+        governorDetails);
+  }
+
+  /**
+   * Returns the ITD aspect name of the provided governor
+   * 
+   * @param governor
+   * @param suffix
+   *            ITD uniqueness filename suffix of the metadata provider
+   * @return JavaType
+   */
+  public static JavaType getAspectName(JavaType governor, String suffix) {
+    return new JavaType(governor.getFullyQualifiedTypeName().concat("_Roo_").concat(suffix));
+  }
+
+  private static String getFieldName(int index) {
+    return "field".concat(String.valueOf(index));
+  }
+
+  private static String getCanonicalPath(JavaType type) {
+    return "/benchmarks/src/main/java/".concat(
+        type.getFullyQualifiedTypeName().replace('.', '/')).concat(".java");
+  }
+
+}
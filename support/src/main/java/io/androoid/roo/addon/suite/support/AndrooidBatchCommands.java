@@ -0,0 +1,101 @@
+package io.androoid.roo.addon.suite.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.springframework.roo.shell.CliCommand;
+import org.springframework.roo.shell.CliOption;
+import org.springframework.roo.shell.CommandMarker;
+import org.springframework.roo.shell.CommandResult;
+import org.springframework.roo.shell.Shell;
+
+/**
+ * Androoid BatchCommands class. This class provides a command to execute a
+ * list of Androoid commands as a single batch, so resource files that are
+ * modified by all of them are only written once.
+ * 
+ * Java sources and ITDs are written while every command runs. If a command
+ * fails, the batch stops and the pending changes of resource files are
+ * discarded, but the sources of the commands executed before are kept.
+ * 
+ * 
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+@Component
+@Service
+public class AndrooidBatchCommands implements CommandMarker {
+
+  /**
+   * Get hold of a JDK Logger
+   */
+  private Logger LOGGER = Logger.getLogger(getClass().getName());
+
+  @Reference
+  private AndrooidBatchOperations batchOperations;
+
+  @Reference
+  private Shell shell;
+
+  /**
+   * This method registers the androoid batch command.
+   * 
+   * @param file
+   *            file with one command per line
+   */
+  @CliCommand(value = "androoid batch",
+      help = "Executes the commands of the provided file writing resource files once. "
+          + "Java sources are written as every command runs.")
+  public void batch(
+      @CliOption(key = "file", mandatory = true,
+          help = "File with the commands to execute. One command per line.") final File file) {
+    Validate.isTrue(file.isFile(), "ERROR: '%s' file not found", file.getAbsolutePath());
+
+    List<String> lines;
+    try {
+      lines = FileUtils.readLines(file);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to read '" + file.getAbsolutePath() + "'", e);
+    }
+
+    batchOperations.begin();
+    int executed = 0;
+    try {
+      for (String line : lines) {
+        String command = line.trim();
+
+        // Skipping empty lines and comments
+        if (StringUtils.isBlank(command) || command.startsWith("//") || command.startsWith("#")) {
+          continue;
+        }
+
+        CommandResult result = shell.executeCommand(command);
+        if (!result.isSuccess()) {
+          throw new IllegalStateException("Batch stopped. Unable to execute '" + command + "'",
+              result.getException());
+        }
+        executed++;
+      }
+    } catch (Throwable e) {
+      // Pending changes of resource files are discarded
+      try {
+        batchOperations.rollback();
+      } catch (RuntimeException rollbackException) {
+        e.addSuppressed(rollbackException);
+      }
+      throw e;
+    }
+
+    // Writing changes of executed commands
+    batchOperations.commit();
+    LOGGER.info(String.format("%s commands executed", executed));
+  }
+}
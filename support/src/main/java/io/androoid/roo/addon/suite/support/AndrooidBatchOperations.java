@@ -0,0 +1,112 @@
+package io.androoid.roo.addon.suite.support;
+
+import org.w3c.dom.Document;
+
+/**
+ * Interface that provides a batch scope to Androoid AddOns. While a batch is
+ * active, operations that are repeated by every command (install dependencies,
+ * write configuration files, ...) are executed only once and XML files are
+ * kept in memory until the batch is committed.
+ * 
+ * Outside of a batch, every method executes its action immediately.
+ * 
+ * Only resource files (XML documents and the files written by deferred
+ * actions) are deferred. Java sources and ITDs are written by Roo while every
+ * command runs, and they are not restored when a batch is discarded.
+ * 
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public interface AndrooidBatchOperations {
+
+  /**
+   * Starts a new batch. Batches could be nested, only the outer one writes
+   * the changes when it is committed.
+   */
+  void begin();
+
+  /**
+   * Finishes current batch. If it is the outer batch, all deferred actions
+   * are executed and all modified XML files are written once.
+   */
+  void commit();
+
+  /**
+   * Discards current batch. Deferred actions are not executed, modified XML
+   * files are not written and rollback actions are executed. If it is a
+   * nested batch, the outer one is discarded too when it finishes.
+   */
+  void rollback();
+
+  /**
+   * Executes the provided action on a new batch. Batch is committed if the
+   * action succeeds. Otherwise, batch is discarded and the exception of the
+   * action is thrown.
+   * 
+   * @param action
+   *            to execute
+   */
+  void run(Runnable action);
+
+  /**
+   * @return true if there is an active batch
+   */
+  boolean isActive();
+
+  /**
+   * Checks if the action identified by the provided key is requested for the
+   * first time on current batch. Outside of a batch, always returns true.
+   * 
+   * @param key
+   *            identifies the action
+   * @return true if the action must be executed
+   */
+  boolean isFirstExecution(String key);
+
+  /**
+   * Executes the provided action when current batch is committed. If the
+   * same key is requested more than once, action is executed only once.
+   * Outside of a batch, action is executed immediately.
+   * 
+   * @param key
+   *            identifies the action
+   * @param action
+   *            to execute
+   */
+  void runOnCommit(String key, Runnable action);
+
+  /**
+   * Executes the provided action if current batch is discarded, so changes
+   * kept in memory until the batch is committed can be discarded too. If the
+   * same key is requested more than once, action is executed only once.
+   * Outside of a batch, action is never executed.
+   * 
+   * @param key
+   *            identifies the action
+   * @param action
+   *            to execute
+   */
+  void runOnRollback(String key, Runnable action);
+
+  /**
+   * Reads the XML file of the provided path. While a batch is active, the
+   * same Document instance is returned until the batch is committed.
+   * 
+   * @param path
+   *            canonical path of the XML file
+   * @return Document with the XML file content
+   */
+  Document readXml(String path);
+
+  /**
+   * Writes the provided Document on the XML file of the provided path. While
+   * a batch is active, the file is written when the batch is committed.
+   * 
+   * @param path
+   *            canonical path of the XML file
+   * @param document
+   *            Document to write
+   */
+  void writeXml(String path, Document document);
+
+}
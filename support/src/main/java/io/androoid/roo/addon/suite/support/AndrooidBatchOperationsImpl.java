@@ -0,0 +1,237 @@
+package io.androoid.roo.addon.suite.support;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.springframework.roo.process.manager.FileManager;
+import org.springframework.roo.process.manager.MutableFile;
+import org.springframework.roo.support.util.XmlUtils;
+import org.w3c.dom.Document;
+
+/**
+ * 
+ * Implementation of {@link AndrooidBatchOperations}
+ * 
+ * @author Juan Carlos García
+ * @since 1.0
+ *
+ */
+@Component
+@Service
+public class AndrooidBatchOperationsImpl implements AndrooidBatchOperations {
+
+  @Reference
+  private FileManager fileManager;
+
+  /**
+   * Number of nested batches
+   */
+  private int depth = 0;
+
+  /**
+   * Indicates that a nested batch has been discarded, so the outer one must
+   * be discarded too
+   */
+  private boolean rollbackOnly = false;
+
+  /**
+   * Keys of the actions executed on current batch
+   */
+  private final Set<String> executedActions = new HashSet<String>();
+
+  /**
+   * Actions to execute on commit, by key
+   */
+  private final Map<String, Runnable> deferredActions = new LinkedHashMap<String, Runnable>();
+
+  /**
+   * Actions to execute on rollback, by key
+   */
+  private final Map<String, Runnable> rollbackActions = new LinkedHashMap<String, Runnable>();
+
+  /**
+   * XML documents read on current batch, by path
+   */
+  private final Map<String, Document> documents = new LinkedHashMap<String, Document>();
+
+  /**
+   * Paths of the XML documents modified on current batch
+   */
+  private final Set<String> modifiedDocuments = new LinkedHashSet<String>();
+
+  /** {@inheritDoc} */
+  public void begin() {
+    depth++;
+  }
+
+  /** {@inheritDoc} */
+  public void commit() {
+    Validate.isTrue(depth > 0, "ERROR: There is not an active batch to commit.");
+    if (depth > 1) {
+      depth--;
+      return;
+    }
+    if (rollbackOnly) {
+      discard();
+      throw new IllegalStateException(
+          "ERROR: Batch can't be committed because a nested batch was discarded.");
+    }
+
+    try {
+      // Deferred actions could defer new actions or modify XML documents
+      while (!deferredActions.isEmpty()) {
+        List<Runnable> actions = new ArrayList<Runnable>(deferredActions.values());
+        deferredActions.clear();
+        for (Runnable action : actions) {
+          action.run();
+        }
+      }
+
+      // Writing every modified XML document once
+      for (String path : modifiedDocuments) {
+        writeXmlFile(path, documents.get(path));
+      }
+    } catch (RuntimeException e) {
+      // Changes that could not be written are discarded
+      discard();
+      throw e;
+    }
+    reset();
+  }
+
+  /** {@inheritDoc} */
+  public void rollback() {
+    Validate.isTrue(depth > 0, "ERROR: There is not an active batch to discard.");
+    if (depth > 1) {
+      depth--;
+      rollbackOnly = true;
+      return;
+    }
+    discard();
+  }
+
+  /** {@inheritDoc} */
+  public void run(Runnable action) {
+    begin();
+    try {
+      action.run();
+    } catch (RuntimeException e) {
+      try {
+        rollback();
+      } catch (RuntimeException rollbackException) {
+        e.addSuppressed(rollbackException);
+      }
+      throw e;
+    }
+    commit();
+  }
+
+  /** {@inheritDoc} */
+  public boolean isActive() {
+    return depth > 0;
+  }
+
+  /** {@inheritDoc} */
+  public boolean isFirstExecution(String key) {
+    return !isActive() || executedActions.add(key);
+  }
+
+  /** {@inheritDoc} */
+  public void runOnCommit(String key, Runnable action) {
+    if (isActive()) {
+      deferredActions.put(key, action);
+    } else {
+      action.run();
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void runOnRollback(String key, Runnable action) {
+    if (isActive()) {
+      rollbackActions.put(key, action);
+    }
+  }
+
+  /** {@inheritDoc} */
+  public Document readXml(String path) {
+    Document document = documents.get(path);
+    if (document == null) {
+      Validate.isTrue(fileManager.exists(path), "'%s' not found", path);
+      InputStream inputStream = null;
+      try {
+        inputStream = fileManager.getInputStream(path);
+        document = XmlUtils.readXml(inputStream);
+      } finally {
+        IOUtils.closeQuietly(inputStream);
+      }
+
+      if (isActive()) {
+        documents.put(path, document);
+      }
+    }
+    return document;
+  }
+
+  /** {@inheritDoc} */
+  public void writeXml(String path, Document document) {
+    if (isActive()) {
+      documents.put(path, document);
+      modifiedDocuments.add(path);
+    } else {
+      writeXmlFile(path, document);
+    }
+  }
+
+  /**
+   * Finishes current batch, discarding its pending actions and documents
+   */
+  private void reset() {
+    depth = 0;
+    rollbackOnly = false;
+    executedActions.clear();
+    deferredActions.clear();
+    rollbackActions.clear();
+    documents.clear();
+    modifiedDocuments.clear();
+  }
+
+  /**
+   * Finishes current batch and executes its rollback actions. Batch is
+   * finished first, so rollback actions are executed outside of it.
+   */
+  private void discard() {
+    List<Runnable> actions = new ArrayList<Runnable>(rollbackActions.values());
+    reset();
+    for (Runnable action : actions) {
+      action.run();
+    }
+  }
+
+  /**
+   * Writes the provided Document on disk using FileManager
+   * 
+   * @param path
+   * @param document
+   */
+  private void writeXmlFile(String path, Document document) {
+    final MutableFile mutableFile;
+    if (fileManager.exists(path)) {
+      mutableFile = fileManager.updateFile(path);
+    } else {
+      mutableFile = fileManager.createFile(path);
+    }
+    XmlUtils.writeXml(mutableFile.getOutputStream(), document);
+  }
+
+}
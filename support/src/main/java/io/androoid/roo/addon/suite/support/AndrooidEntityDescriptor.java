@@ -0,0 +1,267 @@
+package io.androoid.roo.addon.suite.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
+import org.springframework.roo.model.JavaSymbolName;
+import org.springframework.roo.model.JavaType;
+
+/**
+ * Immutable description of an entity annotated with @AndrooidEntity. Contains
+ * the identifier field configured on the annotation and the fields of the
+ * entity, including fields introduced by ITDs.
+ *
+ * Instances are provided by {@link AndrooidEntityDescriptorService}.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public class AndrooidEntityDescriptor {
+
+  private static final JavaType DATABASE_FIELD = new JavaType(
+      "com.j256.ormlite.field.DatabaseField");
+
+  /**
+   * Suffixes of the fields where every GEO field is stored
+   */
+  private static final String[] GEO_COORDINATES = {"Latitude", "Longitude", "Altitude"};
+
+  private final JavaType entity;
+  private final String physicalTypeIdentifier;
+  private final String identifierFieldName;
+  private final JavaType identifierFieldType;
+  private final List<FieldMetadata> fields;
+  private final List<FieldMetadata> databaseFields;
+  private final List<String> geoFieldNames;
+
+  /**
+   * Entity fields and database fields by name, used to find a field without
+   * iterating over entity fields
+   */
+  private final Map<String, FieldMetadata> fieldsByName;
+  private final Map<String, FieldMetadata> databaseFieldsByName;
+
+  /**
+   * Constructor
+   *
+   * @param entity
+   *            JavaType of the entity
+   * @param physicalTypeIdentifier
+   *            physical type identifier of the entity
+   * @param identifierFieldName
+   *            identifier field name declared on @AndrooidEntity
+   * @param identifierFieldType
+   *            identifier field type declared on @AndrooidEntity
+   * @param fields
+   *            all entity fields
+   * @param databaseFields
+   *            entity fields annotated with @DatabaseField
+   * @param geoFieldNames
+   *            GEO fields declared on @AndrooidEntity
+   */
+  public AndrooidEntityDescriptor(JavaType entity, String physicalTypeIdentifier,
+      String identifierFieldName, JavaType identifierFieldType, List<FieldMetadata> fields,
+      List<FieldMetadata> databaseFields, List<String> geoFieldNames) {
+    this.entity = entity;
+    this.physicalTypeIdentifier = physicalTypeIdentifier;
+    this.identifierFieldName = identifierFieldName;
+    this.identifierFieldType = identifierFieldType;
+    this.fields = Collections.unmodifiableList(new ArrayList<FieldMetadata>(fields));
+    this.databaseFields =
+        Collections.unmodifiableList(new ArrayList<FieldMetadata>(databaseFields));
+    this.geoFieldNames = Collections.unmodifiableList(new ArrayList<String>(geoFieldNames));
+    this.fieldsByName = indexByName(fields);
+    this.databaseFieldsByName = indexByName(databaseFields);
+  }
+
+  /**
+   * @return JavaType of the entity
+   */
+  public JavaType getEntity() {
+    return entity;
+  }
+
+  /**
+   * @return physical type identifier of the entity
+   */
+  public String getPhysicalTypeIdentifier() {
+    return physicalTypeIdentifier;
+  }
+
+  /**
+   * @return identifier field name declared on @AndrooidEntity
+   */
+  public String getIdentifierFieldName() {
+    return identifierFieldName;
+  }
+
+  /**
+   * @return identifier field type declared on @AndrooidEntity
+   */
+  public JavaType getIdentifierFieldType() {
+    return identifierFieldType;
+  }
+
+  /**
+   * @return unmodifiable List with all entity fields
+   */
+  public List<FieldMetadata> getFields() {
+    return fields;
+  }
+
+  /**
+   * @return unmodifiable List with entity fields annotated with
+   *         @DatabaseField
+   */
+  public List<FieldMetadata> getDatabaseFields() {
+    return databaseFields;
+  }
+
+  /**
+   * @return unmodifiable List with the names of the GEO fields stored on
+   *         coordinate fields
+   */
+  public List<String> getGeoFieldNames() {
+    return geoFieldNames;
+  }
+
+  /**
+   * Obtains the GEO field stored on the provided coordinate field
+   *
+   * @param field
+   *            field to check
+   * @return name of the GEO field or null if provided field is not a
+   *         coordinate field
+   */
+  public String getGeoFieldName(FieldMetadata field) {
+    String fieldName = field.getFieldName().getSymbolName();
+    for (String geoFieldName : geoFieldNames) {
+      for (String coordinate : GEO_COORDINATES) {
+        if (fieldName.equals(geoFieldName.concat(coordinate))) {
+          return geoFieldName;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Obtains the entity field with the provided name, declared on the entity
+   * or introduced by an ITD
+   *
+   * @param fieldName
+   *            name of the field
+   * @return FieldMetadata or null if not exists
+   */
+  public FieldMetadata getField(String fieldName) {
+    return fieldsByName.get(fieldName);
+  }
+
+  /**
+   * Checks if the entity has a field with the provided name, declared on the
+   * entity or introduced by an ITD
+   * 
+   * @param fieldName
+   *            name of the field to check
+   * @return true if field exists
+   */
+  public boolean hasField(JavaSymbolName fieldName) {
+    return fieldsByName.containsKey(fieldName.getSymbolName());
+  }
+
+  /**
+   * Obtains the database field with the provided name
+   *
+   * @param fieldName
+   *            name of the field
+   * @return FieldMetadata annotated with @DatabaseField or null if not exists
+   */
+  public FieldMetadata getDatabaseField(String fieldName) {
+    return databaseFieldsByName.get(fieldName);
+  }
+
+  /**
+   * Obtains the column name of the provided database field, using the same
+   * rules as ORMLite: columnName attribute if present, field name with "_id"
+   * suffix for foreign fields or field name otherwise.
+   *
+   * @param field
+   *            field annotated with @DatabaseField
+   * @return the column name
+   */
+  public String getColumnName(FieldMetadata field) {
+    AnnotationMetadata dbFieldAnnotation = field.getAnnotation(DATABASE_FIELD);
+    String fieldName = field.getFieldName().getSymbolName();
+    if (dbFieldAnnotation == null) {
+      return fieldName;
+    }
+
+    AnnotationAttributeValue<String> columnNameAttr = dbFieldAnnotation.getAttribute("columnName");
+    if (columnNameAttr != null && !"".equals(columnNameAttr.getValue())) {
+      return columnNameAttr.getValue();
+    }
+
+    if (isForeign(field)) {
+      return fieldName.concat("_id");
+    }
+    return fieldName;
+  }
+
+  /**
+   * Checks if the provided database field is a foreign field. Only the
+   * identifier of the referenced entity is stored on its column.
+   *
+   * @param field
+   *            field annotated with @DatabaseField
+   * @return true if field is foreign
+   */
+  public boolean isForeign(FieldMetadata field) {
+    AnnotationMetadata dbFieldAnnotation = field.getAnnotation(DATABASE_FIELD);
+    return dbFieldAnnotation != null && isBooleanAttributeTrue(dbFieldAnnotation, "foreign");
+  }
+
+  /**
+   * Checks if the provided database field is a foreign field that is not
+   * refreshed automatically by ORMLite. Only the identifier of these
+   * references is loaded with every row.
+   *
+   * @param field
+   *            field annotated with @DatabaseField
+   * @return true if field is foreign and foreignAutoRefresh is not enabled
+   */
+  public boolean isLazyReference(FieldMetadata field) {
+    return isForeign(field)
+        && !isBooleanAttributeTrue(field.getAnnotation(DATABASE_FIELD), "foreignAutoRefresh");
+  }
+
+  /**
+   * Indexes the provided fields by name. If two fields share the same name,
+   * the first one is kept, as it is the one found iterating over the fields.
+   *
+   * @param fields
+   *            fields to index
+   * @return unmodifiable Map with fields by name
+   */
+  private static Map<String, FieldMetadata> indexByName(List<FieldMetadata> fields) {
+    Map<String, FieldMetadata> fieldsByName = new HashMap<String, FieldMetadata>();
+    for (FieldMetadata field : fields) {
+      String fieldName = field.getFieldName().getSymbolName();
+      if (!fieldsByName.containsKey(fieldName)) {
+        fieldsByName.put(fieldName, field);
+      }
+    }
+    return Collections.unmodifiableMap(fieldsByName);
+  }
+
+  private boolean isBooleanAttributeTrue(AnnotationMetadata annotation, String attributeName) {
+    AnnotationAttributeValue<Boolean> attr = annotation.getAttribute(attributeName);
+    return attr != null && attr.getValue();
+  }
+
+}
@@ -0,0 +1,34 @@
+package io.androoid.roo.addon.suite.support;
+
+import org.springframework.roo.model.JavaType;
+
+/**
+ * Interface that provides cached {@link AndrooidEntityDescriptor} instances.
+ * Every entity is scanned only once until its physical type or any of its
+ * ITDs change, so all Androoid AddOns share the same entity information. A
+ * new descriptor instance is provided after every change.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ */
+public interface AndrooidEntityDescriptorService {
+
+  /**
+   * Obtains the descriptor of the provided entity
+   *
+   * @param entity
+   *            JavaType of the entity
+   * @return AndrooidEntityDescriptor or null if provided type doesn't exist
+   *         or is not annotated with @AndrooidEntity
+   */
+  AndrooidEntityDescriptor getDescriptor(JavaType entity);
+
+  /**
+   * Discards the cached descriptor of the provided entity
+   *
+   * @param entity
+   *            JavaType of the entity
+   */
+  void evict(JavaType entity);
+
+}
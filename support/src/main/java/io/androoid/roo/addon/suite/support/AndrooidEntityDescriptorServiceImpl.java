@@ -0,0 +1,208 @@
+package io.androoid.roo.addon.suite.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.osgi.service.component.ComponentContext;
+import org.springframework.roo.classpath.PhysicalTypeIdentifier;
+import org.springframework.roo.classpath.TypeLocationService;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
+import org.springframework.roo.classpath.details.annotations.ArrayAttributeValue;
+import org.springframework.roo.classpath.details.annotations.StringAttributeValue;
+import org.springframework.roo.classpath.scanner.MemberDetailsScanner;
+import org.springframework.roo.metadata.MetadataDependencyRegistry;
+import org.springframework.roo.metadata.MetadataIdentificationUtils;
+import org.springframework.roo.metadata.MetadataNotificationListener;
+import org.springframework.roo.model.JavaType;
+
+/**
+ *
+ * Implementation of {@link AndrooidEntityDescriptorService}. Descriptors are
+ * discarded when Roo notifies a change on the physical type of the entity or
+ * on any ITD of the entity, as ITDs could introduce new entity fields.
+ *
+ * @author Juan Carlos García
+ * @since 1.0
+ *
+ */
+@Component
+@Service
+public class AndrooidEntityDescriptorServiceImpl implements AndrooidEntityDescriptorService,
+    MetadataNotificationListener {
+
+  private static final JavaType ANDROOID_ENTITY = new JavaType(
+      "io.androoid.roo.addon.suite.addon.entities.annotations.AndrooidEntity");
+
+  private static final JavaType DATABASE_FIELD = new JavaType(
+      "com.j256.ormlite.field.DatabaseField");
+
+  /**
+   * Same value as AndrooidEntity.ID_FIELD_DEFAULT
+   */
+  private static final String IDENTIFIER_FIELD_DEFAULT = "id";
+
+  @Reference
+  private MetadataDependencyRegistry metadataDependencyRegistry;
+
+  @Reference
+  private TypeLocationService typeLocationService;
+
+  @Reference
+  private MemberDetailsScanner memberDetailsScanner;
+
+  /**
+   * Cached descriptors by entity
+   */
+  private final Map<JavaType, CachedDescriptor> descriptors =
+      new ConcurrentHashMap<JavaType, CachedDescriptor>();
+
+  protected void activate(final ComponentContext context) {
+    metadataDependencyRegistry.addNotificationListener(this);
+  }
+
+  protected void deactivate(final ComponentContext context) {
+    metadataDependencyRegistry.removeNotificationListener(this);
+    descriptors.clear();
+  }
+
+  /** {@inheritDoc} */
+  public AndrooidEntityDescriptor getDescriptor(JavaType entity) {
+    Validate.notNull(entity, "ERROR: Entity is required to obtain its descriptor.");
+
+    ClassOrInterfaceTypeDetails entityDetails = typeLocationService.getTypeDetails(entity);
+    if (entityDetails == null) {
+      descriptors.remove(entity);
+      return null;
+    }
+
+    // Type details are replaced when the type changes, so a cached descriptor
+    // is never used with an outdated type even if this listener is notified
+    // after the metadata provider that requests it
+    CachedDescriptor cached = descriptors.get(entity);
+    if (cached != null && cached.entityDetails == entityDetails) {
+      return cached.descriptor;
+    }
+
+    AndrooidEntityDescriptor descriptor = createDescriptor(entityDetails);
+    if (descriptor == null) {
+      descriptors.remove(entity);
+    } else {
+      descriptors.put(entity, new CachedDescriptor(entityDetails, descriptor));
+    }
+    return descriptor;
+  }
+
+  /** {@inheritDoc} */
+  public void evict(JavaType entity) {
+    descriptors.remove(entity);
+  }
+
+  /** {@inheritDoc} */
+  public void notify(String upstreamDependency, String downstreamDependency) {
+    if (upstreamDependency == null
+        || !MetadataIdentificationUtils.isIdentifyingInstance(upstreamDependency)) {
+      return;
+    }
+
+    if (PhysicalTypeIdentifier.isValid(upstreamDependency)) {
+      evict(PhysicalTypeIdentifier.getJavaType(upstreamDependency));
+      return;
+    }
+
+    // ITD metadata identifies its governor as <path>?<type>. Changes on
+    // these ITDs, like fields introduced by @AndrooidEntity geoFields, must
+    // regenerate the descriptor although entity type details don't change
+    String instance = MetadataIdentificationUtils.getMetadataInstance(upstreamDependency);
+    int typeIndex = instance.indexOf('?');
+    if (typeIndex < 0) {
+      return;
+    }
+    String typeName = instance.substring(typeIndex + 1);
+    for (JavaType entity : descriptors.keySet()) {
+      if (entity.getFullyQualifiedTypeName().equals(typeName)) {
+        evict(entity);
+      }
+    }
+  }
+
+  /**
+   * Scans the provided entity to generate its descriptor
+   *
+   * @param entityDetails
+   * @return AndrooidEntityDescriptor or null if provided type is not
+   *         annotated with @AndrooidEntity
+   */
+  private AndrooidEntityDescriptor createDescriptor(ClassOrInterfaceTypeDetails entityDetails) {
+    AnnotationMetadata entityAnnotation = entityDetails.getAnnotation(ANDROOID_ENTITY);
+    if (entityAnnotation == null) {
+      return null;
+    }
+
+    // Getting @AndrooidEntity attributes
+    AnnotationAttributeValue<String> identifierFieldNameAttr =
+        entityAnnotation.getAttribute("identifierField");
+    AnnotationAttributeValue<JavaType> identifierFieldTypeAttr =
+        entityAnnotation.getAttribute("identifierType");
+
+    String identifierFieldName = IDENTIFIER_FIELD_DEFAULT;
+    JavaType identifierFieldType = JavaType.LONG_OBJECT;
+
+    if (identifierFieldNameAttr != null) {
+      identifierFieldName = identifierFieldNameAttr.getValue();
+    }
+
+    if (identifierFieldTypeAttr != null) {
+      identifierFieldType = identifierFieldTypeAttr.getValue();
+    }
+
+    List<String> geoFieldNames = new ArrayList<String>();
+    AnnotationAttributeValue<?> geoFieldsAttr = entityAnnotation.getAttribute("geoFields");
+    if (geoFieldsAttr instanceof ArrayAttributeValue) {
+      @SuppressWarnings("unchecked")
+      ArrayAttributeValue<StringAttributeValue> geoFieldsArray =
+          (ArrayAttributeValue<StringAttributeValue>) geoFieldsAttr;
+      for (StringAttributeValue geoField : geoFieldsArray.getValue()) {
+        geoFieldNames.add(geoField.getValue());
+      }
+    }
+
+    // Getting entity fields, including fields introduced by ITDs
+    List<FieldMetadata> fields =
+        memberDetailsScanner.getMemberDetails(getClass().getName(), entityDetails).getFields();
+    List<FieldMetadata> databaseFields = new ArrayList<FieldMetadata>();
+    for (FieldMetadata field : fields) {
+      if (field.getAnnotation(DATABASE_FIELD) != null) {
+        databaseFields.add(field);
+      }
+    }
+
+    return new AndrooidEntityDescriptor(entityDetails.getName(),
+        entityDetails.getDeclaredByMetadataId(), identifierFieldName, identifierFieldType, fields,
+        databaseFields, geoFieldNames);
+  }
+
+  /**
+   * Descriptor and the type details used to generate it
+   */
+  private static class CachedDescriptor {
+
+    private final ClassOrInterfaceTypeDetails entityDetails;
+    private final AndrooidEntityDescriptor descriptor;
+
+    private CachedDescriptor(ClassOrInterfaceTypeDetails entityDetails,
+        AndrooidEntityDescriptor descriptor) {
+      this.entityDetails = entityDetails;
+      this.descriptor = descriptor;
+    }
+  }
+
+}
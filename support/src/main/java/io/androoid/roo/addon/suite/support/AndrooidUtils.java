@@ -1,5 +1,6 @@
 package io.androoid.roo.addon.suite.support;
 
+import java.net.URL;
 import java.util.Map;
 
 import org.osgi.service.component.ComponentContext;
@@ -22,7 +23,8 @@ public interface AndrooidUtils {
    * Updates files in source path into target directory path. <strong>Useful
    * for copy/update binary resources (images) from Addon bundle resources to
    * destination directory</strong>. For text resources (tagx, jspx, ...) use
-   * <code>AbstractOperations.copyDirectoryContents(..)</code> instead
+   * <code>AbstractOperations.copyDirectoryContents(..)</code> instead. Files
+   * that already have the same content are not written again.
    * 
    * @param sourceAntPath
    *            the source path
@@ -38,6 +40,33 @@ public interface AndrooidUtils {
   public void updateDirectoryContents(String sourceAntPath, String targetDirectory,
       FileManager fileManager, ComponentContext context, Class<?> clazz);
 
+  /**
+   * Finds all resources included on the provided folders using a single
+   * bundle scan. Useful to build an index of installable resources once.
+   * 
+   * @param context
+   * @param clazz
+   *            which owns the resources
+   * @param folders
+   *            folders to include, relative to the package of clazz
+   * @return resources by path relative to the package of clazz
+   */
+  public Map<String, URL> findResources(ComponentContext context, Class<?> clazz,
+      String... folders);
+
+  /**
+   * Installs the provided resources into target directory path. Files that
+   * already have the same content are not written again.
+   * 
+   * @param resources
+   *            resources by path relative to target directory
+   * @param targetDirectory
+   *            the target directory
+   * @param fileManager
+   */
+  public void installResources(Map<String, URL> resources, String targetDirectory,
+      FileManager fileManager);
+
   /**
    * Insert a new element of type {@code nodeName} into {@code parent} with
    * attributes declared in {@code attributes}.
@@ -1,12 +1,18 @@
 package io.androoid.roo.addon.suite.support;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -37,11 +43,14 @@ import org.w3c.dom.Node;
 @Service
 public class AndrooidUtilsImpl implements AndrooidUtils {
 
+  private static final int BUFFER_SIZE = 8192;
+
   /**
    * Updates files in source path into target directory path. <strong>Useful
    * for copy/update binary resources (images) from Addon bundle resources to
    * destination directory</strong>. For text resources (tagx, jspx, ...) use
-   * <code>AbstractOperations.copyDirectoryContents(..)</code> instead
+   * <code>AbstractOperations.copyDirectoryContents(..)</code> instead. Files
+   * that already have the same content are not written again.
    * 
    * @param sourceAntPath
    *            the source path
@@ -70,32 +79,186 @@ public class AndrooidUtilsImpl implements AndrooidUtils {
     String path = FileUtils.getPath(clazz, sourceAntPath);
     Collection<URL> urls = OSGiUtils.findEntriesByPattern(context.getBundleContext(), path);
     Validate.notNull(urls, "Could not search bundles for resources for Ant Path '" + path + "'");
+
+    // Same buffer is used to read all resources
+    byte[] buffer = new byte[BUFFER_SIZE];
     for (URL url : urls) {
       String fileName = url.getPath().substring(url.getPath().lastIndexOf("/") + 1);
+      installResource(url, targetDirectory + fileName, fileManager, buffer);
+    }
+  }
+
+  /**
+   * Finds all resources included on the provided folders using a single
+   * bundle scan.
+   * 
+   * @param context
+   * @param clazz
+   *            which owns the resources
+   * @param folders
+   *            folders to include, relative to the package of clazz
+   * @return resources by path relative to the package of clazz
+   */
+  public Map<String, URL> findResources(ComponentContext context, Class<?> clazz,
+      String... folders) {
+    String basePath = FileUtils.getPath(clazz, "");
+    Collection<URL> urls =
+        OSGiUtils.findEntriesByPattern(context.getBundleContext(), basePath.concat("*/*"));
+    Validate.notNull(urls, "Could not search bundles for resources for Ant Path '" + basePath
+        + "'");
+
+    List<String> includedFolders = Arrays.asList(folders);
+    Map<String, URL> resources = new TreeMap<String, URL>();
+    for (URL url : urls) {
+      String urlPath = url.getPath();
+      int baseIndex = urlPath.indexOf(basePath);
+      if (baseIndex == -1 || urlPath.endsWith("/")) {
+        continue;
+      }
+
+      String resourcePath = urlPath.substring(baseIndex + basePath.length());
+      String folder = StringUtils.substringBefore(resourcePath, "/");
+      if (includedFolders.contains(folder)) {
+        resources.put(resourcePath, url);
+      }
+    }
+
+    return resources;
+  }
+
+  /**
+   * Installs the provided resources into target directory path. Files that
+   * already have the same content are not written again.
+   * 
+   * @param resources
+   *            resources by path relative to target directory
+   * @param targetDirectory
+   *            the target directory
+   * @param fileManager
+   */
+  public void installResources(Map<String, URL> resources, String targetDirectory,
+      FileManager fileManager) {
+    Validate.notBlank(targetDirectory, "ERROR: Target directory is required to install resources.");
+
+    if (!targetDirectory.endsWith("/")) {
+      targetDirectory += "/";
+    }
+
+    // Same buffer is used to read all resources
+    byte[] buffer = new byte[BUFFER_SIZE];
+    for (Entry<String, URL> resource : resources.entrySet()) {
+      String targetFile = targetDirectory + resource.getKey();
+      String parentDirectory = targetFile.substring(0, targetFile.lastIndexOf("/"));
+      if (!fileManager.exists(parentDirectory)) {
+        fileManager.createDirectory(parentDirectory);
+      }
+      installResource(resource.getValue(), targetFile, fileManager, buffer);
+    }
+  }
+
+  /**
+   * Copies the provided resource into target file if its content changes
+   * 
+   * @param url
+   *            of the resource
+   * @param targetFile
+   *            canonical path of the target file
+   * @param fileManager
+   * @param buffer
+   *            used to read the resource
+   */
+  private void installResource(URL url, String targetFile, FileManager fileManager,
+      byte[] buffer) {
+    try {
+      byte[] content = readContent(url, buffer);
+      boolean exists = fileManager.exists(targetFile);
+
+      // Unchanged files are not written again
+      if (exists && isSameContent(new File(targetFile), content, buffer)) {
+        return;
+      }
+
+      OutputStream outputStream = null;
       try {
-        if (!fileManager.exists(targetDirectory + fileName)) {
-
-          OutputStream outputStream = null;
-          try {
-            outputStream = fileManager.createFile(targetDirectory + fileName).getOutputStream();
-            IOUtils.copy(url.openStream(), outputStream);
-          } finally {
-            IOUtils.closeQuietly(outputStream);
-          }
+        if (!exists) {
+          outputStream = fileManager.createFile(targetFile).getOutputStream();
         } else {
+          outputStream = fileManager.updateFile(targetFile).getOutputStream();
+        }
+        outputStream.write(content);
+      } finally {
+        IOUtils.closeQuietly(outputStream);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(
+          "Encountered an error during updating of resources for the add-on.", e);
+    }
+  }
+
+  /**
+   * Reads the content of the provided resource
+   * 
+   * @param url
+   *            of the resource
+   * @param buffer
+   *            used to read the resource
+   * @return content of the resource
+   * @throws IOException
+   */
+  private byte[] readContent(URL url, byte[] buffer) throws IOException {
+    InputStream inputStream = null;
+    try {
+      inputStream = url.openStream();
+      ByteArrayOutputStream content = new ByteArrayOutputStream(buffer.length);
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        content.write(buffer, 0, read);
+      }
+      return content.toByteArray();
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+  }
 
-          OutputStream outputStream = null;
-          try {
-            outputStream = fileManager.updateFile(targetDirectory + fileName).getOutputStream();
-            IOUtils.copy(url.openStream(), outputStream);
-          } finally {
-            IOUtils.closeQuietly(outputStream);
+  /**
+   * Checks if the provided file has the provided content. Sizes are compared
+   * first, so file is only read if both have the same size.
+   * 
+   * @param file
+   *            to check
+   * @param content
+   *            expected content
+   * @param buffer
+   *            used to read the file
+   * @return true if file has the same bytes than the provided content
+   * @throws IOException
+   */
+  private boolean isSameContent(File file, byte[] content, byte[] buffer) throws IOException {
+    if (!file.isFile() || file.length() != content.length) {
+      return false;
+    }
+
+    // Comparing every chunk of the file with the loaded content. Reading
+    // stops on the first difference
+    InputStream inputStream = null;
+    try {
+      inputStream = new FileInputStream(file);
+      int offset = 0;
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        if (offset + read > content.length) {
+          return false;
+        }
+        for (int i = 0; i < read; i++) {
+          if (buffer[i] != content[offset + i]) {
+            return false;
           }
         }
-      } catch (IOException e) {
-        throw new IllegalStateException(
-            "Encountered an error during updating of resources for the add-on.", e);
+        offset += read;
       }
+      return offset == content.length;
+    } finally {
+      IOUtils.closeQuietly(inputStream);
     }
   }
 